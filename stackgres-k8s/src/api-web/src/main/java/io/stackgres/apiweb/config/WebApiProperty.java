@@ -15,7 +15,10 @@ public enum WebApiProperty implements StackGresPropertyReader {
   RESTAPI_NAMESPACE("stackgres.restapiNamespace"),
   GRAFANA_EMBEDDED("stackgres.prometheus.grafanaEmbedded"),
   EXTENSIONS_REPOSITORY_URLS(
-      "stackgres.extensionsRepositoryUrls");
+      "stackgres.extensionsRepositoryUrls"),
+  EXTENSIONS_METADATA_SNAPSHOT_PATH(
+      "stackgres.extensionsMetadataSnapshotPath"),
+  EVENTS_INDEX_ENABLED("stackgres.eventsIndexEnabled");
 
   private static final Properties APPLICATION_PROPERTIES =
       Unchecked.supplier(() -> StackGresPropertyReader
@@ -5,12 +5,45 @@
 
 package io.stackgres.apiweb.distributedlogs;
 
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 import io.stackgres.apiweb.dto.cluster.ClusterLogEntryDto;
+import org.jooq.lambda.tuple.Tuple;
 
 public interface DistributedLogsFetcher {
 
+  int STREAM_PAGE_SIZE = 500;
+
   List<ClusterLogEntryDto> logs(DistributedLogsQueryParameters parameters);
 
+  /**
+   * Pass the entries to the consumer one page of at most {@code STREAM_PAGE_SIZE} records at a
+   * time. Each page is a separate query that starts after the last entry of the previous page,
+   * so no connection or transaction is held while the consumer runs.
+   */
+  default void streamLogs(DistributedLogsQueryParameters parameters,
+      Consumer<ClusterLogEntryDto> consumer) {
+    DistributedLogsQueryParameters pageParameters = parameters;
+    int remaining = parameters.getRecords();
+    while (remaining > 0) {
+      final int pageRecords = Math.min(remaining, STREAM_PAGE_SIZE);
+      final List<ClusterLogEntryDto> page = logs(ImmutableDistributedLogsQueryParameters
+          .copyOf(pageParameters)
+          .withRecords(pageRecords));
+      page.forEach(consumer);
+      if (page.size() < pageRecords) {
+        return;
+      }
+      remaining -= page.size();
+      final ClusterLogEntryDto last = page.get(page.size() - 1);
+      pageParameters = ImmutableDistributedLogsQueryParameters
+          .copyOf(pageParameters)
+          .withFromTimeAndIndex(Tuple.tuple(
+              OffsetDateTime.parse(last.getLogTime()).toInstant(), last.getLogTimeIndex()))
+          .withIsFromInclusive(false);
+    }
+  }
+
 }
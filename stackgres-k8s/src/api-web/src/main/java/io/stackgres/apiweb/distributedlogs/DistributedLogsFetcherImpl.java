@@ -7,6 +7,7 @@ package io.stackgres.apiweb.distributedlogs;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.List;
 import java.util.Objects;
@@ -16,6 +17,8 @@ import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 import javax.ws.rs.NotFoundException;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import io.fabric8.kubernetes.api.model.Secret;
 import io.stackgres.apiweb.dto.cluster.ClusterDistributedLogs;
@@ -26,12 +29,14 @@ import io.stackgres.common.CdiUtil;
 import io.stackgres.common.FluentdUtil;
 import io.stackgres.common.PatroniUtil;
 import io.stackgres.common.StackGresUtil;
+import io.stackgres.common.distributedlogs.PostgresConnectionPool;
 import io.stackgres.common.resource.ResourceFinder;
 import io.stackgres.common.resource.ResourceUtil;
 import org.jooq.DSLContext;
+import org.jooq.Field;
 import org.jooq.Record;
-import org.jooq.Select;
-import org.jooq.conf.ParamType;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
 import org.jooq.impl.DSL;
 import org.jooq.lambda.Seq;
 import org.slf4j.Logger;
@@ -42,74 +47,130 @@ public class DistributedLogsFetcherImpl implements DistributedLogsFetcher {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(DistributedLogsFetcherImpl.class);
 
+  private static final DSLContext CONTEXT = DSL.using(SQLDialect.POSTGRES);
+
+  private static final Field<?>[] LOG_FIELDS = DistributedLogsQueryGenerator.LOG_FIELDS
+      .toArray(Field<?>[]::new);
+
   private final ResourceFinder<Secret> secretFinder;
-  private final PostgresConnectionManager postgresConnectionManager;
+  private final PostgresConnectionPool postgresConnectionPool;
+
+  private final Cache<List<Object>, DistributedLogsQueryTemplate> queryTemplates =
+      CacheBuilder.newBuilder()
+      .maximumSize(256)
+      .build();
 
   @Inject
   public DistributedLogsFetcherImpl(ResourceFinder<Secret> secretFinder,
-      PostgresConnectionManager postgresConnectionManager) {
+      PostgresConnectionPool postgresConnectionPool) {
     super();
     this.secretFinder = secretFinder;
-    this.postgresConnectionManager = postgresConnectionManager;
+    this.postgresConnectionPool = postgresConnectionPool;
   }
 
   public DistributedLogsFetcherImpl() {
     CdiUtil.checkPublicNoArgsConstructorIsCalledToCreateProxy();
     this.secretFinder = null;
-    this.postgresConnectionManager = null;
+    this.postgresConnectionPool = null;
   }
 
   @Override
   public List<ClusterLogEntryDto> logs(DistributedLogsQueryParameters parameters) {
-    try (Connection connection = getConnection(parameters.getCluster());
-        DSLContext context = DSL.using(connection)) {
-      connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
-      connection.setReadOnly(true);
-      connection.setAutoCommit(true);
-      try (PreparedStatement statement = connection.prepareStatement("SET TIME ZONE 'UTC'")) {
-        statement.execute();
-      }
-      Select<Record> query = new DistributedLogsQueryGenerator(context, parameters)
-          .generateQuery();
-      if (LOGGER.isTraceEnabled()) {
-        LOGGER.trace("Query for cluster logs {}.{} with params"
-            + " (records: {}, from: {}, to: {}, filters: {}, asc: {}, text: {}): {}",
-            parameters.getCluster().getMetadata().getNamespace(),
-            parameters.getCluster().getMetadata().getName(),
-            parameters.getRecords(), parameters.getFromTimeAndIndex(),
-            parameters.getToTimeAndIndex(),
-            parameters.getFilters(),
-            parameters.isSortAsc(),
-            parameters.getFullTextSearchQuery(),
-            query.getSQL(ParamType.INLINED));
-        LOGGER.trace("Explain query for cluster logs {}.{} with params"
-            + " (records: {}, from: {}, to: {}, filters: {}, asc: {}, text: {}): {}",
-            parameters.getCluster().getMetadata().getNamespace(),
-            parameters.getCluster().getMetadata().getName(),
-            parameters.getRecords(),
-            parameters.getFromTimeAndIndex(),
-            parameters.getToTimeAndIndex(),
-            parameters.getFilters(),
-            parameters.isSortAsc(),
-            parameters.getFullTextSearchQuery(),
-            context.explain(query).toString().replace("\n", "\t"));
-      }
-      return Seq.seq(query.fetch())
-          .map(record -> record.into(MappedClusterLogEntryDto.class))
-          .collect(ImmutableList.toImmutableList());
+    final DistributedLogsQueryTemplate template = getQueryTemplate(parameters);
+    final List<Object> bindValues = template.getBindValues(parameters);
+    try {
+      return withConnection(parameters.getCluster(), connection -> {
+        if (LOGGER.isTraceEnabled()) {
+          LOGGER.trace("Query for cluster logs {}.{} with params"
+              + " (records: {}, from: {}, to: {}, filters: {}, asc: {}, text: {}): {} {}",
+              parameters.getCluster().getMetadata().getNamespace(),
+              parameters.getCluster().getMetadata().getName(),
+              parameters.getRecords(), parameters.getFromTimeAndIndex(),
+              parameters.getToTimeAndIndex(),
+              parameters.getFilters(),
+              parameters.isSortAsc(),
+              parameters.getFullTextSearchQuery(),
+              template.getSql(),
+              bindValues);
+          LOGGER.trace("Explain query for cluster logs {}.{} with params"
+              + " (records: {}, from: {}, to: {}, filters: {}, asc: {}, text: {}): {}",
+              parameters.getCluster().getMetadata().getNamespace(),
+              parameters.getCluster().getMetadata().getName(),
+              parameters.getRecords(),
+              parameters.getFromTimeAndIndex(),
+              parameters.getToTimeAndIndex(),
+              parameters.getFilters(),
+              parameters.isSortAsc(),
+              parameters.getFullTextSearchQuery(),
+              Seq.seq(executeQuery(connection, "EXPLAIN " + template.getSql(), bindValues))
+              .map(record -> record.get(0, String.class))
+              .toString("\t"));
+        }
+        return Seq.seq(executeQuery(connection, template.getSql(), bindValues, LOG_FIELDS))
+            .map(record -> record.into(MappedClusterLogEntryDto.class))
+            .collect(ImmutableList.toImmutableList());
+      });
     } catch (SQLException ex) {
-      final String databaseName = FluentdUtil.databaseName(
-          parameters.getCluster().getMetadata().getNamespace(),
-          parameters.getCluster().getMetadata().getName());
-      if (Objects.equals(ex.getMessage(),
-          "FATAL: database \"" + databaseName + "\" does not exist")) {
+      if (isDatabaseNotFound(parameters, ex)) {
         return ImmutableList.of();
       }
       throw new RuntimeException(ex);
     }
   }
 
-  private Connection getConnection(ClusterDto cluster) throws SQLException {
+  private DistributedLogsQueryTemplate getQueryTemplate(
+      DistributedLogsQueryParameters parameters) {
+    return queryTemplates.asMap().computeIfAbsent(
+        DistributedLogsQueryGenerator.getShape(parameters),
+        shape -> DistributedLogsQueryTemplate.create(parameters));
+  }
+
+  private boolean isDatabaseNotFound(DistributedLogsQueryParameters parameters,
+      SQLException ex) {
+    final String databaseName = FluentdUtil.databaseName(
+        parameters.getCluster().getMetadata().getNamespace(),
+        parameters.getCluster().getMetadata().getName());
+    return Objects.equals(ex.getMessage(),
+        "FATAL: database \"" + databaseName + "\" does not exist");
+  }
+
+  private Result<Record> executeQuery(Connection connection, String sql, List<Object> bindValues,
+      Field<?>... fields) throws SQLException {
+    try (PreparedStatement statement = prepareStatement(connection, sql, bindValues);
+        ResultSet resultSet = statement.executeQuery()) {
+      return fields.length > 0 ? CONTEXT.fetch(resultSet, fields) : CONTEXT.fetch(resultSet);
+    }
+  }
+
+  private PreparedStatement prepareStatement(Connection connection, String sql,
+      List<Object> bindValues) throws SQLException {
+    final PreparedStatement statement = connection.prepareStatement(sql);
+    try {
+      int index = 1;
+      for (Object bindValue : bindValues) {
+        statement.setObject(index++, bindValue);
+      }
+      return statement;
+    } catch (SQLException | RuntimeException ex) {
+      statement.close();
+      throw ex;
+    }
+  }
+
+  /**
+   * Session settings are applied only once, when the pooled connection is opened.
+   */
+  private void initializeConnection(Connection connection) throws SQLException {
+    connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+    connection.setReadOnly(true);
+    connection.setAutoCommit(true);
+    try (PreparedStatement statement = connection.prepareStatement("SET TIME ZONE 'UTC'")) {
+      statement.execute();
+    }
+  }
+
+  private <T> T withConnection(ClusterDto cluster,
+      PostgresConnectionPool.ConnectionFunction<T> function) throws SQLException {
     final String distributedLogs = Optional.ofNullable(cluster.getSpec())
         .map(ClusterSpec::getDistributedLogs)
         .map(ClusterDistributedLogs::getDistributedLogs)
@@ -119,15 +180,21 @@ public class DistributedLogsFetcherImpl implements DistributedLogsFetcher {
         distributedLogs, cluster.getMetadata().getNamespace());
     String name = StackGresUtil.getNameFromRelativeId(distributedLogs);
     String serviceName = PatroniUtil.name(name);
-    Secret secret = secretFinder.findByNameAndNamespace(name, namespace)
-        .orElseThrow(() -> new NotFoundException(
-            "Secret with username and password for user postgres can not be found."));
-    return postgresConnectionManager.getConnection(
+    return postgresConnectionPool.withConnection(
         serviceName + "." + namespace,
         "postgres",
-        ResourceUtil.decodeSecret(secret.getData().get("superuser-password")),
+        () -> findSuperuserPassword(name, namespace),
         FluentdUtil.databaseName(
             cluster.getMetadata().getNamespace(),
-            cluster.getMetadata().getName()));
+            cluster.getMetadata().getName()),
+        this::initializeConnection,
+        function);
+  }
+
+  private String findSuperuserPassword(String name, String namespace) {
+    Secret secret = secretFinder.findByNameAndNamespace(name, namespace)
+        .orElseThrow(() -> new NotFoundException(
+            "Secret with username and password for user postgres can not be found."));
+    return ResourceUtil.decodeSecret(secret.getData().get("superuser-password"));
   }
 }
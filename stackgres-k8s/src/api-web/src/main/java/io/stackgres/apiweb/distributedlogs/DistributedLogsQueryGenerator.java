@@ -5,11 +5,13 @@
 
 package io.stackgres.apiweb.distributedlogs;
 
-import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
@@ -20,11 +22,13 @@ import io.stackgres.common.distributedlogs.PostgresTableFields;
 import io.stackgres.common.distributedlogs.Tables;
 import org.jooq.Condition;
 import org.jooq.DSLContext;
+import org.jooq.DataType;
 import org.jooq.Field;
 import org.jooq.Name;
 import org.jooq.OrderField;
 import org.jooq.Param;
 import org.jooq.Record;
+import org.jooq.Row2;
 import org.jooq.Select;
 import org.jooq.SelectConditionStep;
 import org.jooq.impl.DSL;
@@ -90,8 +94,8 @@ public class DistributedLogsQueryGenerator {
       LOG_TYPE, SQLDataType.VARCHAR);
   public static final Field<OffsetDateTime> LOG_TIME_FIELD = DSL.field(
       LOG_TIME, SQLDataType.TIMESTAMPWITHTIMEZONE);
-  public static final Field<Integer> LOG_TIME_INDEX_FIELD = DSL.field(
-      LOG_TIME_INDEX, SQLDataType.INTEGER);
+  public static final Field<Long> LOG_TIME_INDEX_FIELD = DSL.field(
+      LOG_TIME_INDEX, SQLDataType.BIGINT);
   public static final Field<String> MESSAGE_FIELD = DSL.field(
       MESSAGE, SQLDataType.VARCHAR);
   public static final Field<String> POD_NAME_FIELD = DSL.field(POD_NAME, SQLDataType.VARCHAR);
@@ -197,14 +201,24 @@ public class DistributedLogsQueryGenerator {
       .map(field -> field == MAPPED_ROLE_FIELD ? ROLE_FIELD : field)
       .collect(ImmutableList.toImmutableList());
 
+  public static final String RECORDS_PARAM = "records";
+  public static final String FROM_TIME_PARAM = "from_time";
+  public static final String FROM_INDEX_PARAM = "from_index";
+  public static final String TO_TIME_PARAM = "to_time";
+  public static final String TO_INDEX_PARAM = "to_index";
+  public static final String FILTER_PARAM_PREFIX = "filter_";
+  public static final String FULL_TEXT_SEARCH_QUERY_PARAM = "full_text_search_query";
+
   private final DSLContext context;
   private final DistributedLogsQueryParameters parameters;
+  private final Map<String, Object> paramValues;
 
   public DistributedLogsQueryGenerator(
       DSLContext context,
       DistributedLogsQueryParameters parameters) {
     this.context = context;
     this.parameters = parameters;
+    this.paramValues = getParamValues(parameters);
   }
 
   public Select<Record> generateQuery() {
@@ -255,116 +269,108 @@ public class DistributedLogsQueryGenerator {
             .findAny()
             .orElse(DSL.trueCondition()));
     if (parameters.getFromTimeAndIndex().isPresent()) {
-      Tuple2<Instant, Integer> from = parameters.getFromTimeAndIndex().get();
+      final Row2<OffsetDateTime, Long> from = DSL.row(
+          param(FROM_TIME_PARAM, LOG_TIME_FIELD.getDataType()),
+          param(FROM_INDEX_PARAM, LOG_TIME_INDEX_FIELD.getDataType()));
       if (parameters.isFromInclusive()) {
         if (parameters.isSortAsc()) {
           selectFromLogPatroni = selectFromLogPatroni
-              .and(DSL.row(LOG_TIME_FIELD, LOG_TIME_INDEX_FIELD).greaterOrEqual(
-                  DSL.row(OffsetDateTime.ofInstant(from.v1, ZoneOffset.UTC), from.v2)));
+              .and(DSL.row(LOG_TIME_FIELD, LOG_TIME_INDEX_FIELD).greaterOrEqual(from));
           selectFromLogPostgres = selectFromLogPostgres
-              .and(DSL.row(LOG_TIME_FIELD, LOG_TIME_INDEX_FIELD).greaterOrEqual(
-                  DSL.row(OffsetDateTime.ofInstant(from.v1, ZoneOffset.UTC), from.v2)));
+              .and(DSL.row(LOG_TIME_FIELD, LOG_TIME_INDEX_FIELD).greaterOrEqual(from));
         } else {
           selectFromLogPatroni = selectFromLogPatroni
-              .and(DSL.row(LOG_TIME_FIELD, LOG_TIME_INDEX_FIELD).lessOrEqual(
-                  DSL.row(OffsetDateTime.ofInstant(from.v1, ZoneOffset.UTC), from.v2)));
+              .and(DSL.row(LOG_TIME_FIELD, LOG_TIME_INDEX_FIELD).lessOrEqual(from));
           selectFromLogPostgres = selectFromLogPostgres
-              .and(DSL.row(LOG_TIME_FIELD, LOG_TIME_INDEX_FIELD).lessOrEqual(
-                  DSL.row(OffsetDateTime.ofInstant(from.v1, ZoneOffset.UTC), from.v2)));
+              .and(DSL.row(LOG_TIME_FIELD, LOG_TIME_INDEX_FIELD).lessOrEqual(from));
         }
       } else {
         if (parameters.isSortAsc()) {
           selectFromLogPatroni = selectFromLogPatroni
-              .and(DSL.row(LOG_TIME_FIELD, LOG_TIME_INDEX_FIELD).greaterThan(
-                  DSL.row(OffsetDateTime.ofInstant(from.v1, ZoneOffset.UTC), from.v2)));
+              .and(DSL.row(LOG_TIME_FIELD, LOG_TIME_INDEX_FIELD).greaterThan(from));
           selectFromLogPostgres = selectFromLogPostgres
-              .and(DSL.row(LOG_TIME_FIELD, LOG_TIME_INDEX_FIELD).greaterThan(
-                  DSL.row(OffsetDateTime.ofInstant(from.v1, ZoneOffset.UTC), from.v2)));
+              .and(DSL.row(LOG_TIME_FIELD, LOG_TIME_INDEX_FIELD).greaterThan(from));
         } else {
           selectFromLogPatroni = selectFromLogPatroni
-              .and(DSL.row(LOG_TIME_FIELD, LOG_TIME_INDEX_FIELD).lessThan(
-                  DSL.row(OffsetDateTime.ofInstant(from.v1, ZoneOffset.UTC), from.v2)));
+              .and(DSL.row(LOG_TIME_FIELD, LOG_TIME_INDEX_FIELD).lessThan(from));
           selectFromLogPostgres = selectFromLogPostgres
-              .and(DSL.row(LOG_TIME_FIELD, LOG_TIME_INDEX_FIELD).lessThan(
-                  DSL.row(OffsetDateTime.ofInstant(from.v1, ZoneOffset.UTC), from.v2)));
+              .and(DSL.row(LOG_TIME_FIELD, LOG_TIME_INDEX_FIELD).lessThan(from));
         }
       }
     }
     if (parameters.getToTimeAndIndex().isPresent()) {
-      Tuple2<Instant, Integer> to = parameters.getToTimeAndIndex().get();
+      final Row2<OffsetDateTime, Long> to = DSL.row(
+          param(TO_TIME_PARAM, LOG_TIME_FIELD.getDataType()),
+          param(TO_INDEX_PARAM, LOG_TIME_INDEX_FIELD.getDataType()));
       if (parameters.isSortAsc()) {
         selectFromLogPatroni = selectFromLogPatroni
-            .and(DSL.row(LOG_TIME_FIELD, LOG_TIME_INDEX_FIELD).lessOrEqual(
-                DSL.row(OffsetDateTime.ofInstant(to.v1, ZoneOffset.UTC), to.v2)));
+            .and(DSL.row(LOG_TIME_FIELD, LOG_TIME_INDEX_FIELD).lessOrEqual(to));
         selectFromLogPostgres = selectFromLogPostgres
-            .and(DSL.row(LOG_TIME_FIELD, LOG_TIME_INDEX_FIELD).lessOrEqual(
-                DSL.row(
-                    OffsetDateTime.ofInstant(to.v1, ZoneOffset.UTC), to.v2)));
+            .and(DSL.row(LOG_TIME_FIELD, LOG_TIME_INDEX_FIELD).lessOrEqual(to));
       } else {
         selectFromLogPatroni = selectFromLogPatroni
-            .and(DSL.row(LOG_TIME_FIELD, LOG_TIME_INDEX_FIELD).greaterOrEqual(
-                DSL.row(
-                    OffsetDateTime.ofInstant(to.v1, ZoneOffset.UTC), to.v2)));
+            .and(DSL.row(LOG_TIME_FIELD, LOG_TIME_INDEX_FIELD).greaterOrEqual(to));
         selectFromLogPostgres = selectFromLogPostgres
-            .and(DSL.row(LOG_TIME_FIELD, LOG_TIME_INDEX_FIELD).greaterOrEqual(
-                DSL.row(
-                    OffsetDateTime.ofInstant(to.v1, ZoneOffset.UTC), to.v2)));
+            .and(DSL.row(LOG_TIME_FIELD, LOG_TIME_INDEX_FIELD).greaterOrEqual(to));
       }
     }
-    for (Tuple2<String, ImmutableList<String>> filter : Seq.seq(parameters.getFilters())
+    for (Tuple2<Tuple2<String, ImmutableList<String>>, Long> filter
+        : Seq.seq(parameters.getFilters())
         .map(filter -> Tuple.tuple(FILTER_CONVERSION_MAP.get(filter.v1), filter.v2))
+        .zipWithIndex()
         .toList()) {
       selectFromLogPatroni = applyFilterForFields(
-          selectFromLogPatroni, filter, PATRONI_FIELDS);
+          selectFromLogPatroni, filter.v1, filter.v2.intValue(), PATRONI_FIELDS);
       selectFromLogPostgres = applyFilterForFields(
-          selectFromLogPostgres, filter, POSTGRES_FIELDS);
+          selectFromLogPostgres, filter.v1, filter.v2.intValue(), POSTGRES_FIELDS);
     }
     if (parameters.getFullTextSearchQuery()
         .flatMap(FullTextSearchQuery::getFullTextSearchQuery).isPresent()) {
-      String fullTextSearchQuery = parameters.getFullTextSearchQuery()
-          .get().getFullTextSearchQuery().get();
+      final Param<String> fullTextSearchQuery = param(FULL_TEXT_SEARCH_QUERY_PARAM,
+          SQLDataType.VARCHAR);
       selectFromLogPatroni = selectFromLogPatroni
           .and(DSL.condition("{0} @@ {1}::tsquery",
               DSL.function(LOG_PATRONI_TSVECTOR_FUNCTION,
                   SQLDataType.OTHER, DSL.field(LOG_PATRONI_TABLE)),
-              DSL.value(fullTextSearchQuery)));
+              fullTextSearchQuery));
       selectFromLogPostgres = selectFromLogPostgres
           .and(DSL.condition("{0} @@ {1}::tsquery",
               DSL.function(LOG_POSTGRES_TSVECTOR_FUNCTION,
                   SQLDataType.OTHER, DSL.field(LOG_POSTGRES_TABLE)),
-              DSL.value(fullTextSearchQuery)));
+              fullTextSearchQuery));
     }
+    final Param<Integer> records = param(RECORDS_PARAM, SQLDataType.INTEGER);
     Select<Record> query = context
         .with(DSL.name(LOG_PATRONI_WINDOW)
             .fields(selectedFieldsArray)
-            .as(selectFromLogPatroni.orderBy(orderFields).limit(parameters.getRecords())))
+            .as(selectFromLogPatroni.orderBy(orderFields).limit(records)))
         .with(DSL.name(LOG_POSTGRES_WINDOW)
             .fields(selectedFieldsArray)
-            .as(selectFromLogPostgres.orderBy(orderFields).limit(parameters.getRecords())))
+            .as(selectFromLogPostgres.orderBy(orderFields).limit(records)))
         .select(Seq.seq(selectedFields).map(DSL::field).toList())
         .from(LOG_PATRONI_WINDOW)
         .union(DSL.select(Seq.seq(selectedFields).map(DSL::field).toList())
             .from(LOG_POSTGRES_WINDOW))
         .orderBy(orderFields)
-        .limit(parameters.getRecords());
+        .limit(records);
     return query;
   }
 
   private SelectConditionStep<Record> applyFilterForFields(
       SelectConditionStep<Record> selectFrom, Tuple2<String, ImmutableList<String>> filter,
-      ImmutableList<Field<?>> fields) {
+      int filterIndex, ImmutableList<Field<?>> fields) {
     final SelectConditionStep<Record> currentSelectFrom = selectFrom;
     selectFrom = fields.stream()
         .filter(field -> filter.v1.equals(field.getName()))
         .findAny()
         .map(field -> currentSelectFrom
-          .and(filterCondition(filter, field)))
+          .and(filterCondition(filter, filterIndex, field)))
         .orElse(selectFrom);
     return selectFrom;
   }
 
   protected Condition filterCondition(Tuple2<String, ImmutableList<String>> filter,
-      Field<?> field) {
+      int filterIndex, Field<?> field) {
     if (filter.v2.isEmpty()) {
       if (field == MAPPED_ROLE_FIELD) {
         return DSL.field(field.getName()).isNull()
@@ -375,16 +381,79 @@ public class DistributedLogsQueryGenerator {
       }
       return DSL.field(field.getName()).isNull();
     }
-    if (field == MAPPED_ROLE_FIELD) {
-      return DSL.field(field.getName())
-          .in(filter.v2.stream()
-              .map(f -> REVERSE_ROLE_MAP.getOrDefault(f, f))
-              .map(f -> DSL.cast(f, field))
-              .collect(Collectors.toList()));
-    }
     return DSL.field(field.getName())
-        .in(filter.v2.stream()
-            .map(f -> DSL.cast(f, field))
+        .in(IntStream.range(0, filter.v2.size())
+            .mapToObj(valueIndex -> DSL.cast(
+                param(filterParam(filterIndex, valueIndex), field.getDataType()), field))
             .collect(Collectors.toList()));
   }
+
+  /**
+   * Return the values of the named parameters of the query. Queries generated for parameters
+   * with the same shape (see {@link #getShape(DistributedLogsQueryParameters)}) only differ
+   * in these values.
+   */
+  public static Map<String, Object> getParamValues(DistributedLogsQueryParameters parameters) {
+    final Map<String, Object> values = new HashMap<>();
+    values.put(RECORDS_PARAM, parameters.getRecords());
+    parameters.getFromTimeAndIndex().ifPresent(from -> {
+      values.put(FROM_TIME_PARAM, OffsetDateTime.ofInstant(from.v1, ZoneOffset.UTC));
+      values.put(FROM_INDEX_PARAM, from.v2);
+    });
+    parameters.getToTimeAndIndex().ifPresent(to -> {
+      values.put(TO_TIME_PARAM, OffsetDateTime.ofInstant(to.v1, ZoneOffset.UTC));
+      values.put(TO_INDEX_PARAM, to.v2);
+    });
+    Seq.seq(parameters.getFilters())
+        .map(filter -> Tuple.tuple(FILTER_CONVERSION_MAP.get(filter.v1), filter.v2))
+        .zipWithIndex()
+        .forEach(filter -> Seq.seq(POSTGRES_FIELDS)
+            .filter(field -> field.getName().equals(filter.v1.v1))
+            .findFirst()
+            .ifPresent(field -> Seq.seq(filter.v1.v2)
+                .map(value -> field == MAPPED_ROLE_FIELD
+                    ? REVERSE_ROLE_MAP.getOrDefault(value, value) : value)
+                .map(value -> field.getDataType().convert(value))
+                .zipWithIndex()
+                .forEach(value -> values.put(
+                    filterParam(filter.v2.intValue(), value.v2.intValue()), value.v1))));
+    parameters.getFullTextSearchQuery()
+        .flatMap(FullTextSearchQuery::getFullTextSearchQuery)
+        .ifPresent(fullTextSearchQuery -> values.put(
+            FULL_TEXT_SEARCH_QUERY_PARAM, fullTextSearchQuery));
+    return values;
+  }
+
+  /**
+   * Return the shape of the parameters, anything that changes the generated query other than
+   * the values of its named parameters. The values of the log type filter are part of the
+   * shape since they are not named parameters but select which tables are queried.
+   */
+  public static List<Object> getShape(DistributedLogsQueryParameters parameters) {
+    return ImmutableList.of(
+        parameters.isSortAsc(),
+        parameters.isFromInclusive(),
+        parameters.getFromTimeAndIndex().isPresent(),
+        parameters.getToTimeAndIndex().isPresent(),
+        Seq.seq(parameters.getFilters())
+            .map(filter -> Tuple.<String, Object>tuple(filter.v1,
+                LOG_TYPE_FIELD.getName().equals(FILTER_CONVERSION_MAP.get(filter.v1))
+                ? filter.v2 : filter.v2.size()))
+            .toList(),
+        parameters.getFullTextSearchQuery()
+            .flatMap(FullTextSearchQuery::getFullTextSearchQuery)
+            .isPresent());
+  }
+
+  private <T> Param<T> param(String name, DataType<T> type) {
+    final T value = type.convert(paramValues.get(name));
+    if (value == null) {
+      return DSL.param(name, type);
+    }
+    return DSL.param(name, value);
+  }
+
+  private static String filterParam(int filterIndex, int valueIndex) {
+    return FILTER_PARAM_PREFIX + filterIndex + "_" + valueIndex;
+  }
 }
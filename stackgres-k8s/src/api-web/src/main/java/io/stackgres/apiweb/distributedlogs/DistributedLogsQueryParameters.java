@@ -21,9 +21,9 @@ public abstract class DistributedLogsQueryParameters {
 
   public abstract int getRecords();
 
-  public abstract Optional<Tuple2<Instant, Integer>> getFromTimeAndIndex();
+  public abstract Optional<Tuple2<Instant, Long>> getFromTimeAndIndex();
 
-  public abstract Optional<Tuple2<Instant, Integer>> getToTimeAndIndex();
+  public abstract Optional<Tuple2<Instant, Long>> getToTimeAndIndex();
 
   public abstract ImmutableMap<String, ImmutableList<String>> getFilters();
 
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.apiweb.distributedlogs;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.google.common.collect.ImmutableList;
+import org.jooq.DSLContext;
+import org.jooq.Record;
+import org.jooq.SQLDialect;
+import org.jooq.Select;
+import org.jooq.conf.Settings;
+import org.jooq.impl.DSL;
+
+/**
+ * The SQL of the query generated by {@link DistributedLogsQueryGenerator} rendered once for all
+ * the parameters with the same shape. The bind values are taken from the named parameters of
+ * the query, the others are constant for the shape.
+ */
+public class DistributedLogsQueryTemplate {
+
+  private static final String PARAM_PREFIX = "$sgparam$";
+
+  private static final Pattern PARAM_PATTERN = Pattern.compile(
+      Pattern.quote(PARAM_PREFIX) + "(\\w+)");
+
+  private static final DSLContext CONTEXT = DSL.using(SQLDialect.POSTGRES, new Settings()
+      .withRenderNamedParamPrefix(PARAM_PREFIX));
+
+  private final String sql;
+
+  private final List<Binding> bindings;
+
+  private DistributedLogsQueryTemplate(String sql, List<Binding> bindings) {
+    this.sql = sql;
+    this.bindings = bindings;
+  }
+
+  public static DistributedLogsQueryTemplate create(DistributedLogsQueryParameters parameters) {
+    final Select<Record> query = new DistributedLogsQueryGenerator(CONTEXT, parameters)
+        .generateQuery();
+    final Map<String, Object> paramValues = DistributedLogsQueryGenerator
+        .getParamValues(parameters);
+    final Iterator<Object> bindValues = CONTEXT.extractBindValues(query).iterator();
+    final List<Binding> bindings = new ArrayList<>();
+    final Matcher matcher = PARAM_PATTERN.matcher(CONTEXT.renderNamedParams(query));
+    final StringBuffer sql = new StringBuffer();
+    while (matcher.find()) {
+      final String name = matcher.group(1);
+      final Object value = bindValues.next();
+      if (paramValues.containsKey(name)) {
+        bindings.add(new Binding(Optional.of(name), null));
+      } else {
+        bindings.add(new Binding(Optional.empty(), value));
+      }
+      matcher.appendReplacement(sql, "?");
+    }
+    matcher.appendTail(sql);
+    return new DistributedLogsQueryTemplate(sql.toString(), ImmutableList.copyOf(bindings));
+  }
+
+  public String getSql() {
+    return sql;
+  }
+
+  /**
+   * Return the bind values for parameters with the same shape as the ones used to create this
+   * template.
+   */
+  public List<Object> getBindValues(DistributedLogsQueryParameters parameters) {
+    final Map<String, Object> paramValues = DistributedLogsQueryGenerator
+        .getParamValues(parameters);
+    final List<Object> bindValues = new ArrayList<>(bindings.size());
+    for (Binding binding : bindings) {
+      bindValues.add(binding.name
+          .map(paramValues::get)
+          .orElse(binding.value));
+    }
+    return bindValues;
+  }
+
+  private static class Binding {
+    private final Optional<String> name;
+    private final Object value;
+
+    Binding(Optional<String> name, Object value) {
+      this.name = name;
+      this.value = value;
+    }
+  }
+
+}
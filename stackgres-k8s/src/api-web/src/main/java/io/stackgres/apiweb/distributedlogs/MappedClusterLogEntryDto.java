@@ -42,7 +42,7 @@ public class MappedClusterLogEntryDto extends ClusterLogEntryDto {
       "location",
       "application_name"
   })
-  public MappedClusterLogEntryDto(String logTime, Integer logTimeIndex, String logType,
+  public MappedClusterLogEntryDto(String logTime, Long logTimeIndex, String logType,
       String podName, String role, String errorLevel, String message, String userName,
       String databaseName, Integer processId, String connectionFrom, String sessionId,
       Integer sessionLineNum, String commandTag, String sessionStartTime,
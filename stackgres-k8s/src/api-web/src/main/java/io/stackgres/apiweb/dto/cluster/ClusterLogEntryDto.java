@@ -17,7 +17,7 @@ public class ClusterLogEntryDto {
 
   private String logTime;
 
-  private Integer logTimeIndex;
+  private Long logTimeIndex;
 
   private String logType;
 
@@ -77,11 +77,11 @@ public class ClusterLogEntryDto {
     this.logTime = logTime;
   }
 
-  public Integer getLogTimeIndex() {
+  public Long getLogTimeIndex() {
     return logTimeIndex;
   }
 
-  public void setLogTimeIndex(Integer logTimeIndex) {
+  public void setLogTimeIndex(Long logTimeIndex) {
     this.logTimeIndex = logTimeIndex;
   }
 
@@ -19,6 +19,12 @@ public class DbOpsMinorVersionUpgrade {
   @JsonProperty("method")
   private String method;
 
+  @JsonProperty("maximumLagOnSwitchover")
+  private Long maximumLagOnSwitchover;
+
+  @JsonProperty("maxParallelReplicaRestarts")
+  private Integer maxParallelReplicaRestarts;
+
   public String getMethod() {
     return method;
   }
@@ -27,6 +33,22 @@ public class DbOpsMinorVersionUpgrade {
     this.method = method;
   }
 
+  public Long getMaximumLagOnSwitchover() {
+    return maximumLagOnSwitchover;
+  }
+
+  public void setMaximumLagOnSwitchover(Long maximumLagOnSwitchover) {
+    this.maximumLagOnSwitchover = maximumLagOnSwitchover;
+  }
+
+  public Integer getMaxParallelReplicaRestarts() {
+    return maxParallelReplicaRestarts;
+  }
+
+  public void setMaxParallelReplicaRestarts(Integer maxParallelReplicaRestarts) {
+    this.maxParallelReplicaRestarts = maxParallelReplicaRestarts;
+  }
+
   @Override
   public String toString() {
     return StackGresUtil.toPrettyYaml(this);
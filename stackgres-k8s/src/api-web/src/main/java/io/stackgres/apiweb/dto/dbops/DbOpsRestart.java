@@ -25,6 +25,12 @@ public class DbOpsRestart {
   @JsonProperty("onlyPendingRestart")
   private Boolean onlyPendingRestart;
 
+  @JsonProperty("maximumLagOnSwitchover")
+  private Long maximumLagOnSwitchover;
+
+  @JsonProperty("maxParallelReplicaRestarts")
+  private Integer maxParallelReplicaRestarts;
+
   public String getMethod() {
     return method;
   }
@@ -49,6 +55,22 @@ public class DbOpsRestart {
     this.onlyPendingRestart = onlyPendingRestart;
   }
 
+  public Long getMaximumLagOnSwitchover() {
+    return maximumLagOnSwitchover;
+  }
+
+  public void setMaximumLagOnSwitchover(Long maximumLagOnSwitchover) {
+    this.maximumLagOnSwitchover = maximumLagOnSwitchover;
+  }
+
+  public Integer getMaxParallelReplicaRestarts() {
+    return maxParallelReplicaRestarts;
+  }
+
+  public void setMaxParallelReplicaRestarts(Integer maxParallelReplicaRestarts) {
+    this.maxParallelReplicaRestarts = maxParallelReplicaRestarts;
+  }
+
   @Override
   public String toString() {
     return StackGresUtil.toPrettyYaml(this);
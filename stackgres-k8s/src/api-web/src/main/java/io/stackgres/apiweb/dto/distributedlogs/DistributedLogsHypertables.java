@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.apiweb.dto.distributedlogs;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import io.stackgres.common.StackGresUtil;
+
+@JsonDeserialize
+@JsonInclude(JsonInclude.Include.NON_DEFAULT)
+@RegisterForReflection
+public class DistributedLogsHypertables {
+
+  @JsonProperty("chunkTimeInterval")
+  private String chunkTimeInterval;
+
+  @JsonProperty("compressAfter")
+  private String compressAfter;
+
+  public String getChunkTimeInterval() {
+    return chunkTimeInterval;
+  }
+
+  public void setChunkTimeInterval(String chunkTimeInterval) {
+    this.chunkTimeInterval = chunkTimeInterval;
+  }
+
+  public String getCompressAfter() {
+    return compressAfter;
+  }
+
+  public void setCompressAfter(String compressAfter) {
+    this.compressAfter = compressAfter;
+  }
+
+  @Override
+  public String toString() {
+    return StackGresUtil.toPrettyYaml(this);
+  }
+
+}
@@ -31,6 +31,9 @@ public class DistributedLogsSpec {
   @JsonProperty("metadata")
   private DistributedLogsSpecMetadata metadata;
 
+  @JsonProperty("hypertables")
+  private DistributedLogsHypertables hypertables;
+
   @JsonProperty("toInstallPostgresExtensions")
   private List<ClusterInstalledExtension> toInstallPostgresExtensions;
 
@@ -67,6 +70,14 @@ public class DistributedLogsSpec {
     this.metadata = metadata;
   }
 
+  public DistributedLogsHypertables getHypertables() {
+    return hypertables;
+  }
+
+  public void setHypertables(DistributedLogsHypertables hypertables) {
+    this.hypertables = hypertables;
+  }
+
   public List<ClusterInstalledExtension> getToInstallPostgresExtensions() {
     return toInstallPostgresExtensions;
   }
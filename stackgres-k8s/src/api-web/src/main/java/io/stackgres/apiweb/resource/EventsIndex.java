@@ -0,0 +1,348 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.apiweb.resource;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.fabric8.kubernetes.api.model.Event;
+import io.fabric8.kubernetes.client.DefaultKubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.dsl.base.OperationContext;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.kubernetes.client.informers.cache.Cache;
+import io.stackgres.apiweb.config.WebApiProperty;
+import io.stackgres.apiweb.config.WebApiPropertyContext;
+import io.stackgres.apiweb.dto.event.EventDto;
+import io.stackgres.apiweb.dto.event.ObjectReference;
+import io.stackgres.apiweb.transformer.EventMapper;
+import io.stackgres.common.CdiUtil;
+import io.stackgres.common.KubernetesClientFactory;
+import io.stackgres.common.crd.sgcluster.StackGresCluster;
+import io.stackgres.common.crd.sgdbops.StackGresDbOps;
+import io.stackgres.common.resource.InformerUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jooq.lambda.Seq;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps an in-memory index of the events of the namespaces being looked up, fed by a
+ * {@code SharedIndexInformer} for each namespace that is started on the first lookup of that
+ * namespace. Only the events involving one of the {@code INDEXED_KINDS} are indexed. Events are
+ * mapped once when received and indexed by the involved object namespace, kind and name, by the
+ * involved object UID and, for objects with a name ending in {@code -<index>} (like the pods of a
+ * StatefulSet), by the name without the index suffix. Each entry of the index is kept sorted by
+ * last timestamp.
+ *
+ * <p>The informers connect with the serviceaccount permissions so callers must check that the
+ * user is allowed to list the events of the namespace. While the index is disabled (see
+ * {@code WebApiProperty.EVENTS_INDEX_ENABLED}) or the informer of the namespace is not synced all
+ * lookups return empty and callers must fall back to a live read.
+ */
+@ApplicationScoped
+public class EventsIndex {
+
+  /**
+   * Kinds of the involved objects of the indexed events.
+   */
+  public static final Set<String> INDEXED_KINDS = ImmutableSet.of(
+      StackGresCluster.KIND, StackGresDbOps.KIND, "StatefulSet", "Pod");
+
+  /**
+   * Order by last timestamp with events that have no last timestamp first.
+   */
+  public static final Comparator<IndexedEvent> LAST_TIMESTAMP_ORDER = Comparator
+      .comparing(IndexedEvent::getLastTimestamp, Comparator.nullsFirst(Comparator.naturalOrder()))
+      .thenComparing(IndexedEvent::getKey);
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(EventsIndex.class);
+
+  private static final Pattern NAME_WITH_INDEX_PATTERN = Pattern.compile("^(.+)-([0-9]+)$");
+
+  private final KubernetesClientFactory clientFactory;
+  private final boolean enabled;
+
+  private final Map<String, NamespaceIndex> namespaces = new ConcurrentHashMap<>();
+
+  private KubernetesClient client;
+  private boolean closed;
+
+  @Inject
+  public EventsIndex(WebApiPropertyContext propertyContext) {
+    // Connect with the serviceaccount permissions
+    this(DefaultKubernetesClient::new,
+        propertyContext.getBoolean(WebApiProperty.EVENTS_INDEX_ENABLED));
+  }
+
+  public EventsIndex() {
+    this.clientFactory = null;
+    this.enabled = false;
+    CdiUtil.checkPublicNoArgsConstructorIsCalledToCreateProxy();
+  }
+
+  EventsIndex(KubernetesClientFactory clientFactory, boolean enabled) {
+    this.clientFactory = clientFactory;
+    this.enabled = enabled;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Key of the events of the object with the given namespace, kind and name.
+   */
+  public static String involvedObjectKey(@NotNull String namespace, @NotNull String kind,
+      @NotNull String name) {
+    return namespace + "/" + kind + "/" + name;
+  }
+
+  /**
+   * Key of the events of the objects with the given namespace and kind and a name matching
+   * {@code ResourceUtil.getNameWithIndexPattern(name)}.
+   */
+  public static String involvedObjectsWithIndexKey(@NotNull String namespace,
+      @NotNull String kind, @NotNull String name) {
+    // An object name can not contain '*' so it will never clash with involvedObjectKey
+    return involvedObjectKey(namespace, kind, name + "-*");
+  }
+
+  /**
+   * Key of the events of the object with the given UID.
+   */
+  public static String involvedObjectUidKey(@NotNull String uid) {
+    return "uid:" + uid;
+  }
+
+  /**
+   * Look up the events of the namespace indexed with any of the given keys. The first lookup of
+   * a namespace starts indexing it in background.
+   *
+   * @return empty if the index of the namespace is not available, otherwise the events sorted by
+   *     last timestamp
+   */
+  public Optional<List<EventDto>> findByKeys(@NotNull String namespace,
+      @NotNull Collection<String> keys) {
+    if (!enabled) {
+      return Optional.empty();
+    }
+    NamespaceIndex namespaceIndex = namespaces.computeIfAbsent(namespace, NamespaceIndex::new);
+    if (!namespaceIndex.isAvailable()) {
+      return Optional.empty();
+    }
+    NavigableSet<IndexedEvent> found = new TreeSet<>(LAST_TIMESTAMP_ORDER);
+    keys.stream()
+        .map(namespaceIndex.index::get)
+        .filter(Objects::nonNull)
+        .forEach(found::addAll);
+    return Optional.of(found.stream()
+        .map(IndexedEvent::getEvent)
+        .collect(ImmutableList.toImmutableList()));
+  }
+
+  /**
+   * Sort events by last timestamp parsing each timestamp only once.
+   */
+  public static List<EventDto> sortByLastTimestamp(@NotNull Collection<EventDto> events) {
+    return Seq.seq(events)
+        .map(event -> new IndexedEvent(
+            Cache.namespaceKeyFunc(event.getMetadata().getNamespace(),
+                event.getMetadata().getName()), event))
+        .sorted(LAST_TIMESTAMP_ORDER)
+        .map(IndexedEvent::getEvent)
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  boolean isAvailable(String namespace) {
+    return Optional.ofNullable(namespaces.get(namespace))
+        .map(NamespaceIndex::isAvailable)
+        .orElse(false);
+  }
+
+  private synchronized SharedIndexInformer<Event> createInformer(String namespace) {
+    if (closed) {
+      throw new IllegalStateException("Events index is closed");
+    }
+    if (client == null) {
+      client = clientFactory.create();
+    }
+    return client.informers()
+        .sharedIndexInformerFor(Event.class,
+            new OperationContext().withNamespace(namespace),
+            InformerUtil.RESYNC_PERIOD_MILLIS);
+  }
+
+  @PreDestroy
+  public synchronized void close() {
+    closed = true;
+    namespaces.values().forEach(NamespaceIndex::stop);
+    namespaces.clear();
+    if (client != null) {
+      client.close();
+      client = null;
+    }
+  }
+
+  private class NamespaceIndex implements ResourceEventHandler<Event> {
+
+    private final Map<String, NavigableSet<IndexedEvent>> index = new ConcurrentHashMap<>();
+    private final SharedIndexInformer<Event> informer;
+
+    NamespaceIndex(String namespace) {
+      informer = createInformer(namespace);
+      informer.addEventHandler(this);
+      LOGGER.info("Starting events index for namespace {}", namespace);
+      // Do not delay the lookup with the initial list of events
+      CompletableFuture.runAsync(informer::run)
+          .exceptionally(ex -> {
+            LOGGER.error("Can not start events index for namespace {},"
+                + " falling back to live reads", namespace, ex);
+            return null;
+          });
+    }
+
+    boolean isAvailable() {
+      return InformerUtil.hasSynced(List.of(informer));
+    }
+
+    void stop() {
+      informer.stop();
+      index.clear();
+    }
+
+    @Override
+    public void onAdd(Event event) {
+      add(event);
+    }
+
+    @Override
+    public void onUpdate(Event oldEvent, Event newEvent) {
+      remove(oldEvent);
+      add(newEvent);
+    }
+
+    @Override
+    public void onDelete(Event event, boolean deletedFinalStateUnknown) {
+      remove(event);
+    }
+
+    private void add(Event event) {
+      if (!isIndexed(event)) {
+        return;
+      }
+      IndexedEvent indexedEvent = new IndexedEvent(Cache.metaNamespaceKeyFunc(event),
+          EventMapper.map(event));
+      indexedEvent.getIndexKeys().forEach(indexKey -> index
+          .computeIfAbsent(indexKey, key -> new ConcurrentSkipListSet<>(LAST_TIMESTAMP_ORDER))
+          .add(indexedEvent));
+    }
+
+    private void remove(Event event) {
+      if (!isIndexed(event)) {
+        return;
+      }
+      // Entries are compared by key and last timestamp so there is no need to keep the entries
+      // of the indexed events in another map to find them
+      IndexedEvent indexedEvent = new IndexedEvent(Cache.metaNamespaceKeyFunc(event),
+          EventMapper.map(event));
+      indexedEvent.getIndexKeys().forEach(indexKey -> index
+          .computeIfPresent(indexKey, (key, indexedEvents) -> {
+            indexedEvents.remove(indexedEvent);
+            return indexedEvents.isEmpty() ? null : indexedEvents;
+          }));
+    }
+
+    private boolean isIndexed(Event event) {
+      return event.getInvolvedObject() != null
+          && INDEXED_KINDS.contains(event.getInvolvedObject().getKind());
+    }
+
+  }
+
+  public static class IndexedEvent {
+
+    private final String key;
+    private final EventDto event;
+    private final Instant lastTimestamp;
+
+    IndexedEvent(String key, EventDto event) {
+      this.key = key;
+      this.event = event;
+      this.lastTimestamp = parseTimestamp(event.getLastTimestamp());
+    }
+
+    private static Instant parseTimestamp(String timestamp) {
+      if (timestamp == null) {
+        return null;
+      }
+      try {
+        return Instant.parse(timestamp);
+      } catch (DateTimeParseException ex) {
+        LOGGER.debug("Can not parse event timestamp {}", timestamp, ex);
+        return null;
+      }
+    }
+
+    public String getKey() {
+      return key;
+    }
+
+    public EventDto getEvent() {
+      return event;
+    }
+
+    public Instant getLastTimestamp() {
+      return lastTimestamp;
+    }
+
+    List<String> getIndexKeys() {
+      ObjectReference involvedObject = event.getInvolvedObject();
+      if (involvedObject == null) {
+        return ImmutableList.of();
+      }
+      ImmutableList.Builder<String> indexKeys = ImmutableList.builder();
+      if (involvedObject.getKind() != null && involvedObject.getName() != null) {
+        final String namespace = Optional.ofNullable(involvedObject.getNamespace())
+            .orElse(event.getMetadata().getNamespace());
+        indexKeys.add(involvedObjectKey(namespace, involvedObject.getKind(),
+            involvedObject.getName()));
+        Matcher nameWithIndex = NAME_WITH_INDEX_PATTERN.matcher(involvedObject.getName());
+        if (nameWithIndex.matches()) {
+          indexKeys.add(involvedObjectsWithIndexKey(namespace, involvedObject.getKind(),
+              nameWithIndex.group(1)));
+        }
+      }
+      if (involvedObject.getUid() != null) {
+        indexKeys.add(involvedObjectUidKey(involvedObject.getUid()));
+      }
+      return indexKeys.build();
+    }
+
+  }
+
+}
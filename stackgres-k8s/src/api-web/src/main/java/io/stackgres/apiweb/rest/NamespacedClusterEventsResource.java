@@ -5,23 +5,30 @@
 
 package io.stackgres.apiweb.rest;
 
-import java.time.Instant;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.regex.Pattern;
 
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
+import javax.ws.rs.BadRequestException;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Response.Status;
 
 import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.StatusBuilder;
+import io.fabric8.kubernetes.client.KubernetesClientException;
 import io.quarkus.security.Authenticated;
 import io.stackgres.apiweb.dto.event.EventDto;
 import io.stackgres.apiweb.dto.event.ObjectReference;
+import io.stackgres.apiweb.resource.EventsIndex;
 import io.stackgres.apiweb.rest.utils.CommonApiResponses;
+import io.stackgres.apiweb.security.PermissionsReviewer;
 import io.stackgres.common.CdiUtil;
 import io.stackgres.common.crd.sgcluster.StackGresCluster;
 import io.stackgres.common.crd.sgdbops.StackGresDbOps;
@@ -33,6 +40,8 @@ import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.eclipse.microprofile.jwt.Claim;
+import org.eclipse.microprofile.jwt.Claims;
 import org.jooq.lambda.Seq;
 
 @Path("namespaces/{namespace:[a-z0-9]([-a-z0-9]*[a-z0-9])?}/sgclusters")
@@ -40,20 +49,33 @@ import org.jooq.lambda.Seq;
 @Authenticated
 public class NamespacedClusterEventsResource {
 
+  private static final String EVENTS_RESOURCE = "events";
+
+  @Inject
+  @Claim(standard = Claims.sub)
+  String user;
+
   private final ResourceScanner<EventDto> scanner;
   private final CustomResourceScanner<StackGresDbOps> dbOpsScanner;
+  private final EventsIndex eventsIndex;
+  private final PermissionsReviewer permissionsReviewer;
 
   @Inject
   public NamespacedClusterEventsResource(ResourceScanner<EventDto> scanner,
-      CustomResourceScanner<StackGresDbOps> dbOpsScanner) {
+      CustomResourceScanner<StackGresDbOps> dbOpsScanner, EventsIndex eventsIndex,
+      PermissionsReviewer permissionsReviewer) {
     this.scanner = scanner;
     this.dbOpsScanner = dbOpsScanner;
+    this.eventsIndex = eventsIndex;
+    this.permissionsReviewer = permissionsReviewer;
   }
 
   public NamespacedClusterEventsResource() {
     CdiUtil.checkPublicNoArgsConstructorIsCalledToCreateProxy();
     this.scanner = null;
     this.dbOpsScanner = null;
+    this.eventsIndex = null;
+    this.permissionsReviewer = null;
   }
 
   @Operation(
@@ -67,21 +89,65 @@ public class NamespacedClusterEventsResource {
   @GET
   @Path("{name}/events")
   public List<EventDto> list(@PathParam("namespace") String namespace,
-      @PathParam("name") String name) {
+      @PathParam("name") String name, @QueryParam("offset") Optional<Integer> offset,
+      @QueryParam("limit") Optional<Integer> limit) {
+    if (offset.map(value -> value < 0).orElse(false)) {
+      throw new BadRequestException("offset should be a non-negative number");
+    }
+    if (limit.map(value -> value < 0).orElse(false)) {
+      throw new BadRequestException("limit should be a non-negative number");
+    }
     Map<String, List<ObjectMeta>> relatedResources = new HashMap<>();
     relatedResources.put(StackGresDbOps.KIND,
         Seq.seq(dbOpsScanner.getResources(namespace))
             .filter(dbOps -> dbOps.getSpec().getSgCluster().equals(name))
             .map(StackGresDbOps::getMetadata)
             .toList());
-    return Seq.seq(scanner.findResourcesInNamespace(namespace))
-        .filter(event -> isClusterEvent(event, namespace, name, relatedResources))
-        .sorted(this::orderByLastTimestamp)
+    List<EventDto> events = findIndexedEvents(namespace, name, relatedResources)
+        .orElseGet(() -> scanEvents(namespace, name, relatedResources));
+    return Seq.seq(events)
+        .skip(offset.orElse(0))
+        .limit(limit.orElse(Integer.MAX_VALUE))
         .toList();
   }
 
-  private boolean isClusterEvent(EventDto event, String namespace, String name,
+  private Optional<List<EventDto>> findIndexedEvents(String namespace, String name,
       Map<String, List<ObjectMeta>> relatedResources) {
+    if (!eventsIndex.isEnabled()) {
+      return Optional.empty();
+    }
+    // The index is fed using the serviceaccount so the user permissions has to be checked here
+    if (!permissionsReviewer.isAllowed(user, namespace, "", EVENTS_RESOURCE, "list")) {
+      throw new KubernetesClientException(new StatusBuilder()
+          .withCode(Status.FORBIDDEN.getStatusCode())
+          .withReason(Status.FORBIDDEN.getReasonPhrase())
+          .withMessage(EVENTS_RESOURCE + " is forbidden: User \"" + user
+              + "\" cannot list resource \"" + EVENTS_RESOURCE
+              + "\" in API group \"\" in the namespace \"" + namespace + "\"")
+          .build());
+    }
+    return eventsIndex.findByKeys(namespace, Seq.of(
+        EventsIndex.involvedObjectKey(namespace, StackGresCluster.KIND, name),
+        EventsIndex.involvedObjectKey(namespace, "StatefulSet", name),
+        EventsIndex.involvedObjectsWithIndexKey(namespace, "Pod", name))
+        .append(Seq.seq(relatedResources.values())
+            .flatMap(Seq::seq)
+            .map(ObjectMeta::getUid)
+            .map(EventsIndex::involvedObjectUidKey))
+        .toList());
+  }
+
+  private List<EventDto> scanEvents(String namespace, String name,
+      Map<String, List<ObjectMeta>> relatedResources) {
+    final Pattern podNamePattern = Pattern.compile(ResourceUtil.getNameWithIndexPattern(name));
+    return EventsIndex.sortByLastTimestamp(Seq.seq(scanner.findResourcesInNamespace(namespace))
+        .filter(event -> isClusterEvent(event, namespace, name, podNamePattern,
+            relatedResources))
+        .toList());
+  }
+
+  private boolean isClusterEvent(EventDto event, String namespace, String name,
+      Pattern podNamePattern, Map<String, List<ObjectMeta>> relatedResources) {
     ObjectReference involvedObject = event.getInvolvedObject();
     return (involvedObject.getKind().equals(StackGresCluster.KIND)
         && involvedObject.getNamespace().equals(namespace)
@@ -91,7 +157,7 @@ public class NamespacedClusterEventsResource {
             && involvedObject.getName().equals(name))
         || (involvedObject.getKind().equals("Pod")
             && involvedObject.getNamespace().equals(namespace)
-            && involvedObject.getName().matches(ResourceUtil.getNameWithIndexPattern(name)))
+            && podNamePattern.matcher(involvedObject.getName()).matches())
         || (involvedObject.getNamespace().equals(namespace)
             && Optional.ofNullable(relatedResources.get(involvedObject.getKind()))
                 .stream().flatMap(relatedResource -> relatedResource.stream())
@@ -101,19 +167,4 @@ public class NamespacedClusterEventsResource {
                     && relatedResource.getUid().equals(involvedObject.getUid())));
   }
 
-  private int orderByLastTimestamp(EventDto e1, EventDto e2) {
-    Optional<Instant> lt1 = Optional.ofNullable(e1.getLastTimestamp()).map(Instant::parse);
-    Optional<Instant> lt2 = Optional.ofNullable(e2.getLastTimestamp()).map(Instant::parse);
-    if (lt1.isPresent() && lt2.isPresent()) {
-      return lt1.get().compareTo(lt2.get());
-    }
-    if (lt1.isPresent()) {
-      return 1;
-    }
-    if (lt2.isPresent()) {
-      return -1;
-    }
-    return 0;
-  }
-
 }
@@ -5,10 +5,16 @@
 
 package io.stackgres.apiweb.rest;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.Instant;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import javax.enterprise.context.RequestScoped;
 import javax.inject.Inject;
@@ -17,8 +23,11 @@ import javax.ws.rs.GET;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.StreamingOutput;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMap.Builder;
@@ -47,20 +56,28 @@ import org.jooq.lambda.tuple.Tuple2;
 @Authenticated
 public class NamespacedClusterLogsResource {
 
+  private static final String NDJSON = "application/x-ndjson";
+  private static final Duration FOLLOW_POLL_INTERVAL = Duration.ofSeconds(2);
+  private static final Duration FOLLOW_MAX_DURATION = Duration.ofMinutes(30);
+  private static final int FOLLOW_RECORDS = 1000;
+
   private final CustomResourceFinder<ClusterDto> clusterFinder;
   private final DistributedLogsFetcher distributedLogsFetcher;
+  private final ObjectMapper objectMapper;
 
   @Inject
   public NamespacedClusterLogsResource(CustomResourceFinder<ClusterDto> clusterFinder,
-      DistributedLogsFetcher distributedLogsFetcher) {
+      DistributedLogsFetcher distributedLogsFetcher, ObjectMapper objectMapper) {
     this.clusterFinder = clusterFinder;
     this.distributedLogsFetcher = distributedLogsFetcher;
+    this.objectMapper = objectMapper;
   }
 
   public NamespacedClusterLogsResource() {
     CdiUtil.checkPublicNoArgsConstructorIsCalledToCreateProxy();
     this.clusterFinder = null;
     this.distributedLogsFetcher = null;
+    this.objectMapper = null;
   }
 
   /**
@@ -92,6 +109,96 @@ public class NamespacedClusterLogsResource {
       @QueryParam("userName") List<String> userName,
       @QueryParam("databaseName") List<String> databaseName,
       @QueryParam("fromInclusive") Boolean fromInclusive) {
+    return distributedLogsFetcher.logs(getQueryParameters(namespace, name, records, from, to,
+        sort, text, logType, podName, role, errorLevel, userName, databaseName, fromInclusive));
+  }
+
+  /**
+   * Query distributed logs and stream them as {@code ClusterLogEntry} objects in JSON separated
+   * by a new line. In follow mode the entries appended after the last returned entry are
+   * streamed as they arrive until the client disconnects or 30 minutes have passed, after which
+   * the client may follow again from the last entry it received. Empty lines are sent to keep
+   * the connection alive and must be ignored.
+   */
+  @Operation(
+      responses = {
+          @ApiResponse(responseCode = "200", description = "OK",
+              content = {@Content(
+                  mediaType = NDJSON,
+                  schema = @Schema(implementation = ClusterLogEntryDto.class))})
+      })
+  @CommonApiResponses
+  @GET
+  @Path("{name}/logs/stream")
+  @Produces(NDJSON)
+  public StreamingOutput streamLogs(
+      @PathParam("namespace") String namespace,
+      @PathParam("name") String name,
+      @QueryParam("records") Integer records,
+      @QueryParam("from") String from,
+      @QueryParam("to") String to,
+      @QueryParam("sort") String sort,
+      @QueryParam("text") String text,
+      @QueryParam("logType") List<String> logType,
+      @QueryParam("podName") List<String> podName,
+      @QueryParam("role") List<String> role,
+      @QueryParam("errorLevel") List<String> errorLevel,
+      @QueryParam("userName") List<String> userName,
+      @QueryParam("databaseName") List<String> databaseName,
+      @QueryParam("fromInclusive") Boolean fromInclusive,
+      @QueryParam("follow") Boolean follow) {
+    final DistributedLogsQueryParameters parameters = getQueryParameters(namespace, name,
+        records, from, to, sort, text, logType, podName, role, errorLevel, userName,
+        databaseName, fromInclusive);
+    if (follow != null && follow && parameters.getToTimeAndIndex().isPresent()) {
+      throw new BadRequestException("to can not be specified in follow mode");
+    }
+    return output -> {
+      final LogEntryWriter writer = new LogEntryWriter(output);
+      try {
+        distributedLogsFetcher.streamLogs(parameters, writer);
+        writer.flush();
+        if (follow != null && follow) {
+          follow(parameters, writer);
+        }
+      } catch (UncheckedIOException ex) {
+        throw ex.getCause();
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    };
+  }
+
+  /**
+   * Poll for the entries after the last one written until writing an entry or the keep alive
+   * fails because the client disconnected, or until {@code FOLLOW_MAX_DURATION} has passed.
+   */
+  private void follow(DistributedLogsQueryParameters parameters, LogEntryWriter writer)
+      throws InterruptedException {
+    final Instant end = Instant.now().plus(FOLLOW_MAX_DURATION);
+    while (Instant.now().isBefore(end)) {
+      Thread.sleep(FOLLOW_POLL_INTERVAL.toMillis());
+      try {
+        distributedLogsFetcher.streamLogs(ImmutableDistributedLogsQueryParameters
+            .copyOf(parameters)
+            .withRecords(FOLLOW_RECORDS)
+            .withIsSortAsc(true)
+            .withFromTimeAndIndex(writer.getLastTimeAndIndex()
+                .or(parameters::getFromTimeAndIndex))
+            .withIsFromInclusive(writer.getLastTimeAndIndex().isEmpty()
+                && parameters.isFromInclusive()),
+            writer);
+        writer.flush();
+      } catch (IOException | UncheckedIOException ex) {
+        return;
+      }
+    }
+  }
+
+  private DistributedLogsQueryParameters getQueryParameters(String namespace, String name,
+      Integer records, String from, String to, String sort, String text, List<String> logType,
+      List<String> podName, List<String> role, List<String> errorLevel, List<String> userName,
+      List<String> databaseName, Boolean fromInclusive) {
     final ClusterDto cluster = clusterFinder.findByNameAndNamespace(name, namespace)
         .orElseThrow(NotFoundException::new);
 
@@ -101,8 +208,8 @@ public class NamespacedClusterLogsResource {
       throw new BadRequestException("records should be a positive number");
     }
 
-    final Optional<Tuple2<Instant, Integer>> fromTuple;
-    final Optional<Tuple2<Instant, Integer>> toTuple;
+    final Optional<Tuple2<Instant, Long>> fromTuple;
+    final Optional<Tuple2<Instant, Long>> toTuple;
 
     if (!Optional.ofNullable(cluster.getSpec())
         .map(ClusterSpec::getDistributedLogs)
@@ -124,9 +231,9 @@ public class NamespacedClusterLogsResource {
       fromTuple = Optional.ofNullable(from)
           .map(s -> s.split(","))
           .map(ss -> Tuple.tuple(ss[0],
-              ss.length > 1 ? ss[1] : String.valueOf(Integer.valueOf(0))))
+              ss.length > 1 ? ss[1] : String.valueOf(0L)))
           .map(t -> t.map1(Instant::parse))
-          .map(t -> t.map2(Integer::valueOf));
+          .map(t -> t.map2(Long::valueOf));
     } catch (Exception ex) {
       throw new BadRequestException("from should be a timestamp"
           + " or a timestamp and an index separated by character ','", ex);
@@ -136,9 +243,9 @@ public class NamespacedClusterLogsResource {
       toTuple = Optional.ofNullable(to)
           .map(s -> s.split(","))
           .map(ss -> Tuple.tuple(ss[0],
-              ss.length > 1 ? ss[1] : String.valueOf(Integer.MAX_VALUE)))
+              ss.length > 1 ? ss[1] : String.valueOf(Long.MAX_VALUE)))
           .map(t -> t.map1(Instant::parse))
-          .map(t -> t.map2(Integer::valueOf));
+          .map(t -> t.map2(Long::valueOf));
     } catch (Exception ex) {
       throw new BadRequestException("to should be a timestamp"
           + " or a timestamp and an index separated by character ','", ex);
@@ -148,7 +255,7 @@ public class NamespacedClusterLogsResource {
       throw new BadRequestException("sort only accept asc or desc values");
     }
 
-    DistributedLogsQueryParameters logs = ImmutableDistributedLogsQueryParameters.builder()
+    return ImmutableDistributedLogsQueryParameters.builder()
         .cluster(cluster)
         .records(calculatedRecords)
         .fromTimeAndIndex(fromTuple)
@@ -159,8 +266,6 @@ public class NamespacedClusterLogsResource {
             .map(FullTextSearchQuery::new))
         .isFromInclusive(fromInclusive != null && fromInclusive)
         .build();
-
-    return distributedLogsFetcher.logs(logs);
   }
 
   private void addFilter(String key, List<String> values,
@@ -172,4 +277,45 @@ public class NamespacedClusterLogsResource {
     }
   }
 
+  /**
+   * Write each entry as a JSON line and keep track of the most recent entry written.
+   */
+  private class LogEntryWriter implements Consumer<ClusterLogEntryDto> {
+    private final OutputStream output;
+    private Optional<Tuple2<Instant, Long>> lastTimeAndIndex = Optional.empty();
+    private boolean written = false;
+
+    LogEntryWriter(OutputStream output) {
+      this.output = output;
+    }
+
+    @Override
+    public void accept(ClusterLogEntryDto entry) {
+      try {
+        output.write(objectMapper.writeValueAsBytes(entry));
+        output.write('\n');
+        written = true;
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex);
+      }
+      final Tuple2<Instant, Long> timeAndIndex = Tuple.tuple(
+          OffsetDateTime.parse(entry.getLogTime()).toInstant(), entry.getLogTimeIndex());
+      if (lastTimeAndIndex.map(last -> last.compareTo(timeAndIndex) < 0).orElse(true)) {
+        lastTimeAndIndex = Optional.of(timeAndIndex);
+      }
+    }
+
+    Optional<Tuple2<Instant, Long>> getLastTimeAndIndex() {
+      return lastTimeAndIndex;
+    }
+
+    void flush() throws IOException {
+      if (!written) {
+        output.write('\n');
+      }
+      output.flush();
+      written = false;
+    }
+  }
+
 }
@@ -0,0 +1,314 @@
+/*
+ * Copyright (C) 2020 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.apiweb.security;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.fabric8.kubernetes.api.model.authorization.v1.ResourceRule;
+import io.fabric8.kubernetes.api.model.authorization.v1.SelfSubjectRulesReview;
+import io.fabric8.kubernetes.api.model.authorization.v1.SelfSubjectRulesReviewBuilder;
+import io.fabric8.kubernetes.api.model.authorization.v1.SubjectAccessReview;
+import io.fabric8.kubernetes.api.model.authorization.v1.SubjectAccessReviewBuilder;
+import io.fabric8.kubernetes.api.model.authorization.v1.SubjectAccessReviewStatus;
+import io.fabric8.kubernetes.api.model.authorization.v1.SubjectRulesReviewStatus;
+import io.fabric8.kubernetes.client.CustomResource;
+import io.fabric8.kubernetes.client.DefaultKubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.stackgres.apiweb.dto.PermissionsListDto;
+import io.stackgres.common.KubernetesClientFactory;
+import io.stackgres.common.crd.sgbackup.StackGresBackup;
+import io.stackgres.common.crd.sgbackupconfig.StackGresBackupConfig;
+import io.stackgres.common.crd.sgcluster.StackGresCluster;
+import io.stackgres.common.crd.sgdbops.StackGresDbOps;
+import io.stackgres.common.crd.sgdistributedlogs.StackGresDistributedLogs;
+import io.stackgres.common.crd.sgpgconfig.StackGresPostgresConfig;
+import io.stackgres.common.crd.sgpooling.StackGresPoolingConfig;
+import io.stackgres.common.crd.sgprofile.StackGresProfile;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple2;
+import org.jooq.lambda.tuple.Tuple5;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Review the permissions of a user on the resources managed by the UI. Permissions of each
+ * namespace are retrieved with a single {@code SelfSubjectRulesReview} using a client that
+ * impersonates the user, falling back to a {@code SubjectAccessReview} for each resource and verb
+ * when the rules are incomplete. Reviews are sent in parallel (with a bounded number of threads)
+ * and the result of each namespace is cached for a short time for the same user.
+ */
+@ApplicationScoped
+public class PermissionsReviewer {
+
+  public static final List<String> VERBS =
+      ImmutableList.of("get", "list", "create", "patch", "delete");
+  public static final List<String> NAMESPACED_RESOURCES = ImmutableList.of(
+      "pods", "secrets", "configmaps",
+      CustomResource.getCRDName(StackGresBackupConfig.class),
+      CustomResource.getCRDName(StackGresBackup.class),
+      CustomResource.getCRDName(StackGresCluster.class),
+      CustomResource.getCRDName(StackGresDistributedLogs.class),
+      CustomResource.getCRDName(StackGresProfile.class),
+      CustomResource.getCRDName(StackGresDbOps.class),
+      CustomResource.getCRDName(StackGresPostgresConfig.class),
+      CustomResource.getCRDName(StackGresPoolingConfig.class));
+  public static final List<String> UNNAMESPACED_RESOURCES =
+      ImmutableList.of("namespaces", "storageclasses.storage.k8s.io");
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PermissionsReviewer.class);
+
+  private static final Duration CACHE_DURATION = Duration.ofSeconds(30);
+  private static final int CACHE_MAXIMUM_SIZE = 10_000;
+  private static final int PARALLELISM = 8;
+  private static final String ANY = "*";
+
+  private KubernetesClient client;
+  private ExecutorService executor;
+  private Cache<Tuple2<String, Optional<String>>, Map<String, List<String>>> cache;
+  private Cache<Tuple5<String, Optional<String>, String, String, String>, Boolean> accessCache;
+
+  public PermissionsReviewer() {
+  }
+
+  PermissionsReviewer(KubernetesClient client, Duration cacheDuration) {
+    init(client, cacheDuration);
+  }
+
+  @PostConstruct
+  void setup() {
+    // Connect with the serviceaccount permissions
+    init(new DefaultKubernetesClient(), CACHE_DURATION);
+  }
+
+  private void init(KubernetesClient client, Duration cacheDuration) {
+    this.client = client;
+    final AtomicInteger threadIndex = new AtomicInteger();
+    this.executor = Executors.newFixedThreadPool(PARALLELISM, runnable -> {
+      Thread thread = new Thread(runnable,
+          "permissions-reviewer-" + threadIndex.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.cache = CacheBuilder.newBuilder()
+        .expireAfterWrite(cacheDuration)
+        .maximumSize(CACHE_MAXIMUM_SIZE)
+        .build();
+    this.accessCache = CacheBuilder.newBuilder()
+        .expireAfterWrite(cacheDuration)
+        .maximumSize(CACHE_MAXIMUM_SIZE)
+        .build();
+  }
+
+  @PreDestroy
+  void close() {
+    executor.shutdownNow();
+    client.close();
+  }
+
+  /**
+   * Review the access of the user to a single resource.
+   */
+  public SubjectAccessReviewStatus review(String user, String namespace, String group,
+      String resource, String verb) {
+    SubjectAccessReview review = new SubjectAccessReviewBuilder()
+        .withNewSpec()
+        .withUser(user)
+        .withNewResourceAttributes()
+        .withNamespace(namespace)
+        .withGroup(group)
+        .withResource(resource)
+        .withVerb(verb)
+        .endResourceAttributes()
+        .endSpec()
+        .build();
+
+    review = client.authorization().v1().subjectAccessReview()
+        .create(review);
+
+    LOGGER.debug("{}", review);
+
+    return review.getStatus();
+  }
+
+  /**
+   * Check if the user is allowed to access a single resource. The result is cached for a short
+   * time for the same user.
+   */
+  public boolean isAllowed(String user, String namespace, String group, String resource,
+      String verb) {
+    final Tuple5<String, Optional<String>, String, String, String> key =
+        Tuple.tuple(user, Optional.ofNullable(namespace), group, resource, verb);
+    Boolean allowed = accessCache.getIfPresent(key);
+    if (allowed == null) {
+      allowed = Boolean.TRUE.equals(review(user, namespace, group, resource, verb)
+          .getAllowed());
+      accessCache.put(key, allowed);
+    }
+    return allowed;
+  }
+
+  /**
+   * Review the verbs allowed to the user for the namespaced resources of each of the namespaces
+   * and for the unnamespaced resources. The {@code userClientFactory} must create clients that
+   * impersonate the user.
+   */
+  public PermissionsListDto reviewPermissions(String user, List<String> namespaces,
+      KubernetesClientFactory userClientFactory) {
+    final Map<Optional<String>, Map<String, List<String>>> permissions = new HashMap<>();
+    Seq.seq(namespaces)
+        .map(Optional::of)
+        .append(Optional.<String>empty())
+        .forEach(namespace -> Optional.ofNullable(getCached(user, namespace))
+            .ifPresent(resources -> permissions.put(namespace, resources)));
+
+    reviewRules(namespaces.stream()
+        .filter(namespace -> !permissions.containsKey(Optional.of(namespace)))
+        .collect(ImmutableList.toImmutableList()), userClientFactory)
+        .forEach((namespace, resources) -> resources
+            .ifPresent(found -> permissions.put(Optional.of(namespace), found)));
+
+    Map<Optional<String>, CompletableFuture<Map<String, List<String>>>> accessReviews =
+        new HashMap<>();
+    namespaces.stream()
+        .map(Optional::of)
+        .filter(namespace -> !permissions.containsKey(namespace))
+        .forEach(namespace -> accessReviews.put(namespace,
+            reviewAccess(user, namespace, NAMESPACED_RESOURCES)));
+    if (!permissions.containsKey(Optional.empty())) {
+      accessReviews.put(Optional.empty(),
+          reviewAccess(user, Optional.empty(), UNNAMESPACED_RESOURCES));
+    }
+    accessReviews.forEach((namespace, future) -> permissions.put(namespace, future.join()));
+
+    permissions.forEach((namespace, resources) -> cache.put(
+        Tuple.tuple(user, namespace), resources));
+
+    PermissionsListDto permissionsList = new PermissionsListDto();
+    permissionsList.setNamespaced(namespaces.stream()
+        .map(namespace -> {
+          PermissionsListDto.Namespaced permisionsNamespaced =
+              new PermissionsListDto.Namespaced();
+          permisionsNamespaced.setNamespace(namespace);
+          permisionsNamespaced.setResources(permissions.get(Optional.of(namespace)));
+          return permisionsNamespaced;
+        })
+        .collect(ImmutableList.toImmutableList()));
+    permissionsList.setUnnamespaced(permissions.get(Optional.empty()));
+    return permissionsList;
+  }
+
+  private Map<String, List<String>> getCached(String user, Optional<String> namespace) {
+    return cache.getIfPresent(Tuple.tuple(user, namespace));
+  }
+
+  private Map<String, Optional<Map<String, List<String>>>> reviewRules(
+      List<String> namespaces, KubernetesClientFactory userClientFactory) {
+    if (namespaces.isEmpty()) {
+      return ImmutableMap.of();
+    }
+    try (KubernetesClient userClient = userClientFactory.create()) {
+      Map<String, CompletableFuture<Optional<Map<String, List<String>>>>> reviews =
+          namespaces.stream()
+          .collect(ImmutableMap.toImmutableMap(namespace -> namespace,
+              namespace -> CompletableFuture.supplyAsync(
+                  () -> reviewNamespaceRules(userClient, namespace), executor)));
+      return reviews.entrySet().stream()
+          .collect(ImmutableMap.toImmutableMap(Map.Entry::getKey,
+              entry -> entry.getValue().join()));
+    }
+  }
+
+  /**
+   * Return the allowed verbs for each namespaced resource or empty if the rules returned by the
+   * {@code SelfSubjectRulesReview} are incomplete.
+   */
+  private Optional<Map<String, List<String>>> reviewNamespaceRules(KubernetesClient userClient,
+      String namespace) {
+    final SubjectRulesReviewStatus status;
+    try {
+      SelfSubjectRulesReview review = new SelfSubjectRulesReviewBuilder()
+          .withNewSpec()
+          .withNamespace(namespace)
+          .endSpec()
+          .build();
+      status = userClient.authorization().v1().selfSubjectRulesReview()
+          .create(review)
+          .getStatus();
+    } catch (KubernetesClientException ex) {
+      LOGGER.debug("Rules review failed for namespace {}", namespace, ex);
+      return Optional.empty();
+    }
+    if (status == null || Boolean.TRUE.equals(status.getIncomplete())) {
+      LOGGER.debug("Rules review incomplete for namespace {}: {}",
+          namespace, Optional.ofNullable(status)
+          .map(SubjectRulesReviewStatus::getEvaluationError)
+          .orElse(null));
+      return Optional.empty();
+    }
+    return Optional.of(Seq.seq(NAMESPACED_RESOURCES)
+        .map(resource -> resource.split("\\.", 2))
+        .toMap(resource -> resource[0], resource -> VERBS.stream()
+            .filter(verb -> status.getResourceRules().stream()
+                .anyMatch(rule -> isAllowedByRule(rule,
+                    resource.length == 2 ? resource[1] : "", resource[0], verb)))
+            .collect(ImmutableList.toImmutableList())));
+  }
+
+  private boolean isAllowedByRule(ResourceRule rule, String group, String resource, String verb) {
+    return (rule.getResourceNames() == null || rule.getResourceNames().isEmpty())
+        && matches(rule.getApiGroups(), group)
+        && matches(rule.getResources(), resource)
+        && matches(rule.getVerbs(), verb);
+  }
+
+  private boolean matches(List<String> values, String value) {
+    return values != null && (values.contains(value) || values.contains(ANY));
+  }
+
+  /**
+   * Send a {@code SubjectAccessReview} for each resource and verb in parallel and return the
+   * allowed verbs for each resource.
+   */
+  private CompletableFuture<Map<String, List<String>>> reviewAccess(String user,
+      Optional<String> namespace, List<String> resources) {
+    Map<String, List<CompletableFuture<Optional<String>>>> reviews = Seq.seq(resources)
+        .map(resource -> resource.split("\\.", 2))
+        .toMap(resource -> resource[0], resource -> VERBS.stream()
+            .map(verb -> CompletableFuture.supplyAsync(() -> Optional.of(verb)
+                .filter(v -> Boolean.TRUE.equals(review(user, namespace.orElse(null),
+                    resource.length == 2 ? resource[1] : "", resource[0], verb)
+                    .getAllowed())), executor))
+            .collect(ImmutableList.toImmutableList()));
+    return CompletableFuture.allOf(reviews.values().stream()
+        .flatMap(List::stream)
+        .toArray(CompletableFuture[]::new))
+        .thenApply(ignored -> reviews.entrySet().stream()
+            .collect(ImmutableMap.toImmutableMap(Map.Entry::getKey, entry -> entry.getValue()
+                .stream()
+                .map(CompletableFuture::join)
+                .flatMap(Optional::stream)
+                .collect(ImmutableList.toImmutableList()))));
+  }
+
+}
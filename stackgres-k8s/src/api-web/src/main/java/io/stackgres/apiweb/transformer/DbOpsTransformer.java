@@ -212,6 +212,8 @@ public class DbOpsTransformer
     StackGresDbOpsRestart transformation =
         new StackGresDbOpsRestart();
     transformation.setMethod(source.getMethod());
+    transformation.setMaximumLagOnSwitchover(source.getMaximumLagOnSwitchover());
+    transformation.setMaxParallelReplicaRestarts(source.getMaxParallelReplicaRestarts());
     transformation.setRestartPrimaryFirst(source.getRestartPrimaryFirst());
     transformation.setOnlyPendingRestart(source.getOnlyPendingRestart());
     return transformation;
@@ -225,6 +227,8 @@ public class DbOpsTransformer
     StackGresDbOpsMinorVersionUpgrade transformation =
         new StackGresDbOpsMinorVersionUpgrade();
     transformation.setMethod(source.getMethod());
+    transformation.setMaximumLagOnSwitchover(source.getMaximumLagOnSwitchover());
+    transformation.setMaxParallelReplicaRestarts(source.getMaxParallelReplicaRestarts());
     return transformation;
   }
 
@@ -236,6 +240,8 @@ public class DbOpsTransformer
     StackGresDbOpsSecurityUpgrade transformation =
         new StackGresDbOpsSecurityUpgrade();
     transformation.setMethod(source.getMethod());
+    transformation.setMaximumLagOnSwitchover(source.getMaximumLagOnSwitchover());
+    transformation.setMaxParallelReplicaRestarts(source.getMaxParallelReplicaRestarts());
     return transformation;
   }
 
@@ -363,6 +369,8 @@ public class DbOpsTransformer
     DbOpsRestart transformation =
         new DbOpsRestart();
     transformation.setMethod(source.getMethod());
+    transformation.setMaximumLagOnSwitchover(source.getMaximumLagOnSwitchover());
+    transformation.setMaxParallelReplicaRestarts(source.getMaxParallelReplicaRestarts());
     transformation.setRestartPrimaryFirst(source.getRestartPrimaryFirst());
     transformation.setOnlyPendingRestart(source.getOnlyPendingRestart());
     return transformation;
@@ -376,6 +384,8 @@ public class DbOpsTransformer
     DbOpsMinorVersionUpgrade transformation =
         new DbOpsMinorVersionUpgrade();
     transformation.setMethod(source.getMethod());
+    transformation.setMaximumLagOnSwitchover(source.getMaximumLagOnSwitchover());
+    transformation.setMaxParallelReplicaRestarts(source.getMaxParallelReplicaRestarts());
     return transformation;
   }
 
@@ -387,6 +397,8 @@ public class DbOpsTransformer
     DbOpsSecurityUpgrade transformation =
         new DbOpsSecurityUpgrade();
     transformation.setMethod(source.getMethod());
+    transformation.setMaximumLagOnSwitchover(source.getMaximumLagOnSwitchover());
+    transformation.setMaxParallelReplicaRestarts(source.getMaxParallelReplicaRestarts());
     return transformation;
   }
 
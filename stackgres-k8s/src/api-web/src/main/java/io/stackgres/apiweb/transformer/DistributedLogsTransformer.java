@@ -14,6 +14,7 @@ import com.google.common.collect.ImmutableList;
 import io.stackgres.apiweb.dto.cluster.ClusterInstalledExtension;
 import io.stackgres.apiweb.dto.distributedlogs.DistributedLogsCondition;
 import io.stackgres.apiweb.dto.distributedlogs.DistributedLogsDto;
+import io.stackgres.apiweb.dto.distributedlogs.DistributedLogsHypertables;
 import io.stackgres.apiweb.dto.distributedlogs.DistributedLogsNonProduction;
 import io.stackgres.apiweb.dto.distributedlogs.DistributedLogsPersistentVolume;
 import io.stackgres.apiweb.dto.distributedlogs.DistributedLogsPodScheduling;
@@ -24,6 +25,7 @@ import io.stackgres.apiweb.dto.distributedlogs.DistributedLogsStatus;
 import io.stackgres.common.crd.sgcluster.StackGresClusterInstalledExtension;
 import io.stackgres.common.crd.sgdistributedlogs.StackGresDistributedLogs;
 import io.stackgres.common.crd.sgdistributedlogs.StackGresDistributedLogsCondition;
+import io.stackgres.common.crd.sgdistributedlogs.StackGresDistributedLogsHypertables;
 import io.stackgres.common.crd.sgdistributedlogs.StackGresDistributedLogsPersistentVolume;
 import io.stackgres.common.crd.sgdistributedlogs.StackGresDistributedLogsPodScheduling;
 import io.stackgres.common.crd.sgdistributedlogs.StackGresDistributedLogsSpec;
@@ -63,6 +65,14 @@ public class DistributedLogsTransformer
         getCustomResourcePersistentVolume(source.getPersistentVolume()));
     transformation.setNonProduction(
         getCustomResourceNonProduction(source.getNonProduction()));
+    transformation.setHypertables(Optional.ofNullable(source.getHypertables())
+        .map(sourceHypertables -> {
+          StackGresDistributedLogsHypertables targetHypertables =
+              new StackGresDistributedLogsHypertables();
+          targetHypertables.setChunkTimeInterval(sourceHypertables.getChunkTimeInterval());
+          targetHypertables.setCompressAfter(sourceHypertables.getCompressAfter());
+          return targetHypertables;
+        }).orElse(null));
 
     transformation.setScheduling(Optional.ofNullable(source.getScheduling())
         .map(sourceScheduling -> {
@@ -122,6 +132,13 @@ public class DistributedLogsTransformer
         getResourcePersistentVolume(source.getPersistentVolume()));
     transformation.setNonProduction(
         getResourceNonProduction(source.getNonProduction()));
+    transformation.setHypertables(Optional.ofNullable(source.getHypertables())
+        .map(sourceHypertables -> {
+          DistributedLogsHypertables targetHypertables = new DistributedLogsHypertables();
+          targetHypertables.setChunkTimeInterval(sourceHypertables.getChunkTimeInterval());
+          targetHypertables.setCompressAfter(sourceHypertables.getCompressAfter());
+          return targetHypertables;
+        }).orElse(null));
 
     transformation.setScheduling(Optional.ofNullable(source.getScheduling())
         .map(sourcePodScheduling -> {
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.apiweb.distributedlogs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import io.stackgres.apiweb.dto.cluster.ClusterDto;
+import io.stackgres.apiweb.dto.cluster.ClusterLogEntryDto;
+import org.jooq.lambda.tuple.Tuple;
+import org.junit.jupiter.api.Test;
+
+class DistributedLogsFetcherTest {
+
+  private final List<DistributedLogsQueryParameters> queries = new ArrayList<>();
+
+  private final DistributedLogsFetcher fetcher = parameters -> {
+    queries.add(parameters);
+    final long from = parameters.getFromTimeAndIndex().map(t -> t.v2 + 1).orElse(0L);
+    return LongStream.range(from, Math.min(from + parameters.getRecords(), 1100))
+        .mapToObj(DistributedLogsFetcherTest::entry)
+        .collect(Collectors.toList());
+  };
+
+  @Test
+  void streamLogs_shouldQueryOnePageAtATimeAfterTheLastEntry() {
+    List<ClusterLogEntryDto> entries = new ArrayList<>();
+
+    fetcher.streamLogs(parameters(1200), entries::add);
+
+    assertEquals(1100, entries.size());
+    assertEquals(1099L, entries.get(1099).getLogTimeIndex());
+    assertEquals(3, queries.size());
+    assertEquals(500, queries.get(0).getRecords());
+    assertEquals(Optional.empty(), queries.get(0).getFromTimeAndIndex());
+    assertEquals(500, queries.get(1).getRecords());
+    assertEquals(Optional.of(Tuple.tuple(Instant.EPOCH, 499L)),
+        queries.get(1).getFromTimeAndIndex());
+    assertFalse(queries.get(1).isFromInclusive());
+    assertEquals(200, queries.get(2).getRecords());
+    assertEquals(Optional.of(Tuple.tuple(Instant.EPOCH, 999L)),
+        queries.get(2).getFromTimeAndIndex());
+  }
+
+  @Test
+  void streamLogs_shouldNotQueryMoreThanTheRequestedRecords() {
+    List<ClusterLogEntryDto> entries = new ArrayList<>();
+
+    fetcher.streamLogs(parameters(1000), entries::add);
+
+    assertEquals(1000, entries.size());
+    assertEquals(2, queries.size());
+  }
+
+  private static DistributedLogsQueryParameters parameters(int records) {
+    return ImmutableDistributedLogsQueryParameters.builder()
+        .cluster(new ClusterDto())
+        .records(records)
+        .isSortAsc(true)
+        .isFromInclusive(true)
+        .build();
+  }
+
+  private static ClusterLogEntryDto entry(long index) {
+    ClusterLogEntryDto entry = new ClusterLogEntryDto();
+    entry.setLogTime("1970-01-01T00:00:00Z");
+    entry.setLogTimeIndex(index);
+    return entry;
+  }
+
+}
@@ -82,7 +82,7 @@ class DistributedLogsQueryGeneratorTest {
             .records(1)
             .isSortAsc(false)
             .isFromInclusive(false)
-            .fromTimeAndIndex(Tuple.tuple(Instant.EPOCH, 0))
+            .fromTimeAndIndex(Tuple.tuple(Instant.EPOCH, 0L))
             .build()));
   }
 
@@ -94,7 +94,7 @@ class DistributedLogsQueryGeneratorTest {
             .records(1)
             .isSortAsc(false)
             .isFromInclusive(true)
-            .fromTimeAndIndex(Tuple.tuple(Instant.EPOCH, 0))
+            .fromTimeAndIndex(Tuple.tuple(Instant.EPOCH, 0L))
             .build()));
   }
 
@@ -106,7 +106,7 @@ class DistributedLogsQueryGeneratorTest {
             .records(1)
             .isSortAsc(false)
             .isFromInclusive(false)
-            .toTimeAndIndex(Tuple.tuple(Instant.EPOCH, 0))
+            .toTimeAndIndex(Tuple.tuple(Instant.EPOCH, 0L))
             .build()));
   }
 
@@ -118,8 +118,8 @@ class DistributedLogsQueryGeneratorTest {
             .records(1)
             .isSortAsc(false)
             .isFromInclusive(false)
-            .fromTimeAndIndex(Tuple.tuple(Instant.EPOCH, 0))
-            .toTimeAndIndex(Tuple.tuple(Instant.EPOCH, 0))
+            .fromTimeAndIndex(Tuple.tuple(Instant.EPOCH, 0L))
+            .toTimeAndIndex(Tuple.tuple(Instant.EPOCH, 0L))
             .build()));
   }
 
@@ -131,8 +131,8 @@ class DistributedLogsQueryGeneratorTest {
             .records(1)
             .isSortAsc(false)
             .isFromInclusive(true)
-            .fromTimeAndIndex(Tuple.tuple(Instant.EPOCH, 0))
-            .toTimeAndIndex(Tuple.tuple(Instant.EPOCH, 0))
+            .fromTimeAndIndex(Tuple.tuple(Instant.EPOCH, 0L))
+            .toTimeAndIndex(Tuple.tuple(Instant.EPOCH, 0L))
             .build()));
   }
 
@@ -155,7 +155,7 @@ class DistributedLogsQueryGeneratorTest {
             .records(1)
             .isSortAsc(true)
             .isFromInclusive(false)
-            .fromTimeAndIndex(Tuple.tuple(Instant.EPOCH, 0))
+            .fromTimeAndIndex(Tuple.tuple(Instant.EPOCH, 0L))
             .build()));
   }
 
@@ -167,7 +167,7 @@ class DistributedLogsQueryGeneratorTest {
             .records(1)
             .isSortAsc(true)
             .isFromInclusive(true)
-            .fromTimeAndIndex(Tuple.tuple(Instant.EPOCH, 0))
+            .fromTimeAndIndex(Tuple.tuple(Instant.EPOCH, 0L))
             .build()));
   }
 
@@ -179,7 +179,7 @@ class DistributedLogsQueryGeneratorTest {
             .records(1)
             .isSortAsc(true)
             .isFromInclusive(false)
-            .toTimeAndIndex(Tuple.tuple(Instant.EPOCH, 0))
+            .toTimeAndIndex(Tuple.tuple(Instant.EPOCH, 0L))
             .build()));
   }
 
@@ -191,8 +191,8 @@ class DistributedLogsQueryGeneratorTest {
             .records(1)
             .isSortAsc(true)
             .isFromInclusive(false)
-            .fromTimeAndIndex(Tuple.tuple(Instant.EPOCH, 0))
-            .toTimeAndIndex(Tuple.tuple(Instant.EPOCH, 0))
+            .fromTimeAndIndex(Tuple.tuple(Instant.EPOCH, 0L))
+            .toTimeAndIndex(Tuple.tuple(Instant.EPOCH, 0L))
             .build()));
   }
 
@@ -204,8 +204,8 @@ class DistributedLogsQueryGeneratorTest {
             .records(1)
             .isSortAsc(true)
             .isFromInclusive(true)
-            .fromTimeAndIndex(Tuple.tuple(Instant.EPOCH, 0))
-            .toTimeAndIndex(Tuple.tuple(Instant.EPOCH, 0))
+            .fromTimeAndIndex(Tuple.tuple(Instant.EPOCH, 0L))
+            .toTimeAndIndex(Tuple.tuple(Instant.EPOCH, 0L))
             .build()));
   }
 
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.apiweb.distributedlogs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.stackgres.apiweb.dto.cluster.ClusterDto;
+import org.jooq.DSLContext;
+import org.jooq.Record;
+import org.jooq.SQLDialect;
+import org.jooq.Select;
+import org.jooq.impl.DefaultDSLContext;
+import org.jooq.lambda.tuple.Tuple;
+import org.junit.jupiter.api.Test;
+
+class DistributedLogsQueryTemplateTest {
+
+  private final DSLContext context = new DefaultDSLContext(SQLDialect.POSTGRES);
+
+  @Test
+  void parametersWithTheSameShape_shouldReuseTheTemplate() {
+    DistributedLogsQueryParameters parameters = parameters(10, Instant.EPOCH, 0,
+        "role", "primary", "userName", "postgres");
+    DistributedLogsQueryParameters otherParameters = parameters(20, Instant.now(), 3,
+        "role", "replica", "userName", "other");
+    assertEquals(DistributedLogsQueryGenerator.getShape(parameters),
+        DistributedLogsQueryGenerator.getShape(otherParameters));
+
+    DistributedLogsQueryTemplate template = DistributedLogsQueryTemplate.create(parameters);
+
+    Select<Record> query = new DistributedLogsQueryGenerator(context, otherParameters)
+        .generateQuery();
+    assertEquals(context.render(query), template.getSql());
+    assertEquals(context.extractBindValues(query), template.getBindValues(otherParameters));
+  }
+
+  @Test
+  void parametersWithDifferentShape_shouldNotReuseTheTemplate() {
+    assertNotEquals(
+        DistributedLogsQueryGenerator.getShape(parameters(10, Instant.EPOCH, 0,
+            "role", "primary", "userName", "postgres")),
+        DistributedLogsQueryGenerator.getShape(parameters(10, Instant.EPOCH, 0,
+            "role", "primary", "podName", "postgres")));
+  }
+
+  @Test
+  void parametersWithDifferentLogType_shouldNotReuseTheTemplate() {
+    DistributedLogsQueryParameters patroniParameters = parameters(10, Instant.EPOCH, 0,
+        "logType", "pa", "userName", "postgres");
+    DistributedLogsQueryParameters postgresParameters = parameters(10, Instant.EPOCH, 0,
+        "logType", "pg", "userName", "postgres");
+    assertNotEquals(
+        DistributedLogsQueryGenerator.getShape(patroniParameters),
+        DistributedLogsQueryGenerator.getShape(postgresParameters));
+
+    Map<List<Object>, DistributedLogsQueryTemplate> templates = new HashMap<>();
+    for (DistributedLogsQueryParameters parameters
+        : List.of(patroniParameters, postgresParameters)) {
+      DistributedLogsQueryTemplate template = templates.computeIfAbsent(
+          DistributedLogsQueryGenerator.getShape(parameters),
+          shape -> DistributedLogsQueryTemplate.create(parameters));
+
+      Select<Record> query = new DistributedLogsQueryGenerator(context, parameters)
+          .generateQuery();
+      assertEquals(context.render(query), template.getSql());
+      assertEquals(context.extractBindValues(query), template.getBindValues(parameters));
+    }
+    assertEquals(2, templates.size());
+  }
+
+  private DistributedLogsQueryParameters parameters(int records, Instant from, long fromIndex,
+      String firstFilter, String firstFilterValue, String secondFilter, String secondFilterValue) {
+    return ImmutableDistributedLogsQueryParameters.builder()
+        .cluster(new ClusterDto())
+        .records(records)
+        .isSortAsc(false)
+        .isFromInclusive(false)
+        .fromTimeAndIndex(Tuple.tuple(from, fromIndex))
+        .filters(ImmutableMap.of(
+            firstFilter, ImmutableList.of(firstFilterValue),
+            secondFilter, ImmutableList.of(secondFilterValue)))
+        .fullTextSearchQuery(new FullTextSearchQuery("test"))
+        .build();
+  }
+
+}
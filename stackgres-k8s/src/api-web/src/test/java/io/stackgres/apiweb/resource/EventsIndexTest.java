@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.apiweb.resource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import com.google.common.collect.ImmutableList;
+import io.fabric8.kubernetes.api.model.Event;
+import io.fabric8.kubernetes.api.model.EventBuilder;
+import io.fabric8.kubernetes.client.DefaultKubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesServer;
+import io.stackgres.apiweb.dto.Metadata;
+import io.stackgres.apiweb.dto.event.EventDto;
+import io.stackgres.common.crd.sgcluster.StackGresCluster;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class EventsIndexTest {
+
+  private static final String NAMESPACE = "test-namespace";
+  private static final String OTHER_NAMESPACE = "other-namespace";
+
+  private KubernetesServer server;
+  private KubernetesClient client;
+  private EventsIndex eventsIndex;
+
+  @BeforeEach
+  void setUp() {
+    server = new KubernetesServer(false, true);
+    server.before();
+    client = server.getClient();
+    eventsIndex = new EventsIndex(
+        () -> new DefaultKubernetesClient(client.getConfiguration()), true);
+  }
+
+  @AfterEach
+  void tearDown() {
+    eventsIndex.close();
+    server.after();
+  }
+
+  private Event createEvent(String name, long lastTimestamp, String kind,
+      String involvedObjectName, String uid) {
+    return createEvent(NAMESPACE, name, lastTimestamp, kind, involvedObjectName, uid);
+  }
+
+  private Event createEvent(String namespace, String name, long lastTimestamp, String kind,
+      String involvedObjectName, String uid) {
+    return client.v1().events().inNamespace(namespace)
+        .create(new EventBuilder()
+            .withNewMetadata()
+            .withNamespace(namespace)
+            .withName(name)
+            .endMetadata()
+            .withType("Normal")
+            .withMessage(name)
+            .withLastTimestamp(DateTimeFormatter.ISO_INSTANT
+                .format(Instant.ofEpochMilli(lastTimestamp)))
+            .withNewInvolvedObject()
+            .withKind(kind)
+            .withNamespace(namespace)
+            .withName(involvedObjectName)
+            .withUid(uid)
+            .endInvolvedObject()
+            .build());
+  }
+
+  private List<String> findClusterEvents() {
+    return eventsIndex.findByKeys(NAMESPACE, ImmutableList.of(
+        EventsIndex.involvedObjectKey(NAMESPACE, StackGresCluster.KIND, "test"),
+        EventsIndex.involvedObjectsWithIndexKey(NAMESPACE, "Pod", "test"),
+        EventsIndex.involvedObjectUidKey("dbops-uid")))
+        .orElseThrow()
+        .stream()
+        .map(event -> event.getMetadata().getName())
+        .collect(Collectors.toList());
+  }
+
+  private void waitUntil(Supplier<Boolean> condition) throws InterruptedException {
+    final long deadline = System.currentTimeMillis() + 10_000L;
+    while (!condition.get() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(50L);
+    }
+  }
+
+  private void startAndWaitForSync() throws InterruptedException {
+    eventsIndex.findByKeys(NAMESPACE, ImmutableList.of());
+    waitUntil(() -> eventsIndex.isAvailable(NAMESPACE));
+  }
+
+  @Test
+  void findByKeys_beforeSynced_shouldReturnEmptyAndStartIndexingOnlyThatNamespace()
+      throws Exception {
+    createEvent("test.1", 1, StackGresCluster.KIND, "test", "cluster-uid");
+
+    assertFalse(eventsIndex.findByKeys(NAMESPACE, ImmutableList.of(
+        EventsIndex.involvedObjectKey(NAMESPACE, StackGresCluster.KIND, "test")))
+        .isPresent());
+    waitUntil(() -> eventsIndex.isAvailable(NAMESPACE));
+
+    assertTrue(eventsIndex.isAvailable(NAMESPACE));
+    assertFalse(eventsIndex.isAvailable(OTHER_NAMESPACE));
+  }
+
+  @Test
+  void findByKeys_shouldReturnIndexedEventsSortedByLastTimestamp() throws Exception {
+    createEvent("test.1", 3, StackGresCluster.KIND, "test", "cluster-uid");
+    createEvent("test.2", 1, "Pod", "test-0", "pod-0-uid");
+    createEvent("test.3", 2, "Pod", "test-1", "pod-1-uid");
+    createEvent("test.4", 0, "SGDbOps", "test-operation", "dbops-uid");
+    createEvent("other.1", 0, StackGresCluster.KIND, "other", "other-uid");
+    createEvent("other.2", 0, "Pod", "test-other-0", "other-pod-uid");
+    createEvent("other.3", 0, "Pod", "test", "other-test-pod-uid");
+    createEvent("other.4", 0, "Secret", "test-secret", "dbops-uid");
+    createEvent(OTHER_NAMESPACE, "other.5", 0, StackGresCluster.KIND, "test", "dbops-uid");
+    startAndWaitForSync();
+
+    assertEquals(ImmutableList.of("test.4", "test.2", "test.3", "test.1"),
+        findClusterEvents());
+  }
+
+  @Test
+  void findByKeys_shouldFollowChangesOfEvents() throws Exception {
+    createEvent("test.1", 1, StackGresCluster.KIND, "test", "cluster-uid");
+    createEvent("test.2", 2, "Pod", "test-0", "pod-0-uid");
+    startAndWaitForSync();
+    assertEquals(ImmutableList.of("test.1", "test.2"), findClusterEvents());
+
+    client.v1().events().inNamespace(NAMESPACE).withName("test.1")
+        .edit(event -> new EventBuilder(event)
+            .withLastTimestamp(DateTimeFormatter.ISO_INSTANT.format(Instant.ofEpochMilli(3)))
+            .build());
+    createEvent("test.3", 0, "SGDbOps", "test-operation", "dbops-uid");
+    waitUntil(() -> findClusterEvents().size() == 3
+        && findClusterEvents().get(2).equals("test.1"));
+    assertEquals(ImmutableList.of("test.3", "test.2", "test.1"), findClusterEvents());
+
+    client.v1().events().inNamespace(NAMESPACE).withName("test.2").delete();
+    waitUntil(() -> findClusterEvents().size() == 2);
+    assertEquals(ImmutableList.of("test.3", "test.1"), findClusterEvents());
+  }
+
+  @Test
+  void findByKeys_whenDisabled_shouldReturnEmpty() {
+    EventsIndex disabledEventsIndex = new EventsIndex(
+        () -> new DefaultKubernetesClient(client.getConfiguration()), false);
+
+    assertFalse(disabledEventsIndex.findByKeys(NAMESPACE, ImmutableList.of(
+        EventsIndex.involvedObjectKey(NAMESPACE, StackGresCluster.KIND, "test")))
+        .isPresent());
+  }
+
+  @Test
+  void sortByLastTimestamp_shouldPutEventsWithoutLastTimestampFirst() {
+    EventDto withTimestamp = new EventDto();
+    withTimestamp.setMetadata(new Metadata());
+    withTimestamp.getMetadata().setNamespace(NAMESPACE);
+    withTimestamp.getMetadata().setName("with-timestamp");
+    withTimestamp.setLastTimestamp(DateTimeFormatter.ISO_INSTANT.format(Instant.ofEpochMilli(0)));
+    EventDto withoutTimestamp = new EventDto();
+    withoutTimestamp.setMetadata(new Metadata());
+    withoutTimestamp.getMetadata().setNamespace(NAMESPACE);
+    withoutTimestamp.getMetadata().setName("without-timestamp");
+
+    List<EventDto> sorted = EventsIndex.sortByLastTimestamp(
+        ImmutableList.of(withTimestamp, withoutTimestamp));
+
+    assertSame(withoutTimestamp, sorted.get(0));
+    assertSame(withTimestamp, sorted.get(1));
+  }
+
+}
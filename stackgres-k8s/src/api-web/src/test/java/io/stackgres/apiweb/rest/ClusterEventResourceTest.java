@@ -69,6 +69,20 @@ class ClusterEventResourceTest implements AuthenticatedResourceTest {
         .body("", Matchers.hasSize(0));
   }
 
+  @Test
+  void ifOffsetOrLimitAreNegative_itShouldReturnABadRequest() {
+    given()
+        .when()
+        .header(AUTHENTICATION_HEADER)
+        .get("/stackgres/namespaces/test-namespace/sgclusters/test/events?offset=-1")
+        .then().statusCode(400);
+    given()
+        .when()
+        .header(AUTHENTICATION_HEADER)
+        .get("/stackgres/namespaces/test-namespace/sgclusters/test/events?limit=-1")
+        .then().statusCode(400);
+  }
+
   @Test
   void ifEventsAreCreated_itShouldReturnThenInAnArray() {
     try (KubernetesClient client = factory.create()) {
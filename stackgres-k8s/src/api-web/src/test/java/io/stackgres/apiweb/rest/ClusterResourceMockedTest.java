@@ -17,9 +17,13 @@ import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -30,9 +34,12 @@ import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import javax.ws.rs.BadRequestException;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.fabric8.kubernetes.api.model.ConfigMap;
@@ -513,7 +520,8 @@ class ClusterResourceMockedTest extends
     dtoFinder.setClusterTransformer(clusterTransformer);
     dtoFinder.setLabelFactory(labelFactory);
 
-    return new NamespacedClusterLogsResource(dtoFinder, distributedLogsFetcher);
+    return new NamespacedClusterLogsResource(dtoFinder, distributedLogsFetcher,
+        new ObjectMapper());
   }
 
   @Override
@@ -1035,6 +1043,69 @@ class ClusterResourceMockedTest extends
     assertIterableEquals(logList, logs);
   }
 
+  @Test
+  void streamLogsShouldWriteEntriesAsJsonLines() throws Exception {
+    clusterMocks();
+    when(finder.findByNameAndNamespace(getResourceName(), getResourceNamespace()))
+        .thenReturn(Optional.of(customResources.getItems().get(0)));
+    ClusterLogEntryDto entry = new ClusterLogEntryDto();
+    entry.setLogTime("2020-01-01T00:00:00Z");
+    entry.setLogTimeIndex(0L);
+    entry.setMessage("test");
+    doAnswer(invocation -> {
+      DistributedLogsQueryParameters parameters = invocation.getArgument(0);
+      assertEquals(50, parameters.getRecords());
+      Consumer<ClusterLogEntryDto> consumer = invocation.getArgument(1);
+      consumer.accept(entry);
+      consumer.accept(entry);
+      return null;
+    }).when(distributedLogsFetcher).streamLogs(any(), any());
+
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    getClusterLogsResource().streamLogs(getResourceNamespace(), getResourceName(),
+        null, null, null, null, null, null, null, null, null, null, null, null, false)
+        .write(output);
+
+    String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(2, lines.length);
+    for (String line : lines) {
+      assertEquals("test", new ObjectMapper().readValue(line, ClusterLogEntryDto.class)
+          .getMessage());
+    }
+  }
+
+  @Test
+  void streamLogsInFollowModeShouldEndWhenTheClientDisconnects() throws Exception {
+    clusterMocks();
+    when(finder.findByNameAndNamespace(getResourceName(), getResourceNamespace()))
+        .thenReturn(Optional.of(customResources.getItems().get(0)));
+    ClusterLogEntryDto entry = new ClusterLogEntryDto();
+    entry.setLogTime("2020-01-01T00:00:00Z");
+    entry.setLogTimeIndex(0L);
+    AtomicBoolean disconnected = new AtomicBoolean(false);
+    OutputStream output = new ByteArrayOutputStream() {
+      @Override
+      public void write(byte[] bytes) throws IOException {
+        if (disconnected.get()) {
+          throw new IOException("Connection closed");
+        }
+        super.write(bytes);
+      }
+    };
+    doAnswer(invocation -> {
+      Consumer<ClusterLogEntryDto> consumer = invocation.getArgument(1);
+      consumer.accept(entry);
+      disconnected.set(true);
+      return null;
+    }).when(distributedLogsFetcher).streamLogs(any(), any());
+
+    getClusterLogsResource().streamLogs(getResourceNamespace(), getResourceName(),
+        null, null, null, null, null, null, null, null, null, null, null, null, true)
+        .write(output);
+
+    verify(distributedLogsFetcher, times(2)).streamLogs(any(), any());
+  }
+
   @Test
   void getLogsWithRecordsShouldNotFail() {
     clusterMocks();
@@ -1115,7 +1186,7 @@ class ClusterResourceMockedTest extends
         assertNotNull(parameters);
         checkDto(parameters.getCluster(), customResources.getItems().get(0));
         assertEquals(50, parameters.getRecords());
-        assertEquals(Optional.of(Tuple.tuple(Instant.EPOCH, 0)), parameters.getFromTimeAndIndex());
+        assertEquals(Optional.of(Tuple.tuple(Instant.EPOCH, 0L)), parameters.getFromTimeAndIndex());
         assertEquals(Optional.empty(), parameters.getToTimeAndIndex());
         assertEquals(ImmutableMap.of(), parameters.getFilters());
         assertEquals(Optional.empty(), parameters.getFullTextSearchQuery());
@@ -1159,7 +1230,7 @@ class ClusterResourceMockedTest extends
         assertNotNull(parameters);
         checkDto(parameters.getCluster(), customResources.getItems().get(0));
         assertEquals(parameters.getRecords(), 50);
-        assertEquals(parameters.getFromTimeAndIndex(), Optional.of(Tuple.tuple(Instant.EPOCH, 1)));
+        assertEquals(parameters.getFromTimeAndIndex(), Optional.of(Tuple.tuple(Instant.EPOCH, 1L)));
         assertEquals(parameters.getToTimeAndIndex(), Optional.empty());
         assertEquals(parameters.getFilters(), ImmutableMap.of());
         assertEquals(parameters.getFullTextSearchQuery(), Optional.empty());
@@ -1257,7 +1328,7 @@ class ClusterResourceMockedTest extends
         assertEquals(parameters.getRecords(), 50);
         assertEquals(parameters.getFromTimeAndIndex(), Optional.empty());
         assertEquals(parameters.getToTimeAndIndex(),
-            Optional.of(Tuple.tuple(Instant.EPOCH, Integer.MAX_VALUE)));
+            Optional.of(Tuple.tuple(Instant.EPOCH, Long.MAX_VALUE)));
         assertEquals(parameters.getFilters(), ImmutableMap.of());
         assertEquals(parameters.getFullTextSearchQuery(), Optional.empty());
         assertFalse(parameters.isSortAsc());
@@ -1301,7 +1372,7 @@ class ClusterResourceMockedTest extends
         checkDto(parameters.getCluster(), customResources.getItems().get(0));
         assertEquals(50, parameters.getRecords());
         assertEquals(Optional.empty(), parameters.getFromTimeAndIndex());
-        assertEquals(Optional.of(Tuple.tuple(Instant.EPOCH, 1)), parameters.getToTimeAndIndex());
+        assertEquals(Optional.of(Tuple.tuple(Instant.EPOCH, 1L)), parameters.getToTimeAndIndex());
         assertEquals(parameters.getFilters(), ImmutableMap.of());
         assertEquals(parameters.getFullTextSearchQuery(), Optional.empty());
         assertFalse(parameters.isSortAsc());
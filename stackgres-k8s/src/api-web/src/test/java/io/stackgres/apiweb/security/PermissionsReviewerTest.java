@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2020 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.apiweb.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.collect.ImmutableList;
+import io.fabric8.kubernetes.api.model.authorization.v1.ResourceAttributes;
+import io.fabric8.kubernetes.api.model.authorization.v1.ResourceRule;
+import io.fabric8.kubernetes.api.model.authorization.v1.ResourceRuleBuilder;
+import io.fabric8.kubernetes.api.model.authorization.v1.SelfSubjectRulesReview;
+import io.fabric8.kubernetes.api.model.authorization.v1.SubjectAccessReview;
+import io.fabric8.kubernetes.api.model.authorization.v1.SubjectAccessReviewStatusBuilder;
+import io.fabric8.kubernetes.api.model.authorization.v1.SubjectRulesReviewStatusBuilder;
+import io.fabric8.kubernetes.client.DefaultKubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesServer;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import io.stackgres.apiweb.dto.PermissionsListDto;
+import io.stackgres.common.KubernetesClientFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PermissionsReviewerTest {
+
+  private static final List<String> NAMESPACES = ImmutableList.of("ns-0", "ns-1", "ns-2");
+  private static final String USER = "alice";
+  private static final String ALL_NAMESPACE = "ns-0";
+  private static final String READ_NAMESPACE = "ns-1";
+
+  private final AtomicInteger accessReviews = new AtomicInteger();
+  private final AtomicInteger rulesReviews = new AtomicInteger();
+  private final AtomicBoolean rulesIncomplete = new AtomicBoolean();
+  private final AtomicBoolean accessReviewsWithGroups = new AtomicBoolean();
+
+  private KubernetesServer server;
+  private KubernetesClientFactory clientFactory;
+
+  @BeforeEach
+  void setUp() {
+    server = new KubernetesServer(false, false);
+    server.before();
+    clientFactory = () -> new DefaultKubernetesClient(server.getClient().getConfiguration());
+    server.expect().post()
+        .withPath("/apis/authorization.k8s.io/v1/subjectaccessreviews")
+        .andReply(200, request -> {
+          accessReviews.incrementAndGet();
+          SubjectAccessReview review = Serialization.unmarshal(
+              request.getBody().readUtf8(), SubjectAccessReview.class);
+          ResourceAttributes attributes = review.getSpec().getResourceAttributes();
+          if (review.getSpec().getGroups() != null && !review.getSpec().getGroups().isEmpty()) {
+            accessReviewsWithGroups.set(true);
+          }
+          review.setStatus(new SubjectAccessReviewStatusBuilder()
+              .withAllowed(USER.equals(review.getSpec().getUser())
+                  && isAllowed(attributes.getNamespace(),
+                      Optional.ofNullable(attributes.getGroup()).orElse(""),
+                      attributes.getResource(), attributes.getVerb()))
+              .build());
+          return review;
+        })
+        .always();
+    server.expect().post()
+        .withPath("/apis/authorization.k8s.io/v1/selfsubjectrulesreviews")
+        .andReply(200, request -> {
+          rulesReviews.incrementAndGet();
+          SelfSubjectRulesReview review = Serialization.unmarshal(
+              request.getBody().readUtf8(), SelfSubjectRulesReview.class);
+          review.setStatus(new SubjectRulesReviewStatusBuilder()
+              .withIncomplete(rulesIncomplete.get())
+              .withResourceRules(getRules(review.getSpec().getNamespace()))
+              .build());
+          return review;
+        })
+        .always();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.after();
+  }
+
+  /**
+   * The policy checked by the access reviews: everything is allowed in {@code ns-0}, only read
+   * pods and sgclusters in {@code ns-1} and only read namespaces for unnamespaced resources.
+   */
+  private static boolean isAllowed(String namespace, String group, String resource,
+      String verb) {
+    if (ALL_NAMESPACE.equals(namespace)) {
+      return true;
+    }
+    boolean read = verb.equals("get") || verb.equals("list");
+    if (READ_NAMESPACE.equals(namespace)) {
+      return read && ((group.isEmpty() && resource.equals("pods"))
+          || (group.equals("stackgres.io") && resource.equals("sgclusters")));
+    }
+    return namespace == null && read && resource.equals("namespaces");
+  }
+
+  /**
+   * The same policy of {@link #isAllowed(String, String, String, String)} expressed as rules.
+   */
+  private static List<ResourceRule> getRules(String namespace) {
+    if (ALL_NAMESPACE.equals(namespace)) {
+      return ImmutableList.of(new ResourceRuleBuilder()
+          .withApiGroups("*")
+          .withResources("*")
+          .withVerbs("*")
+          .build());
+    }
+    if (READ_NAMESPACE.equals(namespace)) {
+      return ImmutableList.of(
+          new ResourceRuleBuilder()
+              .withApiGroups("")
+              .withResources("pods")
+              .withVerbs("get", "list")
+              .build(),
+          new ResourceRuleBuilder()
+              .withApiGroups("stackgres.io")
+              .withResources("sgclusters", "sgclusters/status")
+              .withVerbs("get", "list")
+              .build(),
+          new ResourceRuleBuilder()
+              .withApiGroups("")
+              .withResources("secrets")
+              .withResourceNames("only-this-secret")
+              .withVerbs("get")
+              .build());
+    }
+    return ImmutableList.of();
+  }
+
+  private PermissionsListDto reviewPermissions(boolean incomplete) {
+    rulesIncomplete.set(incomplete);
+    PermissionsReviewer reviewer = new PermissionsReviewer(clientFactory.create(), Duration.ZERO);
+    try {
+      return reviewer.reviewPermissions(USER, NAMESPACES, clientFactory);
+    } finally {
+      reviewer.close();
+    }
+  }
+
+  @Test
+  void reviewPermissionsWithRules_shouldReturnSameResultAsAccessReviews() {
+    final int verbs = PermissionsReviewer.VERBS.size();
+    final int unnamespacedReviews = PermissionsReviewer.UNNAMESPACED_RESOURCES.size() * verbs;
+
+    final PermissionsListDto expected = reviewPermissions(true);
+
+    assertEquals(NAMESPACES.size(), rulesReviews.get());
+    assertEquals(NAMESPACES.size() * PermissionsReviewer.NAMESPACED_RESOURCES.size() * verbs
+        + unnamespacedReviews, accessReviews.get());
+
+    rulesReviews.set(0);
+    accessReviews.set(0);
+    PermissionsListDto actual = reviewPermissions(false);
+
+    assertEquals(NAMESPACES.size(), rulesReviews.get());
+    assertEquals(unnamespacedReviews, accessReviews.get());
+    assertEquals(expected.toString(), actual.toString());
+    assertEquals(PermissionsReviewer.VERBS, actual.getNamespaced().get(0).getResources()
+        .get("sgclusters"));
+    assertEquals(ImmutableList.of("get", "list"), actual.getNamespaced().get(1).getResources()
+        .get("sgclusters"));
+    assertEquals(ImmutableList.of(), actual.getNamespaced().get(1).getResources()
+        .get("secrets"));
+    assertEquals(ImmutableList.of(), actual.getNamespaced().get(2).getResources()
+        .get("pods"));
+    assertEquals(ImmutableList.of("get", "list"), actual.getUnnamespaced().get("namespaces"));
+    assertFalse(accessReviewsWithGroups.get());
+  }
+
+  @Test
+  void reviewPermissionsTwice_shouldUseCachedResultForSameUser() {
+    PermissionsReviewer reviewer = new PermissionsReviewer(clientFactory.create(),
+        Duration.ofMinutes(1));
+    try {
+      PermissionsListDto first = reviewer.reviewPermissions(USER, NAMESPACES, clientFactory);
+      final int requests = rulesReviews.get() + accessReviews.get();
+
+      PermissionsListDto second = reviewer.reviewPermissions(USER, NAMESPACES, clientFactory);
+
+      assertEquals(requests, rulesReviews.get() + accessReviews.get());
+      assertEquals(first.toString(), second.toString());
+
+      reviewer.reviewPermissions("bob", NAMESPACES, clientFactory);
+
+      assertEquals(requests * 2, rulesReviews.get() + accessReviews.get());
+    } finally {
+      reviewer.close();
+    }
+  }
+
+}
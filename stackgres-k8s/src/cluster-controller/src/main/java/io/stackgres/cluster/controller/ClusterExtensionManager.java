@@ -5,23 +5,37 @@
 
 package io.stackgres.cluster.controller;
 
+import java.nio.file.Paths;
+
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
+import io.stackgres.cluster.configuration.ClusterControllerPropertyContext;
 import io.stackgres.common.CdiUtil;
+import io.stackgres.common.ClusterControllerProperty;
 import io.stackgres.common.FileSystemHandler;
 import io.stackgres.common.WebClientFactory;
 import io.stackgres.common.extension.ExtensionManager;
+import io.stackgres.common.extension.ExtensionPackageCache;
 
 @ApplicationScoped
 public class ClusterExtensionManager extends ExtensionManager {
 
   @Inject
   public ClusterExtensionManager(
-      ClusterExtensionMetadataManager clusterExtensionMetadataManager) {
+      ClusterExtensionMetadataManager clusterExtensionMetadataManager,
+      ClusterControllerPropertyContext propertyContext) {
     super(
         clusterExtensionMetadataManager,
-        new WebClientFactory(), new FileSystemHandler());
+        new WebClientFactory(), new FileSystemHandler(),
+        propertyContext.get(ClusterControllerProperty
+            .CLUSTER_CONTROLLER_EXTENSIONS_CACHE_PATH)
+            .map(cachePath -> new ExtensionPackageCache(Paths.get(cachePath),
+                propertyContext.get(ClusterControllerProperty
+                    .CLUSTER_CONTROLLER_EXTENSIONS_CACHE_MAX_SIZE)
+                    .map(Long::parseLong)
+                    .orElse(ExtensionPackageCache.DEFAULT_MAX_SIZE)))
+            .orElse(null));
   }
 
   public ClusterExtensionManager() {
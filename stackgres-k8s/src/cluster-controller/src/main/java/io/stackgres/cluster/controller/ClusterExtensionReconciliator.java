@@ -46,7 +46,11 @@ public class ClusterExtensionReconciliator
         ClusterControllerProperty.CLUSTER_CONTROLLER_POD_NAME),
         parameters.extensionManager,
         parameters.propertyContext.getBoolean(ClusterControllerProperty
-            .CLUSTER_CONTROLLER_SKIP_OVERWRITE_SHARED_LIBRARIES));
+            .CLUSTER_CONTROLLER_SKIP_OVERWRITE_SHARED_LIBRARIES),
+        parameters.propertyContext.get(ClusterControllerProperty
+            .CLUSTER_CONTROLLER_EXTENSIONS_INSTALL_CONCURRENCY)
+            .map(Integer::parseInt)
+            .orElse(DEFAULT_INSTALL_CONCURRENCY));
     this.eventController = parameters.eventController;
   }
 
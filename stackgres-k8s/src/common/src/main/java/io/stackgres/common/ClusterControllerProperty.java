@@ -17,7 +17,13 @@ public enum ClusterControllerProperty implements StackGresPropertyReader {
   CLUSTER_CONTROLLER_EXTENSIONS_REPOSITORY_URLS(
       "stackgres.clusterControllerExtensionsRepositoryUrls"),
   CLUSTER_CONTROLLER_SKIP_OVERWRITE_SHARED_LIBRARIES(
-      "stackgres.clusterSkipOverwriteSharedLibraries");
+      "stackgres.clusterSkipOverwriteSharedLibraries"),
+  CLUSTER_CONTROLLER_EXTENSIONS_INSTALL_CONCURRENCY(
+      "stackgres.clusterControllerExtensionsInstallConcurrency"),
+  CLUSTER_CONTROLLER_EXTENSIONS_CACHE_PATH(
+      "stackgres.clusterControllerExtensionsCachePath"),
+  CLUSTER_CONTROLLER_EXTENSIONS_CACHE_MAX_SIZE(
+      "stackgres.clusterControllerExtensionsCacheMaxSize");
 
   private static final Properties APPLICATION_PROPERTIES =
       Unchecked.supplier(() -> StackGresPropertyReader
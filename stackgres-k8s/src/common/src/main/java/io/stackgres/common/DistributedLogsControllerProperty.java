@@ -17,7 +17,13 @@ public enum DistributedLogsControllerProperty implements StackGresPropertyReader
   DISTRIBUTEDLOGS_CONTROLLER_EXTENSIONS_REPOSITORY_URLS(
       "stackgres.distributedlogsControllerExtensionsRepositoryUrls"),
   DISTRIBUTEDLOGS_CONTROLLER_SKIP_OVERWRITE_SHARED_LIBRARIES(
-      "stackgres.distributedlogsSkipOverwriteSharedLibraries");
+      "stackgres.distributedlogsSkipOverwriteSharedLibraries"),
+  DISTRIBUTEDLOGS_CONTROLLER_EXTENSIONS_INSTALL_CONCURRENCY(
+      "stackgres.distributedlogsControllerExtensionsInstallConcurrency"),
+  DISTRIBUTEDLOGS_CONTROLLER_EXTENSIONS_CACHE_PATH(
+      "stackgres.distributedlogsControllerExtensionsCachePath"),
+  DISTRIBUTEDLOGS_CONTROLLER_EXTENSIONS_CACHE_MAX_SIZE(
+      "stackgres.distributedlogsControllerExtensionsCacheMaxSize");
 
   private static final Properties APPLICATION_PROPERTIES =
       Unchecked.supplier(() -> StackGresPropertyReader
@@ -7,13 +7,19 @@ package io.stackgres.common;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.PosixFilePermission;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class FileSystemHandler {
@@ -41,6 +47,15 @@ public class FileSystemHandler {
         StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
   }
 
+  public void moveOrReplace(Path source, Path target) throws IOException {
+    try {
+      Files.move(source, target,
+          StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException ex) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
   public Path setPosixFilePermissions(Path path, Set<PosixFilePermission> perms)
       throws IOException {
     return Files.setPosixFilePermissions(path, perms);
@@ -71,10 +86,29 @@ public class FileSystemHandler {
     Files.deleteIfExists(path);
   }
 
+  public void deleteRecursivelyIfExists(Path path) throws IOException {
+    if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+      return;
+    }
+    final List<Path> paths;
+    try (Stream<Path> walkedPaths = Files.walk(path)) {
+      paths = walkedPaths
+          .sorted(Comparator.reverseOrder())
+          .collect(Collectors.toList());
+    }
+    for (Path walkedPath : paths) {
+      Files.delete(walkedPath);
+    }
+  }
+
   public InputStream newInputStream(Path path) throws IOException {
     return Files.newInputStream(path);
   }
 
+  public OutputStream newOutputStream(Path path) throws IOException {
+    return Files.newOutputStream(path);
+  }
+
   public Stream<Path> list(Path path) throws IOException {
     return Files.list(path);
   }
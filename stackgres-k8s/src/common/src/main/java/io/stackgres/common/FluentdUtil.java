@@ -18,6 +18,7 @@ public class FluentdUtil {
   public static final String PATRONI_LOG_TYPE = "patroni";
   public static final int FORWARD_PORT = 12225;
   public static final String FORWARD_PORT_NAME = "fluentd-forward";
+  public static final String INGESTION_READY_PATH = "/fluentd/ingestion-ready";
 
   private static final String SUFFIX = "-fluentd";
   public static final String CONFIG = "fluentd-config";
@@ -20,7 +20,14 @@ public enum OperatorProperty implements StackGresPropertyReader {
   USE_ARBITRARY_USER("stackgres.useArbitraryUser"),
   EXTENSIONS_REPOSITORY_URLS(
       "stackgres.extensionsRepositoryUrls"),
-  CONFLICT_SLEEP_SECONDS("stackgres.conflictSleepSeconds");
+  EXTENSIONS_METADATA_SNAPSHOT_PATH(
+      "stackgres.extensionsMetadataSnapshotPath"),
+  EXTENSIONS_CACHE_HOST_PATH(
+      "stackgres.extensionsCacheHostPath"),
+  CONFLICT_SLEEP_SECONDS("stackgres.conflictSleepSeconds"),
+  RESOURCE_CACHE_ENABLED("stackgres.resourceCacheEnabled"),
+  RECONCILIATION_WORKERS("stackgres.reconciliationWorkers"),
+  RECONCILIATION_RESYNC_PERIOD("stackgres.reconciliationResyncPeriod");
 
   private static final Properties APPLICATION_PROPERTIES =
       Unchecked.supplier(() -> StackGresPropertyReader
@@ -23,6 +23,26 @@ public interface SignatureUtil {
 
   static boolean verify(String publicKeyPem, InputStream signatureInputStream,
       InputStream contentInputStream) throws Exception {
+    Signature signature = initVerify(publicKeyPem);
+    try (BufferedInputStream bufferedInputStream = new BufferedInputStream(contentInputStream)) {
+      while (true) {
+        byte[] buffer = bufferedInputStream.readNBytes(8192);
+        if (buffer.length == 0) {
+          break;
+        }
+        signature.update(buffer);
+      }
+    }
+    try (BufferedInputStream bufferedInputStream = new BufferedInputStream(signatureInputStream)) {
+      return signature.verify(bufferedInputStream.readAllBytes());
+    }
+  }
+
+  /**
+   * Return a {@code Signature} initialized to verify content signed with the private key
+   * of the specified public key.
+   */
+  static Signature initVerify(String publicKeyPem) throws Exception {
     final List<String> publicKeyPemLines = publicKeyPem.lines()
         .collect(ImmutableList.toImmutableList());
     Seq.seq(publicKeyPemLines)
@@ -46,18 +66,7 @@ public interface SignatureUtil {
     PublicKey publicKey = keyFactory.generatePublic(publicKeySpec);
     Signature signature = Signature.getInstance("SHA256withRSA");
     signature.initVerify(publicKey);
-    try (BufferedInputStream bufferedInputStream = new BufferedInputStream(contentInputStream)) {
-      while (true) {
-        byte[] buffer = bufferedInputStream.readNBytes(8192);
-        if (buffer.length == 0) {
-          break;
-        }
-        signature.update(buffer);
-      }
-    }
-    try (BufferedInputStream bufferedInputStream = new BufferedInputStream(signatureInputStream)) {
-      return signature.verify(bufferedInputStream.readAllBytes());
-    }
+    return signature;
   }
 
 }
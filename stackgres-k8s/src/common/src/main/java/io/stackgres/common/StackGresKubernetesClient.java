@@ -10,9 +10,11 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.Status;
+import io.fabric8.kubernetes.client.Config;
 import io.fabric8.kubernetes.client.DefaultKubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClientException;
 import io.fabric8.kubernetes.client.dsl.base.PatchContext;
@@ -39,6 +41,37 @@ public class StackGresKubernetesClient extends DefaultKubernetesClient {
   private static final String SERVER_SIDE_APPLY_GROUP_PATH_FORMAT =
       "/apis/%s/namespaces/%s/%s/%s?fieldManager=%s&force=%b";
 
+  private final boolean sharedHttpClient;
+  private final Runnable onClose;
+  private final AtomicBoolean closed = new AtomicBoolean(false);
+
+  public StackGresKubernetesClient() {
+    super();
+    this.sharedHttpClient = false;
+    this.onClose = () -> { };
+  }
+
+  /**
+   * Create a client that uses a shared HTTP client. Closing this client does not close the
+   * shared HTTP client so that its connection pool and dispatcher can be reused, instead
+   * {@code onClose} is called once so that the owner of the shared HTTP client can close it when
+   * no client uses it anymore.
+   */
+  public StackGresKubernetesClient(OkHttpClient httpClient, Config config, Runnable onClose) {
+    super(httpClient, config);
+    this.sharedHttpClient = true;
+    this.onClose = onClose;
+  }
+
+  @Override
+  public void close() {
+    if (!sharedHttpClient) {
+      super.close();
+    } else if (closed.compareAndSet(false, true)) {
+      onClose.run();
+    }
+  }
+
   @SuppressWarnings("unchecked")
   public <T extends HasMetadata> T serverSideApply(PatchContext patchContext, T intent) {
 
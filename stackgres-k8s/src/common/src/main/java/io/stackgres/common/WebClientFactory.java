@@ -15,9 +15,13 @@ import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSession;
 import javax.net.ssl.X509TrustManager;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 
 public class WebClientFactory {
 
@@ -45,6 +49,37 @@ public class WebClientFactory {
       return client.target(uri).request(MediaType.APPLICATION_JSON).get(clazz);
     }
 
+    /**
+     * Perform a conditional GET using the validators of the cached entity (if any). The cached
+     * entity is returned as is when the server replies that it has not been modified.
+     */
+    public <T> CachedEntity<T> getJsonIfModified(URI uri, Class<T> clazz,
+        CachedEntity<T> cachedEntity) {
+      Invocation.Builder request = client.target(uri).request(MediaType.APPLICATION_JSON);
+      if (cachedEntity != null && cachedEntity.getEntityTag() != null) {
+        request.header(HttpHeaders.IF_NONE_MATCH, cachedEntity.getEntityTag());
+      }
+      if (cachedEntity != null && cachedEntity.getLastModified() != null) {
+        request.header(HttpHeaders.IF_MODIFIED_SINCE, cachedEntity.getLastModified());
+      }
+      Response response = request.get();
+      try {
+        if (cachedEntity != null
+            && response.getStatus() == Response.Status.NOT_MODIFIED.getStatusCode()) {
+          return cachedEntity;
+        }
+        if (response.getStatusInfo().getFamily() != Response.Status.Family.SUCCESSFUL) {
+          throw new WebApplicationException("Request to " + uri + " failed with status "
+              + response.getStatus(), response.getStatus());
+        }
+        return new CachedEntity<>(response.readEntity(clazz),
+            response.getHeaderString(HttpHeaders.ETAG),
+            response.getHeaderString(HttpHeaders.LAST_MODIFIED));
+      } finally {
+        response.close();
+      }
+    }
+
     public InputStream getInputStream(URI uri) {
       return client.target(uri)
           .request(MediaType.APPLICATION_OCTET_STREAM).get(InputStream.class);
@@ -56,6 +91,30 @@ public class WebClientFactory {
     }
   }
 
+  public static class CachedEntity<T> {
+    private final T entity;
+    private final String entityTag;
+    private final String lastModified;
+
+    public CachedEntity(T entity, String entityTag, String lastModified) {
+      this.entity = entity;
+      this.entityTag = entityTag;
+      this.lastModified = lastModified;
+    }
+
+    public T getEntity() {
+      return entity;
+    }
+
+    public String getEntityTag() {
+      return entityTag;
+    }
+
+    public String getLastModified() {
+      return lastModified;
+    }
+  }
+
   private static class InsecureX509TrustManager implements X509TrustManager {
     public static final InsecureX509TrustManager INSTANCE = new InsecureX509TrustManager();
 
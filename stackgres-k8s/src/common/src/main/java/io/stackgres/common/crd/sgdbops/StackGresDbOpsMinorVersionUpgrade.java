@@ -8,6 +8,7 @@ package io.stackgres.common.crd.sgdbops;
 import java.util.Objects;
 
 import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.Min;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
@@ -30,6 +31,14 @@ public class StackGresDbOpsMinorVersionUpgrade implements KubernetesResource {
   @JsonProperty("method")
   private String method;
 
+  @JsonProperty("maximumLagOnSwitchover")
+  @Min(value = 0, message = "maximumLagOnSwitchover must be greather or equals to 0.")
+  private Long maximumLagOnSwitchover;
+
+  @JsonProperty("maxParallelReplicaRestarts")
+  @Min(value = 1, message = "maxParallelReplicaRestarts must be greather or equals to 1.")
+  private Integer maxParallelReplicaRestarts;
+
   @ReferencedField("method")
   interface Method extends FieldReference { }
 
@@ -54,9 +63,25 @@ public class StackGresDbOpsMinorVersionUpgrade implements KubernetesResource {
     this.method = method;
   }
 
+  public Long getMaximumLagOnSwitchover() {
+    return maximumLagOnSwitchover;
+  }
+
+  public void setMaximumLagOnSwitchover(Long maximumLagOnSwitchover) {
+    this.maximumLagOnSwitchover = maximumLagOnSwitchover;
+  }
+
+  public Integer getMaxParallelReplicaRestarts() {
+    return maxParallelReplicaRestarts;
+  }
+
+  public void setMaxParallelReplicaRestarts(Integer maxParallelReplicaRestarts) {
+    this.maxParallelReplicaRestarts = maxParallelReplicaRestarts;
+  }
+
   @Override
   public int hashCode() {
-    return Objects.hash(method);
+    return Objects.hash(maxParallelReplicaRestarts, maximumLagOnSwitchover, method);
   }
 
   @Override
@@ -68,7 +93,9 @@ public class StackGresDbOpsMinorVersionUpgrade implements KubernetesResource {
       return false;
     }
     StackGresDbOpsMinorVersionUpgrade other = (StackGresDbOpsMinorVersionUpgrade) obj;
-    return Objects.equals(method, other.method);
+    return Objects.equals(maxParallelReplicaRestarts, other.maxParallelReplicaRestarts)
+        && Objects.equals(maximumLagOnSwitchover, other.maximumLagOnSwitchover)
+        && Objects.equals(method, other.method);
   }
 
   @Override
@@ -8,6 +8,7 @@ package io.stackgres.common.crd.sgdbops;
 import java.util.Objects;
 
 import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.Min;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
@@ -36,6 +37,14 @@ public class StackGresDbOpsRestart implements KubernetesResource {
   @JsonProperty("onlyPendingRestart")
   private Boolean onlyPendingRestart;
 
+  @JsonProperty("maximumLagOnSwitchover")
+  @Min(value = 0, message = "maximumLagOnSwitchover must be greather or equals to 0.")
+  private Long maximumLagOnSwitchover;
+
+  @JsonProperty("maxParallelReplicaRestarts")
+  @Min(value = 1, message = "maxParallelReplicaRestarts must be greather or equals to 1.")
+  private Integer maxParallelReplicaRestarts;
+
   @ReferencedField("method")
   interface Method extends FieldReference { }
 
@@ -76,9 +85,26 @@ public class StackGresDbOpsRestart implements KubernetesResource {
     this.onlyPendingRestart = onlyPendingRestart;
   }
 
+  public Long getMaximumLagOnSwitchover() {
+    return maximumLagOnSwitchover;
+  }
+
+  public void setMaximumLagOnSwitchover(Long maximumLagOnSwitchover) {
+    this.maximumLagOnSwitchover = maximumLagOnSwitchover;
+  }
+
+  public Integer getMaxParallelReplicaRestarts() {
+    return maxParallelReplicaRestarts;
+  }
+
+  public void setMaxParallelReplicaRestarts(Integer maxParallelReplicaRestarts) {
+    this.maxParallelReplicaRestarts = maxParallelReplicaRestarts;
+  }
+
   @Override
   public int hashCode() {
-    return Objects.hash(method, restartPrimaryFirst);
+    return Objects.hash(maxParallelReplicaRestarts, maximumLagOnSwitchover, method,
+        restartPrimaryFirst);
   }
 
   @Override
@@ -90,7 +116,9 @@ public class StackGresDbOpsRestart implements KubernetesResource {
       return false;
     }
     StackGresDbOpsRestart other = (StackGresDbOpsRestart) obj;
-    return Objects.equals(method, other.method)
+    return Objects.equals(maxParallelReplicaRestarts, other.maxParallelReplicaRestarts)
+        && Objects.equals(maximumLagOnSwitchover, other.maximumLagOnSwitchover)
+        && Objects.equals(method, other.method)
         && Objects.equals(restartPrimaryFirst, other.restartPrimaryFirst);
   }
 
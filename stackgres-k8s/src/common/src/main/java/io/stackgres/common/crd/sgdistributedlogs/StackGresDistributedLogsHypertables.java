@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.common.crd.sgdistributedlogs;
+
+import java.util.Objects;
+
+import javax.validation.constraints.Pattern;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import io.stackgres.common.StackGresUtil;
+
+@JsonDeserialize
+@JsonInclude(JsonInclude.Include.NON_DEFAULT)
+@RegisterForReflection
+public class StackGresDistributedLogsHypertables {
+
+  @JsonProperty("chunkTimeInterval")
+  @Pattern(regexp = "^[0-9]+ (minutes?|hours?|days?|months?)$",
+      message = "Chunk time interval must be specified in minutes, hours, days or months")
+  private String chunkTimeInterval;
+
+  @JsonProperty("compressAfter")
+  @Pattern(regexp = "^[0-9]+ (minutes?|hours?|days?|months?)$",
+      message = "Compress after must be specified in minutes, hours, days or months")
+  private String compressAfter;
+
+  public String getChunkTimeInterval() {
+    return chunkTimeInterval;
+  }
+
+  public void setChunkTimeInterval(String chunkTimeInterval) {
+    this.chunkTimeInterval = chunkTimeInterval;
+  }
+
+  public String getCompressAfter() {
+    return compressAfter;
+  }
+
+  public void setCompressAfter(String compressAfter) {
+    this.compressAfter = compressAfter;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(chunkTimeInterval, compressAfter);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof StackGresDistributedLogsHypertables)) {
+      return false;
+    }
+    StackGresDistributedLogsHypertables other = (StackGresDistributedLogsHypertables) obj;
+    return Objects.equals(chunkTimeInterval, other.chunkTimeInterval)
+        && Objects.equals(compressAfter, other.compressAfter);
+  }
+
+  @Override
+  public String toString() {
+    return StackGresUtil.toPrettyYaml(this);
+  }
+
+}
@@ -43,6 +43,10 @@ public class StackGresDistributedLogsSpec implements KubernetesResource {
   @Valid
   private StackGresDistributedLogsSpecMetadata metadata;
 
+  @JsonProperty("hypertables")
+  @Valid
+  private StackGresDistributedLogsHypertables hypertables;
+
   @JsonProperty("toInstallPostgresExtensions")
   @Valid
   private List<StackGresClusterInstalledExtension> toInstallPostgresExtensions;
@@ -80,6 +84,14 @@ public class StackGresDistributedLogsSpec implements KubernetesResource {
     this.metadata = metadata;
   }
 
+  public StackGresDistributedLogsHypertables getHypertables() {
+    return hypertables;
+  }
+
+  public void setHypertables(StackGresDistributedLogsHypertables hypertables) {
+    this.hypertables = hypertables;
+  }
+
   public List<StackGresClusterInstalledExtension> getToInstallPostgresExtensions() {
     return toInstallPostgresExtensions;
   }
@@ -91,7 +103,7 @@ public class StackGresDistributedLogsSpec implements KubernetesResource {
 
   @Override
   public int hashCode() {
-    return Objects.hash(metadata, nonProduction, persistentVolume, scheduling,
+    return Objects.hash(hypertables, metadata, nonProduction, persistentVolume, scheduling,
         toInstallPostgresExtensions);
   }
 
@@ -104,7 +116,8 @@ public class StackGresDistributedLogsSpec implements KubernetesResource {
       return false;
     }
     StackGresDistributedLogsSpec other = (StackGresDistributedLogsSpec) obj;
-    return Objects.equals(metadata, other.metadata)
+    return Objects.equals(hypertables, other.hypertables)
+        && Objects.equals(metadata, other.metadata)
         && Objects.equals(nonProduction, other.nonProduction)
         && Objects.equals(persistentVolume, other.persistentVolume)
         && Objects.equals(scheduling, other.scheduling)
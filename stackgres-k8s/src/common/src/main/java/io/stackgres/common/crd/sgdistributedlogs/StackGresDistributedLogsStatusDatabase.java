@@ -27,6 +27,12 @@ public class StackGresDistributedLogsStatusDatabase implements KubernetesResourc
   @JsonProperty("retention")
   private String retention;
 
+  @JsonProperty("chunkTimeInterval")
+  private String chunkTimeInterval;
+
+  @JsonProperty("compressAfter")
+  private String compressAfter;
+
   public String getName() {
     return name;
   }
@@ -43,9 +49,25 @@ public class StackGresDistributedLogsStatusDatabase implements KubernetesResourc
     this.retention = retention;
   }
 
+  public String getChunkTimeInterval() {
+    return chunkTimeInterval;
+  }
+
+  public void setChunkTimeInterval(String chunkTimeInterval) {
+    this.chunkTimeInterval = chunkTimeInterval;
+  }
+
+  public String getCompressAfter() {
+    return compressAfter;
+  }
+
+  public void setCompressAfter(String compressAfter) {
+    this.compressAfter = compressAfter;
+  }
+
   @Override
   public int hashCode() {
-    return Objects.hash(name, retention);
+    return Objects.hash(chunkTimeInterval, compressAfter, name, retention);
   }
 
   @Override
@@ -57,7 +79,9 @@ public class StackGresDistributedLogsStatusDatabase implements KubernetesResourc
       return false;
     }
     StackGresDistributedLogsStatusDatabase other = (StackGresDistributedLogsStatusDatabase) obj;
-    return Objects.equals(name, other.name)
+    return Objects.equals(chunkTimeInterval, other.chunkTimeInterval)
+        && Objects.equals(compressAfter, other.compressAfter)
+        && Objects.equals(name, other.name)
         && Objects.equals(retention, other.retention);
   }
 
@@ -3,7 +3,7 @@
  * SPDX-License-Identifier: AGPL-3.0-or-later
  */
 
-package io.stackgres.apiweb.distributedlogs;
+package io.stackgres.common.distributedlogs;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
@@ -12,16 +12,14 @@ import java.util.Properties;
 
 import javax.enterprise.context.ApplicationScoped;
 
-import org.postgresql.PGProperty;
-
 @ApplicationScoped
 public class PostgresConnectionManager {
 
   public Connection getConnection(String host, String username, String password, String database)
       throws SQLException {
     Properties properties = new Properties();
-    PGProperty.USER.set(properties, username);
-    PGProperty.PASSWORD.set(properties, password);
+    properties.setProperty("user", username);
+    properties.setProperty("password", password);
     return DriverManager.getConnection("jdbc:postgresql://" + host + "/" + database, properties);
   }
 
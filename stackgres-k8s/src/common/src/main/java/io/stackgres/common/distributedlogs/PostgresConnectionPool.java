@@ -0,0 +1,337 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.common.distributedlogs;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import io.stackgres.common.CdiUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pool of connections to the distributed logs instances. Each instance has its own bounded
+ * pool whose connections may be open to any of the instance databases. Idle connections are
+ * closed after a while. The password of an instance is loaded when its pool is created and
+ * loaded again only when opening a connection fails to authenticate, in which case the pool is
+ * replaced if the password changed. Connections are initialized once, when they are opened.
+ */
+@ApplicationScoped
+public class PostgresConnectionPool {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PostgresConnectionPool.class);
+
+  private static final int MAX_CONNECTIONS_PER_INSTANCE = 8;
+  private static final Duration BORROW_TIMEOUT = Duration.ofSeconds(30);
+  private static final Duration IDLE_TIMEOUT = Duration.ofMinutes(5);
+  private static final Duration VALIDATION_INTERVAL = Duration.ofSeconds(30);
+  private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+  private static final String INVALID_AUTHORIZATION_SQL_STATE = "28000";
+  private static final String INVALID_PASSWORD_SQL_STATE = "28P01";
+
+  private final PostgresConnectionManager connectionManager;
+
+  private final Map<String, InstancePool> pools = new ConcurrentHashMap<>();
+
+  private ScheduledExecutorService evictExecutor;
+
+  @Inject
+  public PostgresConnectionPool(PostgresConnectionManager connectionManager) {
+    this.connectionManager = connectionManager;
+  }
+
+  public PostgresConnectionPool() {
+    CdiUtil.checkPublicNoArgsConstructorIsCalledToCreateProxy();
+    this.connectionManager = null;
+  }
+
+  @FunctionalInterface
+  public interface PasswordLoader {
+    String load() throws SQLException;
+  }
+
+  @FunctionalInterface
+  public interface ConnectionInitializer {
+    void initialize(Connection connection) throws SQLException;
+  }
+
+  @FunctionalInterface
+  public interface ConnectionFunction<T> {
+    T apply(Connection connection) throws SQLException;
+  }
+
+  /**
+   * Run the function with a connection of the pool of the instance. The connection is discarded
+   * if the function throws.
+   */
+  public <T> T withConnection(String host, String username, PasswordLoader passwordLoader,
+      String database, ConnectionFunction<T> function) throws SQLException {
+    return withConnection(host, username, passwordLoader, database,
+        connection -> { }, function);
+  }
+
+  /**
+   * Run the function with a connection of the pool of the instance. The initializer is called
+   * only for new connections. The connection is discarded if the function throws.
+   */
+  public <T> T withConnection(String host, String username, PasswordLoader passwordLoader,
+      String database, ConnectionInitializer initializer, ConnectionFunction<T> function)
+      throws SQLException {
+    startEvictExecutor();
+    InstancePool pool = pools.get(host);
+    if (pool == null || !pool.hasUsername(username)) {
+      pool = replacePool(host, username, passwordLoader.load());
+    }
+    PooledConnection connection;
+    try {
+      connection = pool.borrow(database, initializer);
+    } catch (SQLException ex) {
+      if (!isAuthenticationFailure(ex)) {
+        throw ex;
+      }
+      final String password = passwordLoader.load();
+      if (pool.hasCredentials(username, password)) {
+        throw ex;
+      }
+      LOGGER.debug("Credentials of distributed logs {} changed, replacing its pool", host);
+      pool = replacePool(host, username, password);
+      connection = pool.borrow(database, initializer);
+    }
+    boolean broken = true;
+    try {
+      T result = function.apply(connection.connection);
+      broken = false;
+      return result;
+    } finally {
+      pool.release(connection, broken);
+    }
+  }
+
+  private InstancePool replacePool(String host, String username, String password) {
+    return pools.compute(host, (key, currentPool) -> {
+      if (currentPool != null && currentPool.hasCredentials(username, password)) {
+        return currentPool;
+      }
+      if (currentPool != null) {
+        currentPool.retire();
+      }
+      return new InstancePool(host, username, password);
+    });
+  }
+
+  private boolean isAuthenticationFailure(SQLException ex) {
+    return INVALID_PASSWORD_SQL_STATE.equals(ex.getSQLState())
+        || INVALID_AUTHORIZATION_SQL_STATE.equals(ex.getSQLState());
+  }
+
+  private synchronized void startEvictExecutor() {
+    if (evictExecutor == null) {
+      evictExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, getClass().getSimpleName() + "-Evict");
+        thread.setDaemon(true);
+        return thread;
+      });
+      evictExecutor.scheduleWithFixedDelay(this::evictIdleConnections,
+          IDLE_TIMEOUT.toMillis(), IDLE_TIMEOUT.toMillis() / 5, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  void evictIdleConnections() {
+    pools.keySet().forEach(host -> pools.computeIfPresent(host, (key, pool) -> {
+      pool.evictIdleConnections();
+      if (pool.isUnused()) {
+        pool.retire();
+        return null;
+      }
+      return pool;
+    }));
+  }
+
+  @PreDestroy
+  public synchronized void close() {
+    if (evictExecutor != null) {
+      evictExecutor.shutdown();
+      evictExecutor = null;
+    }
+    pools.keySet().forEach(host -> pools.computeIfPresent(host, (key, pool) -> {
+      pool.retire();
+      return null;
+    }));
+  }
+
+  private class InstancePool {
+    private final String host;
+    private final String username;
+    private final String password;
+    private final Semaphore permits = new Semaphore(MAX_CONNECTIONS_PER_INSTANCE);
+    private final Deque<PooledConnection> idleConnections = new ArrayDeque<>();
+    private boolean retired = false;
+
+    InstancePool(String host, String username, String password) {
+      this.host = host;
+      this.username = username;
+      this.password = password;
+    }
+
+    boolean hasUsername(String username) {
+      return Objects.equals(this.username, username);
+    }
+
+    boolean hasCredentials(String username, String password) {
+      return Objects.equals(this.username, username) && Objects.equals(this.password, password);
+    }
+
+    PooledConnection borrow(String database, ConnectionInitializer initializer)
+        throws SQLException {
+      PooledConnection connection;
+      while ((connection = takeIdleConnection(database)) != null) {
+        if (System.currentTimeMillis() - connection.validatedAt < VALIDATION_INTERVAL.toMillis()
+            || connection.connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+          connection.validatedAt = System.currentTimeMillis();
+          return connection;
+        }
+        close(connection);
+      }
+      acquirePermit();
+      try {
+        Connection newConnection = connectionManager.getConnection(
+            host, username, password, database);
+        try {
+          initializer.initialize(newConnection);
+        } catch (SQLException | RuntimeException ex) {
+          newConnection.close();
+          throw ex;
+        }
+        return new PooledConnection(newConnection, database);
+      } catch (SQLException | RuntimeException ex) {
+        permits.release();
+        throw ex;
+      }
+    }
+
+    private synchronized PooledConnection takeIdleConnection(String database) {
+      Iterator<PooledConnection> iterator = idleConnections.iterator();
+      while (iterator.hasNext()) {
+        PooledConnection connection = iterator.next();
+        if (connection.database.equals(database)) {
+          iterator.remove();
+          return connection;
+        }
+      }
+      return null;
+    }
+
+    private synchronized PooledConnection takeLeastRecentlyUsedIdleConnection() {
+      return idleConnections.pollLast();
+    }
+
+    /**
+     * Acquire a permit to open a new connection. When the pool is full the least recently used
+     * idle connection (that is open to other database) is closed to make room.
+     */
+    private void acquirePermit() throws SQLException {
+      if (permits.tryAcquire()) {
+        return;
+      }
+      PooledConnection idleConnection = takeLeastRecentlyUsedIdleConnection();
+      if (idleConnection != null) {
+        closeQuietly(idleConnection.connection);
+        return;
+      }
+      try {
+        if (!permits.tryAcquire(BORROW_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+          throw new SQLException("Timed out waiting for a connection to " + host);
+        }
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        throw new SQLException("Interrupted while waiting for a connection to " + host, ex);
+      }
+    }
+
+    void release(PooledConnection connection, boolean broken) {
+      synchronized (this) {
+        if (!broken && !retired) {
+          connection.idleSince = System.currentTimeMillis();
+          idleConnections.addFirst(connection);
+          return;
+        }
+      }
+      close(connection);
+    }
+
+    void evictIdleConnections() {
+      final long now = System.currentTimeMillis();
+      PooledConnection connection;
+      while ((connection = takeExpiredIdleConnection(now)) != null) {
+        close(connection);
+      }
+    }
+
+    private synchronized PooledConnection takeExpiredIdleConnection(long now) {
+      PooledConnection connection = idleConnections.peekLast();
+      if (connection != null && now - connection.idleSince > IDLE_TIMEOUT.toMillis()) {
+        return idleConnections.pollLast();
+      }
+      return null;
+    }
+
+    synchronized boolean isUnused() {
+      return idleConnections.isEmpty()
+          && permits.availablePermits() == MAX_CONNECTIONS_PER_INSTANCE;
+    }
+
+    void retire() {
+      synchronized (this) {
+        retired = true;
+      }
+      PooledConnection connection;
+      while ((connection = takeLeastRecentlyUsedIdleConnection()) != null) {
+        close(connection);
+      }
+    }
+
+    private void close(PooledConnection connection) {
+      closeQuietly(connection.connection);
+      permits.release();
+    }
+
+    private void closeQuietly(Connection connection) {
+      try {
+        connection.close();
+      } catch (SQLException ex) {
+        LOGGER.debug("Error while closing connection to distributed logs {}", host, ex);
+      }
+    }
+  }
+
+  private static class PooledConnection {
+    private final Connection connection;
+    private final String database;
+    private long validatedAt = System.currentTimeMillis();
+    private long idleSince;
+
+    PooledConnection(Connection connection, String database) {
+      this.connection = connection;
+      this.database = database;
+    }
+  }
+
+}
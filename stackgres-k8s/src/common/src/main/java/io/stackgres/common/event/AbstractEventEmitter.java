@@ -5,15 +5,29 @@
 
 package io.stackgres.common.event;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import io.fabric8.kubernetes.api.model.Event;
 import io.fabric8.kubernetes.api.model.EventBuilder;
 import io.fabric8.kubernetes.api.model.EventSourceBuilder;
@@ -25,12 +39,34 @@ import io.stackgres.operatorframework.resource.ResourceUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Emits events for resources. The last event sent for each involved object, reason and message
+ * is kept in an LRU cache so that repeated events do not require to list the events of the
+ * namespace. Repetitions that happen within the aggregation window of the last update are
+ * accumulated and sent as a single update of the event count when the window expires, or when
+ * the emitter is closed. Events evicted from the cache with accumulated repetitions are kept
+ * apart until those are sent.
+ */
 public abstract class AbstractEventEmitter<T> implements EventEmitter<T> {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(AbstractEventEmitter.class);
 
+  private static final long MAX_CACHED_EVENTS = 4096L;
+  private static final Duration CACHED_EVENT_EXPIRATION = Duration.ofHours(1);
+  private static final Duration DEFAULT_AGGREGATION_WINDOW = Duration.ofSeconds(10);
+
   private final Random random = new Random();
 
+  private Cache<EventKey, EventRecord> events = newEventsCache(MAX_CACHED_EVENTS);
+
+  private final Map<EventRecord, EventKey> evictedEvents = new ConcurrentHashMap<>();
+
+  private Duration aggregationWindow = DEFAULT_AGGREGATION_WINDOW;
+
+  private ScheduledExecutorService flushExecutor;
+
+  private boolean closed;
+
   private KubernetesClientFactory clientFactory;
 
   /**
@@ -42,20 +78,174 @@ public abstract class AbstractEventEmitter<T> implements EventEmitter<T> {
       return;
     }
     final Instant now = Instant.now();
-    final String namespace = involvedObject.getMetadata().getNamespace();
+    final EventKey key = new EventKey(reason, message, involvedObject);
 
-    clientFactory.withNewClient(client -> client.v1().events()
+    // The cache loads each key only once at a time, so concurrent emits of an event that is
+    // not cached yet wait for the first one to look it up or create it
+    final AtomicBoolean loaded = new AtomicBoolean(false);
+    final EventRecord record;
+    try {
+      record = events.get(key, () -> {
+        loaded.set(true);
+        return new EventRecord(clientFactory.withNewClient(client -> lookupOrCreateEvent(
+            1, now, reason, message, involvedObject, client)));
+      });
+    } catch (ExecutionException | UncheckedExecutionException ex) {
+      Throwables.throwIfUnchecked(ex.getCause());
+      throw new RuntimeException(ex.getCause());
+    }
+    if (loaded.get()) {
+      return;
+    }
+    synchronized (record) {
+      record.pendingCount++;
+      record.lastTimestamp = now;
+      if (record.evicted) {
+        evictedEvents.put(record, key);
+      } else if (record.isAggregationWindowExpired(aggregationWindow)) {
+        flush(key, record);
+        return;
+      }
+    }
+    scheduleFlush();
+  }
+
+  private Event lookupOrCreateEvent(int repetitions, Instant now,
+      EventReason reason, String message, HasMetadata involvedObject, KubernetesClient client) {
+    final String namespace = involvedObject.getMetadata().getNamespace();
+    return client.v1().events()
         .inNamespace(namespace)
         .withLabels(Optional.ofNullable(involvedObject.getMetadata().getLabels())
             .orElse(ImmutableMap.of()))
         .list()
         .getItems()
         .stream()
-        .filter(event -> isSameEvent(event, reason, message, involvedObject))
+        .filter(existingEvent -> isSameEvent(existingEvent, reason, message, involvedObject))
         .findAny()
-        .map(event -> patchEvent(event, now, client))
-        .orElseGet(() -> createEvent(namespace, now,
-            reason, message, involvedObject, client)));
+        .map(existingEvent -> updateEvent(existingEvent, repetitions, now, client))
+        .orElseGet(() -> createEvent(namespace, repetitions, now,
+            reason, message, involvedObject, client));
+  }
+
+  private synchronized void scheduleFlush() {
+    if (flushExecutor == null && !closed) {
+      flushExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, getClass().getSimpleName() + "-Flush");
+        thread.setDaemon(true);
+        return thread;
+      });
+      flushExecutor.scheduleWithFixedDelay(this::flushPendingEvents,
+          aggregationWindow.toMillis(), aggregationWindow.toMillis(), TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Send the accumulated repetitions of the events whose aggregation window expired.
+   */
+  void flushPendingEvents() {
+    flushPendingEvents(false);
+  }
+
+  private void flushPendingEvents(boolean force) {
+    events.asMap().forEach((key, record) -> {
+      synchronized (record) {
+        if (record.pendingCount > 0
+            && (force || record.isAggregationWindowExpired(aggregationWindow))) {
+          flush(key, record);
+        }
+      }
+    });
+    evictedEvents.forEach((record, key) -> {
+      synchronized (record) {
+        if (record.pendingCount > 0) {
+          flush(key, record);
+        }
+        if (record.pendingCount == 0) {
+          evictedEvents.remove(record);
+        }
+      }
+    });
+  }
+
+  private Cache<EventKey, EventRecord> newEventsCache(long maxCachedEvents) {
+    return CacheBuilder.newBuilder()
+        .maximumSize(maxCachedEvents)
+        .expireAfterAccess(CACHED_EVENT_EXPIRATION)
+        .removalListener(this::onEventRemoval)
+        .build();
+  }
+
+  /**
+   * Keep the evicted events that have accumulated repetitions so that those are sent by the next
+   * flush instead of being lost.
+   */
+  private void onEventRemoval(RemovalNotification<EventKey, EventRecord> notification) {
+    final EventRecord record = notification.getValue();
+    if (!notification.wasEvicted() || record == null) {
+      return;
+    }
+    synchronized (record) {
+      record.evicted = true;
+      if (record.pendingCount == 0) {
+        return;
+      }
+      evictedEvents.put(record, notification.getKey());
+    }
+    scheduleFlush();
+  }
+
+  /**
+   * Update the count of the event with the pending repetitions. If the update fails, because the
+   * event was changed or removed, the event is looked up again or created with the pending
+   * repetitions. If that fails too the repetitions are kept pending for the next flush.
+   */
+  private void flush(EventKey key, EventRecord record) {
+    try {
+      record.event = clientFactory.withNewClient(client -> {
+        Event updatedEvent = null;
+        try {
+          updatedEvent = updateEvent(
+              record.event, record.pendingCount, record.lastTimestamp, client);
+        } catch (RuntimeException ex) {
+          LOGGER.debug("Can not update event {} ({}), it will be looked up again",
+              key.reason, key.message, ex);
+        }
+        if (updatedEvent != null) {
+          return updatedEvent;
+        }
+        return lookupOrCreateEvent(record.pendingCount, record.lastTimestamp,
+            key.eventReason, key.message, key.involvedObject, client);
+      });
+      record.pendingCount = 0;
+      record.lastUpdate = System.currentTimeMillis();
+    } catch (RuntimeException ex) {
+      LOGGER.warn("Can not update event {} ({}), it will be retried",
+          key.reason, key.message, ex);
+      scheduleFlush();
+    }
+  }
+
+  void setAggregationWindow(Duration aggregationWindow) {
+    this.aggregationWindow = aggregationWindow;
+  }
+
+  void setMaxCachedEvents(long maxCachedEvents) {
+    this.events = newEventsCache(maxCachedEvents);
+  }
+
+  /**
+   * Stop the scheduled flushes and send the accumulated repetitions of all the events.
+   */
+  @PreDestroy
+  public void close() {
+    synchronized (this) {
+      closed = true;
+      if (flushExecutor != null) {
+        flushExecutor.shutdown();
+        flushExecutor = null;
+      }
+    }
+    flushPendingEvents(true);
   }
 
   private String nextId() {
@@ -87,16 +277,22 @@ public abstract class AbstractEventEmitter<T> implements EventEmitter<T> {
         message);
   }
 
-  private Event patchEvent(Event event, Instant now, KubernetesClient client) {
-    event.setCount(event.getCount() + 1);
-    event.setLastTimestamp(DateTimeFormatter.ISO_INSTANT.format(now));
+  /**
+   * Replace the event known to be the last version (by locking its resourceVersion), so that it
+   * is updated with a single request and without retrieving it again.
+   */
+  private Event updateEvent(Event event, int repetitions, Instant now, KubernetesClient client) {
     return client.v1().events()
         .inNamespace(event.getMetadata().getNamespace())
         .withName(event.getMetadata().getName())
-        .patch(event);
+        .lockResourceVersion(event.getMetadata().getResourceVersion())
+        .replace(new EventBuilder(event)
+            .withCount(event.getCount() + repetitions)
+            .withLastTimestamp(DateTimeFormatter.ISO_INSTANT.format(now))
+            .build());
   }
 
-  private Event createEvent(String namespace, Instant now,
+  private Event createEvent(String namespace, int repetitions, Instant now,
                             EventReason reason, String message, HasMetadata involvedObject,
                             KubernetesClient client) {
     final String id = nextId();
@@ -112,7 +308,7 @@ public abstract class AbstractEventEmitter<T> implements EventEmitter<T> {
             .withType(reason.type().type())
             .withReason(reason.reason())
             .withMessage(message)
-            .withCount(1)
+            .withCount(repetitions)
             .withFirstTimestamp(DateTimeFormatter.ISO_INSTANT.format(now))
             .withLastTimestamp(DateTimeFormatter.ISO_INSTANT.format(now))
             .withSource(new EventSourceBuilder()
@@ -126,4 +322,68 @@ public abstract class AbstractEventEmitter<T> implements EventEmitter<T> {
   public void setClientFactory(KubernetesClientFactory clientFactory) {
     this.clientFactory = clientFactory;
   }
+
+  private static class EventKey {
+    private final EventReason eventReason;
+    private final HasMetadata involvedObject;
+    private final String uid;
+    private final String kind;
+    private final String namespace;
+    private final String name;
+    private final String reason;
+    private final String type;
+    private final String message;
+
+    EventKey(EventReason reason, String message, HasMetadata involvedObject) {
+      this.eventReason = reason;
+      this.involvedObject = involvedObject;
+      this.uid = involvedObject.getMetadata().getUid();
+      this.kind = involvedObject.getKind();
+      this.namespace = involvedObject.getMetadata().getNamespace();
+      this.name = involvedObject.getMetadata().getName();
+      this.reason = reason.reason();
+      this.type = reason.type().type();
+      this.message = message;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(uid, kind, namespace, name, reason, type, message);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof EventKey)) {
+        return false;
+      }
+      EventKey other = (EventKey) obj;
+      return Objects.equals(uid, other.uid)
+          && Objects.equals(kind, other.kind)
+          && Objects.equals(namespace, other.namespace)
+          && Objects.equals(name, other.name)
+          && Objects.equals(reason, other.reason)
+          && Objects.equals(type, other.type)
+          && Objects.equals(message, other.message);
+    }
+  }
+
+  private static class EventRecord {
+    private Event event;
+    private int pendingCount;
+    private Instant lastTimestamp;
+    private long lastUpdate;
+    private boolean evicted;
+
+    EventRecord(Event event) {
+      this.event = event;
+      this.lastUpdate = System.currentTimeMillis();
+    }
+
+    boolean isAggregationWindowExpired(Duration aggregationWindow) {
+      return System.currentTimeMillis() - lastUpdate >= aggregationWindow.toMillis();
+    }
+  }
 }
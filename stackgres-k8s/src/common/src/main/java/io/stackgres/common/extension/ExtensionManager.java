@@ -5,8 +5,11 @@
 
 package io.stackgres.common.extension;
 
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URLDecoder;
@@ -14,8 +17,11 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.attribute.PosixFilePermission;
+import java.security.Signature;
 import java.security.SignatureException;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -23,6 +29,8 @@ import java.util.function.BiFunction;
 import java.util.stream.Stream;
 import java.util.zip.GZIPInputStream;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import io.stackgres.common.ClusterContext;
 import io.stackgres.common.ClusterStatefulSetPath;
@@ -53,17 +61,31 @@ public abstract class ExtensionManager {
   public static final String INSTALLED_SUFFIX = ".installed";
   public static final String LINKS_CREATED_SUFFIX = ".links-created";
   public static final String PENDING_SUFFIX = ".pending";
+  public static final String STAGING_SUFFIX = ".staging";
 
   private final ExtensionMetadataManager extensionMetadataManager;
   private final WebClientFactory webClientFactory;
   private final FileSystemHandler fileSystemHandler;
+  private final ExtensionPackageCache packageCache;
 
   public ExtensionManager(ExtensionMetadataManager extensionMetadataManager,
       WebClientFactory webClientFactory,
       FileSystemHandler fileSystemHandler) {
+    this(extensionMetadataManager, webClientFactory, fileSystemHandler, null);
+  }
+
+  /**
+   * When a package cache is specified the packages are downloaded through it, so that
+   * installers sharing the cache download each package only once.
+   */
+  public ExtensionManager(ExtensionMetadataManager extensionMetadataManager,
+      WebClientFactory webClientFactory,
+      FileSystemHandler fileSystemHandler,
+      ExtensionPackageCache packageCache) {
     this.extensionMetadataManager = extensionMetadataManager;
     this.webClientFactory = webClientFactory;
     this.fileSystemHandler = fileSystemHandler;
+    this.packageCache = packageCache;
   }
 
   public boolean areCompatibles(ClusterContext context, StackGresClusterExtension extension,
@@ -102,6 +124,7 @@ public abstract class ExtensionManager {
     private final StackGresExtensionMetadata extensionMetadata;
     private final URI extensionsRepositoryUri;
     private final URI extensionUri;
+    private StagedPackage stagedPackage;
 
     private ExtensionInstaller(ClusterContext context,
         StackGresClusterInstalledExtension installedExtension,
@@ -130,10 +153,44 @@ public abstract class ExtensionManager {
           .resolve(extensionMetadata.getPackageName() + LINKS_CREATED_SUFFIX));
     }
 
-    @SuppressFBWarnings(value = { "UPM_UNCALLED_PRIVATE_METHOD",
-        "RCN_REDUNDANT_NULLCHECK_OF_NONNULL_VALUE" },
+    /**
+     * Download the extension package, verify its signature and extract its content to a staging
+     * directory in a single pass over the downloaded stream. The staged content is moved into
+     * place by {@link #installExtension()}, and only if the signature verification succeeded.
+     */
+    @SuppressFBWarnings(value = "UPM_UNCALLED_PRIVATE_METHOD",
         justification = "False positive")
-    public void downloadAndExtract() throws Exception {
+    public void downloadVerifyAndStage() throws Exception {
+      final Path extensionsPath =
+          Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context));
+      final Path stagingPath = extensionsPath.resolve(
+          extensionMetadata.getPackageName() + STAGING_SUFFIX);
+      stagedPackage = null;
+      try {
+        if (packageCache != null) {
+          packageCache.consume(extensionMetadata.getPackageName(),
+              consumer -> download(consumer::accept),
+              inputStream -> stage(extensionsPath, stagingPath, inputStream));
+        } else {
+          download(inputStream -> stage(extensionsPath, stagingPath, inputStream));
+        }
+      } catch (Exception ex) {
+        fileSystemHandler.deleteRecursivelyIfExists(stagingPath);
+        throw ex;
+      }
+    }
+
+    private void stage(Path extensionsPath, Path stagingPath, InputStream inputStream)
+        throws Exception {
+      fileSystemHandler.deleteRecursivelyIfExists(stagingPath);
+      fileSystemHandler.createDirectories(stagingPath);
+      final PackageStager packageStager = new PackageStager(extensionsPath, stagingPath,
+          SignatureUtil.initVerify(extensionMetadata.getPublisher().getPublicKey()));
+      packageStager.stage(inputStream);
+      stagedPackage = packageStager.verify();
+    }
+
+    private void download(DownloadConsumer consumer) throws Exception {
       boolean skipHostnameVerification =
           getUriQueryParameter(extensionsRepositoryUri, SKIP_HOSTNAME_VERIFICATION_PARAMETER)
           .map(Boolean::valueOf).orElse(false);
@@ -141,63 +198,36 @@ public abstract class ExtensionManager {
           ExtensionUtil.getDescription(extensionMetadata), extensionUri);
       try (WebClient client = webClientFactory.create(skipHostnameVerification)) {
         try (InputStream inputStream = client.getInputStream(extensionUri)) {
-          extractTar(inputStream);
+          consumer.accept(inputStream);
         }
       }
     }
 
-    @SuppressFBWarnings(value = { "UPM_UNCALLED_PRIVATE_METHOD",
-        "RCN_REDUNDANT_NULLCHECK_OF_NONNULL_VALUE" },
-        justification = "False positive")
-    public void verify() throws Exception {
-      try (InputStream signatureInputStream = fileSystemHandler.newInputStream(
-          Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context))
-          .resolve(extensionMetadata.getPackageName() + SHA256_SUFFIX));
-          InputStream extensionPackageInputStream = fileSystemHandler.newInputStream(
-              Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context))
-              .resolve(extensionMetadata.getPackageName() + TGZ_SUFFIX))) {
-        if (!SignatureUtil.verify(extensionMetadata.getPublisher().getPublicKey(),
-            signatureInputStream, extensionPackageInputStream)) {
-          throw new SignatureException("Signature verification failed");
-        }
-      }
+    /**
+     * Check if the package staged by {@link #downloadVerifyAndStage()} would overwrite any shared
+     * library already installed.
+     */
+    public boolean doesInstallOverwriteAnySharedLibrary() {
+      return getStagedPackage().overwritesAnySharedLibrary;
     }
 
-    @SuppressFBWarnings(value = { "UPM_UNCALLED_PRIVATE_METHOD",
-        "RCN_REDUNDANT_NULLCHECK_OF_NONNULL_VALUE" },
-        justification = "False positive")
-    public boolean doesInstallOverwriteAnySharedLibrary() throws Exception {
-      try (
-          InputStream extensionPackageInputStream = fileSystemHandler.newInputStream(
-              Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context))
-              .resolve(extensionMetadata.getPackageName() + TGZ_SUFFIX));
-          InputStream extensionPackageInputStreamUncompressed = new GZIPInputStream(
-              extensionPackageInputStream)) {
-        return doesInstallOverwriteAnySharedLibrary(extensionPackageInputStreamUncompressed);
+    /**
+     * Check if the package staged by this installer would overwrite any shared library of the
+     * package staged by the other installer.
+     */
+    public boolean doesInstallOverwriteAnySharedLibraryOf(ExtensionInstaller otherInstaller) {
+      if (stagedPackage == null || otherInstaller.stagedPackage == null) {
+        return false;
       }
+      return stagedPackage.sharedLibraryPaths.stream()
+          .anyMatch(otherInstaller.stagedPackage.sharedLibraryPaths::contains);
     }
 
-    @SuppressFBWarnings(value = "UPM_UNCALLED_PRIVATE_METHOD",
-        justification = "False positive")
-    public boolean doesInstallOverwriteAnySharedLibrary(InputStream inputStream) throws Exception {
-      return visitTar(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context)),
-          inputStream,
-          ExtensionManager.this::isSharedLibraryOverwrite,
-          false, (prev, next) -> prev || next);
-    }
-
-    @SuppressFBWarnings(value = { "UPM_UNCALLED_PRIVATE_METHOD",
-        "RCN_REDUNDANT_NULLCHECK_OF_NONNULL_VALUE" },
-        justification = "False positive")
+    /**
+     * Move the content staged by {@link #downloadVerifyAndStage()} into place.
+     */
     public void installExtension() throws Exception {
-      try (
-          InputStream extensionPackageInputStream = fileSystemHandler.newInputStream(
-              Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context))
-              .resolve(extensionMetadata.getPackageName() + TGZ_SUFFIX));
-          InputStream extensionPackageInputStreamUncompressed = new GZIPInputStream(
-              extensionPackageInputStream)) {
-        extractTar(extensionPackageInputStreamUncompressed);
-      }
+      installStagedPackage();
       createExtensionLinks();
       fileSystemHandler.createOrReplaceFile(
           Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context))
@@ -207,6 +237,32 @@ public abstract class ExtensionManager {
           .resolve(extensionMetadata.getPackageName() + PENDING_SUFFIX));
     }
 
+    private StagedPackage getStagedPackage() {
+      if (stagedPackage == null) {
+        throw new IllegalStateException("Extension package "
+            + extensionMetadata.getPackageName() + " was not staged");
+      }
+      return stagedPackage;
+    }
+
+    private void installStagedPackage() throws Exception {
+      for (StagedEntry stagedEntry : getStagedPackage().entries) {
+        extractEntry(stagedEntry.tarEntry, stagedEntry.targetPath,
+            targetPath -> fileSystemHandler.moveOrReplace(stagedEntry.stagedPath, targetPath));
+      }
+      deleteStagedPackage();
+    }
+
+    /**
+     * Remove the content staged by {@link #downloadVerifyAndStage()} if it was not installed.
+     */
+    public void deleteStagedPackage() throws Exception {
+      if (stagedPackage != null) {
+        fileSystemHandler.deleteRecursivelyIfExists(stagedPackage.stagingPath);
+        stagedPackage = null;
+      }
+    }
+
     public void createExtensionLinks() throws Exception {
       fileSystemHandler
           .list(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_LIB_PATH.path(context)))
@@ -221,14 +277,6 @@ public abstract class ExtensionManager {
           .resolve(extensionMetadata.getPackageName() + LINKS_CREATED_SUFFIX));
     }
 
-    private void extractTar(InputStream inputStream)
-        throws Exception {
-      visitTar(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context)),
-          inputStream,
-          ExtensionManager.this::extractFile,
-          null, (prev, next) -> null);
-    }
-
     public boolean isExtensionPendingOverwrite() {
       return fileSystemHandler.exists(
           Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context))
@@ -240,6 +288,100 @@ public abstract class ExtensionManager {
           Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context))
           .resolve(extensionMetadata.getPackageName() + PENDING_SUFFIX));
     }
+
+    /**
+     * Extract the downloaded tar while its package is decompressed and staged. The signature
+     * is updated with the bytes of the package as they are read.
+     */
+    private class PackageStager {
+      private final Path extensionsPath;
+      private final Path stagingPath;
+      private final Signature signature;
+      private final List<StagedEntry> stagedEntries = new ArrayList<>();
+      private final Set<Path> sharedLibraryPaths = new HashSet<>();
+      private Path packagePath;
+      private Path stagedPackagePath;
+      private byte[] packageSignature;
+      private boolean overwritesAnySharedLibrary = false;
+
+      PackageStager(Path extensionsPath, Path stagingPath, Signature signature) {
+        this.extensionsPath = extensionsPath;
+        this.stagingPath = stagingPath;
+        this.signature = signature;
+      }
+
+      void stage(InputStream inputStream) throws Exception {
+        try (TarArchiveInputStream tarEntryInputStream = new TarArchiveInputStream(inputStream)) {
+          for (TarArchiveEntry tarEntry = tarEntryInputStream.getNextTarEntry(); tarEntry != null;
+              tarEntry = tarEntryInputStream.getNextTarEntry()) {
+            final Path targetPath = getTargetPath(extensionsPath, tarEntry);
+            if (tarEntry.getName().endsWith(TGZ_SUFFIX)) {
+              stagePackage(tarEntryInputStream, targetPath);
+            } else if (tarEntry.getName().endsWith(SHA256_SUFFIX)) {
+              final byte[] signatureBytes = tarEntryInputStream.readAllBytes();
+              final Set<PosixFilePermission> permissions = parseMode(tarEntry.getMode());
+              extractEntry(tarEntry, targetPath, path -> {
+                fileSystemHandler.copyOrReplace(new ByteArrayInputStream(signatureBytes), path);
+                fileSystemHandler.setPosixFilePermissions(path, permissions);
+              });
+              packageSignature = signatureBytes;
+            } else {
+              extractFile(tarEntryInputStream, targetPath);
+            }
+          }
+        } catch (UncheckedIOException ex) {
+          throw ex.getCause();
+        }
+      }
+
+      private void stagePackage(TarArchiveInputStream tarEntryInputStream, Path targetPath)
+          throws Exception {
+        final Path stagedPath = stagingPath.resolve(TGZ_SUFFIX);
+        try (OutputStream outputStream = fileSystemHandler.newOutputStream(stagedPath)) {
+          final InputStream packageInputStream = new SignedInputStream(
+              tarEntryInputStream, signature, outputStream);
+          overwritesAnySharedLibrary = visitTar(extensionsPath,
+              new GZIPInputStream(packageInputStream), this::stagePackageEntry,
+              false, (prev, next) -> prev || next);
+          packageInputStream.transferTo(OutputStream.nullOutputStream());
+        }
+        fileSystemHandler.setPosixFilePermissions(stagedPath,
+            parseMode(tarEntryInputStream.getCurrentEntry().getMode()));
+        packagePath = targetPath;
+        stagedPackagePath = stagedPath;
+      }
+
+      private boolean stagePackageEntry(TarArchiveInputStream tarEntryInputStream,
+          Path targetPath) throws UncheckedIOException {
+        final TarArchiveEntry tarEntry = tarEntryInputStream.getCurrentEntry();
+        final Path stagedPath = stagingPath.resolve(String.valueOf(stagedEntries.size()));
+        try {
+          if (tarEntry.isFile() && !tarEntry.isSymbolicLink()) {
+            fileSystemHandler.copyOrReplace(tarEntryInputStream, stagedPath);
+            fileSystemHandler.setPosixFilePermissions(stagedPath, parseMode(tarEntry.getMode()));
+          }
+        } catch (IOException ex) {
+          throw new UncheckedIOException("Error while staging " + targetPath, ex);
+        }
+        stagedEntries.add(new StagedEntry(tarEntry, targetPath, stagedPath));
+        if (tarEntry.isFile() && !isScriptOrControlFile(targetPath)) {
+          sharedLibraryPaths.add(targetPath);
+        }
+        return isSharedLibraryOverwrite(tarEntryInputStream, targetPath);
+      }
+
+      StagedPackage verify() throws Exception {
+        if (stagedPackagePath == null) {
+          throw new IllegalStateException("Can not find the extension package in the output");
+        }
+        if (packageSignature == null || !signature.verify(packageSignature)) {
+          throw new SignatureException("Signature verification failed");
+        }
+        fileSystemHandler.moveOrReplace(stagedPackagePath, packagePath);
+        return new StagedPackage(stagingPath, ImmutableList.copyOf(stagedEntries),
+            ImmutableSet.copyOf(sharedLibraryPaths), overwritesAnySharedLibrary);
+      }
+    }
   }
 
   public class ExtensionUninstaller {
@@ -325,13 +467,7 @@ public abstract class ExtensionManager {
         throw new IllegalStateException("Can not find any entry in the output");
       }
       for (; tarArchiveEntry != null; tarArchiveEntry = tarEntryInputStream.getNextTarEntry()) {
-        final Path entryPath = Paths.get(tarArchiveEntry.getName());
-        final Path targetPath;
-        if (entryPath.isAbsolute()) {
-          targetPath = entryPath;
-        } else {
-          targetPath = extensionsPath.resolve(entryPath);
-        }
+        final Path targetPath = getTargetPath(extensionsPath, tarArchiveEntry);
         initialValue = accumulator.apply(initialValue,
             visitor.apply(tarEntryInputStream, targetPath));
       }
@@ -341,6 +477,14 @@ public abstract class ExtensionManager {
     return initialValue;
   }
 
+  private static Path getTargetPath(Path extensionsPath, TarArchiveEntry tarArchiveEntry) {
+    final Path entryPath = Paths.get(tarArchiveEntry.getName());
+    if (entryPath.isAbsolute()) {
+      return entryPath;
+    }
+    return extensionsPath.resolve(entryPath);
+  }
+
   @SuppressFBWarnings(value = "UPM_UNCALLED_PRIVATE_METHOD",
       justification = "False positive")
   private boolean isSharedLibraryOverwrite(TarArchiveInputStream tarEntryInputStream,
@@ -358,47 +502,56 @@ public abstract class ExtensionManager {
       throws UncheckedIOException {
     try {
       final TarArchiveEntry tarEntry = tarEntryInputStream.getCurrentEntry();
-
-      if (tarEntry.isFile()) {
-        Path targetParent = targetPath.getParent();
-        if (targetParent != null) {
-          fileSystemHandler.createDirectories(targetParent);
-        }
-      }
-      if (tarEntry.isFile() && !tarEntry.isSymbolicLink()) {
-        fileSystemHandler.copyOrReplace(tarEntryInputStream, targetPath);
-        int fileMode = tarEntry.getMode();
-        Set<PosixFilePermission> permissions = parseMode(fileMode);
-        fileSystemHandler.setPosixFilePermissions(targetPath, permissions);
-      } else if (tarEntry.isSymbolicLink()) {
-        Path linkTarget = Paths.get(tarEntry.getLinkName());
-        if (linkTarget.isAbsolute()) {
-          fileSystemHandler.createOrReplaceSymbolicLink(targetPath, linkTarget);
-        } else {
-          Path targetParent = targetPath.getParent();
-          if (targetParent == null) {
-            fileSystemHandler.createOrReplaceSymbolicLink(
-                targetPath, Paths.get(".").resolve(linkTarget));
-          } else {
-            fileSystemHandler.createOrReplaceSymbolicLink(
-                targetPath, targetParent.resolve(linkTarget));
-          }
-        }
-      } else if (tarEntry.isDirectory()) {
-        fileSystemHandler.createDirectories(targetPath);
+      extractEntry(tarEntry, targetPath, path -> {
+        fileSystemHandler.copyOrReplace(tarEntryInputStream, path);
         int fileMode = tarEntry.getMode();
         Set<PosixFilePermission> permissions = parseMode(fileMode);
-        fileSystemHandler.setPosixFilePermissions(targetPath, permissions);
-      } else {
-        LOGGER.warn("Can not extract file {}", targetPath);
-        return null;
-      }
+        fileSystemHandler.setPosixFilePermissions(path, permissions);
+      });
     } catch (IOException ex) {
       throw new UncheckedIOException("Error while extracting " + targetPath, ex);
     }
     return null;
   }
 
+  /**
+   * Create the directory or the symbolic link of the entry or, when it is a regular file, call
+   * the extractor once its parent directory is created.
+   */
+  private void extractEntry(TarArchiveEntry tarEntry, Path targetPath,
+      FileExtractor fileExtractor) throws IOException {
+    if (tarEntry.isFile()) {
+      Path targetParent = targetPath.getParent();
+      if (targetParent != null) {
+        fileSystemHandler.createDirectories(targetParent);
+      }
+    }
+    if (tarEntry.isFile() && !tarEntry.isSymbolicLink()) {
+      fileExtractor.extract(targetPath);
+    } else if (tarEntry.isSymbolicLink()) {
+      Path linkTarget = Paths.get(tarEntry.getLinkName());
+      if (linkTarget.isAbsolute()) {
+        fileSystemHandler.createOrReplaceSymbolicLink(targetPath, linkTarget);
+      } else {
+        Path targetParent = targetPath.getParent();
+        if (targetParent == null) {
+          fileSystemHandler.createOrReplaceSymbolicLink(
+              targetPath, Paths.get(".").resolve(linkTarget));
+        } else {
+          fileSystemHandler.createOrReplaceSymbolicLink(
+              targetPath, targetParent.resolve(linkTarget));
+        }
+      }
+    } else if (tarEntry.isDirectory()) {
+      fileSystemHandler.createDirectories(targetPath);
+      int fileMode = tarEntry.getMode();
+      Set<PosixFilePermission> permissions = parseMode(fileMode);
+      fileSystemHandler.setPosixFilePermissions(targetPath, permissions);
+    } else {
+      LOGGER.warn("Can not extract file {}", targetPath);
+    }
+  }
+
   private Set<PosixFilePermission> parseMode(int mode) {
     Set<PosixFilePermission> permissions = new HashSet<>();
     if ((mode & 0001) != 0) { // NOPMD
@@ -455,4 +608,101 @@ public abstract class ExtensionManager {
         || targetPath.toString().endsWith(".control");
   }
 
+  @FunctionalInterface
+  private interface DownloadConsumer {
+    void accept(InputStream inputStream) throws Exception;
+  }
+
+  @FunctionalInterface
+  private interface FileExtractor {
+    void extract(Path targetPath) throws IOException;
+  }
+
+  private static class StagedPackage {
+    private final Path stagingPath;
+    private final List<StagedEntry> entries;
+    private final Set<Path> sharedLibraryPaths;
+    private final boolean overwritesAnySharedLibrary;
+
+    StagedPackage(Path stagingPath, List<StagedEntry> entries, Set<Path> sharedLibraryPaths,
+        boolean overwritesAnySharedLibrary) {
+      this.stagingPath = stagingPath;
+      this.entries = entries;
+      this.sharedLibraryPaths = sharedLibraryPaths;
+      this.overwritesAnySharedLibrary = overwritesAnySharedLibrary;
+    }
+  }
+
+  private static class StagedEntry {
+    private final TarArchiveEntry tarEntry;
+    private final Path targetPath;
+    private final Path stagedPath;
+
+    StagedEntry(TarArchiveEntry tarEntry, Path targetPath, Path stagedPath) {
+      this.tarEntry = tarEntry;
+      this.targetPath = targetPath;
+      this.stagedPath = stagedPath;
+    }
+  }
+
+  /**
+   * Update the signature with the bytes read and copy them to the output stream. Closing it
+   * does not close the underlying input stream.
+   */
+  private static class SignedInputStream extends FilterInputStream {
+    private final Signature signature;
+    private final OutputStream outputStream;
+
+    SignedInputStream(InputStream inputStream, Signature signature,
+        OutputStream outputStream) {
+      super(inputStream);
+      this.signature = signature;
+      this.outputStream = outputStream;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int value = super.read();
+      if (value != -1) {
+        update(new byte[] { (byte) value }, 0, 1);
+      }
+      return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int read = super.read(buffer, offset, length);
+      if (read > 0) {
+        update(buffer, offset, read);
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(long length) throws IOException {
+      byte[] buffer = new byte[(int) Math.min(length, 8192)];
+      int read = read(buffer, 0, buffer.length);
+      return Math.max(read, 0);
+    }
+
+    private void update(byte[] buffer, int offset, int length) throws IOException {
+      try {
+        signature.update(buffer, offset, length);
+      } catch (SignatureException ex) {
+        throw new IOException(ex);
+      }
+      outputStream.write(buffer, offset, length);
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+
+    @Override
+    public void close() {
+      // The underlying input stream is closed by its owner
+    }
+  }
+
 }
@@ -5,24 +5,39 @@
 
 package io.stackgres.common.extension;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
-import java.time.temporal.ChronoUnit;
+import java.time.Instant;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import io.stackgres.common.WebClientFactory;
+import io.stackgres.common.WebClientFactory.CachedEntity;
 import io.stackgres.common.WebClientFactory.WebClient;
 import io.stackgres.common.crd.sgcluster.StackGresCluster;
 import io.stackgres.common.crd.sgcluster.StackGresClusterExtension;
 import io.stackgres.common.crd.sgcluster.StackGresClusterInstalledExtension;
+import org.jooq.lambda.Seq;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,22 +48,37 @@ public abstract class ExtensionMetadataManager {
 
   private static final String SKIP_HOSTNAME_VERIFICATION_PARAMETER = "skipHostnameVerification";
 
-  private static final Object EXTENSIONS = new Object();
+  private static final Duration REFRESH_AFTER = Duration.ofMinutes(45);
+  private static final Duration RETRY_AFTER = Duration.ofMinutes(1);
 
-  private final Cache<Object, ExtensionMetadataCache>
-      extensionsMetadataCache = CacheBuilder.newBuilder()
-          .expireAfterWrite(Duration.of(1, ChronoUnit.HOURS))
-          .initialCapacity(1).maximumSize(1).build();
-  private final Map<URI, ExtensionMetadataCache> uriCache =
-      new HashMap<>();
+  private static final ObjectMapper SNAPSHOT_MAPPER = new ObjectMapper()
+      .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+  private final Map<URI, RepositoryMetadata> repositoriesMetadata = new ConcurrentHashMap<>();
+  private final AtomicReference<CompletableFuture<ExtensionMetadataCache>> refresh =
+      new AtomicReference<>();
+  private volatile ExtensionMetadataCache extensionsMetadataCache;
+  private volatile Instant refreshAt = Instant.now();
+  private ExecutorService executor;
 
   private final WebClientFactory webClientFactory;
   private final List<URI> extensionsRepositoryUris;
+  private final Path snapshotPath;
 
   public ExtensionMetadataManager(WebClientFactory webClientFactory,
       List<URI> extensionsRepositoryUrls) {
+    this(webClientFactory, extensionsRepositoryUrls, null);
+  }
+
+  /**
+   * When a snapshot path is specified the last good index of each repository is stored in it
+   * and loaded on first use so that lookups do not have to wait for the first download.
+   */
+  public ExtensionMetadataManager(WebClientFactory webClientFactory,
+      List<URI> extensionsRepositoryUrls, Path snapshotPath) {
     this.webClientFactory = webClientFactory;
     this.extensionsRepositoryUris = extensionsRepositoryUrls;
+    this.snapshotPath = snapshotPath;
   }
 
   public StackGresExtensionMetadata getExtensionCandidate(
@@ -101,42 +131,192 @@ public abstract class ExtensionMetadataManager {
     return getExtensionsMetadata().index.values();
   }
 
-  private ExtensionMetadataCache getExtensionsMetadata()
-      throws Exception {
-    return extensionsMetadataCache.get(EXTENSIONS, this::downloadExtensionsMetadata);
+  /**
+   * Load the snapshot (if any) and start downloading the repositories indexes without waiting
+   * for them.
+   */
+  public void refreshInBackground() {
+    loadSnapshot();
+    refresh();
+  }
+
+  /**
+   * Return the cached metadata and, when it is due, refresh it in background. Only the first
+   * lookup, when there is no snapshot to start from, waits for the download.
+   */
+  private ExtensionMetadataCache getExtensionsMetadata() throws Exception {
+    ExtensionMetadataCache cache = extensionsMetadataCache;
+    if (cache == null) {
+      cache = loadSnapshot();
+    }
+    if (cache == null) {
+      return refresh().get();
+    }
+    if (!Instant.now().isBefore(refreshAt)) {
+      refresh();
+    }
+    return cache;
+  }
+
+  private CompletableFuture<ExtensionMetadataCache> refresh() {
+    final CompletableFuture<ExtensionMetadataCache> newRefresh = new CompletableFuture<>();
+    final CompletableFuture<ExtensionMetadataCache> currentRefresh =
+        refresh.compareAndExchange(null, newRefresh);
+    if (currentRefresh != null) {
+      return currentRefresh;
+    }
+    final AtomicBoolean failed = new AtomicBoolean(false);
+    final AtomicBoolean modified = new AtomicBoolean(false);
+    final List<CompletableFuture<RepositoryMetadata>> downloads = Seq.seq(extensionsRepositoryUris)
+        .map(extensionsRepositoryUri -> CompletableFuture.supplyAsync(
+            () -> downloadRepositoryMetadata(extensionsRepositoryUri, failed, modified),
+            getExecutor()))
+        .toList();
+    CompletableFuture.allOf(downloads.toArray(CompletableFuture[]::new))
+        .whenComplete((result, ex) -> {
+          try {
+            ExtensionMetadataCache cache = new ExtensionMetadataCache(
+                new HashMap<>(), new HashMap<>(), new HashMap<>());
+            downloads.stream()
+                .map(CompletableFuture::join)
+                .filter(Objects::nonNull)
+                .forEach(repositoryMetadata -> cache.merge(repositoryMetadata.cache));
+            extensionsMetadataCache = cache;
+            refreshAt = Instant.now().plus(failed.get() ? RETRY_AFTER : REFRESH_AFTER);
+            if (modified.get()) {
+              storeSnapshot();
+            }
+            refresh.set(null);
+            newRefresh.complete(cache);
+          } catch (RuntimeException rex) {
+            refresh.set(null);
+            newRefresh.completeExceptionally(rex);
+          }
+        });
+    return newRefresh;
+  }
+
+  private synchronized ExecutorService getExecutor() {
+    if (executor == null) {
+      executor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, ExtensionMetadataManager.class.getSimpleName());
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return executor;
   }
 
   @SuppressFBWarnings(value = "RCN_REDUNDANT_NULLCHECK_OF_NONNULL_VALUE",
       justification = "False positive")
-  private ExtensionMetadataCache downloadExtensionsMetadata()
-      throws Exception {
-    ExtensionMetadataCache cache = new ExtensionMetadataCache(
-        new HashMap<>(), new HashMap<>(), new HashMap<>());
-    for (URI extensionsRepositoryUri : extensionsRepositoryUris) {
-      try {
-        LOGGER.info("Downloading extensions metadata from {}", extensionsRepositoryUri);
-        boolean skipHostnameVerification =
-            ExtensionUtil.getUriQueryParameter(
-                extensionsRepositoryUri, SKIP_HOSTNAME_VERIFICATION_PARAMETER)
-            .map(Boolean::valueOf).orElse(false);
-        final URI indexUri = ExtensionUtil.getIndexUri(extensionsRepositoryUri);
-        try (WebClient client = webClientFactory.create(skipHostnameVerification)) {
-          StackGresExtensions repositoryExtensions = client.getJson(
-              indexUri, StackGresExtensions.class);
-          ExtensionMetadataCache current = ExtensionMetadataCache.from(
-              extensionsRepositoryUri, repositoryExtensions);
-          cache.merge(current);
-          uriCache.put(extensionsRepositoryUri, current);
+  private RepositoryMetadata downloadRepositoryMetadata(URI extensionsRepositoryUri,
+      AtomicBoolean failed, AtomicBoolean modified) {
+    final RepositoryMetadata previous = repositoriesMetadata.get(extensionsRepositoryUri);
+    try {
+      LOGGER.info("Downloading extensions metadata from {}", extensionsRepositoryUri);
+      boolean skipHostnameVerification =
+          ExtensionUtil.getUriQueryParameter(
+              extensionsRepositoryUri, SKIP_HOSTNAME_VERIFICATION_PARAMETER)
+          .map(Boolean::valueOf).orElse(false);
+      final URI indexUri = ExtensionUtil.getIndexUri(extensionsRepositoryUri);
+      try (WebClient client = webClientFactory.create(skipHostnameVerification)) {
+        CachedEntity<StackGresExtensions> index = client.getJsonIfModified(
+            indexUri, StackGresExtensions.class,
+            Optional.ofNullable(previous).map(p -> p.index).orElse(null));
+        if (previous != null && index == previous.index) {
+          LOGGER.info("Extensions metadata from {} not modified", extensionsRepositoryUri);
+          return previous;
         }
-      } catch (Exception ex) {
-        ExtensionMetadataCache previous = uriCache.get(extensionsRepositoryUri);
-        if (previous != null) {
-          cache.merge(previous);
+        RepositoryMetadata current = new RepositoryMetadata(index,
+            ExtensionMetadataCache.from(extensionsRepositoryUri, index.getEntity()));
+        repositoriesMetadata.put(extensionsRepositoryUri, current);
+        modified.set(true);
+        return current;
+      }
+    } catch (Exception ex) {
+      failed.set(true);
+      LOGGER.error("Can not download extensions metadata from {}", extensionsRepositoryUri, ex);
+      return previous;
+    }
+  }
+
+  private synchronized ExtensionMetadataCache loadSnapshot() {
+    if (extensionsMetadataCache != null || snapshotPath == null
+        || !Files.exists(snapshotPath)) {
+      return extensionsMetadataCache;
+    }
+    try (InputStream inputStream = Files.newInputStream(snapshotPath)) {
+      List<StackGresExtensionsSnapshot> snapshots = SNAPSHOT_MAPPER.readValue(inputStream,
+          new TypeReference<List<StackGresExtensionsSnapshot>>() {});
+      ExtensionMetadataCache cache = new ExtensionMetadataCache(
+          new HashMap<>(), new HashMap<>(), new HashMap<>());
+      for (URI extensionsRepositoryUri : extensionsRepositoryUris) {
+        snapshots.stream()
+            .filter(snapshot -> extensionsRepositoryUri.toString()
+                .equals(snapshot.getRepository()))
+            .findFirst()
+            .map(snapshot -> new RepositoryMetadata(
+                new CachedEntity<>(snapshot.getIndex(),
+                    snapshot.getEntityTag(), snapshot.getLastModified()),
+                ExtensionMetadataCache.from(extensionsRepositoryUri, snapshot.getIndex())))
+            .ifPresent(repositoryMetadata -> {
+              repositoriesMetadata.putIfAbsent(extensionsRepositoryUri, repositoryMetadata);
+              cache.merge(repositoryMetadata.cache);
+            });
+      }
+      LOGGER.info("Loaded extensions metadata snapshot from {}", snapshotPath);
+      extensionsMetadataCache = cache;
+      return cache;
+    } catch (Exception ex) {
+      LOGGER.warn("Can not load extensions metadata snapshot from {}", snapshotPath, ex);
+      return null;
+    }
+  }
+
+  private synchronized void storeSnapshot() {
+    if (snapshotPath == null) {
+      return;
+    }
+    List<StackGresExtensionsSnapshot> snapshots = Seq.seq(extensionsRepositoryUris)
+        .filter(repositoriesMetadata::containsKey)
+        .map(extensionsRepositoryUri -> {
+          CachedEntity<StackGresExtensions> index =
+              repositoriesMetadata.get(extensionsRepositoryUri).index;
+          StackGresExtensionsSnapshot snapshot = new StackGresExtensionsSnapshot();
+          snapshot.setRepository(extensionsRepositoryUri.toString());
+          snapshot.setEntityTag(index.getEntityTag());
+          snapshot.setLastModified(index.getLastModified());
+          snapshot.setIndex(index.getEntity());
+          return snapshot;
+        })
+        .toList();
+    try {
+      Path snapshotParentPath = snapshotPath.toAbsolutePath().getParent();
+      Files.createDirectories(snapshotParentPath);
+      Path snapshotTempPath = Files.createTempFile(snapshotParentPath,
+          snapshotPath.getFileName().toString(), ".tmp");
+      try {
+        try (OutputStream outputStream = Files.newOutputStream(snapshotTempPath)) {
+          SNAPSHOT_MAPPER.writeValue(outputStream, snapshots);
         }
-        LOGGER.error("Can not download extensions metadata from {}", extensionsRepositoryUri, ex);
+        Files.move(snapshotTempPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(snapshotTempPath);
       }
+    } catch (Exception ex) {
+      LOGGER.warn("Can not store extensions metadata snapshot to {}", snapshotPath, ex);
+    }
+  }
+
+  private static class RepositoryMetadata {
+    final CachedEntity<StackGresExtensions> index;
+    final ExtensionMetadataCache cache;
+
+    RepositoryMetadata(CachedEntity<StackGresExtensions> index, ExtensionMetadataCache cache) {
+      this.index = index;
+      this.cache = cache;
     }
-    return cache;
   }
 
   static class ExtensionMetadataCache {
@@ -0,0 +1,383 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.common.extension;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.SignatureException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipException;
+
+import com.google.common.io.BaseEncoding;
+import org.jooq.lambda.Unchecked;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Content addressed cache of extension packages that may be shared by the installers of many
+ * pods (for example through a hostPath volume). Packages are stored by their SHA256 and found
+ * by their package name. A package is downloaded by only one installer at a time, the others
+ * wait on a file lock and then reuse the cached package. Least recently used packages are
+ * evicted when the cache grows over its maximum size.
+ *
+ * <pre>
+ * cache
+ * ├── packages/&lt;sha256&gt;.tar
+ * ├── refs/&lt;package name&gt;
+ * ├── locks/&lt;package name&gt;.lock
+ * └── tmp/
+ * </pre>
+ */
+public class ExtensionPackageCache {
+
+  public static final long DEFAULT_MAX_SIZE = 2L * 1024 * 1024 * 1024;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ExtensionPackageCache.class);
+
+  private static final String PACKAGES = "packages";
+  private static final String REFS = "refs";
+  private static final String LOCKS = "locks";
+  private static final String TMP = "tmp";
+  private static final String PACKAGE_SUFFIX = ".tar";
+  private static final String LOCK_SUFFIX = ".lock";
+  private static final String EVICTION_LOCK = "eviction" + LOCK_SUFFIX;
+  private static final Duration STALE_TMP_AFTER = Duration.ofDays(1);
+
+  /**
+   * File locks are held on behalf of the whole JVM, so installers of the same JVM also have to
+   * synchronize between them.
+   */
+  private static final Map<Path, ReentrantLock> LOCAL_LOCKS = new ConcurrentHashMap<>();
+
+  private final Path cachePath;
+  private final long maxSize;
+
+  public ExtensionPackageCache(Path cachePath, long maxSize) {
+    this.cachePath = cachePath.toAbsolutePath().normalize();
+    this.maxSize = maxSize;
+  }
+
+  @FunctionalInterface
+  public interface PackageConsumer {
+    void accept(InputStream inputStream) throws Exception;
+  }
+
+  @FunctionalInterface
+  public interface PackageDownloader {
+    void download(PackageConsumer consumer) throws Exception;
+  }
+
+  /**
+   * Feed the consumer with the cached package or, if not found, with the downloaded package.
+   * The consumer must verify the package and throw if it is not valid: a downloaded package
+   * is cached only if the consumer succeeds. A cached package is evicted and downloaded again
+   * only if its checksum does not match or the consumer fails verifying or decompressing it,
+   * any other failure of the consumer is thrown.
+   */
+  public void consume(String packageName, PackageDownloader downloader,
+      PackageConsumer consumer) throws Exception {
+    if (consumeCached(packageName, consumer)) {
+      return;
+    }
+    createDirectories();
+    final PackageLock lock = lock(cachePath.resolve(LOCKS).resolve(packageName + LOCK_SUFFIX));
+    try {
+      if (consumeCached(packageName, consumer)) {
+        return;
+      }
+      final Path downloadPath = Files.createTempFile(
+          cachePath.resolve(TMP), packageName, PACKAGE_SUFFIX);
+      try {
+        final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        try (OutputStream outputStream = Files.newOutputStream(downloadPath)) {
+          downloader.download(inputStream -> {
+            final InputStream copyingInputStream = new CopyingInputStream(
+                new DigestInputStream(inputStream, digest), outputStream);
+            consumer.accept(copyingInputStream);
+            copyingInputStream.transferTo(OutputStream.nullOutputStream());
+          });
+        }
+        store(packageName, downloadPath, BaseEncoding.base16().lowerCase()
+            .encode(digest.digest()));
+      } finally {
+        Files.deleteIfExists(downloadPath);
+      }
+    } finally {
+      lock.release();
+    }
+    evict();
+  }
+
+  private boolean consumeCached(String packageName, PackageConsumer consumer)
+      throws Exception {
+    final Optional<String> sha256 = getSha256(packageName);
+    if (sha256.isEmpty()) {
+      return false;
+    }
+    final Path packagePath = getPackagePath(sha256.get());
+    final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+    final InputStream packageInputStream;
+    try {
+      packageInputStream = Files.newInputStream(packagePath);
+    } catch (NoSuchFileException ex) {
+      return false;
+    }
+    try (packageInputStream) {
+      touch(packagePath);
+      final InputStream inputStream = new CopyingInputStream(
+          new DigestInputStream(packageInputStream, digest), OutputStream.nullOutputStream());
+      try {
+        consumer.accept(inputStream);
+      } catch (Exception ex) {
+        if (!isPackageError(ex) && isIntact(packageName, sha256.get(), inputStream, digest)) {
+          throw ex;
+        }
+        LOGGER.warn("Cached package {} ({}) can not be used, it will be downloaded again",
+            packageName, sha256.get(), ex);
+        Files.deleteIfExists(packagePath);
+        return false;
+      }
+      if (!isIntact(packageName, sha256.get(), inputStream, digest)) {
+        LOGGER.warn("Cached package {} ({}) is corrupted, it will be downloaded again",
+            packageName, sha256.get());
+        Files.deleteIfExists(packagePath);
+        return false;
+      }
+    }
+    LOGGER.info("Using cached package {} ({})", packageName, sha256.get());
+    return true;
+  }
+
+  /**
+   * Mark the package as recently used. A package evicted after it was opened can still be
+   * read, so it is not an error if it no longer exists.
+   */
+  private void touch(Path packagePath) throws IOException {
+    try {
+      Files.setLastModifiedTime(packagePath, FileTime.from(Instant.now()));
+    } catch (NoSuchFileException ex) {
+      LOGGER.debug("Cached package {} was evicted while in use", packagePath.getFileName());
+    }
+  }
+
+  /**
+   * A package that fails the signature verification or that can not be decompressed is not
+   * valid, while other errors (like a full disk) are not related to the cached package.
+   */
+  private boolean isPackageError(Exception ex) {
+    return ex instanceof SignatureException || ex instanceof ZipException;
+  }
+
+  /**
+   * Read what is left of the cached package and check that its checksum matches.
+   */
+  private boolean isIntact(String packageName, String sha256, InputStream inputStream,
+      MessageDigest digest) {
+    try {
+      inputStream.transferTo(OutputStream.nullOutputStream());
+    } catch (IOException ex) {
+      LOGGER.warn("Cached package {} ({}) can not be read", packageName, sha256, ex);
+      return false;
+    }
+    return BaseEncoding.base16().lowerCase().encode(digest.digest()).equals(sha256);
+  }
+
+  private Optional<String> getSha256(String packageName) throws IOException {
+    final Path refPath = cachePath.resolve(REFS).resolve(packageName);
+    try {
+      return Optional.of(new String(Files.readAllBytes(refPath), StandardCharsets.UTF_8).trim())
+          .filter(sha256 -> !sha256.isEmpty());
+    } catch (NoSuchFileException ex) {
+      return Optional.empty();
+    }
+  }
+
+  private Path getPackagePath(String sha256) {
+    return cachePath.resolve(PACKAGES).resolve(sha256 + PACKAGE_SUFFIX);
+  }
+
+  private void store(String packageName, Path downloadPath, String sha256) throws IOException {
+    final Path packagePath = getPackagePath(sha256);
+    if (!Files.exists(packagePath)) {
+      Files.move(downloadPath, packagePath, StandardCopyOption.ATOMIC_MOVE);
+    }
+    final Path refTempPath = Files.createTempFile(cachePath.resolve(TMP), packageName, "");
+    try {
+      Files.write(refTempPath, sha256.getBytes(StandardCharsets.UTF_8));
+      Files.move(refTempPath, cachePath.resolve(REFS).resolve(packageName),
+          StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(refTempPath);
+    }
+    LOGGER.info("Cached package {} ({})", packageName, sha256);
+  }
+
+  /**
+   * Remove least recently used packages until the cache size is below the maximum, then
+   * remove references to missing packages and stale temporary files.
+   */
+  void evict() throws IOException {
+    final PackageLock lock = lock(cachePath.resolve(LOCKS).resolve(EVICTION_LOCK));
+    try {
+      final List<Path> packagePaths;
+      try (Stream<Path> paths = Files.list(cachePath.resolve(PACKAGES))) {
+        packagePaths = paths
+            .sorted(Comparator.comparing(Unchecked.function(Files::getLastModifiedTime)))
+            .collect(Collectors.toList());
+      }
+      long size = 0;
+      for (Path packagePath : packagePaths) {
+        size += Files.size(packagePath);
+      }
+      for (Path packagePath : packagePaths) {
+        if (size <= maxSize) {
+          break;
+        }
+        size -= Files.size(packagePath);
+        Files.deleteIfExists(packagePath);
+        LOGGER.info("Evicted cached package {}", packagePath.getFileName());
+      }
+      try (Stream<Path> paths = Files.list(cachePath.resolve(REFS))) {
+        for (Path refPath : paths.collect(Collectors.toList())) {
+          if (getSha256(refPath.getFileName().toString())
+              .map(this::getPackagePath)
+              .map(packagePath -> !Files.exists(packagePath))
+              .orElse(true)) {
+            Files.deleteIfExists(refPath);
+          }
+        }
+      }
+      final Instant staleTmpBefore = Instant.now().minus(STALE_TMP_AFTER);
+      try (Stream<Path> paths = Files.list(cachePath.resolve(TMP))) {
+        for (Path tmpPath : paths.collect(Collectors.toList())) {
+          if (Files.getLastModifiedTime(tmpPath).toInstant().isBefore(staleTmpBefore)) {
+            Files.deleteIfExists(tmpPath);
+          }
+        }
+      }
+    } finally {
+      lock.release();
+    }
+  }
+
+  private void createDirectories() throws IOException {
+    Files.createDirectories(cachePath.resolve(PACKAGES));
+    Files.createDirectories(cachePath.resolve(REFS));
+    Files.createDirectories(cachePath.resolve(LOCKS));
+    Files.createDirectories(cachePath.resolve(TMP));
+  }
+
+  private PackageLock lock(Path lockPath) throws IOException {
+    final ReentrantLock localLock = LOCAL_LOCKS.computeIfAbsent(
+        lockPath, path -> new ReentrantLock());
+    localLock.lock();
+    try {
+      final FileChannel channel = FileChannel.open(lockPath,
+          StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+      try {
+        return new PackageLock(localLock, channel, channel.lock());
+      } catch (IOException | RuntimeException ex) {
+        channel.close();
+        throw ex;
+      }
+    } catch (IOException | RuntimeException ex) {
+      localLock.unlock();
+      throw ex;
+    }
+  }
+
+  private static class PackageLock {
+    private final ReentrantLock localLock;
+    private final FileChannel channel;
+    private final FileLock fileLock;
+
+    PackageLock(ReentrantLock localLock, FileChannel channel, FileLock fileLock) {
+      this.localLock = localLock;
+      this.channel = channel;
+      this.fileLock = fileLock;
+    }
+
+    void release() throws IOException {
+      try {
+        fileLock.release();
+        channel.close();
+      } finally {
+        localLock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Copy the bytes that are read to an output stream. Skipped bytes are read so that they are
+   * also copied and digested. Closing it does not close the wrapped stream.
+   */
+  private static class CopyingInputStream extends FilterInputStream {
+    private final OutputStream outputStream;
+
+    CopyingInputStream(InputStream inputStream, OutputStream outputStream) {
+      super(inputStream);
+      this.outputStream = outputStream;
+    }
+
+    @Override
+    public int read() throws IOException {
+      final int read = super.read();
+      if (read != -1) {
+        outputStream.write(read);
+      }
+      return read;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      final int read = super.read(b, off, len);
+      if (read > 0) {
+        outputStream.write(b, off, read);
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      final byte[] buffer = new byte[(int) Math.min(n, 8192)];
+      final int read = read(buffer, 0, buffer.length);
+      return Math.max(read, 0);
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+
+    @Override
+    public void close() {
+      // The wrapped stream is closed by the downloader
+    }
+  }
+
+}
@@ -8,8 +8,16 @@ package io.stackgres.common.extension;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
+import javax.annotation.PreDestroy;
+
 import com.google.common.collect.ImmutableList;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import io.fabric8.kubernetes.client.KubernetesClient;
@@ -27,15 +35,44 @@ public abstract class ExtensionReconciliator<T extends ExtensionReconciliatorCon
 
   private static final Logger LOGGER = LoggerFactory.getLogger(ExtensionReconciliator.class);
 
+  public static final int DEFAULT_INSTALL_CONCURRENCY = 4;
+
+  private static final long INSTALLER_KEEP_ALIVE_SECONDS = 60;
+
   private final String podName;
   private final ExtensionManager extensionManager;
   private final boolean skipSharedLibrariesOverwrites;
+  private final ExecutorService installExecutor;
 
   public ExtensionReconciliator(String podName, ExtensionManager extensionManager,
       boolean skipSharedLibrariesOverwrites) {
+    this(podName, extensionManager, skipSharedLibrariesOverwrites,
+        DEFAULT_INSTALL_CONCURRENCY);
+  }
+
+  public ExtensionReconciliator(String podName, ExtensionManager extensionManager,
+      boolean skipSharedLibrariesOverwrites, int installConcurrency) {
     this.podName = podName;
     this.extensionManager = extensionManager;
     this.skipSharedLibrariesOverwrites = skipSharedLibrariesOverwrites;
+    final int installThreads = Math.max(1, installConcurrency);
+    final ThreadPoolExecutor installExecutor = new ThreadPoolExecutor(
+        installThreads, installThreads,
+        INSTALLER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(),
+        runnable -> {
+          Thread thread = new Thread(runnable, "ExtensionInstaller");
+          thread.setDaemon(true);
+          return thread;
+        });
+    // Installer threads are only kept while extensions are being installed
+    installExecutor.allowCoreThreadTimeOut(true);
+    this.installExecutor = installExecutor;
+  }
+
+  @PreDestroy
+  public void close() {
+    installExecutor.shutdownNow();
   }
 
   @SuppressFBWarnings(value = "REC_CATCH_EXCEPTION",
@@ -100,33 +137,34 @@ public abstract class ExtensionReconciliator<T extends ExtensionReconciliatorCon
             podName, ex);
       }
     }
+    final List<ExtensionInstallation> installations = new ArrayList<>();
     for (StackGresClusterInstalledExtension extension : extensions) {
+      installations.add(prepareInstallation(context, extension));
+    }
+    stageInstallations(installations);
+    checkSharedLibrariesOverwrites(installations);
+    for (ExtensionInstallation installation : installations) {
+      final StackGresClusterInstalledExtension extension = installation.extension;
       try {
-        final ExtensionInstaller extensionInstaller = Optional.ofNullable(
-            extensionManager.getExtensionInstaller(context, extension))
-            .orElseThrow(() -> new IllegalStateException(
-                "Can not find extension " + ExtensionUtil.getDescription(extension)));
-        if (!extensionInstaller.isExtensionInstalled()
-            && (!skipSharedLibrariesOverwrites
-                || !extensionInstaller.isExtensionPendingOverwrite())) {
-          LOGGER.info("Download extension {}", ExtensionUtil.getDescription(extension));
-          extensionInstaller.downloadAndExtract();
-          LOGGER.info("Verify extension {}", ExtensionUtil.getDescription(extension));
-          extensionInstaller.verify();
-          if (skipSharedLibrariesOverwrites
-              && extensionInstaller.doesInstallOverwriteAnySharedLibrary()) {
-            LOGGER.info("Skip installation of extension {}",
-                ExtensionUtil.getDescription(extension));
-            if (!extensionInstaller.isExtensionPendingOverwrite()) {
-              extensionInstaller.setExtensionAsPending();
-            }
-            if (!Optional.ofNullable(podStatus.getPendingRestart()).orElse(false)) {
-              podStatus.setPendingRestart(true);
-              clusterUpdated = true;
+        final ExtensionInstaller extensionInstaller = installation.getExtensionInstaller();
+        if (installation.staged) {
+          try {
+            if (installation.overwritesAnySharedLibrary) {
+              LOGGER.info("Skip installation of extension {}",
+                  ExtensionUtil.getDescription(extension));
+              if (!extensionInstaller.isExtensionPendingOverwrite()) {
+                extensionInstaller.setExtensionAsPending();
+              }
+              if (!Optional.ofNullable(podStatus.getPendingRestart()).orElse(false)) {
+                podStatus.setPendingRestart(true);
+                clusterUpdated = true;
+              }
+            } else {
+              LOGGER.info("Install extension {}", ExtensionUtil.getDescription(extension));
+              extensionInstaller.installExtension();
             }
-          } else {
-            LOGGER.info("Install extension {}", ExtensionUtil.getDescription(extension));
-            extensionInstaller.installExtension();
+          } finally {
+            extensionInstaller.deleteStagedPackage();
           }
         } else {
           if (!extensionInstaller.isLinksCreated()) {
@@ -162,10 +200,113 @@ public abstract class ExtensionReconciliator<T extends ExtensionReconciliatorCon
     return new ReconciliationResult<>(clusterUpdated, exceptions.build());
   }
 
+  private ExtensionInstallation prepareInstallation(T context,
+      StackGresClusterInstalledExtension extension) {
+    final ExtensionInstallation installation = new ExtensionInstallation(extension);
+    try {
+      installation.extensionInstaller = Optional.ofNullable(
+          extensionManager.getExtensionInstaller(context, extension))
+          .orElseThrow(() -> new IllegalStateException(
+              "Can not find extension " + ExtensionUtil.getDescription(extension)));
+      installation.staged = !installation.extensionInstaller.isExtensionInstalled()
+          && (!skipSharedLibrariesOverwrites
+              || !installation.extensionInstaller.isExtensionPendingOverwrite());
+    } catch (Exception ex) {
+      installation.exception = ex;
+    }
+    return installation;
+  }
+
+  /**
+   * Download, verify and stage the extensions that have to be installed, up to the configured
+   * number of extensions at the same time. Nothing is installed until all of them are staged.
+   */
+  private void stageInstallations(List<ExtensionInstallation> installations) {
+    final List<ExtensionInstallation> installationsToStage = installations.stream()
+        .filter(installation -> installation.exception == null && installation.staged)
+        .collect(Collectors.toList());
+    if (installationsToStage.isEmpty()) {
+      return;
+    }
+    final List<Future<Void>> stagings = installationsToStage.stream()
+        .map(installation -> installExecutor.submit(() -> {
+          LOGGER.info("Download and verify extension {}",
+              ExtensionUtil.getDescription(installation.extension));
+          installation.extensionInstaller.downloadVerifyAndStage();
+          return (Void) null;
+        }))
+        .collect(Collectors.toList());
+    try {
+      for (int index = 0; index < stagings.size(); index++) {
+        final ExtensionInstallation installation = installationsToStage.get(index);
+        try {
+          stagings.get(index).get();
+        } catch (ExecutionException ex) {
+          installation.exception = ex.getCause() instanceof Exception
+              ? (Exception) ex.getCause() : ex;
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+          installation.exception = ex;
+        }
+      }
+    } finally {
+      stagings.forEach(staging -> staging.cancel(true));
+    }
+  }
+
+  /**
+   * Detect, before any file is written, the staged extensions that would overwrite a shared
+   * library that is already installed or that belongs to a previous extension that will be
+   * installed.
+   */
+  private void checkSharedLibrariesOverwrites(List<ExtensionInstallation> installations) {
+    if (!skipSharedLibrariesOverwrites) {
+      return;
+    }
+    final List<ExtensionInstaller> extensionInstallersToInstall = new ArrayList<>();
+    for (ExtensionInstallation installation : installations) {
+      if (installation.exception != null || !installation.staged) {
+        continue;
+      }
+      final ExtensionInstaller extensionInstaller = installation.extensionInstaller;
+      try {
+        installation.overwritesAnySharedLibrary =
+            extensionInstaller.doesInstallOverwriteAnySharedLibrary()
+            || extensionInstallersToInstall.stream()
+            .anyMatch(extensionInstaller::doesInstallOverwriteAnySharedLibraryOf);
+      } catch (Exception ex) {
+        installation.exception = ex;
+        continue;
+      }
+      if (!installation.overwritesAnySharedLibrary) {
+        extensionInstallersToInstall.add(extensionInstaller);
+      }
+    }
+  }
+
   protected abstract void onUninstallException(KubernetesClient client, StackGresCluster cluster,
       String extension, String podName, Exception ex);
 
   protected abstract void onInstallException(KubernetesClient client, StackGresCluster cluster,
       String extension, String podName, Exception ex);
 
+  private static class ExtensionInstallation {
+    private final StackGresClusterInstalledExtension extension;
+    private ExtensionInstaller extensionInstaller;
+    private boolean staged = false;
+    private boolean overwritesAnySharedLibrary = false;
+    private Exception exception;
+
+    ExtensionInstallation(StackGresClusterInstalledExtension extension) {
+      this.extension = extension;
+    }
+
+    ExtensionInstaller getExtensionInstaller() throws Exception {
+      if (exception != null) {
+        throw exception;
+      }
+      return extensionInstaller;
+    }
+  }
+
 }
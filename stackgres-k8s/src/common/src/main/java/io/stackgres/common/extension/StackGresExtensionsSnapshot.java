@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.common.extension;
+
+import java.util.Objects;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+import io.stackgres.common.StackGresUtil;
+
+/**
+ * The last good index downloaded from an extensions repository together with the validators
+ * used to perform conditional requests.
+ */
+@JsonDeserialize
+@JsonInclude(JsonInclude.Include.NON_DEFAULT)
+@RegisterForReflection
+public class StackGresExtensionsSnapshot {
+
+  private String repository;
+
+  private String entityTag;
+
+  private String lastModified;
+
+  private StackGresExtensions index;
+
+  public String getRepository() {
+    return repository;
+  }
+
+  public void setRepository(String repository) {
+    this.repository = repository;
+  }
+
+  public String getEntityTag() {
+    return entityTag;
+  }
+
+  public void setEntityTag(String entityTag) {
+    this.entityTag = entityTag;
+  }
+
+  public String getLastModified() {
+    return lastModified;
+  }
+
+  public void setLastModified(String lastModified) {
+    this.lastModified = lastModified;
+  }
+
+  public StackGresExtensions getIndex() {
+    return index;
+  }
+
+  public void setIndex(StackGresExtensions index) {
+    this.index = index;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(entityTag, index, lastModified, repository);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof StackGresExtensionsSnapshot)) {
+      return false;
+    }
+    StackGresExtensionsSnapshot other = (StackGresExtensionsSnapshot) obj;
+    return Objects.equals(entityTag, other.entityTag)
+        && Objects.equals(index, other.index)
+        && Objects.equals(lastModified, other.lastModified)
+        && Objects.equals(repository, other.repository);
+  }
+
+  @Override
+  public String toString() {
+    return StackGresUtil.toPrettyYaml(this);
+  }
+}
@@ -7,6 +7,8 @@ package io.stackgres.common.resource;
 
 import java.util.Optional;
 
+import javax.inject.Inject;
+
 import io.fabric8.kubernetes.client.CustomResource;
 import io.fabric8.kubernetes.client.CustomResourceList;
 import io.fabric8.kubernetes.client.KubernetesClient;
@@ -18,6 +20,7 @@ public abstract class AbstractCustomResourceFinder<T extends CustomResource<?, ?
   private final KubernetesClientFactory clientFactory;
   private final Class<T> customResourceClass;
   private final Class<? extends CustomResourceList<T>> customResourceListClass;
+  private CustomResourceCache resourceCache;
 
   protected AbstractCustomResourceFinder(KubernetesClientFactory clientFactory,
       Class<T> customResourceClass,
@@ -37,6 +40,12 @@ public abstract class AbstractCustomResourceFinder<T extends CustomResource<?, ?
    */
   @Override
   public Optional<T> findByNameAndNamespace(String name, String namespace) {
+    return Optional.ofNullable(resourceCache)
+        .flatMap(cache -> cache.findByNameAndNamespace(customResourceClass, name, namespace))
+        .orElseGet(() -> findLiveByNameAndNamespace(name, namespace));
+  }
+
+  private Optional<T> findLiveByNameAndNamespace(String name, String namespace) {
     try (KubernetesClient client = clientFactory.create()) {
       return Optional.ofNullable(client.customResources(
           customResourceClass, customResourceListClass)
@@ -46,4 +55,9 @@ public abstract class AbstractCustomResourceFinder<T extends CustomResource<?, ?
     }
   }
 
+  @Inject
+  public void setResourceCache(CustomResourceCache resourceCache) {
+    this.resourceCache = resourceCache;
+  }
+
 }
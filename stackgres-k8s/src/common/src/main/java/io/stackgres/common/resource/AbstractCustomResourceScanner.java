@@ -8,6 +8,8 @@ package io.stackgres.common.resource;
 import java.util.List;
 import java.util.Optional;
 
+import javax.inject.Inject;
+
 import io.fabric8.kubernetes.client.CustomResource;
 import io.fabric8.kubernetes.client.CustomResourceList;
 import io.fabric8.kubernetes.client.KubernetesClient;
@@ -23,6 +25,8 @@ public abstract class AbstractCustomResourceScanner
   private final Class<T> customResourceClass;
   private final Class<L> customResourceListClass;
 
+  private CustomResourceCache resourceCache;
+
   protected AbstractCustomResourceScanner(KubernetesClientFactory clientFactory,
       Class<T> customResourceClass,
       Class<L> customResourceListClass) {
@@ -62,6 +66,10 @@ public abstract class AbstractCustomResourceScanner
 
   @Override
   public List<T> getResources() {
+    Optional<List<T>> cachedResources = getCachedResources(null);
+    if (cachedResources.isPresent()) {
+      return cachedResources.get();
+    }
     try (KubernetesClient client = clientFactory.create()) {
       return client.customResources(customResourceClass, customResourceListClass)
           .inAnyNamespace()
@@ -72,6 +80,10 @@ public abstract class AbstractCustomResourceScanner
 
   @Override
   public List<T> getResources(@Nullable String namespace) {
+    Optional<List<T>> cachedResources = getCachedResources(namespace);
+    if (cachedResources.isPresent()) {
+      return cachedResources.get();
+    }
     try (KubernetesClient client = clientFactory.create()) {
       return client.customResources(customResourceClass, customResourceListClass)
           .inNamespace(namespace)
@@ -80,4 +92,14 @@ public abstract class AbstractCustomResourceScanner
     }
   }
 
+  private Optional<List<T>> getCachedResources(@Nullable String namespace) {
+    return Optional.ofNullable(resourceCache)
+        .flatMap(cache -> cache.getResources(customResourceClass, namespace));
+  }
+
+  @Inject
+  public void setResourceCache(CustomResourceCache resourceCache) {
+    this.resourceCache = resourceCache;
+  }
+
 }
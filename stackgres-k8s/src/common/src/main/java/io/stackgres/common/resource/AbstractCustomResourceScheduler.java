@@ -6,6 +6,8 @@
 package io.stackgres.common.resource;
 
 import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import javax.inject.Inject;
@@ -24,6 +26,9 @@ public abstract class AbstractCustomResourceScheduler
     <T extends CustomResource<?, ?>, L extends CustomResourceList<T>>
     implements CustomResourceScheduler<T> {
 
+  private static final int CONFLICT = 409;
+  private static final int MAX_CONFLICT_RETRIES = 5;
+
   private final Class<T> customResourceClass;
   private final Class<L> customResourceListClass;
   @Inject
@@ -55,6 +60,14 @@ public abstract class AbstractCustomResourceScheduler
     }
   }
 
+  @Override
+  public T update(T resource, Consumer<T> change) {
+    return updateWithRetry(resource, change, "Can not update resource ",
+        (endpoint, resourceOverwrite) -> endpoint
+            .lockResourceVersion(resourceOverwrite.getMetadata().getResourceVersion())
+            .replace(resourceOverwrite));
+  }
+
   @Override
   public <S> void updateStatus(T resource, Function<T, S> statusGetter,
                                BiConsumer<T, S> statusSetter) {
@@ -92,6 +105,13 @@ public abstract class AbstractCustomResourceScheduler
     }
   }
 
+  @Override
+  public T updateStatus(T resource, Consumer<T> change) {
+    // The status update is locked on the resource version of the re-read resource it sends
+    return updateWithRetry(resource, change, "Can not update status of resource ",
+        Resource::updateStatus);
+  }
+
   @Override
   public void delete(T resource) {
     try (KubernetesClient client = clientFactory.create()) {
@@ -102,6 +122,37 @@ public abstract class AbstractCustomResourceScheduler
     }
   }
 
+  private T updateWithRetry(T resource, Consumer<T> change, String notFoundMessage,
+      BiFunction<Resource<T>, T, T> updater) {
+    try (KubernetesClient client = clientFactory.create()) {
+      for (int retry = 0;; retry++) {
+        T resourceOverwrite = getCustomResourceEndpoints(client)
+            .inNamespace(resource.getMetadata().getNamespace())
+            .withName(resource.getMetadata().getName())
+            .get();
+        if (resourceOverwrite == null) {
+          throw new RuntimeException(notFoundMessage
+              + HasMetadata.getKind(customResourceClass)
+              + "." + HasMetadata.getGroup(customResourceClass)
+              + " " + resource.getMetadata().getNamespace()
+              + "." + resource.getMetadata().getName()
+              + ": resource not found");
+        }
+        change.accept(resourceOverwrite);
+        try {
+          return updater.apply(getCustomResourceEndpoints(client)
+              .inNamespace(resource.getMetadata().getNamespace())
+              .withName(resource.getMetadata().getName()),
+              resourceOverwrite);
+        } catch (KubernetesClientException ex) {
+          if (ex.getCode() != CONFLICT || retry >= MAX_CONFLICT_RETRIES) {
+            throw ex;
+          }
+        }
+      }
+    }
+  }
+
   private Namespaceable<NonNamespaceOperation<T, L, Resource<T>>> getCustomResourceEndpoints(
       KubernetesClient client) {
     return client.customResources(customResourceClass, customResourceListClass);
@@ -0,0 +1,284 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.common.resource;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.OwnerReference;
+import io.fabric8.kubernetes.client.CustomResource;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.kubernetes.client.informers.cache.Cache;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import io.stackgres.common.CdiUtil;
+import io.stackgres.common.KubernetesClientFactory;
+import io.stackgres.common.OperatorProperty;
+import io.stackgres.common.StackGresContext;
+import io.stackgres.common.crd.sgbackupconfig.StackGresBackupConfig;
+import io.stackgres.common.crd.sgcluster.StackGresCluster;
+import io.stackgres.common.crd.sgcluster.StackGresClusterConfiguration;
+import io.stackgres.common.crd.sgcluster.StackGresClusterSpec;
+import io.stackgres.common.crd.sgpgconfig.StackGresPostgresConfig;
+import io.stackgres.common.crd.sgpooling.StackGresPoolingConfig;
+import io.stackgres.common.crd.sgprofile.StackGresProfile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jooq.lambda.Seq;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps an in-memory copy of custom resources fed by a {@code SharedIndexInformer} for each
+ * custom resource class passed to {@code start}. Finders and scanners read from here instead of
+ * issuing a GET or LIST to the API server. When the cache is disabled (see
+ * {@code OperatorProperty.RESOURCE_CACHE_ENABLED}), the custom resource class was not started
+ * or its informer is not synced all lookups return empty and callers must fall back to a live
+ * read. Lookups never start an informer nor wait for it to be synced.
+ *
+ * <p>Resources read from here may lag behind the API server, so an update must not be built
+ * from them: use {@link CustomResourceScheduler#update(HasMetadata, java.util.function.Consumer)}
+ * or {@link CustomResourceScheduler#updateStatus(HasMetadata, java.util.function.Consumer)} that
+ * re-read the resource from the API server and retry on conflict. Every returned resource is a
+ * deep copy (made with {@code Serialization.clone}) so that callers can freely modify it, which
+ * costs a serialization round trip per resource read.</p>
+ */
+@ApplicationScoped
+public class CustomResourceCache {
+
+  public static final String OWNER_UID_INDEX = "ownerUid";
+  public static final String CLUSTER_INDEX = "cluster";
+  public static final String REFERENCE_INDEX = "reference";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CustomResourceCache.class);
+
+  private final KubernetesClientFactory clientFactory;
+  private final boolean enabled;
+
+  private final Map<Class<?>, SharedIndexInformer<?>> informers = new ConcurrentHashMap<>();
+
+  private KubernetesClient client;
+
+  @Inject
+  public CustomResourceCache(KubernetesClientFactory clientFactory) {
+    this(clientFactory, OperatorProperty.RESOURCE_CACHE_ENABLED.getBoolean());
+  }
+
+  CustomResourceCache(KubernetesClientFactory clientFactory, boolean enabled) {
+    this.clientFactory = clientFactory;
+    this.enabled = enabled;
+  }
+
+  public CustomResourceCache() {
+    this.clientFactory = null;
+    this.enabled = false;
+    CdiUtil.checkPublicNoArgsConstructorIsCalledToCreateProxy();
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Look up a resource by name and namespace.
+   *
+   * @return empty if the cache is not available, otherwise the (possibly empty) lookup result
+   */
+  public <T extends CustomResource<?, ?>> Optional<Optional<T>> findByNameAndNamespace(
+      @NotNull Class<T> customResourceClass, @NotNull String name, @NotNull String namespace) {
+    return getInformer(customResourceClass)
+        .map(informer -> Optional.ofNullable(informer.getIndexer()
+            .getByKey(Cache.namespaceKeyFunc(namespace, name)))
+            .map(this::copy));
+  }
+
+  /**
+   * List all the resources, or only those in the given namespace if not {@code null}.
+   *
+   * @return empty if the cache is not available, otherwise the list of resources
+   */
+  public <T extends CustomResource<?, ?>> Optional<List<T>> getResources(
+      @NotNull Class<T> customResourceClass, @Nullable String namespace) {
+    return getInformer(customResourceClass)
+        .flatMap(informer -> namespace == null
+            ? Optional.of(informer.getIndexer().list())
+            : InformerUtil.byIndex(informer, Cache.NAMESPACE_INDEX, namespace))
+        .map(this::copy);
+  }
+
+  /**
+   * List the resources that have an owner reference with the given UID.
+   *
+   * @return empty if the cache is not available, otherwise the list of resources
+   */
+  public <T extends CustomResource<?, ?>> Optional<List<T>> getResourcesByOwnerUid(
+      @NotNull Class<T> customResourceClass, @NotNull String ownerUid) {
+    return getInformer(customResourceClass)
+        .flatMap(informer -> InformerUtil.byIndex(informer, OWNER_UID_INDEX, ownerUid))
+        .map(this::copy);
+  }
+
+  /**
+   * List the resources labeled as belonging to the given cluster.
+   *
+   * @return empty if the cache is not available, otherwise the list of resources
+   */
+  public <T extends CustomResource<?, ?>> Optional<List<T>> getResourcesByCluster(
+      @NotNull Class<T> customResourceClass,
+      @NotNull String clusterName, @NotNull String namespace) {
+    return getInformer(customResourceClass)
+        .flatMap(informer -> InformerUtil.byIndex(informer, CLUSTER_INDEX,
+            Cache.namespaceKeyFunc(namespace, clusterName)))
+        .map(this::copy);
+  }
+
+  /**
+   * List the resources that reference the resource of the given kind, namespace and name (see
+   * {@code referenceIndexFunc}).
+   *
+   * @return empty if the cache is not available, otherwise the list of resources
+   */
+  public <T extends CustomResource<?, ?>> Optional<List<T>> getResourcesByReference(
+      @NotNull Class<T> customResourceClass, @NotNull String kind,
+      @NotNull String namespace, @NotNull String name) {
+    return getInformer(customResourceClass)
+        .flatMap(informer -> InformerUtil.byIndex(informer, REFERENCE_INDEX,
+            referenceIndexKey(kind, namespace, name)))
+        .map(this::copy);
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T extends CustomResource<?, ?>> Optional<SharedIndexInformer<T>>
+      getInformer(Class<T> customResourceClass) {
+    if (!enabled) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable((SharedIndexInformer<T>) informers.get(customResourceClass))
+        .filter(SharedIndexInformer::hasSynced);
+  }
+
+  /**
+   * Start the informers of the given custom resource classes and wait for them to be synced,
+   * at most {@code InformerUtil.SYNC_TIMEOUT_MILLIS}. This must be called before the
+   * components that look up those classes start, so that they do not fall back to live reads.
+   */
+  public synchronized void start(
+      @NotNull Collection<Class<? extends CustomResource<?, ?>>> customResourceClasses) {
+    if (!enabled) {
+      return;
+    }
+    if (client == null) {
+      client = clientFactory.create();
+    }
+    List<SharedIndexInformer<?>> startedInformers = customResourceClasses.stream()
+        .filter(customResourceClass -> !informers.containsKey(customResourceClass))
+        .map(this::startInformer)
+        .collect(Collectors.toUnmodifiableList());
+    InformerUtil.waitForSync(startedInformers, InformerUtil.SYNC_TIMEOUT_MILLIS,
+        "custom resources");
+  }
+
+  private <T extends CustomResource<?, ?>> SharedIndexInformer<T> startInformer(
+      Class<T> customResourceClass) {
+    SharedIndexInformer<T> informer = client.informers()
+        .sharedIndexInformerForCustomResource(customResourceClass,
+            InformerUtil.RESYNC_PERIOD_MILLIS);
+    informer.addIndexers(Map.of(
+        OWNER_UID_INDEX, InformerUtil.indexFunc(CustomResourceCache::ownerUidIndexFunc),
+        CLUSTER_INDEX, InformerUtil.indexFunc(CustomResourceCache::clusterIndexFunc),
+        REFERENCE_INDEX, InformerUtil.indexFunc(CustomResourceCache::referenceIndexFunc)));
+    LOGGER.info("Starting cache for {}", customResourceClass.getSimpleName());
+    informer.run();
+    informers.put(customResourceClass, informer);
+    return informer;
+  }
+
+  /**
+   * Index function that maps a resource to the UIDs of its owners.
+   */
+  public static List<String> ownerUidIndexFunc(HasMetadata resource) {
+    return Optional.ofNullable(resource.getMetadata().getOwnerReferences())
+        .stream()
+        .flatMap(List::stream)
+        .map(OwnerReference::getUid)
+        .collect(Collectors.toUnmodifiableList());
+  }
+
+  private static List<String> clusterIndexFunc(HasMetadata resource) {
+    return Optional.ofNullable(resource.getMetadata().getLabels())
+        .map(labels -> labels.get(StackGresContext.CLUSTER_NAME_KEY))
+        .map(clusterName -> Cache.namespaceKeyFunc(
+            resource.getMetadata().getNamespace(), clusterName))
+        .stream()
+        .collect(Collectors.toUnmodifiableList());
+  }
+
+  public static String referenceIndexKey(@NotNull String kind, @NotNull String namespace,
+      @NotNull String name) {
+    return kind + "/" + Cache.namespaceKeyFunc(namespace, name);
+  }
+
+  /**
+   * Index function that maps a resource to the keys (see {@code referenceIndexKey}) of the
+   * resources it references by name. Only the configurations referenced by an SGCluster are
+   * indexed.
+   */
+  public static List<String> referenceIndexFunc(HasMetadata resource) {
+    if (!(resource instanceof StackGresCluster)) {
+      return List.of();
+    }
+    final String namespace = resource.getMetadata().getNamespace();
+    final Optional<StackGresClusterSpec> spec = Optional.ofNullable(
+        ((StackGresCluster) resource).getSpec());
+    final Optional<StackGresClusterConfiguration> configuration = spec
+        .map(StackGresClusterSpec::getConfiguration);
+    return Seq.of(
+        configuration.map(StackGresClusterConfiguration::getPostgresConfig)
+            .map(name -> referenceIndexKey(StackGresPostgresConfig.KIND, namespace, name)),
+        configuration.map(StackGresClusterConfiguration::getConnectionPoolingConfig)
+            .map(name -> referenceIndexKey(StackGresPoolingConfig.KIND, namespace, name)),
+        configuration.map(StackGresClusterConfiguration::getBackupConfig)
+            .map(name -> referenceIndexKey(StackGresBackupConfig.KIND, namespace, name)),
+        spec.map(StackGresClusterSpec::getResourceProfile)
+            .map(name -> referenceIndexKey(StackGresProfile.KIND, namespace, name)))
+        .flatMap(Optional::stream)
+        .toList();
+  }
+
+  /**
+   * Cached instances are shared with the informer store so a copy is returned to callers that
+   * may modify them.
+   */
+  private <T> T copy(T resource) {
+    return Serialization.clone(resource);
+  }
+
+  private <T> List<T> copy(List<T> resources) {
+    return resources.stream()
+        .map(this::copy)
+        .collect(Collectors.toList());
+  }
+
+  @PreDestroy
+  public synchronized void close() {
+    informers.values().forEach(SharedIndexInformer::stop);
+    informers.clear();
+    if (client != null) {
+      client.close();
+      client = null;
+    }
+  }
+
+}
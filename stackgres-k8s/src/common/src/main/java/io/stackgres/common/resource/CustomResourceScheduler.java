@@ -6,6 +6,7 @@
 package io.stackgres.common.resource;
 
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import io.fabric8.kubernetes.client.CustomResource;
@@ -17,11 +18,26 @@ public interface CustomResourceScheduler<T extends CustomResource<?, ?>> {
 
   T update(@NotNull T resource);
 
+  /**
+   * Read the resource from the API server, apply the change and update it locking its
+   * resource version. The read and the change are repeated if the update fails with a conflict,
+   * so the change must be computed from the resource it receives and not from a copy that may
+   * have been served from a cache.
+   */
+  T update(@NotNull T resource, @NotNull Consumer<T> change);
+
   <S> void updateStatus(@NotNull T resource, @NotNull Function<T, S> statusGetter,
       @NotNull BiConsumer<T, S> statusSetter);
 
   T updateStatus(T resource);
 
+  /**
+   * Read the resource from the API server, apply the change and update its status locking its
+   * resource version. As with {@code update(resource, change)} the read and the change are
+   * repeated if the update fails with a conflict.
+   */
+  T updateStatus(@NotNull T resource, @NotNull Consumer<T> change);
+
   void delete(@NotNull T resource);
 
 }
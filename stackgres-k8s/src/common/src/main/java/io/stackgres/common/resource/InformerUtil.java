@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.common.resource;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.kubernetes.client.informers.SharedInformer;
+import io.fabric8.kubernetes.client.informers.cache.Indexer;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Common handling of the {@code SharedIndexInformer}s that feed the in-memory caches.
+ */
+public class InformerUtil {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(InformerUtil.class);
+
+  public static final long RESYNC_PERIOD_MILLIS = 10 * 60 * 1000L;
+  public static final long SYNC_TIMEOUT_MILLIS = 30 * 1000L;
+
+  /**
+   * Index key used for the resources that have no value for an index.
+   */
+  public static final String NO_VALUE_INDEX_KEY = "";
+
+  private static final long SYNC_POLL_MILLIS = 50L;
+
+  private InformerUtil() {}
+
+  /**
+   * Wait until all the informers are synced or the timeout expires.
+   *
+   * @return true if all the informers are synced
+   */
+  public static boolean waitForSync(@NotNull Collection<? extends SharedInformer<?>> informers,
+      long timeoutMillis, @NotNull String cacheName) {
+    final long syncDeadline = System.currentTimeMillis() + timeoutMillis;
+    while (!hasSynced(informers) && System.currentTimeMillis() < syncDeadline) {
+      try {
+        Thread.sleep(SYNC_POLL_MILLIS);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    if (!hasSynced(informers)) {
+      LOGGER.warn("Cache for {} is not synced yet, falling back to live reads until it is",
+          cacheName);
+      return false;
+    }
+    return true;
+  }
+
+  public static boolean hasSynced(@NotNull Collection<? extends SharedInformer<?>> informers) {
+    return informers.stream().allMatch(SharedInformer::hasSynced);
+  }
+
+  /**
+   * Wrap an index function so that it never returns an empty list. The informer store only
+   * creates an index when a resource has a value for it, so a resource without value is indexed
+   * under {@code NO_VALUE_INDEX_KEY} to have the index created as soon as a resource is added.
+   */
+  public static <T> Function<T, List<String>> indexFunc(
+      @NotNull Function<T, List<String>> indexFunc) {
+    return resource -> {
+      List<String> indexKeys = indexFunc.apply(resource);
+      return indexKeys.isEmpty() ? List.of(NO_VALUE_INDEX_KEY) : indexKeys;
+    };
+  }
+
+  /**
+   * Look up an index of a synced informer. The index must have been registered before the
+   * informer was started and its function wrapped with {@code indexFunc}.
+   *
+   * @return empty if the informer is not synced, otherwise the list of indexed resources
+   */
+  public static <T> Optional<List<T>> byIndex(@NotNull SharedIndexInformer<T> informer,
+      @NotNull String indexName, @NotNull String indexKey) {
+    if (!informer.hasSynced()) {
+      return Optional.empty();
+    }
+    return Optional.of(byIndex(informer.getIndexer(), indexName, indexKey));
+  }
+
+  static <T> List<T> byIndex(@NotNull Indexer<T> indexer, @NotNull String indexName,
+      @NotNull String indexKey) {
+    if (!indexer.getIndexers().containsKey(indexName)) {
+      throw new IllegalArgumentException("Index " + indexName + " is not registered");
+    }
+    try {
+      return indexer.byIndex(indexName, indexKey);
+    } catch (NullPointerException ex) {
+      // The store only creates an index when the first resource is added to it
+      return List.of();
+    }
+  }
+
+}
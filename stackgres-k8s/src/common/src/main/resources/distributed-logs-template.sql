@@ -36,7 +36,7 @@ CREATE TABLE log_postgres (
   PRIMARY KEY (log_time, log_time_index)
 );
 
-SELECT create_hypertable('log_postgres', 'log_time', chunk_time_interval => INTERVAL '1 year');
+SELECT create_hypertable('log_postgres', 'log_time', chunk_time_interval => INTERVAL '7 days');
 
 ALTER SEQUENCE log_postgres_log_time_index_seq OWNED BY log_postgres.log_time_index;
 
@@ -50,9 +50,41 @@ END;
 $$
 LANGUAGE plpgsql;
 
+-- Only needed by writers that insert a NULL log_time_index directly into the table
 CREATE TRIGGER log_postgres_set_log_time_index
   BEFORE INSERT ON log_postgres
-  FOR EACH ROW EXECUTE FUNCTION log_postgres_set_log_time_index();
+  FOR EACH ROW WHEN (NEW.log_time_index IS NULL)
+  EXECUTE FUNCTION log_postgres_set_log_time_index();
+
+-- Log entries are inserted through this view so that log_time_index gets the column default
+CREATE VIEW log_postgres_ingestion AS
+  SELECT
+    log_time,
+    pod_name,
+    role,
+    error_severity,
+    message,
+    user_name,
+    database_name,
+    process_id,
+    connection_from,
+    session_id,
+    session_line_num,
+    command_tag,
+    session_start_time,
+    virtual_transaction_id,
+    transaction_id,
+    sql_state_code,
+    detail,
+    hint,
+    internal_query,
+    internal_query_pos,
+    context,
+    query,
+    query_pos,
+    location,
+    application_name
+  FROM log_postgres;
 
 CREATE FUNCTION log_postgres_tsvector(log_postgres) RETURNS tsvector
 AS
@@ -83,7 +115,7 @@ CREATE TABLE log_patroni (
   PRIMARY KEY (log_time, log_time_index)
 );
 
-SELECT create_hypertable('log_patroni', 'log_time', chunk_time_interval => INTERVAL '1 year');
+SELECT create_hypertable('log_patroni', 'log_time', chunk_time_interval => INTERVAL '7 days');
 
 ALTER SEQUENCE log_patroni_log_time_index_seq OWNED BY log_patroni.log_time_index;
 
@@ -97,9 +129,21 @@ END;
 $$
 LANGUAGE plpgsql;
 
+-- Only needed by writers that insert a NULL log_time_index directly into the table
 CREATE TRIGGER log_patroni_set_log_time_index
   BEFORE INSERT ON log_patroni
-  FOR EACH ROW EXECUTE FUNCTION log_patroni_set_log_time_index();
+  FOR EACH ROW WHEN (NEW.log_time_index IS NULL)
+  EXECUTE FUNCTION log_patroni_set_log_time_index();
+
+-- Log entries are inserted through this view so that log_time_index gets the column default
+CREATE VIEW log_patroni_ingestion AS
+  SELECT
+    log_time,
+    pod_name,
+    role,
+    error_severity,
+    message
+  FROM log_patroni;
 
 CREATE FUNCTION log_patroni_tsvector(log_patroni) RETURNS tsvector
 AS
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.common.distributedlogs;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class PostgresConnectionPoolTest {
+
+  @Mock
+  private PostgresConnectionManager connectionManager;
+
+  @Mock
+  private PostgresConnectionPool.ConnectionInitializer initializer;
+
+  @Mock
+  private PostgresConnectionPool.PasswordLoader passwordLoader;
+
+  private PostgresConnectionPool connectionPool;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    connectionPool = new PostgresConnectionPool(connectionManager);
+  }
+
+  @AfterEach
+  void tearDown() {
+    connectionPool.close();
+  }
+
+  private void givenConnections() throws SQLException {
+    when(connectionManager.getConnection(anyString(), anyString(), anyString(), anyString()))
+        .then(invocation -> mock(Connection.class));
+  }
+
+  @Test
+  void connections_shouldBeReusedAndInitializedOnce() throws SQLException {
+    givenConnections();
+    when(passwordLoader.load()).thenReturn("password");
+    Connection connection = connectionPool.withConnection(
+        "host", "postgres", passwordLoader, "database", initializer, c -> c);
+    assertSame(connection, connectionPool.withConnection(
+        "host", "postgres", passwordLoader, "database", initializer, c -> c));
+
+    verify(connectionManager, times(1))
+        .getConnection("host", "postgres", "password", "database");
+    verify(initializer, times(1)).initialize(connection);
+  }
+
+  @Test
+  void connectionsOfOtherDatabase_shouldNotBeReused() throws SQLException {
+    givenConnections();
+    when(passwordLoader.load()).thenReturn("password");
+    connectionPool.withConnection("host", "postgres", passwordLoader, "database", c -> c);
+    connectionPool.withConnection("host", "postgres", passwordLoader, "other", c -> c);
+
+    verify(connectionManager, times(1))
+        .getConnection("host", "postgres", "password", "database");
+    verify(connectionManager, times(1))
+        .getConnection("host", "postgres", "password", "other");
+  }
+
+  @Test
+  void password_shouldBeLoadedOnlyWhenThePoolIsCreated() throws SQLException {
+    givenConnections();
+    when(passwordLoader.load()).thenReturn("password");
+    connectionPool.withConnection("host", "postgres", passwordLoader, "database", c -> c);
+    connectionPool.withConnection("host", "postgres", passwordLoader, "other", c -> c);
+    connectionPool.withConnection("host", "postgres", passwordLoader, "database", c -> c);
+
+    verify(passwordLoader, times(1)).load();
+  }
+
+  @Test
+  void authenticationFailures_shouldReloadThePasswordAndCloseOldConnections()
+      throws SQLException {
+    Connection connection = mock(Connection.class);
+    when(connectionManager.getConnection("host", "postgres", "password", "database"))
+        .thenReturn(connection);
+    when(connectionManager.getConnection("host", "postgres", "password", "other"))
+        .thenThrow(new SQLException("password authentication failed", "28P01"));
+    when(connectionManager.getConnection("host", "postgres", "rotated", "other"))
+        .then(invocation -> mock(Connection.class));
+    when(passwordLoader.load()).thenReturn("password", "rotated");
+    connectionPool.withConnection("host", "postgres", passwordLoader, "database", c -> c);
+    connectionPool.withConnection("host", "postgres", passwordLoader, "other", c -> c);
+
+    verify(connection).close();
+    verify(passwordLoader, times(2)).load();
+    verify(connectionManager, times(1))
+        .getConnection("host", "postgres", "rotated", "other");
+  }
+
+  @Test
+  void authenticationFailuresWithTheSamePassword_shouldBeThrown() throws SQLException {
+    when(connectionManager.getConnection("host", "postgres", "password", "database"))
+        .thenThrow(new SQLException("password authentication failed", "28P01"));
+    when(passwordLoader.load()).thenReturn("password");
+    assertThrows(SQLException.class, () -> connectionPool.withConnection(
+        "host", "postgres", passwordLoader, "database", c -> c));
+
+    verify(passwordLoader, times(2)).load();
+    verify(connectionManager, times(1))
+        .getConnection("host", "postgres", "password", "database");
+  }
+
+  @Test
+  void connectionsThatFailed_shouldBeClosed() throws SQLException {
+    givenConnections();
+    when(passwordLoader.load()).thenReturn("password");
+    Connection[] connection = new Connection[1];
+    assertThrows(SQLException.class, () -> connectionPool.withConnection(
+        "host", "postgres", passwordLoader, "database", c -> {
+          connection[0] = c;
+          throw new SQLException("test");
+        }));
+    connectionPool.withConnection("host", "postgres", passwordLoader, "database", c -> c);
+
+    verify(connection[0]).close();
+    verify(connectionManager, times(2))
+        .getConnection("host", "postgres", "password", "database");
+  }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.common.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.List;
+
+import javax.inject.Inject;
+
+import io.fabric8.kubernetes.api.model.Event;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.kubernetes.client.WithKubernetesTestServer;
+import io.stackgres.common.KubernetesClientFactory;
+import io.stackgres.common.crd.sgcluster.StackGresCluster;
+import io.stackgres.operatorframework.resource.EventReason;
+import io.stackgres.testutil.JsonUtil;
+import io.stackgres.testutil.StringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+@QuarkusTest
+@WithKubernetesTestServer
+class ClusterEventEmitterTest {
+
+  private static final EventReason REASON = new EventReason() {
+    @Override
+    public String component() {
+      return "test";
+    }
+
+    @Override
+    public String reason() {
+      return "TestReason";
+    }
+
+    @Override
+    public Type type() {
+      return Type.NORMAL;
+    }
+  };
+
+  @Inject
+  KubernetesClientFactory clientFactory;
+
+  StackGresCluster cluster;
+
+  ClusterEventEmitter eventEmitter;
+
+  @BeforeEach
+  void setUp() {
+    cluster = JsonUtil.readFromJson("stackgres_cluster/default.json", StackGresCluster.class);
+    cluster.getMetadata().setNamespace(StringUtils.getRandomNamespace());
+    cluster.getMetadata().setName(StringUtils.getRandomClusterName());
+    eventEmitter = new ClusterEventEmitter();
+    eventEmitter.setClientFactory(clientFactory);
+  }
+
+  @AfterEach
+  void tearDown() {
+    eventEmitter.close();
+  }
+
+  @Test
+  void repeatedEvents_shouldBeAggregatedUntilTheWindowExpires() {
+    eventEmitter.sendEvent(REASON, "message", cluster);
+    eventEmitter.sendEvent(REASON, "message", cluster);
+    eventEmitter.sendEvent(REASON, "message", cluster);
+
+    assertEquals(1, getEvents().size());
+    assertEquals(1, getEvents().get(0).getCount());
+
+    eventEmitter.setAggregationWindow(Duration.ZERO);
+    eventEmitter.flushPendingEvents();
+
+    assertEquals(1, getEvents().size());
+    assertEquals(3, getEvents().get(0).getCount());
+  }
+
+  @Test
+  void repeatedEventsAfterTheWindow_shouldBePatchedImmediately() {
+    eventEmitter.setAggregationWindow(Duration.ZERO);
+
+    eventEmitter.sendEvent(REASON, "message", cluster);
+    eventEmitter.sendEvent(REASON, "message", cluster);
+
+    assertEquals(1, getEvents().size());
+    assertEquals(2, getEvents().get(0).getCount());
+  }
+
+  @Test
+  void eventsWithDifferentMessages_shouldNotBeAggregated() {
+    eventEmitter.sendEvent(REASON, "message", cluster);
+    eventEmitter.sendEvent(REASON, "other message", cluster);
+
+    assertEquals(2, getEvents().size());
+  }
+
+  @Test
+  void existingEvents_shouldBeFoundWhenNotCached() {
+    eventEmitter.sendEvent(REASON, "message", cluster);
+
+    ClusterEventEmitter otherEventEmitter = new ClusterEventEmitter();
+    otherEventEmitter.setClientFactory(clientFactory);
+    otherEventEmitter.sendEvent(REASON, "message", cluster);
+
+    assertEquals(1, getEvents().size());
+    assertEquals(2, getEvents().get(0).getCount());
+  }
+
+  private List<Event> getEvents() {
+    return clientFactory.withNewClient(client -> client.v1().events()
+        .inNamespace(cluster.getMetadata().getNamespace())
+        .list()
+        .getItems());
+  }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.common.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.kubernetes.api.model.Event;
+import io.fabric8.kubernetes.client.server.mock.KubernetesServer;
+import io.stackgres.common.crd.sgcluster.StackGresCluster;
+import io.stackgres.operatorframework.resource.EventReason;
+import io.stackgres.testutil.JsonUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class EventEmitterFlushTest {
+
+  private static final EventReason REASON = new EventReason() {
+    @Override
+    public String component() {
+      return "test";
+    }
+
+    @Override
+    public String reason() {
+      return "TestReason";
+    }
+
+    @Override
+    public Type type() {
+      return Type.NORMAL;
+    }
+  };
+
+  private final KubernetesServer server = new KubernetesServer(false, true);
+
+  private StackGresCluster cluster;
+
+  private ClusterEventEmitter eventEmitter;
+
+  @BeforeEach
+  void setUp() {
+    server.before();
+    cluster = JsonUtil.readFromJson("stackgres_cluster/default.json", StackGresCluster.class);
+    eventEmitter = new ClusterEventEmitter();
+    eventEmitter.setClientFactory(server::getClient);
+    eventEmitter.setAggregationWindow(Duration.ofHours(1));
+  }
+
+  @AfterEach
+  void tearDown() {
+    eventEmitter.close();
+    server.after();
+  }
+
+  @Test
+  void givenARemovedEvent_flushShouldCreateItWithThePendingRepetitions() {
+    eventEmitter.sendEvent(REASON, "message", cluster);
+    server.getClient().v1().events()
+        .inNamespace(cluster.getMetadata().getNamespace())
+        .delete();
+    eventEmitter.sendEvent(REASON, "message", cluster);
+    eventEmitter.sendEvent(REASON, "message", cluster);
+
+    eventEmitter.setAggregationWindow(Duration.ZERO);
+    eventEmitter.flushPendingEvents();
+
+    assertEquals(1, getEvents().size());
+    assertEquals(2, getEvents().get(0).getCount());
+  }
+
+  @Test
+  void close_shouldFlushThePendingRepetitions() {
+    eventEmitter.sendEvent(REASON, "message", cluster);
+    eventEmitter.sendEvent(REASON, "message", cluster);
+    eventEmitter.sendEvent(REASON, "message", cluster);
+
+    assertEquals(1, getEvents().get(0).getCount());
+
+    eventEmitter.close();
+
+    assertEquals(1, getEvents().size());
+    assertEquals(3, getEvents().get(0).getCount());
+  }
+
+  @Test
+  void flush_shouldUpdateTheEventWithASingleRequest() {
+    eventEmitter.sendEvent(REASON, "message", cluster);
+    eventEmitter.sendEvent(REASON, "message", cluster);
+    final int requests = server.getMockServer().getRequestCount();
+
+    eventEmitter.setAggregationWindow(Duration.ZERO);
+    eventEmitter.flushPendingEvents();
+
+    assertEquals(requests + 1, server.getMockServer().getRequestCount());
+    assertEquals(2, getEvents().get(0).getCount());
+  }
+
+  @Test
+  void givenAnEvictedEventWithPendingRepetitions_flushShouldSendThem() {
+    eventEmitter.setMaxCachedEvents(1);
+    eventEmitter.sendEvent(REASON, "message", cluster);
+    eventEmitter.sendEvent(REASON, "message", cluster);
+    eventEmitter.sendEvent(REASON, "message", cluster);
+    eventEmitter.sendEvent(REASON, "other message", cluster);
+
+    eventEmitter.flushPendingEvents();
+
+    assertEquals(3, getEvents().stream()
+        .filter(event -> event.getMessage().equals("message"))
+        .findFirst().orElseThrow().getCount());
+  }
+
+  @Test
+  void concurrentEmitsOfANewEvent_shouldCreateASingleEvent() throws InterruptedException {
+    final int emits = 8;
+    final CountDownLatch start = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(emits);
+    for (int i = 0; i < emits; i++) {
+      executor.execute(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+        eventEmitter.sendEvent(REASON, "message", cluster);
+      });
+    }
+    start.countDown();
+    executor.shutdown();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+
+    eventEmitter.close();
+
+    assertEquals(1, getEvents().size());
+    assertEquals(emits, getEvents().get(0).getCount());
+  }
+
+  private List<Event> getEvents() {
+    return server.getClient().v1().events()
+        .inNamespace(cluster.getMetadata().getNamespace())
+        .list()
+        .getItems();
+  }
+
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.common.extension;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.stackgres.common.ClusterContext;
+import io.stackgres.common.ClusterStatefulSetPath;
+import io.stackgres.common.FileSystemHandler;
+import io.stackgres.common.StackGresComponent;
+import io.stackgres.common.WebClientFactory;
+import io.stackgres.common.WebClientFactory.WebClient;
+import io.stackgres.common.crd.sgcluster.StackGresCluster;
+import io.stackgres.common.crd.sgcluster.StackGresClusterInstalledExtension;
+import io.stackgres.common.extension.ExtensionManager.ExtensionInstaller;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measure the single pass download, verification and staging of an extension package followed
+ * by its installation, using a synthetic package. The concurrent case stages several packages
+ * with a bounded pool, like the extension reconciliator does, and installs them in order. The
+ * installation is relocated to a temporary directory. Run it with:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=io.stackgres.common.extension.ExtensionInstallerBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ExtensionInstallerBenchmark {
+
+  private static final int FILE_SIZE_MB = 16;
+
+  private static final int CONCURRENT_PACKAGES = 4;
+
+  @Param({"256"})
+  int packageSizeMb;
+
+  private final StackGresClusterInstalledExtension installedExtension =
+      getInstalledExtension();
+
+  private Path rootPath;
+
+  private Path downloadedPath;
+
+  private StackGresExtensionMetadata extensionMetadata;
+
+  private FileSystemHandler fileSystemHandler;
+
+  private ExtensionManager extensionManager;
+
+  private ClusterContext context;
+
+  @Setup(Level.Trial)
+  public void setupPackage() throws Exception {
+    rootPath = Files.createTempDirectory("extension-installer-benchmark");
+    KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+    keyPairGenerator.initialize(2048);
+    KeyPair keyPair = keyPairGenerator.generateKeyPair();
+
+    Path packagePath = rootPath.resolve("package.tgz");
+    writePackage(packagePath);
+    Signature signature = Signature.getInstance("SHA256withRSA");
+    signature.initSign(keyPair.getPrivate());
+    try (InputStream inputStream = Files.newInputStream(packagePath)) {
+      byte[] buffer = new byte[8192];
+      for (int read = inputStream.read(buffer); read != -1; read = inputStream.read(buffer)) {
+        signature.update(buffer, 0, read);
+      }
+    }
+
+    extensionMetadata = new StackGresExtensionMetadata(installedExtension);
+    extensionMetadata.getPublisher().setPublicKey("-----BEGIN PUBLIC KEY-----\n"
+        + Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.UTF_8))
+            .encodeToString(keyPair.getPublic().getEncoded())
+        + "\n-----END PUBLIC KEY-----");
+    downloadedPath = rootPath.resolve("downloaded.tar");
+    try (TarArchiveOutputStream outputStream = new TarArchiveOutputStream(
+        Files.newOutputStream(downloadedPath))) {
+      outputStream.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+      TarArchiveEntry packageEntry = new TarArchiveEntry(
+          extensionMetadata.getPackageName() + ExtensionManager.TGZ_SUFFIX);
+      packageEntry.setSize(Files.size(packagePath));
+      outputStream.putArchiveEntry(packageEntry);
+      Files.copy(packagePath, outputStream);
+      outputStream.closeArchiveEntry();
+      byte[] signatureBytes = signature.sign();
+      TarArchiveEntry signatureEntry = new TarArchiveEntry(
+          extensionMetadata.getPackageName() + ExtensionManager.SHA256_SUFFIX);
+      signatureEntry.setSize(signatureBytes.length);
+      outputStream.putArchiveEntry(signatureEntry);
+      outputStream.write(signatureBytes);
+      outputStream.closeArchiveEntry();
+    }
+    Files.delete(packagePath);
+
+    fileSystemHandler = new RelocatedFileSystemHandler(rootPath.resolve("root"));
+    extensionManager = createExtensionManager(fileSystemHandler);
+    context = new ClusterContext() {
+      @Override
+      public Map<String, String> getEnvironmentVariables() {
+        return ImmutableMap.of(
+            "POSTGRES_VERSION", installedExtension.getPostgresVersion(),
+            "POSTGRES_MAJOR_VERSION", installedExtension.getPostgresVersion(),
+            "BUILD_VERSION", installedExtension.getBuild(),
+            "BUILD_MAJOR_VERSION", installedExtension.getBuild());
+      }
+
+      @Override
+      public StackGresCluster getCluster() {
+        return new StackGresCluster();
+      }
+    };
+  }
+
+  private ExtensionManager createExtensionManager(FileSystemHandler fileSystemHandler) {
+    return new ExtensionManager(
+        new ExtensionMetadataManager(null, ImmutableList.of()) {
+          @Override
+          public StackGresExtensionMetadata getExtensionCandidate(
+              StackGresClusterInstalledExtension installedExtension) {
+            return extensionMetadata;
+          }
+        },
+        new DownloadedWebClientFactory(downloadedPath),
+        fileSystemHandler) {};
+  }
+
+  private void writePackage(Path packagePath) throws IOException {
+    final Random random = new Random(0);
+    final byte[] content = new byte[FILE_SIZE_MB * 1024 * 1024];
+    try (TarArchiveOutputStream outputStream = new TarArchiveOutputStream(
+        new GZIPOutputStream(Files.newOutputStream(packagePath), 65536))) {
+      for (int index = 0; index < packageSizeMb / FILE_SIZE_MB; index++) {
+        random.nextBytes(content);
+        TarArchiveEntry entry = new TarArchiveEntry(
+            "usr/lib/postgresql/12/lib/benchmark-" + index + ".so");
+        entry.setSize(content.length);
+        outputStream.putArchiveEntry(entry);
+        outputStream.write(content);
+        outputStream.closeArchiveEntry();
+      }
+    }
+  }
+
+  @Setup(Level.Invocation)
+  public void cleanInstallation() throws IOException {
+    new FileSystemHandler().deleteRecursivelyIfExists(rootPath.resolve("root"));
+    fileSystemHandler.createDirectories(
+        Paths.get(ClusterStatefulSetPath.PG_RELOCATED_LIB_PATH.path(context)));
+  }
+
+  @TearDown(Level.Trial)
+  public void deletePackage() throws IOException {
+    new FileSystemHandler().deleteRecursivelyIfExists(rootPath);
+  }
+
+  @Benchmark
+  public void downloadVerifyAndStageThenInstall() throws Exception {
+    ExtensionInstaller extensionInstaller =
+        extensionManager.getExtensionInstaller(context, installedExtension);
+    extensionInstaller.downloadVerifyAndStage();
+    extensionInstaller.doesInstallOverwriteAnySharedLibrary();
+    extensionInstaller.installExtension();
+  }
+
+  @Benchmark
+  public void downloadVerifyAndStageConcurrentlyThenInstall(ConcurrentInstallation installation)
+      throws Exception {
+    List<Future<ExtensionInstaller>> stagings = installation.extensionManagers.stream()
+        .map(concurrentExtensionManager -> installation.installExecutor.submit(() -> {
+          ExtensionInstaller extensionInstaller =
+              concurrentExtensionManager.getExtensionInstaller(context, installedExtension);
+          extensionInstaller.downloadVerifyAndStage();
+          extensionInstaller.doesInstallOverwriteAnySharedLibrary();
+          return extensionInstaller;
+        }))
+        .collect(Collectors.toList());
+    for (Future<ExtensionInstaller> staging : stagings) {
+      staging.get().installExtension();
+    }
+  }
+
+  /**
+   * Stage each package under its own relocated root so that the concurrent installations do
+   * not share any path.
+   */
+  @State(Scope.Benchmark)
+  public static class ConcurrentInstallation {
+
+    @Param({"1", "4"})
+    int installConcurrency;
+
+    private List<FileSystemHandler> fileSystemHandlers;
+
+    private List<ExtensionManager> extensionManagers;
+
+    private ExecutorService installExecutor;
+
+    @Setup(Level.Trial)
+    public void setupInstallers(ExtensionInstallerBenchmark benchmark) {
+      fileSystemHandlers = IntStream.range(0, CONCURRENT_PACKAGES)
+          .mapToObj(index -> new RelocatedFileSystemHandler(
+              benchmark.rootPath.resolve("root-" + index)))
+          .collect(Collectors.toList());
+      extensionManagers = fileSystemHandlers.stream()
+          .map(benchmark::createExtensionManager)
+          .collect(Collectors.toList());
+      installExecutor = Executors.newFixedThreadPool(installConcurrency);
+    }
+
+    @Setup(Level.Invocation)
+    public void cleanInstallations(ExtensionInstallerBenchmark benchmark) throws IOException {
+      for (int index = 0; index < CONCURRENT_PACKAGES; index++) {
+        new FileSystemHandler().deleteRecursivelyIfExists(
+            benchmark.rootPath.resolve("root-" + index));
+        fileSystemHandlers.get(index).createDirectories(
+            Paths.get(ClusterStatefulSetPath.PG_RELOCATED_LIB_PATH.path(benchmark.context)));
+      }
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdownExecutor() {
+      installExecutor.shutdownNow();
+    }
+  }
+
+  private static StackGresClusterInstalledExtension getInstalledExtension() {
+    StackGresClusterInstalledExtension installedExtension =
+        new StackGresClusterInstalledExtension();
+    installedExtension.setName("benchmark");
+    installedExtension.setPublisher("com.ongres");
+    installedExtension.setRepository("https://extensions.stackgres.io/postgres/repository");
+    installedExtension.setVersion("1.0.0");
+    installedExtension.setPostgresVersion(
+        StackGresComponent.POSTGRESQL.getOrderedMajorVersions().findFirst().get());
+    installedExtension.setBuild(
+        StackGresComponent.POSTGRESQL.getOrderedBuildMajorVersions().findFirst().get());
+    return installedExtension;
+  }
+
+  private static class DownloadedWebClientFactory extends WebClientFactory {
+    private final Path downloadedPath;
+
+    DownloadedWebClientFactory(Path downloadedPath) {
+      this.downloadedPath = downloadedPath;
+    }
+
+    @Override
+    public WebClient create(boolean skipHostnameVerification) {
+      return new WebClient(null) {
+        @Override
+        public InputStream getInputStream(URI uri) {
+          try {
+            return Files.newInputStream(downloadedPath);
+          } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+          }
+        }
+
+        @Override
+        public void close() {
+          // Nothing to close
+        }
+      };
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(ExtensionInstallerBenchmark.class.getSimpleName())
+        .build())
+        .run();
+  }
+
+}
@@ -12,22 +12,24 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.OutputStream;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.attribute.PosixFilePermission;
+import java.security.SignatureException;
 import java.util.ArrayList;
 import java.util.Map;
 import java.util.stream.Stream;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.ImmutableSet;
 import io.stackgres.common.ClusterContext;
 import io.stackgres.common.ClusterStatefulSetPath;
 import io.stackgres.common.FileSystemHandler;
 import io.stackgres.common.StackGresComponent;
 import io.stackgres.common.WebClientFactory;
+import io.stackgres.common.WebClientFactory.CachedEntity;
 import io.stackgres.common.WebClientFactory.WebClient;
 import io.stackgres.common.crd.sgcluster.StackGresCluster;
 import io.stackgres.common.crd.sgcluster.StackGresClusterExtension;
@@ -167,346 +169,134 @@ public class ExtensionManagerTest {
   }
 
   @Test
-  void testDownloadAndExtractExtension() throws Exception {
+  void testDownloadVerifyAndStageThenInstallExtension() throws Exception {
+    StackGresCluster cluster = getCluster();
+    StackGresClusterInstalledExtension extension = getInstalledExtension();
     when(webClientFactory.create(anyBoolean())).thenReturn(webClient);
-    when(webClient.getJson(any(), any())).thenReturn(getExtensions());
+    when(webClient.getJsonIfModified(any(), any(), any()))
+        .thenReturn(new CachedEntity<>(getExtensions(), null, null));
     when(webClient.getInputStream(any()))
         .then(invocation -> getClass().getResourceAsStream("/test.tar"));
-    StackGresCluster cluster = getCluster();
-    StackGresClusterInstalledExtension extension = getInstalledExtension();
-    extensionManager.getExtensionInstaller(context(cluster), extension).downloadAndExtract();
-    verify(webClientFactory, times(2)).create(anyBoolean());
-    verify(webClient, times(1)).getJson(any(), any());
-    verify(webClient, times(1)).getJson(
-        eq(ExtensionUtil.getIndexUri(REPOSITORY)), eq(StackGresExtensions.class));
+    when(fileSystemHandler.newOutputStream(any()))
+        .then(invocation -> OutputStream.nullOutputStream());
+    when(fileSystemHandler
+        .list(eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_LIB_PATH.path(context(cluster))))))
+            .thenReturn(Stream
+                .of(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_LIB_PATH.path(context(cluster)))
+                    .resolve("test.so")));
+    final String extensionPackageName =
+        ExtensionUtil.getExtensionPackageName(getInstalledExtension());
+    final Path stagingPath =
+        Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
+        .resolve(extensionPackageName + ExtensionManager.STAGING_SUFFIX);
+    ExtensionInstaller extensionInstaller =
+        extensionManager.getExtensionInstaller(context(cluster), extension);
+    extensionInstaller.downloadVerifyAndStage();
+    Assertions.assertFalse(extensionInstaller.doesInstallOverwriteAnySharedLibrary());
+    extensionInstaller.installExtension();
     verify(webClient, times(1)).getInputStream(
         eq(ExtensionUtil.getExtensionPackageUri(REPOSITORY, extension, getExtensionMetadata())));
     verify(fileSystemHandler, times(0)).newInputStream(any());
-    verify(fileSystemHandler, times(0)).createOrReplaceFile(any());
-    verify(fileSystemHandler, times(2)).createDirectories(any());
-    verify(fileSystemHandler, times(2)).createDirectories(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))));
-    verify(fileSystemHandler, times(0)).createOrReplaceSymbolicLink(any(), any());
-    verify(fileSystemHandler, times(2)).copyOrReplace(any(), any());
+    verify(fileSystemHandler, times(1)).newOutputStream(any());
+    verify(fileSystemHandler, times(5)).copyOrReplace(any(), any());
     verify(fileSystemHandler, times(1)).copyOrReplace(any(),
         eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
             .resolve("test.tgz.sha256")));
-    verify(fileSystemHandler, times(1)).copyOrReplace(any(),
+    verify(fileSystemHandler, times(5)).moveOrReplace(any(), any());
+    verify(fileSystemHandler, times(1)).moveOrReplace(any(),
         eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
             .resolve("test.tgz")));
-    verify(fileSystemHandler, times(2)).setPosixFilePermissions(any(), any());
-    verify(fileSystemHandler, times(1)).setPosixFilePermissions(
+    verify(fileSystemHandler, times(1)).moveOrReplace(any(),
         eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve("test.tgz.sha256")),
-        eq(ImmutableSet.of(
-            PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE,
-            PosixFilePermission.GROUP_READ,
-            PosixFilePermission.OTHERS_READ)));
-    verify(fileSystemHandler, times(1)).setPosixFilePermissions(
+            .resolve("usr/lib/postgresql/12/lib").resolve("test.so")));
+    verify(fileSystemHandler, times(1)).moveOrReplace(any(),
         eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve("test.tgz")),
-        eq(ImmutableSet.of(
-            PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE,
-            PosixFilePermission.GROUP_READ,
-            PosixFilePermission.OTHERS_READ)));
-    verify(fileSystemHandler, times(0)).deleteIfExists(any());
+            .resolve("usr/share/postgresql/12/extension").resolve("test.control")));
+    verify(fileSystemHandler, times(1)).moveOrReplace(any(),
+        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
+            .resolve("usr/share/postgresql/12/extension").resolve("test.sql")));
+    verify(fileSystemHandler, times(1)).moveOrReplace(any(),
+        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_LIB64_PATH.path(context(cluster)))
+            .resolve("test.so.1.0")));
+    verify(fileSystemHandler, times(3)).createOrReplaceSymbolicLink(any(), any());
+    verify(fileSystemHandler, times(2)).createOrReplaceFile(any());
+    verify(fileSystemHandler, times(1)).createDirectories(eq(stagingPath));
+    verify(fileSystemHandler, times(2)).deleteRecursivelyIfExists(any());
+    verify(fileSystemHandler, times(2)).deleteRecursivelyIfExists(eq(stagingPath));
+    verify(fileSystemHandler, times(1)).deleteIfExists(any());
+    verify(fileSystemHandler, times(1)).deleteIfExists(
+        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
+            .resolve(extensionPackageName + ExtensionManager.PENDING_SUFFIX)));
   }
 
   @Test
-  void testVerifyExtension() throws Exception {
+  void testDownloadVerifyAndStageWithWrongSignature() throws Exception {
     StackGresCluster cluster = getCluster();
     StackGresClusterInstalledExtension extension = getInstalledExtension();
+    StackGresExtensions extensions = getExtensions();
+    extensions.getPublishers().get(0).setPublicKey(IOUtils.toString(
+        getClass().getResourceAsStream("/test-wrong.pub"), StandardCharsets.UTF_8));
     when(webClientFactory.create(anyBoolean())).thenReturn(webClient);
-    when(webClient.getJson(any(), any())).thenReturn(getExtensions());
+    when(webClient.getJsonIfModified(any(), any(), any()))
+        .thenReturn(new CachedEntity<>(extensions, null, null));
+    when(webClient.getInputStream(any()))
+        .then(invocation -> getClass().getResourceAsStream("/test.tar"));
+    when(fileSystemHandler.newOutputStream(any()))
+        .then(invocation -> OutputStream.nullOutputStream());
     final String extensionPackageName =
         ExtensionUtil.getExtensionPackageName(getInstalledExtension());
-    when(fileSystemHandler
-        .newInputStream(
-            eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-                .resolve(extensionPackageName + ExtensionManager.SHA256_SUFFIX))))
-                    .then(invocation -> getClass().getResourceAsStream("/test.tgz.sha256"));
-    when(fileSystemHandler
-        .newInputStream(
-            eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-                .resolve(extensionPackageName + ExtensionManager.TGZ_SUFFIX))))
-                    .then(invocation -> getClass().getResourceAsStream("/test.tgz"));
-    extensionManager.getExtensionInstaller(context(cluster), extension).verify();;
-    verify(webClientFactory, times(1)).create(anyBoolean());
-    verify(webClient, times(1)).getJson(any(), any());
-    verify(webClient, times(1)).getJson(
-        eq(ExtensionUtil.getIndexUri(REPOSITORY)), eq(StackGresExtensions.class));
-    verify(webClient, times(0)).getInputStream(
-        eq(ExtensionUtil.getExtensionPackageUri(REPOSITORY, extension, getExtensionMetadata())));
-    verify(fileSystemHandler, times(2)).newInputStream(any());
-    verify(fileSystemHandler, times(1)).newInputStream(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve(extensionPackageName + ExtensionManager.SHA256_SUFFIX)));
-    verify(fileSystemHandler, times(1)).newInputStream(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve(extensionPackageName + ExtensionManager.TGZ_SUFFIX)));
-    verify(fileSystemHandler, times(0)).createOrReplaceFile(any());
-    verify(fileSystemHandler, times(0)).createDirectories(any());
+    final Path stagingPath =
+        Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
+        .resolve(extensionPackageName + ExtensionManager.STAGING_SUFFIX);
+    ExtensionInstaller extensionInstaller =
+        extensionManager.getExtensionInstaller(context(cluster), extension);
+    Assertions.assertThrows(SignatureException.class,
+        extensionInstaller::downloadVerifyAndStage);
+    verify(fileSystemHandler, times(0)).moveOrReplace(any(), any());
     verify(fileSystemHandler, times(0)).createOrReplaceSymbolicLink(any(), any());
-    verify(fileSystemHandler, times(0)).copyOrReplace(any(), any());
-    verify(fileSystemHandler, times(0)).setPosixFilePermissions(any(), any());
-    verify(fileSystemHandler, times(0)).deleteIfExists(any());
+    verify(fileSystemHandler, times(0)).createOrReplaceFile(any());
+    verify(fileSystemHandler, times(2)).deleteRecursivelyIfExists(eq(stagingPath));
   }
 
   @Test
-  void testInstallExtension() throws Exception {
+  void testInstallExtensionNotStaged() throws Exception {
     StackGresCluster cluster = getCluster();
-    StackGresClusterInstalledExtension extension = getInstalledExtension();
     when(webClientFactory.create(anyBoolean())).thenReturn(webClient);
-    when(webClient.getJson(any(), any())).thenReturn(getExtensions());
-    final String extensionPackageName =
-        ExtensionUtil.getExtensionPackageName(getInstalledExtension());
-    when(fileSystemHandler
-        .newInputStream(
-            eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-                .resolve(extensionPackageName + ExtensionManager.TGZ_SUFFIX))))
-                    .then(invocation -> getClass().getResourceAsStream("/test.tgz"));
-    when(fileSystemHandler
-        .list(eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_LIB_PATH.path(context(cluster))))))
-            .thenReturn(Stream
-                .of(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_LIB_PATH.path(context(cluster)))
-                    .resolve("test.so")));
+    when(webClient.getJsonIfModified(any(), any(), any()))
+        .thenReturn(new CachedEntity<>(getExtensions(), null, null));
     ExtensionInstaller extensionInstaller =
-        extensionManager.getExtensionInstaller(context(cluster), extension);
-    extensionInstaller.installExtension();
-    verify(webClientFactory, times(1)).create(anyBoolean());
-    verify(webClient, times(1)).getJson(any(), any());
-    verify(webClient, times(1)).getJson(
-        eq(ExtensionUtil.getIndexUri(REPOSITORY)), eq(StackGresExtensions.class));
+        extensionManager.getExtensionInstaller(context(cluster), getInstalledExtension());
+    Assertions.assertThrows(IllegalStateException.class, extensionInstaller::installExtension);
     verify(webClient, times(0)).getInputStream(any());
-    verify(fileSystemHandler, times(1)).newInputStream(any());
-    verify(fileSystemHandler, times(1)).newInputStream(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve(extensionPackageName + ExtensionManager.TGZ_SUFFIX)));
-    verify(fileSystemHandler, times(2)).createOrReplaceFile(any());
-    verify(fileSystemHandler, times(1)).createOrReplaceFile(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve(extensionPackageName + ExtensionManager.INSTALLED_SUFFIX)));
-    verify(fileSystemHandler, times(1)).createOrReplaceFile(
-        eq(Paths.get(ClusterStatefulSetPath.PG_RELOCATED_LIB_PATH.path(context(cluster)))
-            .resolve(extensionPackageName + ExtensionManager.LINKS_CREATED_SUFFIX)));
-    verify(fileSystemHandler, times(17)).createDirectories(any());
-    verify(fileSystemHandler, times(1)).createDirectories(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve("usr")));
-    verify(fileSystemHandler, times(1)).createDirectories(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve("usr/lib")));
-    verify(fileSystemHandler, times(1)).createDirectories(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve("usr/lib/postgresql")));
-    verify(fileSystemHandler, times(1)).createDirectories(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve("usr/lib/postgresql/12")));
-    verify(fileSystemHandler, times(2)).createDirectories(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve("usr/lib/postgresql/12/lib")));
-    verify(fileSystemHandler, times(1)).createDirectories(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve("usr/lib/postgresql/12/bin")));
-    verify(fileSystemHandler, times(4)).createDirectories(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_LIB64_PATH.path(context(cluster)))));
-    verify(fileSystemHandler, times(1)).createDirectories(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve("usr/share")));
-    verify(fileSystemHandler, times(1)).createDirectories(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve("usr/share/postgresql")));
-    verify(fileSystemHandler, times(1)).createDirectories(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve("usr/share/postgresql/12")));
-    verify(fileSystemHandler, times(3)).createDirectories(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve("usr/share/postgresql/12/extension")));
-    verify(fileSystemHandler, times(3)).createOrReplaceSymbolicLink(any(), any());
-    verify(fileSystemHandler, times(1)).createOrReplaceSymbolicLink(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_LIB64_PATH.path(context(cluster)))
-            .resolve("test.so.1")),
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_LIB64_PATH.path(context(cluster)))
-            .resolve("test.so.1.0")));
-    verify(fileSystemHandler, times(1)).createOrReplaceSymbolicLink(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_LIB64_PATH.path(context(cluster)))
-            .resolve("test.so.2")),
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_LIB64_PATH.path(context(cluster)))
-            .resolve("test.so.2.0")));
-    verify(fileSystemHandler, times(1)).createOrReplaceSymbolicLink(
-        eq(Paths.get(ClusterStatefulSetPath.PG_RELOCATED_LIB_PATH.path(context(cluster)))
-            .resolve("test.so")),
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_LIB_PATH.path(context(cluster)))
-            .resolve("test.so")));
-    verify(fileSystemHandler, times(4)).copyOrReplace(any(), any());
-    verify(fileSystemHandler, times(1)).copyOrReplace(any(),
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve("usr/lib/postgresql/12/lib").resolve("test.so")));
-    verify(fileSystemHandler, times(1)).copyOrReplace(any(),
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve("usr/share/postgresql/12/extension").resolve("test.control")));
-    verify(fileSystemHandler, times(1)).copyOrReplace(any(),
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve("usr/share/postgresql/12/extension").resolve("test.sql")));
-    verify(fileSystemHandler, times(1)).copyOrReplace(any(),
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_LIB64_PATH.path(context(cluster)))
-            .resolve("test.so.1.0")));
-    verify(fileSystemHandler, times(15)).setPosixFilePermissions(any(), any());
-    verify(fileSystemHandler, times(1)).setPosixFilePermissions(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve("usr")),
-        eq(ImmutableSet.of(
-            PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE,
-            PosixFilePermission.OWNER_EXECUTE,
-            PosixFilePermission.GROUP_READ, PosixFilePermission.GROUP_EXECUTE,
-            PosixFilePermission.OTHERS_READ, PosixFilePermission.OTHERS_EXECUTE)));
-    verify(fileSystemHandler, times(1)).setPosixFilePermissions(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve("usr/lib")),
-        eq(ImmutableSet.of(
-            PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE,
-            PosixFilePermission.OWNER_EXECUTE,
-            PosixFilePermission.GROUP_READ, PosixFilePermission.GROUP_EXECUTE,
-            PosixFilePermission.OTHERS_READ, PosixFilePermission.OTHERS_EXECUTE)));
-    verify(fileSystemHandler, times(1)).setPosixFilePermissions(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve("usr/lib/postgresql")),
-        eq(ImmutableSet.of(
-            PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE,
-            PosixFilePermission.OWNER_EXECUTE,
-            PosixFilePermission.GROUP_READ, PosixFilePermission.GROUP_EXECUTE,
-            PosixFilePermission.OTHERS_READ, PosixFilePermission.OTHERS_EXECUTE)));
-    verify(fileSystemHandler, times(1)).setPosixFilePermissions(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve("usr/lib/postgresql/12")),
-        eq(ImmutableSet.of(
-            PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE,
-            PosixFilePermission.OWNER_EXECUTE,
-            PosixFilePermission.GROUP_READ, PosixFilePermission.GROUP_EXECUTE,
-            PosixFilePermission.OTHERS_READ, PosixFilePermission.OTHERS_EXECUTE)));
-    verify(fileSystemHandler, times(1)).setPosixFilePermissions(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve("usr/lib/postgresql/12/lib")),
-        eq(ImmutableSet.of(
-            PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE,
-            PosixFilePermission.OWNER_EXECUTE,
-            PosixFilePermission.GROUP_READ, PosixFilePermission.GROUP_EXECUTE,
-            PosixFilePermission.OTHERS_READ, PosixFilePermission.OTHERS_EXECUTE)));
-    verify(fileSystemHandler, times(1)).setPosixFilePermissions(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve("usr/lib/postgresql/12/bin")),
-        eq(ImmutableSet.of(
-            PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE,
-            PosixFilePermission.OWNER_EXECUTE,
-            PosixFilePermission.GROUP_READ, PosixFilePermission.GROUP_EXECUTE,
-            PosixFilePermission.OTHERS_READ, PosixFilePermission.OTHERS_EXECUTE)));
-    verify(fileSystemHandler, times(1)).setPosixFilePermissions(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_LIB64_PATH.path(context(cluster)))),
-        eq(ImmutableSet.of(
-            PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE,
-            PosixFilePermission.OWNER_EXECUTE,
-            PosixFilePermission.GROUP_READ, PosixFilePermission.GROUP_EXECUTE,
-            PosixFilePermission.OTHERS_READ, PosixFilePermission.OTHERS_EXECUTE)));
-    verify(fileSystemHandler, times(1)).setPosixFilePermissions(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve("usr/share")),
-        eq(ImmutableSet.of(
-            PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE,
-            PosixFilePermission.OWNER_EXECUTE,
-            PosixFilePermission.GROUP_READ, PosixFilePermission.GROUP_EXECUTE,
-            PosixFilePermission.OTHERS_READ, PosixFilePermission.OTHERS_EXECUTE)));
-    verify(fileSystemHandler, times(1)).setPosixFilePermissions(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve("usr/share/postgresql")),
-        eq(ImmutableSet.of(
-            PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE,
-            PosixFilePermission.OWNER_EXECUTE,
-            PosixFilePermission.GROUP_READ, PosixFilePermission.GROUP_EXECUTE,
-            PosixFilePermission.OTHERS_READ, PosixFilePermission.OTHERS_EXECUTE)));
-    verify(fileSystemHandler, times(1)).setPosixFilePermissions(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve("usr/share/postgresql/12")),
-        eq(ImmutableSet.of(
-            PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE,
-            PosixFilePermission.OWNER_EXECUTE,
-            PosixFilePermission.GROUP_READ, PosixFilePermission.GROUP_EXECUTE,
-            PosixFilePermission.OTHERS_READ, PosixFilePermission.OTHERS_EXECUTE)));
-    verify(fileSystemHandler, times(1)).setPosixFilePermissions(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve("usr/share/postgresql/12/extension")),
-        eq(ImmutableSet.of(
-            PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE,
-            PosixFilePermission.OWNER_EXECUTE,
-            PosixFilePermission.GROUP_READ, PosixFilePermission.GROUP_EXECUTE,
-            PosixFilePermission.OTHERS_READ, PosixFilePermission.OTHERS_EXECUTE)));
-    verify(fileSystemHandler, times(1)).setPosixFilePermissions(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve("usr/lib/postgresql/12/lib").resolve("test.so")),
-        eq(ImmutableSet.of(
-            PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE,
-            PosixFilePermission.GROUP_READ,
-            PosixFilePermission.OTHERS_READ)));
-    verify(fileSystemHandler, times(1)).setPosixFilePermissions(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve("usr/share/postgresql/12/extension").resolve("test.control")),
-        eq(ImmutableSet.of(
-            PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE,
-            PosixFilePermission.GROUP_READ,
-            PosixFilePermission.OTHERS_READ)));
-    verify(fileSystemHandler, times(1)).setPosixFilePermissions(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve("usr/share/postgresql/12/extension").resolve("test.sql")),
-        eq(ImmutableSet.of(
-            PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE,
-            PosixFilePermission.GROUP_READ,
-            PosixFilePermission.OTHERS_READ)));
-    verify(fileSystemHandler, times(1)).setPosixFilePermissions(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_LIB64_PATH.path(context(cluster)))
-            .resolve("test.so.1.0")),
-        eq(ImmutableSet.of(
-            PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE,
-            PosixFilePermission.GROUP_READ,
-            PosixFilePermission.OTHERS_READ)));
-    verify(fileSystemHandler, times(1)).deleteIfExists(any());
-    verify(fileSystemHandler, times(1)).deleteIfExists(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve(extensionPackageName + ExtensionManager.PENDING_SUFFIX)));
+    verify(fileSystemHandler, times(0)).moveOrReplace(any(), any());
+    verify(fileSystemHandler, times(0)).createOrReplaceSymbolicLink(any(), any());
+    verify(fileSystemHandler, times(0)).createOrReplaceFile(any());
   }
 
   @Test
   void testCheckExtensionWillNotOverwrite() throws Exception {
     StackGresCluster cluster = getCluster();
     when(webClientFactory.create(anyBoolean())).thenReturn(webClient);
-    when(webClient.getJson(any(), any())).thenReturn(getExtensions());
-    final String extensionPackageName =
-        ExtensionUtil.getExtensionPackageName(getInstalledExtension());
-    when(fileSystemHandler
-        .newInputStream(
-            eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-                .resolve(extensionPackageName + ExtensionManager.TGZ_SUFFIX))))
-                    .then(invocation -> getClass().getResourceAsStream("/test.tgz"));
+    when(webClient.getJsonIfModified(any(), any(), any()))
+        .thenReturn(new CachedEntity<>(getExtensions(), null, null));
+    when(webClient.getInputStream(any()))
+        .then(invocation -> getClass().getResourceAsStream("/test.tar"));
+    when(fileSystemHandler.newOutputStream(any()))
+        .then(invocation -> OutputStream.nullOutputStream());
     when(fileSystemHandler
         .exists(eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
             .resolve("usr/lib/postgresql/12/lib").resolve("test.so"))))
                 .thenReturn(false);
     StackGresClusterInstalledExtension extension = getInstalledExtension();
-    Assertions.assertFalse(extensionManager.getExtensionInstaller(context(cluster), extension)
-        .doesInstallOverwriteAnySharedLibrary());
-    verify(webClientFactory, times(1)).create(anyBoolean());
-    verify(webClient, times(1)).getJson(any(), any());
-    verify(webClient, times(1)).getJson(
-        eq(ExtensionUtil.getIndexUri(REPOSITORY)), eq(StackGresExtensions.class));
-    verify(webClient, times(0)).getInputStream(
+    ExtensionInstaller extensionInstaller =
+        extensionManager.getExtensionInstaller(context(cluster), extension);
+    extensionInstaller.downloadVerifyAndStage();
+    Assertions.assertFalse(extensionInstaller.doesInstallOverwriteAnySharedLibrary());
+    verify(webClient, times(1)).getInputStream(
         eq(ExtensionUtil.getExtensionPackageUri(REPOSITORY, extension, getExtensionMetadata())));
-    verify(fileSystemHandler, times(1)).newInputStream(any());
-    verify(fileSystemHandler, times(1)).newInputStream(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve(extensionPackageName + ExtensionManager.TGZ_SUFFIX)));
+    verify(fileSystemHandler, times(0)).newInputStream(any());
     verify(fileSystemHandler, times(0)).createOrReplaceFile(any());
-    verify(fileSystemHandler, times(0)).createDirectories(any());
     verify(fileSystemHandler, times(0)).createOrReplaceSymbolicLink(any(), any());
-    verify(fileSystemHandler, times(0)).copyOrReplace(any(), any());
-    verify(fileSystemHandler, times(0)).setPosixFilePermissions(any(), any());
     verify(fileSystemHandler, times(0)).deleteIfExists(any());
   }
 
@@ -514,54 +304,43 @@ public class ExtensionManagerTest {
   void testCheckExtensionWillOverwrite() throws Exception {
     StackGresCluster cluster = getCluster();
     when(webClientFactory.create(anyBoolean())).thenReturn(webClient);
-    when(webClient.getJson(any(), any())).thenReturn(getExtensions());
-    final String extensionPackageName =
-        ExtensionUtil.getExtensionPackageName(getInstalledExtension());
-    when(fileSystemHandler
-        .newInputStream(
-            eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-                .resolve(extensionPackageName + ExtensionManager.TGZ_SUFFIX))))
-                    .then(invocation -> getClass().getResourceAsStream("/test.tgz"));
+    when(webClient.getJsonIfModified(any(), any(), any()))
+        .thenReturn(new CachedEntity<>(getExtensions(), null, null));
+    when(webClient.getInputStream(any()))
+        .then(invocation -> getClass().getResourceAsStream("/test.tar"));
+    when(fileSystemHandler.newOutputStream(any()))
+        .then(invocation -> OutputStream.nullOutputStream());
     when(fileSystemHandler
         .exists(eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
             .resolve("usr/lib/postgresql/12/lib").resolve("test.so"))))
                 .thenReturn(true);
     StackGresClusterInstalledExtension extension = getInstalledExtension();
-    Assertions.assertTrue(extensionManager.getExtensionInstaller(context(cluster), extension)
-        .doesInstallOverwriteAnySharedLibrary());
-    verify(webClientFactory, times(1)).create(anyBoolean());
-    verify(webClient, times(1)).getJson(any(), any());
-    verify(webClient, times(1)).getJson(
-        eq(ExtensionUtil.getIndexUri(REPOSITORY)), eq(StackGresExtensions.class));
-    verify(webClient, times(0)).getInputStream(
+    ExtensionInstaller extensionInstaller =
+        extensionManager.getExtensionInstaller(context(cluster), extension);
+    extensionInstaller.downloadVerifyAndStage();
+    Assertions.assertTrue(extensionInstaller.doesInstallOverwriteAnySharedLibrary());
+    verify(webClient, times(1)).getInputStream(
         eq(ExtensionUtil.getExtensionPackageUri(REPOSITORY, extension, getExtensionMetadata())));
-    verify(fileSystemHandler, times(0)).newInputStream(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve(extensionPackageName + ExtensionManager.SHA256_SUFFIX)));
-    verify(fileSystemHandler, times(1)).newInputStream(
-        eq(Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context(cluster)))
-            .resolve(extensionPackageName + ExtensionManager.TGZ_SUFFIX)));
+    verify(fileSystemHandler, times(0)).newInputStream(any());
     verify(fileSystemHandler, times(0)).createOrReplaceFile(any());
-    verify(fileSystemHandler, times(0)).createDirectories(any());
     verify(fileSystemHandler, times(0)).createOrReplaceSymbolicLink(any(), any());
-    verify(fileSystemHandler, times(0)).copyOrReplace(any(), any());
-    verify(fileSystemHandler, times(0)).setPosixFilePermissions(any(), any());
     verify(fileSystemHandler, times(0)).deleteIfExists(any());
   }
 
   @Test
   void testIsExtensionNotPending() throws Exception {
     when(webClientFactory.create(anyBoolean())).thenReturn(webClient);
-    when(webClient.getJson(any(), any())).thenReturn(getExtensions());
+    when(webClient.getJsonIfModified(any(), any(), any()))
+        .thenReturn(new CachedEntity<>(getExtensions(), null, null));
     StackGresCluster cluster = getCluster();
     StackGresClusterInstalledExtension extension = getInstalledExtension();
     Assertions.assertFalse(
         extensionManager.getExtensionInstaller(context(cluster), extension)
             .isExtensionPendingOverwrite());
     verify(webClientFactory, times(1)).create(anyBoolean());
-    verify(webClient, times(1)).getJson(any(), any());
-    verify(webClient, times(1)).getJson(
-        eq(ExtensionUtil.getIndexUri(REPOSITORY)), eq(StackGresExtensions.class));
+    verify(webClient, times(1)).getJsonIfModified(any(), any(), any());
+    verify(webClient, times(1)).getJsonIfModified(
+        eq(ExtensionUtil.getIndexUri(REPOSITORY)), eq(StackGresExtensions.class), any());
     verify(webClient, times(0)).getInputStream(any());
     verify(fileSystemHandler, times(0)).newInputStream(any());
     verify(fileSystemHandler, times(0)).createOrReplaceFile(any());
@@ -577,7 +356,8 @@ public class ExtensionManagerTest {
   void testIsExtensionPending() throws Exception {
     StackGresCluster cluster = getCluster();
     when(webClientFactory.create(anyBoolean())).thenReturn(webClient);
-    when(webClient.getJson(any(), any())).thenReturn(getExtensions());
+    when(webClient.getJsonIfModified(any(), any(), any()))
+        .thenReturn(new CachedEntity<>(getExtensions(), null, null));
     final String extensionPackageName =
         ExtensionUtil.getExtensionPackageName(getInstalledExtension());
     when(fileSystemHandler
@@ -589,9 +369,9 @@ public class ExtensionManagerTest {
         extensionManager.getExtensionInstaller(context(cluster), extension)
             .isExtensionPendingOverwrite());
     verify(webClientFactory, times(1)).create(anyBoolean());
-    verify(webClient, times(1)).getJson(any(), any());
-    verify(webClient, times(1)).getJson(
-        eq(ExtensionUtil.getIndexUri(REPOSITORY)), eq(StackGresExtensions.class));
+    verify(webClient, times(1)).getJsonIfModified(any(), any(), any());
+    verify(webClient, times(1)).getJsonIfModified(
+        eq(ExtensionUtil.getIndexUri(REPOSITORY)), eq(StackGresExtensions.class), any());
     verify(webClient, times(0)).getInputStream(any());
     verify(fileSystemHandler, times(0)).newInputStream(any());
     verify(fileSystemHandler, times(0)).createOrReplaceFile(any());
@@ -608,16 +388,17 @@ public class ExtensionManagerTest {
     StackGresCluster cluster = getCluster();
     StackGresClusterInstalledExtension extension = getInstalledExtension();
     when(webClientFactory.create(anyBoolean())).thenReturn(webClient);
-    when(webClient.getJson(any(), any())).thenReturn(getExtensions());
+    when(webClient.getJsonIfModified(any(), any(), any()))
+        .thenReturn(new CachedEntity<>(getExtensions(), null, null));
     final String extensionPackageName =
         ExtensionUtil.getExtensionPackageName(getInstalledExtension());
     ExtensionInstaller extensionInstaller =
         extensionManager.getExtensionInstaller(context(cluster), extension);
     extensionInstaller.setExtensionAsPending();
     verify(webClientFactory, times(1)).create(anyBoolean());
-    verify(webClient, times(1)).getJson(any(), any());
-    verify(webClient, times(1)).getJson(
-        eq(ExtensionUtil.getIndexUri(REPOSITORY)), eq(StackGresExtensions.class));
+    verify(webClient, times(1)).getJsonIfModified(any(), any(), any());
+    verify(webClient, times(1)).getJsonIfModified(
+        eq(ExtensionUtil.getIndexUri(REPOSITORY)), eq(StackGresExtensions.class), any());
     verify(webClient, times(0)).getInputStream(any());
     verify(fileSystemHandler, times(0)).newInputStream(any());
     verify(fileSystemHandler, times(1)).createOrReplaceFile(any());
@@ -647,8 +428,8 @@ public class ExtensionManagerTest {
     extensionManager.getExtensionUninstaller(context(cluster), installedExtension)
         .uninstallExtension();
     verify(webClientFactory, times(0)).create(anyBoolean());
-    verify(webClient, times(0)).getJson(
-        eq(ExtensionUtil.getIndexUri(REPOSITORY)), eq(StackGresExtensions.class));
+    verify(webClient, times(0)).getJsonIfModified(
+        eq(ExtensionUtil.getIndexUri(REPOSITORY)), eq(StackGresExtensions.class), any());
     verify(webClient, times(0)).getInputStream(
         eq(ExtensionUtil.getExtensionPackageUri(REPOSITORY, extension, getExtensionMetadata())));
     verify(fileSystemHandler, times(0)).newInputStream(
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.common.extension;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+
+import com.google.common.collect.ImmutableList;
+import io.stackgres.common.FileSystemHandler;
+import io.stackgres.common.WebClientFactory;
+import io.stackgres.common.WebClientFactory.CachedEntity;
+import io.stackgres.common.WebClientFactory.WebClient;
+import io.stackgres.testutil.JsonUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class ExtensionMetadataManagerTest {
+
+  private static final URI REPOSITORY =
+      URI.create("https://extensions.stackgres.io/postgres/repository");
+
+  @Mock
+  private WebClientFactory webClientFactory;
+
+  @Mock
+  private WebClient webClient;
+
+  private Path snapshotDirectory;
+
+  private Path snapshotPath;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    snapshotDirectory = Files.createTempDirectory("extension-metadata-manager-test");
+    snapshotPath = snapshotDirectory.resolve("snapshot.json");
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    new FileSystemHandler().deleteRecursivelyIfExists(snapshotDirectory);
+  }
+
+  private ExtensionMetadataManager extensionMetadataManager() {
+    return new ExtensionMetadataManager(webClientFactory,
+        ImmutableList.of(REPOSITORY), snapshotPath) {};
+  }
+
+  private StackGresExtensions getExtensions() {
+    return JsonUtil.readFromJson("extension_metadata/index.json", StackGresExtensions.class);
+  }
+
+  @Test
+  void extensionsMetadata_shouldBeDownloadedOnceAndStoredInSnapshot() throws Exception {
+    when(webClientFactory.create(anyBoolean())).thenReturn(webClient);
+    when(webClient.getJsonIfModified(any(), any(), any()))
+        .thenReturn(new CachedEntity<>(getExtensions(), "\"etag\"", null));
+    ExtensionMetadataManager extensionMetadataManager = extensionMetadataManager();
+
+    Assertions.assertFalse(extensionMetadataManager.getExtensions().isEmpty());
+    Assertions.assertFalse(extensionMetadataManager.getExtensions().isEmpty());
+
+    verify(webClient, times(1)).getJsonIfModified(
+        eq(ExtensionUtil.getIndexUri(REPOSITORY)), eq(StackGresExtensions.class), isNull());
+    Assertions.assertTrue(Files.exists(snapshotPath));
+  }
+
+  @Test
+  void extensionsMetadata_shouldBeLoadedFromSnapshotAndRefreshedConditionally()
+      throws Exception {
+    when(webClientFactory.create(anyBoolean())).thenReturn(webClient);
+    when(webClient.getJsonIfModified(any(), any(), any()))
+        .thenReturn(new CachedEntity<>(getExtensions(), "\"etag\"", null));
+    final int extensionsCount = extensionMetadataManager().getExtensions().size();
+
+    final CountDownLatch refreshLatch = new CountDownLatch(1);
+    when(webClient.getJsonIfModified(any(), any(), any()))
+        .then(invocation -> {
+          refreshLatch.await();
+          return invocation.getArgument(2);
+        });
+    ExtensionMetadataManager extensionMetadataManager = extensionMetadataManager();
+
+    Assertions.assertEquals(extensionsCount, extensionMetadataManager.getExtensions().size());
+    refreshLatch.countDown();
+    verify(webClient, timeout(5000).times(1)).getJsonIfModified(
+        eq(ExtensionUtil.getIndexUri(REPOSITORY)), eq(StackGresExtensions.class),
+        argThat(cachedEntity -> cachedEntity != null
+            && "\"etag\"".equals(cachedEntity.getEntityTag())));
+  }
+
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.common.extension;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.SignatureException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import io.stackgres.common.FileSystemHandler;
+import io.stackgres.common.extension.ExtensionPackageCache.PackageConsumer;
+import io.stackgres.common.extension.ExtensionPackageCache.PackageDownloader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ExtensionPackageCacheTest {
+
+  private static final int PACKAGE_SIZE = 1024 * 1024;
+
+  private final Map<String, byte[]> packages = new ConcurrentHashMap<>();
+
+  private final Map<String, AtomicInteger> downloads = new ConcurrentHashMap<>();
+
+  private Path cachePath;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    cachePath = Files.createTempDirectory("extension-package-cache-test");
+    Random random = new Random(0);
+    for (String packageName : Arrays.asList("a", "b", "c")) {
+      byte[] content = new byte[PACKAGE_SIZE];
+      random.nextBytes(content);
+      packages.put(packageName, content);
+      downloads.put(packageName, new AtomicInteger());
+    }
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    new FileSystemHandler().deleteRecursivelyIfExists(cachePath);
+  }
+
+  private PackageDownloader downloader(String packageName) {
+    return consumer -> {
+      downloads.get(packageName).incrementAndGet();
+      Thread.sleep(100);
+      consumer.accept(new ByteArrayInputStream(packages.get(packageName)));
+    };
+  }
+
+  private PackageConsumer verifier(String packageName) {
+    return inputStream -> {
+      if (!Arrays.equals(packages.get(packageName), inputStream.readAllBytes())) {
+        throw new SignatureException("Signature verification failed");
+      }
+    };
+  }
+
+  @Test
+  void concurrentInstallers_shouldDownloadPackageOnlyOnce() throws Exception {
+    final int installers = 8;
+    final CountDownLatch startLatch = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(installers);
+    try {
+      List<Future<Void>> results = new ArrayList<>();
+      for (int installer = 0; installer < installers; installer++) {
+        final ExtensionPackageCache packageCache =
+            new ExtensionPackageCache(cachePath, ExtensionPackageCache.DEFAULT_MAX_SIZE);
+        results.add(executor.submit(() -> {
+          startLatch.await();
+          packageCache.consume("a", downloader("a"), verifier("a"));
+          return null;
+        }));
+      }
+      startLatch.countDown();
+      for (Future<Void> result : results) {
+        result.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    Assertions.assertEquals(1, downloads.get("a").get());
+  }
+
+  @Test
+  void concurrentInstallerProcesses_shouldDownloadPackageOnlyOnce() throws Exception {
+    final int installers = 4;
+    final Path workPath = Files.createTempDirectory("extension-package-cache-installers");
+    try {
+      final Path downloadsPath = Files.createDirectory(workPath.resolve("downloads"));
+      final Path readyPath = Files.createDirectory(workPath.resolve("ready"));
+      final Path startPath = workPath.resolve("start");
+      final List<Process> processes = new ArrayList<>();
+      try {
+        for (int installer = 0; installer < installers; installer++) {
+          processes.add(new ProcessBuilder(
+              Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+              "-cp", System.getProperty("java.class.path"),
+              InstallerProcess.class.getName(),
+              cachePath.toString(), downloadsPath.toString(),
+              readyPath.toString(), startPath.toString())
+              .redirectErrorStream(true)
+              .redirectOutput(workPath.resolve("installer-" + installer + ".log").toFile())
+              .start());
+        }
+        while (countFiles(readyPath) < installers) {
+          Assertions.assertTrue(processes.stream().allMatch(Process::isAlive),
+              "An installer process ended before starting");
+          Thread.sleep(10);
+        }
+        Files.createFile(startPath);
+        for (Process process : processes) {
+          Assertions.assertTrue(process.waitFor(60, TimeUnit.SECONDS));
+          Assertions.assertEquals(0, process.exitValue());
+        }
+      } finally {
+        processes.forEach(Process::destroyForcibly);
+      }
+
+      Assertions.assertEquals(1, countFiles(downloadsPath));
+    } finally {
+      new FileSystemHandler().deleteRecursivelyIfExists(workPath);
+    }
+  }
+
+  private long countFiles(Path path) throws IOException {
+    try (Stream<Path> paths = Files.list(path)) {
+      return paths.count();
+    }
+  }
+
+  /**
+   * Installer run in its own JVM, so that installers only synchronize through the file locks.
+   * It records each download with a file and waits for the start file before installing.
+   */
+  static class InstallerProcess {
+
+    public static void main(String[] args) throws Exception {
+      final Path cachePath = Paths.get(args[0]);
+      final Path downloadsPath = Paths.get(args[1]);
+      final Path readyPath = Paths.get(args[2]);
+      final Path startPath = Paths.get(args[3]);
+      final byte[] content = new byte[PACKAGE_SIZE];
+      new Random(0).nextBytes(content);
+      Files.createTempFile(readyPath, "installer", "");
+      while (!Files.exists(startPath)) {
+        Thread.sleep(10);
+      }
+      new ExtensionPackageCache(cachePath, ExtensionPackageCache.DEFAULT_MAX_SIZE).consume("a",
+          consumer -> {
+            Files.createTempFile(downloadsPath, "download", "");
+            Thread.sleep(500);
+            consumer.accept(new ByteArrayInputStream(content));
+          },
+          inputStream -> {
+            if (!Arrays.equals(content, inputStream.readAllBytes())) {
+              throw new SignatureException("Signature verification failed");
+            }
+          });
+    }
+
+  }
+
+  @Test
+  void packagesThatFailVerification_shouldNotBeCached() throws Exception {
+    final ExtensionPackageCache packageCache =
+        new ExtensionPackageCache(cachePath, ExtensionPackageCache.DEFAULT_MAX_SIZE);
+
+    Assertions.assertThrows(SignatureException.class,
+        () -> packageCache.consume("a", downloader("a"), verifier("b")));
+    packageCache.consume("a", downloader("a"), verifier("a"));
+    packageCache.consume("a", downloader("a"), verifier("a"));
+
+    Assertions.assertEquals(2, downloads.get("a").get());
+  }
+
+  @Test
+  void corruptedPackages_shouldBeDownloadedAgain() throws Exception {
+    final ExtensionPackageCache packageCache =
+        new ExtensionPackageCache(cachePath, ExtensionPackageCache.DEFAULT_MAX_SIZE);
+
+    packageCache.consume("a", downloader("a"), verifier("a"));
+    try (Stream<Path> paths = Files.list(cachePath.resolve("packages"))) {
+      Path packagePath = paths.findAny().orElseThrow();
+      Files.write(packagePath, packages.get("b"));
+    }
+    packageCache.consume("a", downloader("a"), verifier("a"));
+
+    Assertions.assertEquals(2, downloads.get("a").get());
+  }
+
+  @Test
+  void cachedPackagesThatFailToBeConsumed_shouldNotBeDownloadedAgain() throws Exception {
+    final ExtensionPackageCache packageCache =
+        new ExtensionPackageCache(cachePath, ExtensionPackageCache.DEFAULT_MAX_SIZE);
+
+    packageCache.consume("a", downloader("a"), verifier("a"));
+    Assertions.assertThrows(IOException.class,
+        () -> packageCache.consume("a", downloader("a"), inputStream -> {
+          inputStream.read();
+          throw new IOException("No space left on device");
+        }));
+    packageCache.consume("a", downloader("a"), verifier("a"));
+
+    Assertions.assertEquals(1, downloads.get("a").get());
+  }
+
+  @Test
+  void cachedPackagesWhoseConsumerDoesNotFindAFile_shouldNotBeDownloadedAgain()
+      throws Exception {
+    final ExtensionPackageCache packageCache =
+        new ExtensionPackageCache(cachePath, ExtensionPackageCache.DEFAULT_MAX_SIZE);
+
+    packageCache.consume("a", downloader("a"), verifier("a"));
+    Assertions.assertThrows(NoSuchFileException.class,
+        () -> packageCache.consume("a", downloader("a"), inputStream -> {
+          inputStream.read();
+          throw new NoSuchFileException("/usr/lib/postgresql");
+        }));
+
+    Assertions.assertEquals(1, downloads.get("a").get());
+  }
+
+  @Test
+  void leastRecentlyUsedPackages_shouldBeEvicted() throws Exception {
+    final ExtensionPackageCache packageCache =
+        new ExtensionPackageCache(cachePath, PACKAGE_SIZE * 5L / 2);
+
+    packageCache.consume("a", downloader("a"), verifier("a"));
+    Thread.sleep(10);
+    packageCache.consume("b", downloader("b"), verifier("b"));
+    Thread.sleep(10);
+    packageCache.consume("a", downloader("a"), verifier("a"));
+    Thread.sleep(10);
+    packageCache.consume("c", downloader("c"), verifier("c"));
+    Thread.sleep(10);
+    packageCache.consume("a", downloader("a"), verifier("a"));
+    packageCache.consume("b", downloader("b"), verifier("b"));
+
+    Assertions.assertEquals(1, downloads.get("a").get());
+    Assertions.assertEquals(2, downloads.get("b").get());
+    Assertions.assertEquals(1, downloads.get("c").get());
+  }
+
+}
@@ -159,8 +159,7 @@ public class ExtensionReconciliationTest {
     verify(extensionInstaller, times(1)).isExtensionInstalled();
     verify(extensionInstaller, times(0)).isLinksCreated();
     verify(extensionUninstaller, times(0)).isExtensionInstalled();
-    verify(extensionInstaller, times(1)).downloadAndExtract();
-    verify(extensionInstaller, times(1)).verify();
+    verify(extensionInstaller, times(1)).downloadVerifyAndStage();
     verify(extensionInstaller, times(1)).installExtension();
     verify(extensionInstaller, times(0)).createExtensionLinks();
     verify(extensionInstaller, times(1)).doesInstallOverwriteAnySharedLibrary();
@@ -203,8 +202,7 @@ public class ExtensionReconciliationTest {
     verify(extensionInstaller, times(1)).isExtensionInstalled();
     verify(extensionInstaller, times(1)).isLinksCreated();
     verify(extensionUninstaller, times(0)).isExtensionInstalled();
-    verify(extensionInstaller, times(0)).downloadAndExtract();
-    verify(extensionInstaller, times(0)).verify();
+    verify(extensionInstaller, times(0)).downloadVerifyAndStage();
     verify(extensionInstaller, times(0)).installExtension();
     verify(extensionInstaller, times(0)).createExtensionLinks();
     verify(extensionInstaller, times(0)).doesInstallOverwriteAnySharedLibrary();
@@ -254,8 +252,7 @@ public class ExtensionReconciliationTest {
     verify(extensionInstaller, times(1)).isExtensionInstalled();
     verify(extensionInstaller, times(1)).isLinksCreated();
     verify(extensionUninstaller, times(0)).isExtensionInstalled();
-    verify(extensionInstaller, times(0)).downloadAndExtract();
-    verify(extensionInstaller, times(0)).verify();
+    verify(extensionInstaller, times(0)).downloadVerifyAndStage();
     verify(extensionInstaller, times(0)).installExtension();
     verify(extensionInstaller, times(1)).createExtensionLinks();
     verify(extensionInstaller, times(0)).doesInstallOverwriteAnySharedLibrary();
@@ -295,8 +292,7 @@ public class ExtensionReconciliationTest {
     verify(extensionInstaller, times(0)).isLinksCreated();
     verify(extensionInstaller, times(0)).isExtensionPendingOverwrite();
     verify(extensionUninstaller, times(0)).isExtensionInstalled();
-    verify(extensionInstaller, times(1)).downloadAndExtract();
-    verify(extensionInstaller, times(1)).verify();
+    verify(extensionInstaller, times(1)).downloadVerifyAndStage();
     verify(extensionInstaller, times(1)).installExtension();
     verify(extensionInstaller, times(0)).createExtensionLinks();
     verify(extensionInstaller, times(0)).doesInstallOverwriteAnySharedLibrary();
@@ -342,8 +338,7 @@ public class ExtensionReconciliationTest {
     verify(extensionInstaller, times(0)).isLinksCreated();
     verify(extensionInstaller, times(2)).isExtensionPendingOverwrite();
     verify(extensionUninstaller, times(0)).isExtensionInstalled();
-    verify(extensionInstaller, times(1)).downloadAndExtract();
-    verify(extensionInstaller, times(1)).verify();
+    verify(extensionInstaller, times(1)).downloadVerifyAndStage();
     verify(extensionInstaller, times(0)).installExtension();
     verify(extensionInstaller, times(0)).createExtensionLinks();
     verify(extensionInstaller, times(1)).doesInstallOverwriteAnySharedLibrary();
@@ -391,8 +386,7 @@ public class ExtensionReconciliationTest {
     verify(extensionInstaller, times(0)).isLinksCreated();
     verify(extensionInstaller, times(0)).isExtensionPendingOverwrite();
     verify(extensionUninstaller, times(0)).isExtensionInstalled();
-    verify(extensionInstaller, times(1)).downloadAndExtract();
-    verify(extensionInstaller, times(1)).verify();
+    verify(extensionInstaller, times(1)).downloadVerifyAndStage();
     verify(extensionInstaller, times(1)).installExtension();
     verify(extensionInstaller, times(0)).createExtensionLinks();
     verify(extensionInstaller, times(0)).doesInstallOverwriteAnySharedLibrary();
@@ -446,8 +440,7 @@ public class ExtensionReconciliationTest {
     verify(extensionInstaller, times(1)).isLinksCreated();
     verify(extensionInstaller, times(1)).isExtensionPendingOverwrite();
     verify(extensionUninstaller, times(0)).isExtensionInstalled();
-    verify(extensionInstaller, times(0)).downloadAndExtract();
-    verify(extensionInstaller, times(0)).verify();
+    verify(extensionInstaller, times(0)).downloadVerifyAndStage();
     verify(extensionInstaller, times(0)).installExtension();
     verify(extensionInstaller, times(0)).createExtensionLinks();
     verify(extensionInstaller, times(0)).doesInstallOverwriteAnySharedLibrary();
@@ -496,8 +489,7 @@ public class ExtensionReconciliationTest {
     verify(extensionInstaller, times(1)).isExtensionInstalled();
     verify(extensionInstaller, times(1)).isLinksCreated();
     verify(extensionUninstaller, times(0)).isExtensionInstalled();
-    verify(extensionInstaller, times(0)).downloadAndExtract();
-    verify(extensionInstaller, times(0)).verify();
+    verify(extensionInstaller, times(0)).downloadVerifyAndStage();
     verify(extensionInstaller, times(0)).installExtension();
     verify(extensionInstaller, times(0)).createExtensionLinks();
     verify(extensionInstaller, times(0)).createExtensionLinks();
@@ -550,8 +542,7 @@ public class ExtensionReconciliationTest {
     verify(extensionInstaller, times(1)).isExtensionInstalled();
     verify(extensionInstaller, times(0)).isLinksCreated();
     verify(extensionUninstaller, times(0)).isExtensionInstalled();
-    verify(extensionInstaller, times(1)).downloadAndExtract();
-    verify(extensionInstaller, times(1)).verify();
+    verify(extensionInstaller, times(1)).downloadVerifyAndStage();
     verify(extensionInstaller, times(1)).installExtension();
     verify(extensionInstaller, times(0)).createExtensionLinks();
     verify(extensionInstaller, times(1)).doesInstallOverwriteAnySharedLibrary();
@@ -595,8 +586,7 @@ public class ExtensionReconciliationTest {
     verify(extensionInstaller, times(0)).isExtensionInstalled();
     verify(extensionInstaller, times(0)).isLinksCreated();
     verify(extensionUninstaller, times(1)).isExtensionInstalled();
-    verify(extensionInstaller, times(0)).downloadAndExtract();
-    verify(extensionInstaller, times(0)).verify();
+    verify(extensionInstaller, times(0)).downloadVerifyAndStage();
     verify(extensionInstaller, times(0)).installExtension();
     verify(extensionInstaller, times(0)).createExtensionLinks();
     verify(extensionInstaller, times(0)).createExtensionLinks();
@@ -636,8 +626,7 @@ public class ExtensionReconciliationTest {
     verify(extensionInstaller, times(0)).isExtensionInstalled();
     verify(extensionInstaller, times(0)).isLinksCreated();
     verify(extensionUninstaller, times(0)).isExtensionInstalled();
-    verify(extensionInstaller, times(0)).downloadAndExtract();
-    verify(extensionInstaller, times(0)).verify();
+    verify(extensionInstaller, times(0)).downloadVerifyAndStage();
     verify(extensionInstaller, times(0)).installExtension();
     verify(extensionInstaller, times(0)).createExtensionLinks();
     verify(extensionInstaller, times(0)).createExtensionLinks();
@@ -668,8 +657,7 @@ public class ExtensionReconciliationTest {
     verify(extensionInstaller, times(0)).isExtensionInstalled();
     verify(extensionInstaller, times(0)).isLinksCreated();
     verify(extensionUninstaller, times(0)).isExtensionInstalled();
-    verify(extensionInstaller, times(0)).downloadAndExtract();
-    verify(extensionInstaller, times(0)).verify();
+    verify(extensionInstaller, times(0)).downloadVerifyAndStage();
     verify(extensionInstaller, times(0)).installExtension();
     verify(extensionInstaller, times(0)).createExtensionLinks();
     verify(extensionInstaller, times(0)).doesInstallOverwriteAnySharedLibrary();
@@ -0,0 +1,444 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.common.extension;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.stackgres.common.ClusterStatefulSetPath;
+import io.stackgres.common.FileSystemHandler;
+import io.stackgres.common.StackGresComponent;
+import io.stackgres.common.WebClientFactory;
+import io.stackgres.common.WebClientFactory.CachedEntity;
+import io.stackgres.common.WebClientFactory.WebClient;
+import io.stackgres.common.crd.sgcluster.StackGresCluster;
+import io.stackgres.common.crd.sgcluster.StackGresClusterInstalledExtension;
+import io.stackgres.common.crd.sgcluster.StackGresClusterPodStatus;
+import io.stackgres.operatorframework.reconciliation.ReconciliationResult;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Run the extension reconciliation against a local HTTP server that serves an extensions
+ * repository. Downloads go through {@link java.net.URL} since the JAX-RS client can not be
+ * bootstrapped outside of Quarkus.
+ */
+class ExtensionReconciliatorRepositoryTest {
+
+  private static final String POSTGRES_MAJOR_VERSION =
+      StackGresComponent.POSTGRESQL.getOrderedMajorVersions().findFirst().get();
+
+  private static final String BUILD_MAJOR_VERSION =
+      StackGresComponent.POSTGRESQL.getOrderedBuildMajorVersions().findFirst().get();
+
+  private final Map<String, byte[]> repositoryFiles = new HashMap<>();
+
+  private final AtomicInteger downloads = new AtomicInteger();
+
+  private final AtomicInteger maxConcurrentDownloads = new AtomicInteger();
+
+  private final AtomicInteger totalDownloads = new AtomicInteger();
+
+  private final CountDownLatch concurrentDownloadsLatch = new CountDownLatch(2);
+
+  private final StackGresExtensions extensions = new StackGresExtensions();
+
+  private Path rootPath;
+
+  private HttpServer httpServer;
+
+  private ExecutorService httpServerExecutor;
+
+  private URI repositoryUri;
+
+  private KeyPair keyPair;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    rootPath = Files.createTempDirectory("extension-reconciliator-repository-test");
+    KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+    keyPairGenerator.initialize(2048);
+    keyPair = keyPairGenerator.generateKeyPair();
+    StackGresExtensionPublisher publisher = new StackGresExtensionPublisher();
+    publisher.setId(ExtensionUtil.DEFAULT_PUBLISHER);
+    publisher.setName("OnGres");
+    publisher.setPublicKey("-----BEGIN PUBLIC KEY-----\n"
+        + Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.UTF_8))
+            .encodeToString(keyPair.getPublic().getEncoded())
+        + "\n-----END PUBLIC KEY-----");
+    extensions.setPublishers(ImmutableList.of(publisher));
+    extensions.setExtensions(new ArrayList<>());
+    httpServerExecutor = Executors.newCachedThreadPool();
+    httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    httpServer.setExecutor(httpServerExecutor);
+    httpServer.createContext("/", this::serve);
+    httpServer.start();
+    repositoryUri = URI.create("http://localhost:" + httpServer.getAddress().getPort()
+        + "/repository");
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    httpServer.stop(0);
+    httpServerExecutor.shutdownNow();
+    new FileSystemHandler().deleteRecursivelyIfExists(rootPath);
+  }
+
+  private void serve(HttpExchange exchange) throws IOException {
+    final String path = exchange.getRequestURI().getPath();
+    final byte[] content = repositoryFiles.get(path);
+    if (content == null) {
+      exchange.sendResponseHeaders(404, -1);
+      exchange.close();
+      return;
+    }
+    final boolean isPackage = path.endsWith(".tar");
+    if (isPackage) {
+      maxConcurrentDownloads.accumulateAndGet(downloads.incrementAndGet(), Math::max);
+      totalDownloads.incrementAndGet();
+      concurrentDownloadsLatch.countDown();
+      try {
+        concurrentDownloadsLatch.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    try (OutputStream outputStream = exchange.getResponseBody()) {
+      exchange.sendResponseHeaders(200, content.length);
+      outputStream.write(content);
+    } finally {
+      if (isPackage) {
+        downloads.decrementAndGet();
+      }
+    }
+  }
+
+  private StackGresClusterInstalledExtension addExtension(String name,
+      Map<String, String> files) throws Exception {
+    StackGresExtension extension = new StackGresExtension();
+    extension.setName(name);
+    extension.setPublisher(ExtensionUtil.DEFAULT_PUBLISHER);
+    extension.setChannels(ImmutableMap.of(ExtensionUtil.DEFAULT_CHANNEL, "1.0.0"));
+    StackGresExtensionVersion version = new StackGresExtensionVersion();
+    version.setVersion("1.0.0");
+    StackGresExtensionVersionTarget target = new StackGresExtensionVersionTarget();
+    target.setPostgresVersion(POSTGRES_MAJOR_VERSION);
+    target.setBuild(BUILD_MAJOR_VERSION);
+    version.setAvailableFor(ImmutableList.of(target));
+    extension.setVersions(ImmutableList.of(version));
+    extensions.getExtensions().add(extension);
+    repositoryFiles.put("/repository/index.json",
+        new ObjectMapper().writeValueAsBytes(extensions));
+
+    StackGresClusterInstalledExtension installedExtension =
+        new StackGresClusterInstalledExtension();
+    installedExtension.setName(name);
+    installedExtension.setPublisher(ExtensionUtil.DEFAULT_PUBLISHER);
+    installedExtension.setRepository(repositoryUri.toASCIIString());
+    installedExtension.setVersion("1.0.0");
+    installedExtension.setPostgresVersion(POSTGRES_MAJOR_VERSION);
+    installedExtension.setBuild(BUILD_MAJOR_VERSION);
+    final String packageName = ExtensionUtil.getExtensionPackageName(installedExtension);
+    repositoryFiles.put("/repository/" + ExtensionUtil.DEFAULT_PUBLISHER + "/"
+        + ExtensionUtil.ARCH_X86_64 + "/" + ExtensionUtil.OS_LINUX + "/" + packageName + ".tar",
+        createPackage(packageName, files));
+    return installedExtension;
+  }
+
+  private byte[] createPackage(String packageName, Map<String, String> files) throws Exception {
+    ByteArrayOutputStream packageOutputStream = new ByteArrayOutputStream();
+    try (TarArchiveOutputStream outputStream = new TarArchiveOutputStream(
+        new GZIPOutputStream(packageOutputStream))) {
+      for (Map.Entry<String, String> file : files.entrySet()) {
+        addEntry(outputStream, file.getKey(), file.getValue().getBytes(StandardCharsets.UTF_8));
+      }
+    }
+    final byte[] packageContent = packageOutputStream.toByteArray();
+    Signature signature = Signature.getInstance("SHA256withRSA");
+    signature.initSign(keyPair.getPrivate());
+    signature.update(packageContent);
+    ByteArrayOutputStream downloadOutputStream = new ByteArrayOutputStream();
+    try (TarArchiveOutputStream outputStream = new TarArchiveOutputStream(
+        downloadOutputStream)) {
+      addEntry(outputStream, packageName + ExtensionManager.TGZ_SUFFIX, packageContent);
+      addEntry(outputStream, packageName + ExtensionManager.SHA256_SUFFIX, signature.sign());
+    }
+    return downloadOutputStream.toByteArray();
+  }
+
+  private void addEntry(TarArchiveOutputStream outputStream, String name, byte[] content)
+      throws IOException {
+    TarArchiveEntry entry = new TarArchiveEntry(name);
+    entry.setSize(content.length);
+    entry.setMode(0644);
+    outputStream.putArchiveEntry(entry);
+    outputStream.write(content);
+    outputStream.closeArchiveEntry();
+  }
+
+  private ExtensionReconciliatorContext context(StackGresCluster cluster,
+      List<StackGresClusterInstalledExtension> installedExtensions) {
+    return new ExtensionReconciliatorContext() {
+      @Override
+      public Map<String, String> getEnvironmentVariables() {
+        return ImmutableMap.of(
+            "POSTGRES_VERSION", POSTGRES_MAJOR_VERSION,
+            "POSTGRES_MAJOR_VERSION", POSTGRES_MAJOR_VERSION,
+            "BUILD_VERSION", BUILD_MAJOR_VERSION,
+            "BUILD_MAJOR_VERSION", BUILD_MAJOR_VERSION);
+      }
+
+      @Override
+      public StackGresCluster getCluster() {
+        return cluster;
+      }
+
+      @Override
+      public ImmutableList<StackGresClusterInstalledExtension> getExtensions() {
+        return ImmutableList.copyOf(installedExtensions);
+      }
+    };
+  }
+
+  private ExtensionReconciliator<ExtensionReconciliatorContext> reconciliator(
+      FileSystemHandler fileSystemHandler, boolean skipSharedLibrariesOverwrites) {
+    return reconciliator(fileSystemHandler, skipSharedLibrariesOverwrites, null);
+  }
+
+  private ExtensionReconciliator<ExtensionReconciliatorContext> reconciliator(
+      FileSystemHandler fileSystemHandler, boolean skipSharedLibrariesOverwrites,
+      ExtensionPackageCache packageCache) {
+    WebClientFactory webClientFactory = new HttpUrlConnectionWebClientFactory();
+    ExtensionManager extensionManager = new ExtensionManager(
+        new ExtensionMetadataManager(webClientFactory, ImmutableList.of(repositoryUri)) {},
+        webClientFactory, fileSystemHandler, packageCache) {};
+    return new ExtensionReconciliator<ExtensionReconciliatorContext>("test-0",
+        extensionManager, skipSharedLibrariesOverwrites, 4) {
+      @Override
+      protected void onUninstallException(KubernetesClient client, StackGresCluster cluster,
+          String extension, String podName, Exception ex) {
+        throw new RuntimeException(ex);
+      }
+
+      @Override
+      protected void onInstallException(KubernetesClient client, StackGresCluster cluster,
+          String extension, String podName, Exception ex) {
+        throw new RuntimeException(ex);
+      }
+    };
+  }
+
+  private Path libPath(ExtensionReconciliatorContext context, String fileName) {
+    return Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_LIB_PATH.path(context))
+        .resolve(fileName);
+  }
+
+  private Path extensionPath(ExtensionReconciliatorContext context, String fileName) {
+    return Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_EXTENSION_PATH.path(context))
+        .resolve(fileName);
+  }
+
+  private Path packageFile(ExtensionReconciliatorContext context, String path) {
+    return Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context)).relativize(
+        Paths.get(path));
+  }
+
+  private static class HttpUrlConnectionWebClientFactory extends WebClientFactory {
+    @Override
+    public WebClient create(boolean skipHostnameVerification) {
+      return new WebClient(null) {
+        @Override
+        public <T> CachedEntity<T> getJsonIfModified(URI uri, Class<T> clazz,
+            CachedEntity<T> cachedEntity) {
+          try (InputStream inputStream = getInputStream(uri)) {
+            return new CachedEntity<>(new ObjectMapper().readValue(inputStream, clazz),
+                null, null);
+          } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+          }
+        }
+
+        @Override
+        public InputStream getInputStream(URI uri) {
+          try {
+            return uri.toURL().openStream();
+          } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+          }
+        }
+
+        @Override
+        public void close() {
+          // Nothing to close
+        }
+      };
+    }
+  }
+
+  @Test
+  void extensions_shouldBeDownloadedInParallelAndInstalledInOrder() throws Exception {
+    final StackGresCluster cluster = new StackGresCluster();
+    final List<StackGresClusterInstalledExtension> installedExtensions = new ArrayList<>();
+    final ExtensionReconciliatorContext context = context(cluster, installedExtensions);
+    for (int index = 0; index < 6; index++) {
+      installedExtensions.add(addExtension("extension" + index, ImmutableMap.of(
+          packageFile(context, libPath(context, "extension" + index + ".so").toString())
+              .toString(), "library" + index,
+          packageFile(context, extensionPath(context, "extension" + index + ".control")
+              .toString()).toString(), "control" + index)));
+    }
+    final FileSystemHandler fileSystemHandler = new RelocatedFileSystemHandler(rootPath);
+    fileSystemHandler.createDirectories(
+        Paths.get(ClusterStatefulSetPath.PG_RELOCATED_LIB_PATH.path(context)));
+
+    ReconciliationResult<Boolean> result = reconciliator(fileSystemHandler, false)
+        .reconcile(null, context);
+
+    Assertions.assertTrue(result.result().orElse(false));
+    Assertions.assertEquals(ImmutableList.of(), result.getExceptions());
+    Assertions.assertTrue(maxConcurrentDownloads.get() > 1);
+    for (int index = 0; index < 6; index++) {
+      Assertions.assertEquals("library" + index, new String(Files.readAllBytes(
+          rootPath.resolve("." + libPath(context, "extension" + index + ".so"))),
+          StandardCharsets.UTF_8));
+      Assertions.assertTrue(fileSystemHandler.exists(
+          extensionPath(context, "extension" + index + ".control")));
+      Assertions.assertTrue(fileSystemHandler.exists(
+          Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context))
+          .resolve(ExtensionUtil.getExtensionPackageName(installedExtensions.get(index))
+              + ExtensionManager.INSTALLED_SUFFIX)));
+      Assertions.assertFalse(fileSystemHandler.exists(
+          Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context))
+          .resolve(ExtensionUtil.getExtensionPackageName(installedExtensions.get(index))
+              + ExtensionManager.STAGING_SUFFIX)));
+    }
+    Assertions.assertEquals(installedExtensions, cluster.getStatus().getPodStatuses().stream()
+        .filter(podStatus -> podStatus.getName().equals("test-0"))
+        .findAny()
+        .map(StackGresClusterPodStatus::getInstalledPostgresExtensions)
+        .orElseThrow());
+  }
+
+  @Test
+  void extensionsThatOverwriteSharedLibrariesOfOtherExtensions_shouldBePending()
+      throws Exception {
+    final StackGresCluster cluster = new StackGresCluster();
+    final List<StackGresClusterInstalledExtension> installedExtensions = new ArrayList<>();
+    final ExtensionReconciliatorContext context = context(cluster, installedExtensions);
+    installedExtensions.add(addExtension("first", ImmutableMap.of(
+        packageFile(context, libPath(context, "shared.so").toString()).toString(),
+        "first")));
+    installedExtensions.add(addExtension("second", ImmutableMap.of(
+        packageFile(context, libPath(context, "shared.so").toString()).toString(),
+        "second")));
+    final FileSystemHandler fileSystemHandler = new RelocatedFileSystemHandler(rootPath);
+    fileSystemHandler.createDirectories(
+        Paths.get(ClusterStatefulSetPath.PG_RELOCATED_LIB_PATH.path(context)));
+
+    ReconciliationResult<Boolean> result = reconciliator(fileSystemHandler, true)
+        .reconcile(null, context);
+
+    Assertions.assertEquals(ImmutableList.of(), result.getExceptions());
+    Assertions.assertEquals("first", new String(Files.readAllBytes(
+        rootPath.resolve("." + libPath(context, "shared.so"))), StandardCharsets.UTF_8));
+    Assertions.assertTrue(fileSystemHandler.exists(
+        Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context))
+        .resolve(ExtensionUtil.getExtensionPackageName(installedExtensions.get(0))
+            + ExtensionManager.INSTALLED_SUFFIX)));
+    Assertions.assertTrue(fileSystemHandler.exists(
+        Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context))
+        .resolve(ExtensionUtil.getExtensionPackageName(installedExtensions.get(1))
+            + ExtensionManager.PENDING_SUFFIX)));
+    Assertions.assertFalse(fileSystemHandler.exists(
+        Paths.get(ClusterStatefulSetPath.PG_EXTENSIONS_PATH.path(context))
+        .resolve(ExtensionUtil.getExtensionPackageName(installedExtensions.get(1))
+            + ExtensionManager.INSTALLED_SUFFIX)));
+    Assertions.assertTrue(cluster.getStatus().getPodStatuses().stream()
+        .filter(podStatus -> podStatus.getName().equals("test-0"))
+        .findAny()
+        .map(StackGresClusterPodStatus::getPendingRestart)
+        .orElse(false));
+  }
+
+  @Test
+  void podsSharingPackageCache_shouldDownloadEachPackageOnce() throws Exception {
+    final List<StackGresClusterInstalledExtension> installedExtensions = new ArrayList<>();
+    final ExtensionReconciliatorContext extensionsContext =
+        context(new StackGresCluster(), installedExtensions);
+    for (int index = 0; index < 2; index++) {
+      installedExtensions.add(addExtension("extension" + index, ImmutableMap.of(
+          packageFile(extensionsContext, libPath(extensionsContext,
+              "extension" + index + ".so").toString()).toString(), "library" + index)));
+    }
+    final int pods = 4;
+    final ExecutorService executor = Executors.newFixedThreadPool(pods);
+    final List<Future<ReconciliationResult<Boolean>>> results = new ArrayList<>();
+    try {
+      for (int pod = 0; pod < pods; pod++) {
+        final ExtensionReconciliatorContext context =
+            context(new StackGresCluster(), installedExtensions);
+        final FileSystemHandler fileSystemHandler =
+            new RelocatedFileSystemHandler(rootPath.resolve("pod-" + pod));
+        fileSystemHandler.createDirectories(
+            Paths.get(ClusterStatefulSetPath.PG_RELOCATED_LIB_PATH.path(context)));
+        final ExtensionReconciliator<ExtensionReconciliatorContext> reconciliator =
+            reconciliator(fileSystemHandler, false, new ExtensionPackageCache(
+                rootPath.resolve("cache"), ExtensionPackageCache.DEFAULT_MAX_SIZE));
+        results.add(executor.submit(() -> reconciliator.reconcile(null, context)));
+      }
+      for (Future<ReconciliationResult<Boolean>> result : results) {
+        Assertions.assertEquals(ImmutableList.of(),
+            result.get(30, TimeUnit.SECONDS).getExceptions());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    Assertions.assertEquals(installedExtensions.size(), totalDownloads.get());
+    for (int pod = 0; pod < pods; pod++) {
+      for (int index = 0; index < installedExtensions.size(); index++) {
+        Assertions.assertEquals("library" + index, new String(Files.readAllBytes(
+            rootPath.resolve("pod-" + pod).resolve("." + libPath(extensionsContext,
+                "extension" + index + ".so"))), StandardCharsets.UTF_8));
+      }
+    }
+  }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.common.extension;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import io.stackgres.common.FileSystemHandler;
+
+/**
+ * Perform all the operations under the root path as if it was the root of the filesystem.
+ */
+class RelocatedFileSystemHandler extends FileSystemHandler {
+
+  private final Path rootPath;
+
+  RelocatedFileSystemHandler(Path rootPath) {
+    this.rootPath = rootPath;
+  }
+
+  private Path relocate(Path path) {
+    Path pathRoot = path.getRoot();
+    if (pathRoot == null) {
+      return path;
+    }
+    return rootPath.resolve(pathRoot.relativize(path));
+  }
+
+  @Override
+  public boolean exists(Path path) {
+    return super.exists(relocate(path));
+  }
+
+  @Override
+  public void createOrReplaceFile(Path path) throws IOException {
+    super.createOrReplaceFile(relocate(path));
+  }
+
+  @Override
+  public void createDirectories(Path path) throws IOException {
+    super.createDirectories(relocate(path));
+  }
+
+  @Override
+  public void copyOrReplace(InputStream inputStream, Path path) throws IOException {
+    super.copyOrReplace(inputStream, relocate(path));
+  }
+
+  @Override
+  public void moveOrReplace(Path source, Path target) throws IOException {
+    super.moveOrReplace(relocate(source), relocate(target));
+  }
+
+  @Override
+  public Path setPosixFilePermissions(Path path, Set<PosixFilePermission> perms)
+      throws IOException {
+    return super.setPosixFilePermissions(relocate(path), perms);
+  }
+
+  @Override
+  public void createOrReplaceSymbolicLink(Path path, Path target) throws IOException {
+    super.createOrReplaceSymbolicLink(relocate(path), relocate(target));
+  }
+
+  @Override
+  public void deleteIfExists(Path path) throws IOException {
+    super.deleteIfExists(relocate(path));
+  }
+
+  @Override
+  public void deleteRecursivelyIfExists(Path path) throws IOException {
+    super.deleteRecursivelyIfExists(relocate(path));
+  }
+
+  @Override
+  public InputStream newInputStream(Path path) throws IOException {
+    return super.newInputStream(relocate(path));
+  }
+
+  @Override
+  public OutputStream newOutputStream(Path path) throws IOException {
+    return super.newOutputStream(relocate(path));
+  }
+
+  @Override
+  public Stream<Path> list(Path path) throws IOException {
+    final Path relocatedPath = relocate(path);
+    if (!exists(path)) {
+      return Stream.empty();
+    }
+    return super.list(relocatedPath)
+        .map(listedPath -> path.resolve(relocatedPath.relativize(listedPath)));
+  }
+
+}
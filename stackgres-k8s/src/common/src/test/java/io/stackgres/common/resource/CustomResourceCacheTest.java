@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.common.resource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import io.fabric8.kubernetes.api.model.OwnerReferenceBuilder;
+import io.fabric8.kubernetes.client.DefaultKubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesServer;
+import io.stackgres.common.KubernetesClientFactory;
+import io.stackgres.common.StackGresContext;
+import io.stackgres.common.crd.sgcluster.StackGresCluster;
+import io.stackgres.common.crd.sgcluster.StackGresClusterList;
+import io.stackgres.common.crd.sgpgconfig.StackGresPostgresConfig;
+import io.stackgres.common.crd.sgprofile.StackGresProfile;
+import io.stackgres.testutil.JsonUtil;
+import io.stackgres.testutil.StringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CustomResourceCacheTest {
+
+  KubernetesServer server;
+
+  KubernetesClient client;
+
+  KubernetesClientFactory clientFactory;
+
+  String ownerUid = StringUtils.getRandomString(10);
+
+  StackGresCluster cluster;
+
+  CustomResourceCache cache;
+
+  @BeforeEach
+  void setUp() {
+    server = new KubernetesServer(false, true);
+    server.before();
+    client = server.getClient();
+    clientFactory = () -> new DefaultKubernetesClient(client.getConfiguration());
+    cluster = JsonUtil.readFromJson("stackgres_cluster/default.json", StackGresCluster.class);
+    cluster.getMetadata().setNamespace(StringUtils.getRandomNamespace());
+    cluster.getMetadata().setName(StringUtils.getRandomClusterName());
+    cluster.getMetadata().setLabels(Map.of(
+        StackGresContext.CLUSTER_NAME_KEY, "owner-cluster"));
+    cluster.getMetadata().setOwnerReferences(List.of(new OwnerReferenceBuilder()
+        .withKind(StackGresCluster.KIND)
+        .withName("owner-cluster")
+        .withUid(ownerUid)
+        .build()));
+    cluster.getMetadata().setResourceVersion(null);
+    client.customResources(StackGresCluster.class, StackGresClusterList.class)
+        .inNamespace(cluster.getMetadata().getNamespace())
+        .create(cluster);
+    cache = new CustomResourceCache(clientFactory, true);
+    cache.start(List.of(StackGresCluster.class));
+  }
+
+  @AfterEach
+  void tearDown() {
+    cache.close();
+    server.after();
+  }
+
+  @Test
+  void givenADisabledCache_shouldNotServeLookups() {
+    CustomResourceCache disabledCache = new CustomResourceCache(clientFactory, false);
+    disabledCache.start(List.of(StackGresCluster.class));
+
+    assertTrue(disabledCache.findByNameAndNamespace(StackGresCluster.class,
+        cluster.getMetadata().getName(), cluster.getMetadata().getNamespace()).isEmpty());
+    assertTrue(disabledCache.getResources(StackGresCluster.class, null).isEmpty());
+  }
+
+  @Test
+  void givenANotStartedResourceClass_shouldNotServeLookups() {
+    assertTrue(cache.getResources(StackGresProfile.class, null).isEmpty());
+    assertTrue(cache.findByNameAndNamespace(StackGresProfile.class,
+        "missing", cluster.getMetadata().getNamespace()).isEmpty());
+  }
+
+  @Test
+  void givenAnExistingResource_shouldBeFoundByNameAndNamespace() {
+    Optional<Optional<StackGresCluster>> found = cache.findByNameAndNamespace(
+        StackGresCluster.class,
+        cluster.getMetadata().getName(), cluster.getMetadata().getNamespace());
+
+    assertTrue(found.isPresent());
+    assertTrue(found.get().isPresent());
+    assertEquals(cluster.getMetadata().getName(), found.get().get().getMetadata().getName());
+  }
+
+  @Test
+  void givenANonExistingResource_shouldReturnAnEmptyLookup() {
+    Optional<Optional<StackGresCluster>> found = cache.findByNameAndNamespace(
+        StackGresCluster.class, "missing", cluster.getMetadata().getNamespace());
+
+    assertTrue(found.isPresent());
+    assertTrue(found.get().isEmpty());
+  }
+
+  @Test
+  void givenAnExistingResource_shouldBeListedByNamespaceOwnerAndCluster() {
+    String namespace = cluster.getMetadata().getNamespace();
+
+    assertEquals(1, cache.getResources(StackGresCluster.class, namespace)
+        .orElseThrow().size());
+    assertEquals(1, cache.getResourcesByOwnerUid(StackGresCluster.class, ownerUid)
+        .orElseThrow().size());
+    assertEquals(1, cache.getResourcesByCluster(StackGresCluster.class,
+        "owner-cluster", namespace).orElseThrow().size());
+    assertEquals(0, cache.getResourcesByCluster(StackGresCluster.class,
+        "other-cluster", namespace).orElseThrow().size());
+  }
+
+  @Test
+  void givenAnExistingResource_shouldBeListedByReference() {
+    String namespace = cluster.getMetadata().getNamespace();
+    String profile = cluster.getSpec().getResourceProfile();
+
+    assertEquals(1, cache.getResourcesByReference(StackGresCluster.class,
+        StackGresProfile.KIND, namespace, profile).orElseThrow().size());
+    assertEquals(0, cache.getResourcesByReference(StackGresCluster.class,
+        StackGresPostgresConfig.KIND, namespace, profile).orElseThrow().size());
+    assertEquals(0, cache.getResourcesByReference(StackGresCluster.class,
+        StackGresProfile.KIND, "other-namespace", profile).orElseThrow().size());
+  }
+
+  @Test
+  void cachedResources_shouldBeReturnedAsCopies() {
+    String name = cluster.getMetadata().getName();
+    String namespace = cluster.getMetadata().getNamespace();
+    StackGresCluster first = cache.findByNameAndNamespace(StackGresCluster.class, name, namespace)
+        .orElseThrow().orElseThrow();
+    first.getMetadata().setLabels(Map.of());
+    StackGresCluster second = cache.findByNameAndNamespace(StackGresCluster.class, name, namespace)
+        .orElseThrow().orElseThrow();
+
+    assertNotSame(first, second);
+    assertEquals("owner-cluster", second.getMetadata().getLabels()
+        .get(StackGresContext.CLUSTER_NAME_KEY));
+  }
+
+}
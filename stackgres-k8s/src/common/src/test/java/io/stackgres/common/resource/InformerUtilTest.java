@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.common.resource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.kubernetes.client.informers.cache.Cache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class InformerUtilTest {
+
+  private Cache<ConfigMap> store;
+
+  @BeforeEach
+  void setUp() {
+    store = new Cache<>();
+    store.addIndexers(Map.of(CustomResourceCache.OWNER_UID_INDEX,
+        InformerUtil.indexFunc(CustomResourceCache::ownerUidIndexFunc)));
+  }
+
+  private ConfigMap configMap(String name, String ownerUid) {
+    ConfigMapBuilder builder = new ConfigMapBuilder()
+        .withNewMetadata()
+        .withNamespace("test")
+        .withName(name)
+        .endMetadata();
+    if (ownerUid != null) {
+      builder.editMetadata()
+          .addNewOwnerReference()
+          .withUid(ownerUid)
+          .endOwnerReference()
+          .endMetadata();
+    }
+    return builder.build();
+  }
+
+  @Test
+  void givenAnEmptyStore_shouldReturnAnEmptyList() {
+    assertEquals(List.of(), InformerUtil.byIndex(store,
+        CustomResourceCache.OWNER_UID_INDEX, "owner"));
+  }
+
+  @Test
+  void givenOnlyResourcesWithoutIndexValue_shouldReturnAnEmptyList() {
+    store.add(configMap("orphan", null));
+
+    assertEquals(List.of(), InformerUtil.byIndex(store,
+        CustomResourceCache.OWNER_UID_INDEX, "owner"));
+  }
+
+  @Test
+  void givenAResourceWithIndexValue_shouldReturnIt() {
+    store.add(configMap("orphan", null));
+    store.add(configMap("owned", "owner"));
+
+    assertEquals(List.of(configMap("owned", "owner")), InformerUtil.byIndex(store,
+        CustomResourceCache.OWNER_UID_INDEX, "owner"));
+  }
+
+  @Test
+  void givenAReplacedStore_shouldReturnTheReplacedResources() {
+    store.add(configMap("owned", "owner"));
+    store.replace(List.of(configMap("orphan", null)), null);
+
+    assertEquals(List.of(), InformerUtil.byIndex(store,
+        CustomResourceCache.OWNER_UID_INDEX, "owner"));
+  }
+
+  @Test
+  void givenANotSyncedInformer_shouldReturnEmpty() {
+    @SuppressWarnings("unchecked")
+    SharedIndexInformer<ConfigMap> informer = mock(SharedIndexInformer.class);
+    when(informer.hasSynced()).thenReturn(false);
+
+    assertTrue(InformerUtil.byIndex(informer,
+        CustomResourceCache.OWNER_UID_INDEX, "owner").isEmpty());
+  }
+
+  @Test
+  void givenASyncedInformerWithAnEmptyStore_shouldReturnAnEmptyList() {
+    @SuppressWarnings("unchecked")
+    SharedIndexInformer<ConfigMap> informer = mock(SharedIndexInformer.class);
+    when(informer.hasSynced()).thenReturn(true);
+    when(informer.getIndexer()).thenReturn(store);
+
+    assertEquals(Optional.of(List.of()), InformerUtil.byIndex(informer,
+        CustomResourceCache.OWNER_UID_INDEX, "owner"));
+  }
+
+  @Test
+  void givenANotRegisteredIndex_shouldFail() {
+    assertThrows(IllegalArgumentException.class, () -> InformerUtil.byIndex(store,
+        CustomResourceCache.CLUSTER_INDEX, "test/cluster"));
+  }
+
+}
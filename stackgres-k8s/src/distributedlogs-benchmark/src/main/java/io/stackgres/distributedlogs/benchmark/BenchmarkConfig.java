@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.distributedlogs.benchmark;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+
+public class BenchmarkConfig {
+
+  private final String host;
+  private final String username;
+  private final String password;
+  private final String database;
+  private final boolean keepDatabase;
+  private final int pods;
+  private final int postgresRate;
+  private final int patroniRate;
+  private final Duration duration;
+  private final Duration flushInterval;
+  private final Duration reportInterval;
+
+  private BenchmarkConfig(UnaryOperator<String> env, UnaryOperator<String> properties) {
+    this.host = getEnv(env, "PGHOST", "localhost") + ":" + getEnv(env, "PGPORT", "5432");
+    this.username = getEnv(env, "PGUSER", "postgres");
+    this.password = getEnv(env, "PGPASSWORD", "");
+    this.database = getProperty(properties, "database", "log_ingestion_benchmark");
+    this.keepDatabase = Boolean.parseBoolean(
+        getProperty(properties, "keepDatabase", "false"));
+    this.pods = parseLong(properties, "pods", "3", 1).intValue();
+    this.postgresRate = parseLong(properties, "postgresRate", "1000", 0).intValue();
+    this.patroniRate = parseLong(properties, "patroniRate", "1", 0).intValue();
+    this.duration = Duration.ofSeconds(parseLong(properties, "duration", "300", 1));
+    this.flushInterval = Duration.ofMillis(parseLong(properties, "flushInterval", "60000", 1));
+    this.reportInterval = Duration.ofSeconds(parseLong(properties, "reportInterval", "10", 1));
+  }
+
+  /**
+   * Read the configuration from the {@code PGHOST}, {@code PGPORT}, {@code PGUSER} and
+   * {@code PGPASSWORD} environment variables and from the system properties prefixed with
+   * {@code benchmark.}.
+   */
+  public static BenchmarkConfig fromEnvironment() {
+    return from(System::getenv, System::getProperty);
+  }
+
+  static BenchmarkConfig from(UnaryOperator<String> env, UnaryOperator<String> properties) {
+    return new BenchmarkConfig(env, properties);
+  }
+
+  public String getHost() {
+    return host;
+  }
+
+  public String getUsername() {
+    return username;
+  }
+
+  public String getPassword() {
+    return password;
+  }
+
+  public String getDatabase() {
+    return database;
+  }
+
+  public boolean isKeepDatabase() {
+    return keepDatabase;
+  }
+
+  public int getPods() {
+    return pods;
+  }
+
+  /**
+   * Postgres CSV log lines generated per second by each pod.
+   */
+  public int getPostgresRate() {
+    return postgresRate;
+  }
+
+  /**
+   * Patroni log lines generated per second by each pod.
+   */
+  public int getPatroniRate() {
+    return patroniRate;
+  }
+
+  public Duration getDuration() {
+    return duration;
+  }
+
+  public Duration getFlushInterval() {
+    return flushInterval;
+  }
+
+  public Duration getReportInterval() {
+    return reportInterval;
+  }
+
+  @Override
+  public String toString() {
+    return "host=" + host + ", database=" + database + ", pods=" + pods
+        + ", postgresRate=" + postgresRate + "/s, patroniRate=" + patroniRate + "/s"
+        + ", duration=" + duration.getSeconds() + "s"
+        + ", flushInterval=" + flushInterval.toMillis() + "ms"
+        + ", reportInterval=" + reportInterval.getSeconds() + "s";
+  }
+
+  private static Long parseLong(UnaryOperator<String> properties, String name,
+      String defaultValue, long minValue) {
+    String value = getProperty(properties, name, defaultValue);
+    final long parsed;
+    try {
+      parsed = Long.parseLong(value.trim());
+    } catch (NumberFormatException ex) {
+      throw new IllegalArgumentException("Property benchmark." + name
+          + " must be an integer but was " + value, ex);
+    }
+    if (parsed < minValue || parsed > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Property benchmark." + name
+          + " must be between " + minValue + " and " + Integer.MAX_VALUE + " but was " + value);
+    }
+    return parsed;
+  }
+
+  private static String getProperty(UnaryOperator<String> properties, String name,
+      String defaultValue) {
+    return Optional.ofNullable(properties.apply("benchmark." + name)).orElse(defaultValue);
+  }
+
+  private static String getEnv(UnaryOperator<String> env, String name, String defaultValue) {
+    return Optional.ofNullable(env.apply(name)).orElse(defaultValue);
+  }
+
+}
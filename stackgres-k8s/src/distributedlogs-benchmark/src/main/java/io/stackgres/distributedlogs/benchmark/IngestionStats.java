@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.distributedlogs.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows stored by an output and the end-to-end lag (from the generation of the log line to the
+ * commit of the row) of each of them. The lags are kept for the current report interval only.
+ */
+public class IngestionStats {
+
+  private long totalRows = 0;
+  private long totalLagMillis = 0;
+  private long maxLagMillis = 0;
+  private long failedRows = 0;
+  private long[] intervalLags = new long[1024];
+  private int intervalRows = 0;
+
+  public synchronized void stored(long[] lagMillis) {
+    if (intervalRows + lagMillis.length > intervalLags.length) {
+      intervalLags = Arrays.copyOf(intervalLags,
+          Math.max(intervalLags.length * 2, intervalRows + lagMillis.length));
+    }
+    System.arraycopy(lagMillis, 0, intervalLags, intervalRows, lagMillis.length);
+    intervalRows += lagMillis.length;
+    totalRows += lagMillis.length;
+    for (long lag : lagMillis) {
+      totalLagMillis += lag;
+      maxLagMillis = Math.max(maxLagMillis, lag);
+    }
+  }
+
+  public synchronized void failed(int rows) {
+    failedRows += rows;
+  }
+
+  /**
+   * Return the rows and lag percentiles of the current report interval and start a new one.
+   */
+  public synchronized Interval nextInterval(long intervalNanos) {
+    long[] lags = Arrays.copyOf(intervalLags, intervalRows);
+    intervalRows = 0;
+    Arrays.sort(lags);
+    return new Interval(lags, intervalNanos);
+  }
+
+  public synchronized long getTotalRows() {
+    return totalRows;
+  }
+
+  public synchronized long getFailedRows() {
+    return failedRows;
+  }
+
+  public synchronized long getAverageLagMillis() {
+    return totalRows == 0 ? 0 : totalLagMillis / totalRows;
+  }
+
+  public synchronized long getMaxLagMillis() {
+    return maxLagMillis;
+  }
+
+  public static class Interval {
+
+    private final long[] sortedLags;
+    private final long intervalNanos;
+
+    Interval(long[] sortedLags, long intervalNanos) {
+      this.sortedLags = sortedLags;
+      this.intervalNanos = intervalNanos;
+    }
+
+    public long getRows() {
+      return sortedLags.length;
+    }
+
+    public double getRowsPerSecond() {
+      return sortedLags.length * (double) TimeUnit.SECONDS.toNanos(1) / intervalNanos;
+    }
+
+    public long getLagPercentileMillis(int percentile) {
+      if (sortedLags.length == 0) {
+        return 0;
+      }
+      return sortedLags[Math.min(sortedLags.length - 1,
+          sortedLags.length * percentile / 100)];
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%8.0f rows/s, lag p50 %6d ms, p99 %6d ms, max %6d ms",
+          getRowsPerSecond(), getLagPercentileMillis(50), getLagPercentileMillis(99),
+          getLagPercentileMillis(100));
+    }
+
+  }
+
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.distributedlogs.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.google.common.io.Resources;
+import io.stackgres.common.StackGresContext;
+import io.stackgres.common.distributedlogs.PatroniTableFields;
+import io.stackgres.common.distributedlogs.PostgresTableFields;
+import io.stackgres.common.distributedlogs.Tables;
+import org.postgresql.PGProperty;
+
+/**
+ * Measure the log ingestion throughput of a distributed logs database. Synthetic Postgres CSV and
+ * Patroni log lines are generated at the configured rate for each pod, parsed like fluent-bit
+ * does (see {@link LogLineParser}) and stored like the fluentd sql output does (see
+ * {@link SqlOutput}) into a new database where the distributed logs template is applied. Every
+ * report interval the stored rows per second, the end-to-end lag percentiles and the size of
+ * tables and indexes are printed. It requires a Postgres with TimescaleDB and plpython3u, for
+ * example by port forwarding the distributed logs pod. Run it with:
+ *
+ * <pre>
+ * PGHOST=localhost PGPORT=5432 PGUSER=postgres PGPASSWORD=... \
+ *   mvn compile exec:java \
+ *   -Dexec.mainClass=io.stackgres.distributedlogs.benchmark.LogIngestionBenchmark \
+ *   -Dbenchmark.pods=3 -Dbenchmark.postgresRate=1000 -Dbenchmark.patroniRate=1 \
+ *   -Dbenchmark.duration=300 -Dbenchmark.flushInterval=60000 -Dbenchmark.reportInterval=10
+ * </pre>
+ *
+ * <p>Rates are lines per second for each pod, the duration and report interval are in seconds
+ * and the flush interval in milliseconds (the default is the fluentd one since the generated
+ * configuration does not set it). Use {@code -Dbenchmark.keepDatabase=true} to inspect the
+ * database after the run.</p>
+ */
+public class LogIngestionBenchmark {
+
+  static final List<String> POSTGRES_COLUMNS = Stream.of(PostgresTableFields.values())
+      .filter(field -> field != PostgresTableFields.LOG_TIME_INDEX)
+      .map(PostgresTableFields::getFieldName)
+      .collect(Collectors.toList());
+  static final List<String> PATRONI_COLUMNS = Stream.of(PatroniTableFields.values())
+      .filter(field -> field != PatroniTableFields.LOG_TIME_INDEX)
+      .map(PatroniTableFields::getFieldName)
+      .collect(Collectors.toList());
+
+  private static final long GENERATE_PERIOD_MILLIS = 10;
+  private static final long MEBIBYTE = 1024 * 1024;
+
+  private final BenchmarkConfig config;
+
+  public LogIngestionBenchmark(BenchmarkConfig config) {
+    this.config = config;
+  }
+
+  public static void main(String[] args) throws Exception {
+    new LogIngestionBenchmark(BenchmarkConfig.fromEnvironment()).run();
+  }
+
+  public void run() throws SQLException, IOException, InterruptedException {
+    System.out.println("Log ingestion benchmark: " + config);
+    createDatabase();
+    try (Connection postgresConnection = getConnection(config.getDatabase());
+        Connection patroniConnection = getConnection(config.getDatabase());
+        Connection sizeConnection = getConnection(config.getDatabase())) {
+      SqlOutput postgresOutput = new SqlOutput(postgresConnection,
+          Tables.LOG_POSTGRES.getTableName() + "_ingestion", POSTGRES_COLUMNS,
+          new IngestionStats());
+      SqlOutput patroniOutput = new SqlOutput(patroniConnection,
+          Tables.LOG_PATRONI.getTableName() + "_ingestion", PATRONI_COLUMNS,
+          new IngestionStats());
+      ingest(postgresOutput, patroniOutput, sizeConnection);
+    } finally {
+      if (!config.isKeepDatabase()) {
+        dropDatabase();
+      }
+    }
+  }
+
+  private void ingest(SqlOutput postgresOutput, SqlOutput patroniOutput,
+      Connection sizeConnection) throws InterruptedException, SQLException {
+    final ScheduledExecutorService executor =
+        Executors.newScheduledThreadPool(config.getPods() + 3);
+    final long startNanos = System.nanoTime();
+    for (int pod = 0; pod < config.getPods(); pod++) {
+      executor.scheduleAtFixedRate(
+          new PodLogs(pod, startNanos, postgresOutput, patroniOutput),
+          0, GENERATE_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+    for (SqlOutput output : List.of(postgresOutput, patroniOutput)) {
+      executor.scheduleWithFixedDelay(output::flush,
+          config.getFlushInterval().toMillis(), config.getFlushInterval().toMillis(),
+          TimeUnit.MILLISECONDS);
+    }
+    final Reporter reporter = new Reporter(startNanos, postgresOutput, patroniOutput,
+        sizeConnection);
+    executor.scheduleAtFixedRate(reporter,
+        config.getReportInterval().toMillis(), config.getReportInterval().toMillis(),
+        TimeUnit.MILLISECONDS);
+    Thread.sleep(config.getDuration().toMillis());
+    executor.shutdown();
+    executor.awaitTermination(config.getFlushInterval().toMillis() + 60_000,
+        TimeUnit.MILLISECONDS);
+    postgresOutput.flush();
+    patroniOutput.flush();
+    final long elapsedNanos = System.nanoTime() - startNanos;
+
+    System.out.println();
+    System.out.println("Summary after " + TimeUnit.NANOSECONDS.toSeconds(elapsedNanos) + "s:");
+    printSummary(Tables.LOG_POSTGRES.getTableName(), postgresOutput, elapsedNanos,
+        sizeConnection);
+    printSummary(Tables.LOG_PATRONI.getTableName(), patroniOutput, elapsedNanos,
+        sizeConnection);
+  }
+
+  private void printSummary(String table, SqlOutput output, long elapsedNanos,
+      Connection sizeConnection) throws SQLException {
+    final IngestionStats stats = output.getStats();
+    final long[] sizes = getSizes(sizeConnection, table);
+    System.out.println(String.format("%-12s %10d rows (%d failed), %8.0f rows/s,"
+        + " lag avg %6d ms, max %6d ms, table %6d MiB, indexes %6d MiB, %5d bytes/row",
+        table, stats.getTotalRows(), stats.getFailedRows(),
+        stats.getTotalRows() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos,
+        stats.getAverageLagMillis(), stats.getMaxLagMillis(),
+        sizes[0] / MEBIBYTE, sizes[1] / MEBIBYTE,
+        stats.getTotalRows() == 0 ? 0 : (sizes[0] + sizes[1]) / stats.getTotalRows()));
+  }
+
+  /**
+   * Return the table (including TOAST) and index sizes in bytes of the hypertable.
+   */
+  private static long[] getSizes(Connection connection, String table) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(
+        "SELECT coalesce(table_bytes, 0) + coalesce(toast_bytes, 0), coalesce(index_bytes, 0)"
+            + " FROM hypertable_relation_size(CAST(? AS regclass))")) {
+      statement.setString(1, table);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        if (resultSet.next()) {
+          return new long[] { resultSet.getLong(1), resultSet.getLong(2) };
+        }
+        return new long[] { 0, 0 };
+      }
+    }
+  }
+
+  private void createDatabase() throws SQLException, IOException {
+    try (Connection connection = getConnection("postgres");
+        Statement statement = connection.createStatement()) {
+      statement.execute("DROP DATABASE IF EXISTS \"" + config.getDatabase() + "\"");
+      statement.execute("CREATE DATABASE \"" + config.getDatabase() + "\"");
+    }
+    try (Connection connection = getConnection(config.getDatabase());
+        Statement statement = connection.createStatement()) {
+      statement.execute(Resources.toString(
+          LogIngestionBenchmark.class.getResource("/distributed-logs-template.sql"),
+          StandardCharsets.UTF_8));
+    }
+  }
+
+  private void dropDatabase() throws SQLException {
+    try (Connection connection = getConnection("postgres");
+        Statement statement = connection.createStatement()) {
+      statement.execute("DROP DATABASE IF EXISTS \"" + config.getDatabase() + "\"");
+    }
+  }
+
+  private Connection getConnection(String database) throws SQLException {
+    Properties properties = new Properties();
+    PGProperty.USER.set(properties, config.getUsername());
+    PGProperty.PASSWORD.set(properties, config.getPassword());
+    return DriverManager.getConnection(
+        "jdbc:postgresql://" + config.getHost() + "/" + database, properties);
+  }
+
+  /**
+   * Generate the log lines of a pod that are due since the start of the benchmark.
+   */
+  private class PodLogs implements Runnable {
+
+    private final LogLineGenerator generator;
+    private final LogLineParser parser;
+    private final long startNanos;
+    private final SqlOutput postgresOutput;
+    private final SqlOutput patroniOutput;
+    private long postgresLines = 0;
+    private long patroniLines = 0;
+
+    PodLogs(int pod, long startNanos, SqlOutput postgresOutput, SqlOutput patroniOutput) {
+      final String podName = "benchmark-" + pod;
+      this.generator = new LogLineGenerator(podName, pod == 0, pod);
+      this.parser = new LogLineParser(podName,
+          pod == 0 ? StackGresContext.PRIMARY_ROLE : StackGresContext.REPLICA_ROLE);
+      this.startNanos = startNanos;
+      this.postgresOutput = postgresOutput;
+      this.patroniOutput = patroniOutput;
+    }
+
+    @Override
+    public void run() {
+      final long nowNanos = System.nanoTime();
+      final long elapsedNanos = nowNanos - startNanos;
+      final Instant logTime = Instant.now();
+      for (; postgresLines < dueLines(config.getPostgresRate(), elapsedNanos);
+          postgresLines++) {
+        parser.parsePostgresLine(generator.nextPostgresLine(logTime), nowNanos)
+            .ifPresent(postgresOutput::emit);
+      }
+      for (; patroniLines < dueLines(config.getPatroniRate(), elapsedNanos);
+          patroniLines++) {
+        parser.parsePatroniLine(generator.nextPatroniLine(logTime), nowNanos)
+            .ifPresent(patroniOutput::emit);
+      }
+    }
+
+    private long dueLines(int rate, long elapsedNanos) {
+      return rate * elapsedNanos / TimeUnit.SECONDS.toNanos(1);
+    }
+
+  }
+
+  /**
+   * Print the ingestion of the last report interval and the current size of the hypertables.
+   */
+  private static class Reporter implements Runnable {
+
+    private final long startNanos;
+    private final SqlOutput postgresOutput;
+    private final SqlOutput patroniOutput;
+    private final Connection sizeConnection;
+    private long lastReportNanos;
+
+    Reporter(long startNanos, SqlOutput postgresOutput, SqlOutput patroniOutput,
+        Connection sizeConnection) {
+      this.startNanos = startNanos;
+      this.postgresOutput = postgresOutput;
+      this.patroniOutput = patroniOutput;
+      this.sizeConnection = sizeConnection;
+      this.lastReportNanos = startNanos;
+    }
+
+    @Override
+    public void run() {
+      final long nowNanos = System.nanoTime();
+      final long intervalNanos = nowNanos - lastReportNanos;
+      lastReportNanos = nowNanos;
+      try {
+        report(Tables.LOG_POSTGRES.getTableName(), postgresOutput, nowNanos, intervalNanos);
+        report(Tables.LOG_PATRONI.getTableName(), patroniOutput, nowNanos, intervalNanos);
+      } catch (SQLException ex) {
+        ex.printStackTrace();
+      }
+    }
+
+    private void report(String table, SqlOutput output, long nowNanos, long intervalNanos)
+        throws SQLException {
+      final long[] sizes = getSizes(sizeConnection, table);
+      System.out.println(String.format("[%5ds] %-12s %s, buffered %8d,"
+          + " table %6d MiB, indexes %6d MiB",
+          TimeUnit.NANOSECONDS.toSeconds(nowNanos - startNanos), table,
+          output.getStats().nextInterval(intervalNanos), output.getBuffered(),
+          sizes[0] / MEBIBYTE, sizes[1] / MEBIBYTE));
+    }
+
+  }
+
+}
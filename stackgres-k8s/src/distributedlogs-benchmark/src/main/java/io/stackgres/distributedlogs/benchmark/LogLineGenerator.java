@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.distributedlogs.benchmark;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+
+/**
+ * Generate synthetic log lines with the same format of the files tailed by fluent-bit: the
+ * Postgres {@code csvlog} (22 fields after {@code log_time}) and the Patroni log.
+ */
+public class LogLineGenerator {
+
+  private static final DateTimeFormatter POSTGRES_LOG_TIME_FORMATTER =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS 'UTC'").withZone(ZoneOffset.UTC);
+  private static final DateTimeFormatter PATRONI_LOG_TIME_FORMATTER =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss,SSS").withZone(ZoneOffset.UTC);
+  private static final String[] TABLES = {
+      "pgbench_accounts", "pgbench_branches", "pgbench_tellers", "pgbench_history"};
+  private static final String[] APPLICATIONS = {"psql", "pgbench", "app", "patroni"};
+
+  private final String podName;
+  private final boolean primary;
+  private final Random random;
+  private final String sessionId;
+  private final int processId;
+  private final String sessionStartTime;
+  private long sessionLineNum = 0;
+
+  public LogLineGenerator(String podName, boolean primary, long seed) {
+    this.podName = podName;
+    this.primary = primary;
+    this.random = new Random(seed);
+    this.processId = 1000 + random.nextInt(30000);
+    this.sessionId = Long.toHexString(System.currentTimeMillis() / 1000) + "." + processId;
+    this.sessionStartTime = POSTGRES_LOG_TIME_FORMATTER.format(Instant.now())
+        .replaceFirst("\\.\\d{3}", "");
+  }
+
+  /**
+   * A Postgres CSV log line as written by the {@code csvlog} destination.
+   */
+  public String nextPostgresLine(Instant logTime) {
+    sessionLineNum++;
+    final String table = TABLES[random.nextInt(TABLES.length)];
+    final int id = random.nextInt(1_000_000);
+    final boolean error = random.nextInt(100) == 0;
+    final String statement = "UPDATE " + table + " SET abalance = abalance + "
+        + random.nextInt(5000) + " WHERE aid = " + id;
+    return POSTGRES_LOG_TIME_FORMATTER.format(logTime)
+        + ",\"postgres\",\"postgres\"," + processId + ",\"[local]\"," + sessionId
+        + "," + sessionLineNum + ",\"" + (error ? "UPDATE" : "idle") + "\""
+        + "," + sessionStartTime + ",3/" + sessionLineNum + "," + (error ? id : 0)
+        + "," + (error ? "ERROR,40P01" : "LOG,00000")
+        + ",\"" + (error ? "deadlock detected" : "statement: " + statement) + "\""
+        + "," + (error ? "\"Process " + processId + " waits for ShareLock on transaction "
+            + id + "; blocked by process " + (processId + 1) + ".\"" : "")
+        + "," + (error ? "\"See server log for query details.\"" : "")
+        + ",,,"
+        + "," + (error ? "\"" + statement + "\"" : "")
+        + ",,"
+        + ",\"" + APPLICATIONS[random.nextInt(APPLICATIONS.length)] + "\"";
+  }
+
+  /**
+   * A Patroni log line as written by the Patroni file log handler.
+   */
+  public String nextPatroniLine(Instant logTime) {
+    return PATRONI_LOG_TIME_FORMATTER.format(logTime) + " INFO: "
+        + (primary
+            ? "no action. I am (" + podName + "), the leader with the lock"
+            : "no action. I am (" + podName + "), a secondary, and following a leader ()");
+  }
+
+}
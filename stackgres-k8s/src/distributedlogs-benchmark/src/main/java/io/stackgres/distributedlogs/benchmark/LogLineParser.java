@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.distributedlogs.benchmark;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import io.stackgres.common.distributedlogs.LogTableFields;
+
+/**
+ * Stand-in for the fluent-bit parsers and filters of the cluster sidecar followed by the
+ * fluentd {@code record_transformer}: parse the first line of an entry with the
+ * {@code postgreslog_firstline} or {@code patronilog_firstline} regex (named groups are renamed
+ * since Java does not allow underscores in them) and add the {@code pod_name} and {@code role}
+ * fields taken from the kubernetes metadata. The {@code log_time} is converted to a timestamp as
+ * the fluentd sql output does when type casting the record to the column type.
+ */
+public class LogLineParser {
+
+  private static final Pattern POSTGRES_FIRSTLINE = Pattern.compile(
+      "^(?<logTime>\\d{4}-\\d{1,2}-\\d{1,2} \\d{2}:\\d{2}:\\d{2}.\\d*\\s\\S{3})"
+      + ",(?<message>.*)");
+  private static final Pattern PATRONI_FIRSTLINE = Pattern.compile(
+      "^(?<logTime>\\d{4}-\\d{1,2}-\\d{1,2} \\d{2}:\\d{2}:\\d{2},\\d{3})"
+      + " (?<errorSeverity>[^:]+): (?<message>.*)");
+  private static final DateTimeFormatter POSTGRES_LOG_TIME_FORMATTER =
+      DateTimeFormatter.ofPattern("yyyy-M-d HH:mm:ss.SSS z");
+  private static final DateTimeFormatter PATRONI_LOG_TIME_FORMATTER =
+      DateTimeFormatter.ofPattern("yyyy-M-d HH:mm:ss,SSS");
+
+  private final String podName;
+  private final String role;
+
+  public LogLineParser(String podName, String role) {
+    this.podName = podName;
+    this.role = role;
+  }
+
+  public Optional<LogRecord> parsePostgresLine(String line, long generatedNanos) {
+    Matcher matcher = POSTGRES_FIRSTLINE.matcher(line);
+    if (!matcher.matches()) {
+      return Optional.empty();
+    }
+    Map<String, Object> fields = newFields();
+    fields.put(LogTableFields.LOG_TIME, ZonedDateTime.parse(
+        matcher.group("logTime"), POSTGRES_LOG_TIME_FORMATTER).toOffsetDateTime());
+    fields.put(LogTableFields.MESSAGE, matcher.group("message"));
+    return Optional.of(new LogRecord(fields, generatedNanos));
+  }
+
+  public Optional<LogRecord> parsePatroniLine(String line, long generatedNanos) {
+    Matcher matcher = PATRONI_FIRSTLINE.matcher(line);
+    if (!matcher.matches()) {
+      return Optional.empty();
+    }
+    Map<String, Object> fields = newFields();
+    fields.put(LogTableFields.LOG_TIME, LocalDateTime.parse(
+        matcher.group("logTime"), PATRONI_LOG_TIME_FORMATTER).atOffset(ZoneOffset.UTC));
+    fields.put(LogTableFields.ERROR_SEVERITY, matcher.group("errorSeverity"));
+    fields.put(LogTableFields.MESSAGE, matcher.group("message"));
+    return Optional.of(new LogRecord(fields, generatedNanos));
+  }
+
+  private Map<String, Object> newFields() {
+    Map<String, Object> fields = new HashMap<>();
+    fields.put(LogTableFields.POD_NAME, podName);
+    fields.put(LogTableFields.ROLE, role);
+    return fields;
+  }
+
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.distributedlogs.benchmark;
+
+import java.util.Map;
+
+/**
+ * A log record as received by fluentd, with the time its line was generated.
+ */
+public class LogRecord {
+
+  private final Map<String, Object> fields;
+  private final long generatedNanos;
+
+  public LogRecord(Map<String, Object> fields, long generatedNanos) {
+    this.fields = fields;
+    this.generatedNanos = generatedNanos;
+  }
+
+  public Object get(String field) {
+    return fields.get(field);
+  }
+
+  public long getGeneratedNanos() {
+    return generatedNanos;
+  }
+
+}
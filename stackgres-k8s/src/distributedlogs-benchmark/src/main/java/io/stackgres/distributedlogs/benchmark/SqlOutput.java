@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.distributedlogs.benchmark;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Stand-in for the fluentd sql output ({@code fluent-plugin-sql}) configured by the
+ * {@code Fluentd} container of the distributed logs: records are buffered and each flush stores
+ * the whole buffer chunk with a multi-row {@code INSERT} (as {@code activerecord-import} does)
+ * into the table using the configured column mapping. Columns that are not present in the record
+ * are inserted as {@code NULL}. Since bind parameters are limited to 32767 per statement the
+ * chunk is split in more than one statement inside a single transaction.
+ */
+public class SqlOutput {
+
+  private static final int MAX_PARAMETERS = Short.MAX_VALUE;
+
+  private final Connection connection;
+  private final String table;
+  private final List<String> columns;
+  private final IngestionStats stats;
+  private final ConcurrentLinkedQueue<LogRecord> buffer = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger buffered = new AtomicInteger();
+  private final int maxRowsPerStatement;
+
+  public SqlOutput(Connection connection, String table, List<String> columns,
+      IngestionStats stats) throws SQLException {
+    this.connection = connection;
+    this.table = table;
+    this.columns = columns;
+    this.stats = stats;
+    this.maxRowsPerStatement = MAX_PARAMETERS / columns.size();
+    connection.setAutoCommit(false);
+  }
+
+  public void emit(LogRecord record) {
+    buffer.add(record);
+    buffered.incrementAndGet();
+  }
+
+  public int getBuffered() {
+    return buffered.get();
+  }
+
+  public IngestionStats getStats() {
+    return stats;
+  }
+
+  /**
+   * Store all the buffered records.
+   */
+  public void flush() {
+    List<LogRecord> chunk = new ArrayList<>();
+    for (LogRecord record = buffer.poll(); record != null; record = buffer.poll()) {
+      chunk.add(record);
+    }
+    if (chunk.isEmpty()) {
+      return;
+    }
+    buffered.addAndGet(-chunk.size());
+    try {
+      for (int from = 0; from < chunk.size(); from += maxRowsPerStatement) {
+        insert(chunk.subList(from, Math.min(chunk.size(), from + maxRowsPerStatement)));
+      }
+      connection.commit();
+      final long committedNanos = System.nanoTime();
+      stats.stored(chunk.stream()
+          .mapToLong(record -> TimeUnit.NANOSECONDS.toMillis(
+              committedNanos - record.getGeneratedNanos()))
+          .toArray());
+    } catch (SQLException ex) {
+      stats.failed(chunk.size());
+      try {
+        connection.rollback();
+      } catch (SQLException rollbackEx) {
+        ex.addSuppressed(rollbackEx);
+      }
+      System.err.println("Error storing " + chunk.size() + " rows into " + table);
+      ex.printStackTrace();
+    }
+  }
+
+  private void insert(List<LogRecord> rows) throws SQLException {
+    final String values = "(" + columns.stream()
+        .map(column -> "?")
+        .collect(Collectors.joining(",")) + ")";
+    try (PreparedStatement statement = connection.prepareStatement(
+        "INSERT INTO " + table + " (" + String.join(",", columns) + ") VALUES "
+            + rows.stream().map(row -> values).collect(Collectors.joining(",")))) {
+      int index = 1;
+      for (LogRecord row : rows) {
+        for (String column : columns) {
+          Object value = row.get(column);
+          if (value == null) {
+            statement.setNull(index++, Types.NULL);
+          } else {
+            statement.setObject(index++, value);
+          }
+        }
+      }
+      statement.executeUpdate();
+    }
+  }
+
+}
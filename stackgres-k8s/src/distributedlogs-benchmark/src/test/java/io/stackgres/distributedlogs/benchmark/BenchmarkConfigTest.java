@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.distributedlogs.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+
+class BenchmarkConfigTest {
+
+  @Test
+  void withoutEnvironmentOrProperties_shouldUseDefaults() {
+    BenchmarkConfig config = BenchmarkConfig.from(name -> null, name -> null);
+
+    assertEquals("localhost:5432", config.getHost());
+    assertEquals("postgres", config.getUsername());
+    assertEquals("", config.getPassword());
+    assertEquals("log_ingestion_benchmark", config.getDatabase());
+    assertFalse(config.isKeepDatabase());
+    assertEquals(3, config.getPods());
+    assertEquals(1000, config.getPostgresRate());
+    assertEquals(1, config.getPatroniRate());
+    assertEquals(Duration.ofSeconds(300), config.getDuration());
+    assertEquals(Duration.ofMillis(60000), config.getFlushInterval());
+    assertEquals(Duration.ofSeconds(10), config.getReportInterval());
+  }
+
+  @Test
+  void givenEnvironmentAndProperties_shouldOverrideDefaults() {
+    Map<String, String> env = ImmutableMap.of(
+        "PGHOST", "db",
+        "PGPORT", "6432",
+        "PGUSER", "bench",
+        "PGPASSWORD", "secret");
+    Map<String, String> properties = ImmutableMap.<String, String>builder()
+        .put("benchmark.database", "bench")
+        .put("benchmark.keepDatabase", "true")
+        .put("benchmark.pods", "5")
+        .put("benchmark.postgresRate", "0")
+        .put("benchmark.patroniRate", "20")
+        .put("benchmark.duration", "60")
+        .put("benchmark.flushInterval", "500")
+        .put("benchmark.reportInterval", " 2 ")
+        .build();
+
+    BenchmarkConfig config = BenchmarkConfig.from(env::get, properties::get);
+
+    assertEquals("db:6432", config.getHost());
+    assertEquals("bench", config.getUsername());
+    assertEquals("secret", config.getPassword());
+    assertEquals("bench", config.getDatabase());
+    assertTrue(config.isKeepDatabase());
+    assertEquals(5, config.getPods());
+    assertEquals(0, config.getPostgresRate());
+    assertEquals(20, config.getPatroniRate());
+    assertEquals(Duration.ofSeconds(60), config.getDuration());
+    assertEquals(Duration.ofMillis(500), config.getFlushInterval());
+    assertEquals(Duration.ofSeconds(2), config.getReportInterval());
+  }
+
+  @Test
+  void propertiesWithoutBenchmarkPrefix_shouldBeIgnored() {
+    Map<String, String> properties = ImmutableMap.of("pods", "7");
+
+    BenchmarkConfig config = BenchmarkConfig.from(name -> null, properties::get);
+
+    assertEquals(3, config.getPods());
+  }
+
+  @Test
+  void givenANonNumericValue_shouldFailNamingTheProperty() {
+    Map<String, String> properties = ImmutableMap.of("benchmark.pods", "three");
+
+    IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+        () -> BenchmarkConfig.from(name -> null, properties::get));
+
+    assertEquals("Property benchmark.pods must be an integer but was three", ex.getMessage());
+  }
+
+  @Test
+  void givenZeroPods_shouldFail() {
+    Map<String, String> properties = ImmutableMap.of("benchmark.pods", "0");
+
+    IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+        () -> BenchmarkConfig.from(name -> null, properties::get));
+
+    assertTrue(ex.getMessage().startsWith("Property benchmark.pods must be between 1"),
+        ex.getMessage());
+  }
+
+  @Test
+  void givenANegativeRate_shouldFail() {
+    Map<String, String> properties = ImmutableMap.of("benchmark.patroniRate", "-1");
+
+    assertThrows(IllegalArgumentException.class,
+        () -> BenchmarkConfig.from(name -> null, properties::get));
+  }
+
+  @Test
+  void givenAnOverflowingRate_shouldFail() {
+    Map<String, String> properties = ImmutableMap.of("benchmark.postgresRate", "3000000000");
+
+    assertThrows(IllegalArgumentException.class,
+        () -> BenchmarkConfig.from(name -> null, properties::get));
+  }
+
+  @Test
+  void givenAZeroDuration_shouldFail() {
+    Map<String, String> properties = ImmutableMap.of("benchmark.duration", "0");
+
+    assertThrows(IllegalArgumentException.class,
+        () -> BenchmarkConfig.from(name -> null, properties::get));
+  }
+
+}
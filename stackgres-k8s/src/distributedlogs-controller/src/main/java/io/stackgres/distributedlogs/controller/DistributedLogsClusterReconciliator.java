@@ -5,8 +5,12 @@
 
 package io.stackgres.distributedlogs.controller;
 
+import java.sql.SQLException;
+import java.util.HashSet;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
@@ -24,6 +28,7 @@ import io.stackgres.common.DistributedLogsControllerProperty;
 import io.stackgres.common.FluentdUtil;
 import io.stackgres.common.StackgresClusterContainers;
 import io.stackgres.common.crd.sgdistributedlogs.StackGresDistributedLogs;
+import io.stackgres.common.crd.sgdistributedlogs.StackGresDistributedLogsHypertables;
 import io.stackgres.common.crd.sgdistributedlogs.StackGresDistributedLogsStatusCluster;
 import io.stackgres.common.crd.sgdistributedlogs.StackGresDistributedLogsStatusDatabase;
 import io.stackgres.common.distributedlogs.Tables;
@@ -43,10 +48,13 @@ public class DistributedLogsClusterReconciliator {
   private static final Logger LOGGER = LoggerFactory.getLogger(
       DistributedLogsClusterReconciliator.class);
 
+  private static final String TEMPLATE_DATABASE = "template1";
+
   private final DistributedLogsControllerPropertyContext propertyContext;
   private final DistributedLogsDatabaseManager databaseManager;
   private final DistributedLogsConfigManager configManager;
   private final EventController eventController;
+  private final Set<String> ingestionUpdatedDatabases = ConcurrentHashMap.newKeySet();
 
   @Dependent
   public static class Parameters {
@@ -89,33 +97,79 @@ public class DistributedLogsClusterReconciliator {
     }
     final ImmutableList.Builder<Exception> exceptions = ImmutableList.builder();
     boolean statusUpdated = false;
+    Set<String> existingDatabases = null;
+    Exception existingDatabasesException = null;
+    try {
+      existingDatabases = new HashSet<>(databaseManager.getDatabases(context));
+    } catch (Exception ex) {
+      exceptions.add(ex);
+      existingDatabasesException = ex;
+    }
     for (StackGresDistributedLogsStatusCluster cluster : distributedLogs
         .getStatus().getConnectedClusters()) {
       String database = FluentdUtil.databaseName(cluster.getNamespace(), cluster.getName());
+      if (existingDatabases == null) {
+        handleException(client, distributedLogs, cluster, existingDatabasesException);
+        continue;
+      }
       try {
-        if (!databaseManager.existsDatabase(context, database)) {
+        if (!existingDatabases.contains(database)) {
+          updateIngestion(context, TEMPLATE_DATABASE);
           LOGGER.info("Creating database {}", database);
           databaseManager.createDatabase(context, database);
+          existingDatabases.add(database);
         }
+        updateIngestion(context, database);
       } catch (Exception ex) {
         exceptions.add(ex);
         handleException(client, distributedLogs, cluster, ex);
         continue;
       }
       String retention = cluster.getConfig().getRetention();
-      if (!Optional.of(distributedLogs.getStatus().getDatabases())
+      Optional<StackGresDistributedLogsHypertables> hypertables =
+          Optional.ofNullable(distributedLogs.getSpec().getHypertables());
+      String chunkTimeInterval = hypertables
+          .map(StackGresDistributedLogsHypertables::getChunkTimeInterval)
+          .orElse(null);
+      String compressAfter = hypertables
+          .map(StackGresDistributedLogsHypertables::getCompressAfter)
+          .orElse(null);
+      Optional<StackGresDistributedLogsStatusDatabase> foundDatabaseStatus =
+          Optional.of(distributedLogs.getStatus().getDatabases())
           .flatMap(databases -> databases.stream()
               .filter(databaseStatus -> databaseStatus.getName().equals(database))
-              .findAny())
-          .map(StackGresDistributedLogsStatusDatabase::getRetention)
-          .map(currentRetention -> Objects.equals(retention, currentRetention))
+              .findAny());
+      boolean failed = false;
+      if (!foundDatabaseStatus
+          .map(databaseStatus -> Objects.equals(retention, databaseStatus.getRetention())
+              && Objects.equals(chunkTimeInterval, databaseStatus.getChunkTimeInterval()))
           .orElse(false)) {
+        String effectiveChunkTimeInterval = Optional.ofNullable(chunkTimeInterval)
+            .orElse(retention);
         for (String table : Seq.of(Tables.values()).map(Tables::getTableName)) {
-          LOGGER.info("Updating retention window for database {} and table to {}", database,
-              retention);
+          LOGGER.info("Updating chunk time interval for database {} and table {} to {}",
+              database, table, effectiveChunkTimeInterval);
           try {
-            databaseManager.updateRetention(context, database, retention, table);
+            databaseManager.updateChunkTimeInterval(
+                context, database, effectiveChunkTimeInterval, table);
           } catch (Exception ex) {
+            failed = true;
+            exceptions.add(ex);
+            handleException(client, distributedLogs, cluster, ex);
+            continue;
+          }
+        }
+      }
+      if (!foundDatabaseStatus
+          .map(databaseStatus -> Objects.equals(compressAfter, databaseStatus.getCompressAfter()))
+          .orElse(compressAfter == null)) {
+        for (String table : Seq.of(Tables.values()).map(Tables::getTableName)) {
+          LOGGER.info("Updating compression policy for database {} and table {} to {}",
+              database, table, compressAfter);
+          try {
+            databaseManager.updateCompression(context, database, compressAfter, table);
+          } catch (Exception ex) {
+            failed = true;
             exceptions.add(ex);
             handleException(client, distributedLogs, cluster, ex);
             continue;
@@ -137,8 +191,18 @@ public class DistributedLogsClusterReconciliator {
           }
         }
       }
-      statusUpdated = statusUpdated || updateStatus(distributedLogs, database, retention);
+      if (!failed) {
+        statusUpdated = updateStatus(distributedLogs, database, retention,
+            chunkTimeInterval, compressAfter) || statusUpdated;
+      }
     }
+    if (existingDatabases == null || !distributedLogs.getStatus().getConnectedClusters().stream()
+        .map(cluster -> FluentdUtil.databaseName(cluster.getNamespace(), cluster.getName()))
+        .allMatch(ingestionUpdatedDatabases::contains)) {
+      LOGGER.warn("Waiting for the ingestion views to be created before configuring fluentd");
+      return new ReconciliationResult<>(statusUpdated, exceptions.build());
+    }
+    configManager.markIngestionReady();
     String fluentdConfigHash = configManager.getFluentdConfigHash();
     if (!Objects.equals(
         distributedLogs.getStatus().getFluentdConfigHash(),
@@ -150,6 +214,18 @@ public class DistributedLogsClusterReconciliator {
     return new ReconciliationResult<>(statusUpdated, exceptions.build());
   }
 
+  /**
+   * Create the views fluentd inserts into, once per database. Databases are created from
+   * {@code template1}, so it is updated first in order for them to be created with the views.
+   */
+  private void updateIngestion(StackGresDistributedLogsContext context, String database)
+      throws SQLException {
+    if (!ingestionUpdatedDatabases.contains(database)) {
+      databaseManager.updateIngestion(context, database);
+      ingestionUpdatedDatabases.add(database);
+    }
+  }
+
   private boolean isPatroniReady(StackGresDistributedLogsContext context) {
     return context.getExistingResources().stream()
     .map(Tuple2::v1)
@@ -169,7 +245,7 @@ public class DistributedLogsClusterReconciliator {
   }
 
   private boolean updateStatus(StackGresDistributedLogs distributedLogs, String database,
-      String retention) {
+      String retention, String chunkTimeInterval, String compressAfter) {
     Optional<StackGresDistributedLogsStatusDatabase> foundDistributedLogsDatabase =
         distributedLogs.getStatus().getDatabases()
         .stream()
@@ -182,9 +258,13 @@ public class DistributedLogsClusterReconciliator {
     }
 
     if (Objects.isNull(distributedLogsDatabase.getName())
-        || !Objects.equals(retention, distributedLogsDatabase.getRetention())) {
+        || !Objects.equals(retention, distributedLogsDatabase.getRetention())
+        || !Objects.equals(chunkTimeInterval, distributedLogsDatabase.getChunkTimeInterval())
+        || !Objects.equals(compressAfter, distributedLogsDatabase.getCompressAfter())) {
       distributedLogsDatabase.setName(database);
       distributedLogsDatabase.setRetention(retention);
+      distributedLogsDatabase.setChunkTimeInterval(chunkTimeInterval);
+      distributedLogsDatabase.setCompressAfter(compressAfter);
       return true;
     }
 
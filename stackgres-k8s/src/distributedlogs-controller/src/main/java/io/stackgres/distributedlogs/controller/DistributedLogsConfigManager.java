@@ -16,6 +16,7 @@ import javax.enterprise.context.ApplicationScoped;
 
 import com.ongres.process.FluentProcess;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import io.stackgres.common.FluentdUtil;
 import io.stackgres.common.StackGresUtil;
 import org.jooq.lambda.Seq;
 import org.jooq.lambda.Unchecked;
@@ -29,11 +30,26 @@ public class DistributedLogsConfigManager {
       Paths.get("/etc/fluentd/fluentd.conf");
   private static final Path FLUENTD_CONF_PATH = Paths.get("/fluentd/fluentd.conf");
   private static final Path FLUENTD_CONF_MD5_PATH = Paths.get("/fluentd/fluentd.conf.md5");
+  private static final Path FLUENTD_INGESTION_READY_PATH =
+      Paths.get(FluentdUtil.INGESTION_READY_PATH);
 
   public String getFluentdConfigHash() {
     return StackGresUtil.getMd5Sum(FLUENTD_CONF_FROM_CONFIGMAP_PATH);
   }
 
+  /**
+   * Let fluentd, that waits for this file before starting, insert through the ingestion views
+   * since they exist in every database.
+   */
+  public void markIngestionReady() throws IOException {
+    if (!Files.exists(FLUENTD_INGESTION_READY_PATH)) {
+      Files.writeString(FLUENTD_INGESTION_READY_PATH, "",
+          StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE,
+          StandardOpenOption.TRUNCATE_EXISTING);
+    }
+  }
+
   public void reloadFluentdConfiguration() throws IOException {
     if (Files.exists(FLUENTD_CONF_MD5_PATH)
         && Files.readString(FLUENTD_CONF_MD5_PATH).equals(getFluentdConfigHash())) {
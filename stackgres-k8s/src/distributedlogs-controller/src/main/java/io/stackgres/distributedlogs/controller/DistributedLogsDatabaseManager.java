@@ -10,8 +10,10 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.context.Dependent;
@@ -23,6 +25,7 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import io.fabric8.kubernetes.api.model.Secret;
 import io.stackgres.common.JdbcStatementTemplate;
 import io.stackgres.common.PatroniUtil;
+import io.stackgres.common.distributedlogs.PostgresConnectionPool;
 import io.stackgres.common.resource.ResourceFinder;
 import io.stackgres.common.resource.ResourceUtil;
 import io.stackgres.distributedlogs.common.StackGresDistributedLogsContext;
@@ -31,83 +34,170 @@ import io.stackgres.distributedlogs.common.StackGresDistributedLogsContext;
 public class DistributedLogsDatabaseManager {
 
   private final ResourceFinder<Secret> secretFinder;
-  private final PostgresConnectionManager postgresConnectionManager;
-  private final JdbcStatementTemplate existsDatabaseTemplate;
+  private final PostgresConnectionPool postgresConnectionPool;
+  private final JdbcStatementTemplate existingDatabasesTemplate;
   private final JdbcStatementTemplate createDatabaseTemplate;
-  private final JdbcStatementTemplate updateRetentionTemplate;
+  private final JdbcStatementTemplate updateIngestionTemplate;
+  private final JdbcStatementTemplate updateChunkTimeIntervalTemplate;
+  private final JdbcStatementTemplate isCompressionEnabledTemplate;
+  private final JdbcStatementTemplate enableCompressionTemplate;
+  private final JdbcStatementTemplate addCompressionPolicyTemplate;
+  private final JdbcStatementTemplate removeCompressionPolicyTemplate;
   private final JdbcStatementTemplate reconcileRetentionTemplate;
 
   @Dependent
   public static class Parameters {
     @Inject ResourceFinder<Secret> secretFinder;
-    @Inject PostgresConnectionManager postgresConnectionManager;
+    @Inject PostgresConnectionPool postgresConnectionPool;
   }
 
   @Inject
   public DistributedLogsDatabaseManager(Parameters parameters) {
     this.secretFinder = parameters.secretFinder;
-    this.postgresConnectionManager = parameters.postgresConnectionManager;
-    existsDatabaseTemplate = JdbcStatementTemplate.fromResource(
-        DistributedLogsDatabaseManager.class.getResource("/exists-database.sql"));
+    this.postgresConnectionPool = parameters.postgresConnectionPool;
+    existingDatabasesTemplate = JdbcStatementTemplate.fromResource(
+        DistributedLogsDatabaseManager.class.getResource("/existing-databases.sql"));
     createDatabaseTemplate = JdbcStatementTemplate.fromResource(
         DistributedLogsDatabaseManager.class.getResource("/create-database.sql"));
-    updateRetentionTemplate = JdbcStatementTemplate.fromResource(
-        DistributedLogsDatabaseManager.class.getResource("/update-retention.sql"));
+    updateIngestionTemplate = JdbcStatementTemplate.fromResource(
+        DistributedLogsDatabaseManager.class.getResource("/update-ingestion.sql"));
+    updateChunkTimeIntervalTemplate = JdbcStatementTemplate.fromResource(
+        DistributedLogsDatabaseManager.class.getResource("/update-chunk-time-interval.sql"));
+    isCompressionEnabledTemplate = JdbcStatementTemplate.fromResource(
+        DistributedLogsDatabaseManager.class.getResource("/is-compression-enabled.sql"));
+    enableCompressionTemplate = JdbcStatementTemplate.fromResource(
+        DistributedLogsDatabaseManager.class.getResource("/enable-compression.sql"));
+    addCompressionPolicyTemplate = JdbcStatementTemplate.fromResource(
+        DistributedLogsDatabaseManager.class.getResource("/add-compression-policy.sql"));
+    removeCompressionPolicyTemplate = JdbcStatementTemplate.fromResource(
+        DistributedLogsDatabaseManager.class.getResource("/remove-compression-policy.sql"));
     reconcileRetentionTemplate = JdbcStatementTemplate.fromResource(
         DistributedLogsDatabaseManager.class.getResource("/reconcile-retention.sql"));
   }
 
+  /**
+   * Return the names of all the databases of the distributed logs instance so that their
+   * existence is checked with a single query for all the connected clusters.
+   */
   @SuppressFBWarnings(value = "RCN_REDUNDANT_NULLCHECK_OF_NONNULL_VALUE",
       justification = "False positive")
-  public boolean existsDatabase(StackGresDistributedLogsContext context, String database)
+  public Set<String> getDatabases(StackGresDistributedLogsContext context)
       throws SQLException {
-    try (Connection connection = getConnection(context, "postgres")) {
-      try (PreparedStatement existsDatabase = existsDatabaseTemplate
-          .prepareStatement(connection)) {
-        existsDatabaseTemplate.set(existsDatabase, "DATABASE", database);
-        try (ResultSet resultSet = existsDatabase.executeQuery()) {
-          if (resultSet.next()) {
-            return resultSet.getBoolean(1);
-          }
+    return withConnection(context, "postgres", connection -> {
+      try (PreparedStatement existingDatabases = existingDatabasesTemplate
+          .prepareStatement(connection);
+          ResultSet resultSet = existingDatabases.executeQuery()) {
+        Set<String> databases = new HashSet<>();
+        while (resultSet.next()) {
+          databases.add(resultSet.getString(1));
         }
+        return databases;
       }
-      throw new IllegalStateException("Can not check database existence");
-    }
+    });
   }
 
   @SuppressFBWarnings(value = "RCN_REDUNDANT_NULLCHECK_OF_NONNULL_VALUE",
       justification = "False positive")
   public void createDatabase(StackGresDistributedLogsContext context, String database)
       throws SQLException {
-    try (Connection connection = getConnection(context, "postgres")) {
+    withConnection(context, "postgres", connection -> {
       try (PreparedStatement createDatabase = createDatabaseTemplate
           .prepareStatement(connection, ImmutableMap.of("DATABASE", database))) {
         createDatabase.execute();
       }
-    }
+      return null;
+    });
   }
 
+  /**
+   * Create the views used to insert log entries (so that {@code log_time_index} is filled by
+   * the column default) and restrict the {@code log_time_index} trigger of databases created
+   * with a previous template to rows inserted without it.
+   */
   @SuppressFBWarnings(value = "RCN_REDUNDANT_NULLCHECK_OF_NONNULL_VALUE",
       justification = "False positive")
-  public void updateRetention(StackGresDistributedLogsContext context, String database,
-      String retention, String table) throws SQLException {
-    try (Connection connection = getConnection(context, database)) {
-      String effectiveRetention = Optional.ofNullable(retention).orElse("7 days");
-      try (PreparedStatement updateRetention = updateRetentionTemplate
+  public void updateIngestion(StackGresDistributedLogsContext context, String database)
+      throws SQLException {
+    withConnection(context, database, connection -> {
+      try (PreparedStatement updateIngestion = updateIngestionTemplate
+          .prepareStatement(connection)) {
+        updateIngestion.execute();
+      }
+      return null;
+    });
+  }
+
+  @SuppressFBWarnings(value = "RCN_REDUNDANT_NULLCHECK_OF_NONNULL_VALUE",
+      justification = "False positive")
+  public void updateChunkTimeInterval(StackGresDistributedLogsContext context, String database,
+      String chunkTimeInterval, String table) throws SQLException {
+    String effectiveChunkTimeInterval = Optional.ofNullable(chunkTimeInterval).orElse("7 days");
+    withConnection(context, database, connection -> {
+      try (PreparedStatement updateChunkTimeInterval = updateChunkTimeIntervalTemplate
+          .prepareStatement(connection)) {
+        updateChunkTimeIntervalTemplate.set(updateChunkTimeInterval, "TABLE", table);
+        updateChunkTimeIntervalTemplate.set(updateChunkTimeInterval, "CHUNK_TIME_INTERVAL",
+            effectiveChunkTimeInterval);
+        updateChunkTimeInterval.execute();
+      }
+      return null;
+    });
+  }
+
+  /**
+   * Enable native compression of the table and replace its compression policy so that chunks
+   * older than {@code compressAfter} get compressed. When {@code compressAfter} is
+   * {@code null} the compression policy is removed but already compressed chunks are kept.
+   */
+  @SuppressFBWarnings(value = "RCN_REDUNDANT_NULLCHECK_OF_NONNULL_VALUE",
+      justification = "False positive")
+  public void updateCompression(StackGresDistributedLogsContext context, String database,
+      String compressAfter, String table) throws SQLException {
+    withConnection(context, database, connection -> {
+      try (PreparedStatement removeCompressionPolicy = removeCompressionPolicyTemplate
           .prepareStatement(connection)) {
-        updateRetentionTemplate.set(updateRetention, "TABLE", table);
-        updateRetentionTemplate.set(updateRetention, "RETENTION", effectiveRetention);
-        updateRetention.execute();
+        removeCompressionPolicyTemplate.set(removeCompressionPolicy, "TABLE", table);
+        removeCompressionPolicy.execute();
+      }
+      if (compressAfter == null) {
+        return null;
+      }
+      if (!isCompressionEnabled(connection, table)) {
+        try (PreparedStatement enableCompression = enableCompressionTemplate
+            .prepareStatement(connection, ImmutableMap.of("TABLE", table))) {
+          enableCompression.execute();
+        }
+      }
+      try (PreparedStatement addCompressionPolicy = addCompressionPolicyTemplate
+          .prepareStatement(connection)) {
+        addCompressionPolicyTemplate.set(addCompressionPolicy, "TABLE", table);
+        addCompressionPolicyTemplate.set(addCompressionPolicy, "COMPRESS_AFTER", compressAfter);
+        addCompressionPolicy.execute();
+      }
+      return null;
+    });
+  }
+
+  private boolean isCompressionEnabled(Connection connection, String table)
+      throws SQLException {
+    try (PreparedStatement isCompressionEnabled = isCompressionEnabledTemplate
+        .prepareStatement(connection)) {
+      isCompressionEnabledTemplate.set(isCompressionEnabled, "TABLE", table);
+      try (ResultSet resultSet = isCompressionEnabled.executeQuery()) {
+        if (resultSet.next()) {
+          return resultSet.getBoolean(1);
+        }
       }
     }
+    throw new IllegalStateException("Can not check compression of table " + table);
   }
 
   @SuppressFBWarnings(value = "RCN_REDUNDANT_NULLCHECK_OF_NONNULL_VALUE",
       justification = "False positive")
   public List<String> reconcileRetention(StackGresDistributedLogsContext context, String database,
       String retention, String table) throws SQLException {
-    try (Connection connection = getConnection(context, database)) {
-      String retentionUnit = retention.substring(retention.indexOf(" ") + 1);
+    String retentionUnit = retention.substring(retention.indexOf(" ") + 1);
+    return withConnection(context, database, connection -> {
       try (PreparedStatement reconcileRetention = reconcileRetentionTemplate
           .prepareStatement(connection)) {
         reconcileRetentionTemplate.set(reconcileRetention, "TABLE", table);
@@ -121,22 +211,27 @@ public class DistributedLogsDatabaseManager {
           return output;
         }
       }
-    }
+    });
   }
 
-  private Connection getConnection(StackGresDistributedLogsContext context, String database)
-      throws SQLException {
+  private <T> T withConnection(StackGresDistributedLogsContext context, String database,
+      PostgresConnectionPool.ConnectionFunction<T> function) throws SQLException {
     final String name = context.getCluster().getMetadata().getName();
     final String namespace = context.getCluster().getMetadata().getNamespace();
     String serviceName = PatroniUtil.readWriteName(name);
+    return postgresConnectionPool.withConnection(
+        serviceName + "." + namespace,
+        "postgres",
+        () -> findSuperuserPassword(name, namespace),
+        database,
+        function);
+  }
+
+  private String findSuperuserPassword(String name, String namespace) {
     Secret secret = secretFinder.findByNameAndNamespace(name, namespace)
         .orElseThrow(() -> new NotFoundException(
             "Secret with username and password for user postgres can not be found."));
-    return postgresConnectionManager.getConnection(
-        serviceName + "." + namespace,
-        "postgres",
-        ResourceUtil.decodeSecret(secret.getData().get("superuser-password")),
-        database);
+    return ResourceUtil.decodeSecret(secret.getData().get("superuser-password"));
   }
 
 }
@@ -5,23 +5,37 @@
 
 package io.stackgres.distributedlogs.controller;
 
+import java.nio.file.Paths;
+
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
 import io.stackgres.common.CdiUtil;
+import io.stackgres.common.DistributedLogsControllerProperty;
 import io.stackgres.common.FileSystemHandler;
 import io.stackgres.common.WebClientFactory;
 import io.stackgres.common.extension.ExtensionManager;
+import io.stackgres.common.extension.ExtensionPackageCache;
+import io.stackgres.distributedlogs.configuration.DistributedLogsControllerPropertyContext;
 
 @ApplicationScoped
 public class DistributedLogsExtensionManager extends ExtensionManager {
 
   @Inject
   public DistributedLogsExtensionManager(
-      DistributedLogsExtensionMetadataManager distributedLogsExtensionMetadataManager) {
+      DistributedLogsExtensionMetadataManager distributedLogsExtensionMetadataManager,
+      DistributedLogsControllerPropertyContext propertyContext) {
     super(
         distributedLogsExtensionMetadataManager,
-        new WebClientFactory(), new FileSystemHandler());
+        new WebClientFactory(), new FileSystemHandler(),
+        propertyContext.get(DistributedLogsControllerProperty
+            .DISTRIBUTEDLOGS_CONTROLLER_EXTENSIONS_CACHE_PATH)
+            .map(cachePath -> new ExtensionPackageCache(Paths.get(cachePath),
+                propertyContext.get(DistributedLogsControllerProperty
+                    .DISTRIBUTEDLOGS_CONTROLLER_EXTENSIONS_CACHE_MAX_SIZE)
+                    .map(Long::parseLong)
+                    .orElse(ExtensionPackageCache.DEFAULT_MAX_SIZE)))
+            .orElse(null));
   }
 
   public DistributedLogsExtensionManager() {
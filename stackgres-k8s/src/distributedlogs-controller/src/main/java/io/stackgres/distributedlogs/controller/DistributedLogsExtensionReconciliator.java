@@ -47,7 +47,11 @@ public class DistributedLogsExtensionReconciliator
         DistributedLogsControllerProperty.DISTRIBUTEDLOGS_CONTROLLER_POD_NAME),
         parameters.extensionManager,
         parameters.propertyContext.getBoolean(DistributedLogsControllerProperty
-            .DISTRIBUTEDLOGS_CONTROLLER_SKIP_OVERWRITE_SHARED_LIBRARIES));
+            .DISTRIBUTEDLOGS_CONTROLLER_SKIP_OVERWRITE_SHARED_LIBRARIES),
+        parameters.propertyContext.get(DistributedLogsControllerProperty
+            .DISTRIBUTEDLOGS_CONTROLLER_EXTENSIONS_INSTALL_CONCURRENCY)
+            .map(Integer::parseInt)
+            .orElse(DEFAULT_INSTALL_CONCURRENCY));
     this.eventController = parameters.eventController;
   }
 
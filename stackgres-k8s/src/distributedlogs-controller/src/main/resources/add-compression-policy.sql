@@ -0,0 +1 @@
+SELECT add_compress_chunks_policy(${TABLE}, CAST(${COMPRESS_AFTER} AS INTERVAL))
\ No newline at end of file
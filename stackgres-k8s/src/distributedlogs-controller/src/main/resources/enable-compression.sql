@@ -0,0 +1,4 @@
+ALTER TABLE "@{TABLE}" SET (
+  timescaledb.compress,
+  timescaledb.compress_segmentby = 'pod_name',
+  timescaledb.compress_orderby = 'log_time DESC, log_time_index DESC')
\ No newline at end of file
@@ -1 +0,0 @@
-SELECT EXISTS (SELECT * FROM pg_database WHERE datname = ${DATABASE})
\ No newline at end of file
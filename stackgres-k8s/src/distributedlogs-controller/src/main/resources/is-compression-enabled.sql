@@ -0,0 +1,2 @@
+SELECT EXISTS (SELECT * FROM _timescaledb_catalog.hypertable
+  WHERE table_name = ${TABLE} AND compressed_hypertable_id IS NOT NULL)
\ No newline at end of file
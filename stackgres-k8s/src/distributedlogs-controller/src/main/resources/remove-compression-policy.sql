@@ -0,0 +1 @@
+SELECT remove_compress_chunks_policy(${TABLE}, if_exists => true)
\ No newline at end of file
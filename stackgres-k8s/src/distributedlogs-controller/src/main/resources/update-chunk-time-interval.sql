@@ -0,0 +1 @@
+SELECT set_chunk_time_interval(${TABLE}, CAST(${CHUNK_TIME_INTERVAL} AS INTERVAL))
\ No newline at end of file
@@ -0,0 +1,69 @@
+DO
+$$
+BEGIN
+  IF NOT EXISTS (SELECT * FROM pg_views
+      WHERE schemaname = current_schema()
+      AND viewname = 'log_postgres_ingestion') THEN
+    CREATE VIEW log_postgres_ingestion AS
+      SELECT
+        log_time,
+        pod_name,
+        role,
+        error_severity,
+        message,
+        user_name,
+        database_name,
+        process_id,
+        connection_from,
+        session_id,
+        session_line_num,
+        command_tag,
+        session_start_time,
+        virtual_transaction_id,
+        transaction_id,
+        sql_state_code,
+        detail,
+        hint,
+        internal_query,
+        internal_query_pos,
+        context,
+        query,
+        query_pos,
+        location,
+        application_name
+      FROM log_postgres;
+  END IF;
+  IF EXISTS (SELECT * FROM pg_trigger
+      WHERE tgrelid = 'log_postgres'::regclass
+      AND tgname = 'log_postgres_set_log_time_index'
+      AND tgqual IS NULL) THEN
+    DROP TRIGGER log_postgres_set_log_time_index ON log_postgres;
+    CREATE TRIGGER log_postgres_set_log_time_index
+      BEFORE INSERT ON log_postgres
+      FOR EACH ROW WHEN (NEW.log_time_index IS NULL)
+      EXECUTE FUNCTION log_postgres_set_log_time_index();
+  END IF;
+  IF NOT EXISTS (SELECT * FROM pg_views
+      WHERE schemaname = current_schema()
+      AND viewname = 'log_patroni_ingestion') THEN
+    CREATE VIEW log_patroni_ingestion AS
+      SELECT
+        log_time,
+        pod_name,
+        role,
+        error_severity,
+        message
+      FROM log_patroni;
+  END IF;
+  IF EXISTS (SELECT * FROM pg_trigger
+      WHERE tgrelid = 'log_patroni'::regclass
+      AND tgname = 'log_patroni_set_log_time_index'
+      AND tgqual IS NULL) THEN
+    DROP TRIGGER log_patroni_set_log_time_index ON log_patroni;
+    CREATE TRIGGER log_patroni_set_log_time_index
+      BEFORE INSERT ON log_patroni
+      FOR EACH ROW WHEN (NEW.log_time_index IS NULL)
+      EXECUTE FUNCTION log_patroni_set_log_time_index();
+  END IF;
+END;
+$$
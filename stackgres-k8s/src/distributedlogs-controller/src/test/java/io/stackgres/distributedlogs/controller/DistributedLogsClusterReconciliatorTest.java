@@ -6,12 +6,17 @@
 package io.stackgres.distributedlogs.controller;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.sql.SQLException;
 import java.util.Optional;
+import java.util.Set;
 
 import io.fabric8.kubernetes.api.model.ContainerStatusBuilder;
 import io.fabric8.kubernetes.api.model.Pod;
@@ -20,11 +25,13 @@ import io.stackgres.common.DistributedLogsControllerProperty;
 import io.stackgres.common.StackgresClusterContainers;
 import io.stackgres.common.crd.sgcluster.StackGresCluster;
 import io.stackgres.common.crd.sgdistributedlogs.StackGresDistributedLogs;
+import io.stackgres.common.crd.sgdistributedlogs.StackGresDistributedLogsHypertables;
 import io.stackgres.common.crd.sgdistributedlogs.StackGresDistributedLogsList;
 import io.stackgres.common.crd.sgdistributedlogs.StackGresDistributedLogsStatusDatabase;
 import io.stackgres.distributedlogs.common.ImmutableStackGresDistributedLogsContext;
 import io.stackgres.distributedlogs.common.StackGresDistributedLogsContext;
 import io.stackgres.distributedlogs.configuration.DistributedLogsControllerPropertyContext;
+import io.stackgres.operatorframework.reconciliation.ReconciliationResult;
 import io.stackgres.testutil.JsonUtil;
 import org.jooq.lambda.Seq;
 import org.jooq.lambda.tuple.Tuple;
@@ -32,6 +39,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -94,9 +102,9 @@ public class DistributedLogsClusterReconciliatorTest {
     StackGresDistributedLogsContext distributedLogsContext = getDistributedLogsContext();
     distributedLogsContext.getDistributedLogs().setStatus(null);
     Assertions.assertFalse(reconciliator.reconcile(null, distributedLogsContext).result().get());
-    verify(databaseReconciliator, times(0)).existsDatabase(any(), any());
+    verify(databaseReconciliator, times(0)).getDatabases(any());
     verify(databaseReconciliator, times(0)).createDatabase(any(), any());
-    verify(databaseReconciliator, times(0)).updateRetention(any(), any(), any(), any());
+    verify(databaseReconciliator, times(0)).updateChunkTimeInterval(any(), any(), any(), any());
     verify(databaseReconciliator, times(0)).reconcileRetention(any(), any(), any(), any());
   }
 
@@ -109,9 +117,9 @@ public class DistributedLogsClusterReconciliatorTest {
     Pod.class.cast(distributedLogsContext.getExistingResources().get(0).v1)
         .getStatus().getContainerStatuses().get(0).setReady(false);
     Assertions.assertFalse(reconciliator.reconcile(null, distributedLogsContext).result().get());
-    verify(databaseReconciliator, times(0)).existsDatabase(any(), any());
+    verify(databaseReconciliator, times(0)).getDatabases(any());
     verify(databaseReconciliator, times(0)).createDatabase(any(), any());
-    verify(databaseReconciliator, times(0)).updateRetention(any(), any(), any(), any());
+    verify(databaseReconciliator, times(0)).updateChunkTimeInterval(any(), any(), any(), any());
     verify(databaseReconciliator, times(0)).reconcileRetention(any(), any(), any(), any());
   }
 
@@ -122,24 +130,64 @@ public class DistributedLogsClusterReconciliatorTest {
         .thenReturn("stackgres-0");
     StackGresDistributedLogsContext distributedLogsContext = getDistributedLogsContext();
     Assertions.assertTrue(reconciliator.reconcile(null, distributedLogsContext).result().get());
-    verify(databaseReconciliator, times(1)).existsDatabase(any(), any());
+    verify(databaseReconciliator, times(1)).getDatabases(any());
     verify(databaseReconciliator, times(1)).createDatabase(any(), any());
-    verify(databaseReconciliator, times(2)).updateRetention(any(), any(), any(), any());
+    verify(databaseReconciliator, times(2)).updateChunkTimeInterval(any(), any(), any(), any());
     verify(databaseReconciliator, times(2)).reconcileRetention(any(), any(), any(), any());
   }
 
+  @Test
+  void testReconciliationRepeated_updatesIngestionOnlyOnce() throws Exception {
+    when(propertyContext.getString(
+        same(DistributedLogsControllerProperty.DISTRIBUTEDLOGS_CONTROLLER_POD_NAME)))
+        .thenReturn("stackgres-0");
+    StackGresDistributedLogsContext distributedLogsContext = getDistributedLogsContext();
+    reconciliator.reconcile(null, distributedLogsContext);
+    reconciliator.reconcile(null, distributedLogsContext);
+    verify(databaseReconciliator, times(2)).getDatabases(any());
+    verify(databaseReconciliator, times(1)).updateIngestion(any(), eq("stackgres_stackgres"));
+  }
+
+  @Test
+  void testReconciliationWithDatabaseNotCreated_updatesTemplateIngestionBeforeCreation()
+      throws Exception {
+    when(propertyContext.getString(
+        same(DistributedLogsControllerProperty.DISTRIBUTEDLOGS_CONTROLLER_POD_NAME)))
+        .thenReturn("stackgres-0");
+    StackGresDistributedLogsContext distributedLogsContext = getDistributedLogsContext();
+    reconciliator.reconcile(null, distributedLogsContext);
+    InOrder inOrder = inOrder(databaseReconciliator, configReconciliator);
+    inOrder.verify(databaseReconciliator).updateIngestion(any(), eq("template1"));
+    inOrder.verify(databaseReconciliator).createDatabase(any(), eq("stackgres_stackgres"));
+    inOrder.verify(databaseReconciliator).updateIngestion(any(), eq("stackgres_stackgres"));
+    inOrder.verify(configReconciliator).markIngestionReady();
+  }
+
+  @Test
+  void testReconciliationWithFailedIngestionUpdate_doesNotConfigureFluentd() throws Exception {
+    when(propertyContext.getString(
+        same(DistributedLogsControllerProperty.DISTRIBUTEDLOGS_CONTROLLER_POD_NAME)))
+        .thenReturn("stackgres-0");
+    doThrow(new SQLException("test"))
+        .when(databaseReconciliator).updateIngestion(any(), eq("stackgres_stackgres"));
+    StackGresDistributedLogsContext distributedLogsContext = getDistributedLogsContext();
+    reconciliator.reconcile(null, distributedLogsContext);
+    verify(configReconciliator, times(0)).markIngestionReady();
+    verify(configReconciliator, times(0)).reloadFluentdConfiguration();
+  }
+
   @Test
   void testReconciliationWithDatabaseCreated_isPerformedWithoutDatabaseCreation() throws Exception {
     when(propertyContext.getString(
         same(DistributedLogsControllerProperty.DISTRIBUTEDLOGS_CONTROLLER_POD_NAME)))
         .thenReturn("stackgres-0");
-    when(databaseReconciliator.existsDatabase(any(), any()))
-        .thenReturn(true);
+    when(databaseReconciliator.getDatabases(any()))
+        .thenReturn(Set.of("postgres", "stackgres_stackgres"));
     StackGresDistributedLogsContext distributedLogsContext = getDistributedLogsContext();
     Assertions.assertTrue(reconciliator.reconcile(null, distributedLogsContext).result().get());
-    verify(databaseReconciliator, times(1)).existsDatabase(any(), any());
+    verify(databaseReconciliator, times(1)).getDatabases(any());
     verify(databaseReconciliator, times(0)).createDatabase(any(), any());
-    verify(databaseReconciliator, times(2)).updateRetention(any(), any(), any(), any());
+    verify(databaseReconciliator, times(2)).updateChunkTimeInterval(any(), any(), any(), any());
     verify(databaseReconciliator, times(2)).reconcileRetention(any(), any(), any(), any());
   }
 
@@ -156,9 +204,9 @@ public class DistributedLogsClusterReconciliatorTest {
     distributedLogsContext.getDistributedLogs().getStatus().setDatabases(
         Seq.of(databaseStatus).toList());
     Assertions.assertTrue(reconciliator.reconcile(null, distributedLogsContext).result().get());
-    verify(databaseReconciliator, times(1)).existsDatabase(any(), any());
+    verify(databaseReconciliator, times(1)).getDatabases(any());
     verify(databaseReconciliator, times(1)).createDatabase(any(), any());
-    verify(databaseReconciliator, times(2)).updateRetention(any(), any(), any(), any());
+    verify(databaseReconciliator, times(2)).updateChunkTimeInterval(any(), any(), any(), any());
     verify(databaseReconciliator, times(2)).reconcileRetention(any(), any(), any(), any());
   }
 
@@ -176,9 +224,9 @@ public class DistributedLogsClusterReconciliatorTest {
     distributedLogsContext.getDistributedLogs().getStatus().setDatabases(
         Seq.of(databaseStatus).toList());
     Assertions.assertFalse(reconciliator.reconcile(null, distributedLogsContext).result().get());
-    verify(databaseReconciliator, times(1)).existsDatabase(any(), any());
+    verify(databaseReconciliator, times(1)).getDatabases(any());
     verify(databaseReconciliator, times(1)).createDatabase(any(), any());
-    verify(databaseReconciliator, times(0)).updateRetention(any(), any(), any(), any());
+    verify(databaseReconciliator, times(0)).updateChunkTimeInterval(any(), any(), any(), any());
     verify(databaseReconciliator, times(2)).reconcileRetention(any(), any(), any(), any());
   }
 
@@ -191,9 +239,92 @@ public class DistributedLogsClusterReconciliatorTest {
     distributedLogsContext.getDistributedLogs()
         .getStatus().getConnectedClusters().get(0).getConfig().setRetention(null);
     Assertions.assertTrue(reconciliator.reconcile(null, distributedLogsContext).result().get());
-    verify(databaseReconciliator, times(1)).existsDatabase(any(), any());
+    verify(databaseReconciliator, times(1)).getDatabases(any());
     verify(databaseReconciliator, times(1)).createDatabase(any(), any());
-    verify(databaseReconciliator, times(2)).updateRetention(any(), any(), any(), any());
+    verify(databaseReconciliator, times(2)).updateChunkTimeInterval(any(), any(), any(), any());
+    verify(databaseReconciliator, times(0)).reconcileRetention(any(), any(), any(), any());
+  }
+
+  @Test
+  void testReconciliationWithHypertables_isPerformedWithChunkTimeIntervalAndCompression()
+      throws Exception {
+    when(propertyContext.getString(
+        same(DistributedLogsControllerProperty.DISTRIBUTEDLOGS_CONTROLLER_POD_NAME)))
+        .thenReturn("stackgres-0");
+    StackGresDistributedLogsContext distributedLogsContext = getDistributedLogsContext();
+    StackGresDistributedLogsHypertables hypertables = new StackGresDistributedLogsHypertables();
+    hypertables.setChunkTimeInterval("1 hour");
+    hypertables.setCompressAfter("1 day");
+    distributedLogsContext.getDistributedLogs().getSpec().setHypertables(hypertables);
+    Assertions.assertTrue(reconciliator.reconcile(null, distributedLogsContext).result().get());
+    verify(databaseReconciliator, times(2)).updateChunkTimeInterval(
+        any(), any(), eq("1 hour"), any());
+    verify(databaseReconciliator, times(2)).updateCompression(any(), any(), eq("1 day"), any());
+    StackGresDistributedLogsStatusDatabase databaseStatus =
+        distributedLogsContext.getDistributedLogs().getStatus().getDatabases().get(0);
+    Assertions.assertEquals("1 hour", databaseStatus.getChunkTimeInterval());
+    Assertions.assertEquals("1 day", databaseStatus.getCompressAfter());
+  }
+
+  @Test
+  void testReconciliationWithCompressionUpdated_isPerformedWithoutUpdatingCompression()
+      throws Exception {
+    when(propertyContext.getString(
+        same(DistributedLogsControllerProperty.DISTRIBUTEDLOGS_CONTROLLER_POD_NAME)))
+        .thenReturn("stackgres-0");
+    StackGresDistributedLogsContext distributedLogsContext = getDistributedLogsContext();
+    StackGresDistributedLogsHypertables hypertables = new StackGresDistributedLogsHypertables();
+    hypertables.setCompressAfter("1 day");
+    distributedLogsContext.getDistributedLogs().getSpec().setHypertables(hypertables);
+    StackGresDistributedLogsStatusDatabase databaseStatus =
+        new StackGresDistributedLogsStatusDatabase();
+    databaseStatus.setName("stackgres_stackgres");
+    databaseStatus.setRetention("1 minute");
+    databaseStatus.setCompressAfter("1 day");
+    distributedLogsContext.getDistributedLogs().getStatus().setDatabases(
+        Seq.of(databaseStatus).toList());
+    Assertions.assertFalse(reconciliator.reconcile(null, distributedLogsContext).result().get());
+    verify(databaseReconciliator, times(0)).updateChunkTimeInterval(any(), any(), any(), any());
+    verify(databaseReconciliator, times(0)).updateCompression(any(), any(), any(), any());
+    verify(databaseReconciliator, times(2)).reconcileRetention(any(), any(), any(), any());
+  }
+
+  @Test
+  void testReconciliationWithFailedCompression_isPerformedWithoutUpdatingStatus()
+      throws Exception {
+    when(propertyContext.getString(
+        same(DistributedLogsControllerProperty.DISTRIBUTEDLOGS_CONTROLLER_POD_NAME)))
+        .thenReturn("stackgres-0");
+    doThrow(new SQLException("test"))
+        .when(databaseReconciliator).updateCompression(any(), any(), any(), any());
+    StackGresDistributedLogsContext distributedLogsContext = getDistributedLogsContext();
+    StackGresDistributedLogsHypertables hypertables = new StackGresDistributedLogsHypertables();
+    hypertables.setCompressAfter("1 day");
+    distributedLogsContext.getDistributedLogs().getSpec().setHypertables(hypertables);
+    ReconciliationResult<Boolean> result =
+        reconciliator.reconcile(null, distributedLogsContext);
+    Assertions.assertFalse(result.result().get());
+    Assertions.assertEquals(2, result.getExceptions().size());
+    Assertions.assertTrue(
+        distributedLogsContext.getDistributedLogs().getStatus().getDatabases().isEmpty());
+  }
+
+  @Test
+  void testReconciliationWithDatabasesNotFetched_isPerformedWithoutDatabaseCreation()
+      throws Exception {
+    when(propertyContext.getString(
+        same(DistributedLogsControllerProperty.DISTRIBUTEDLOGS_CONTROLLER_POD_NAME)))
+        .thenReturn("stackgres-0");
+    when(databaseReconciliator.getDatabases(any()))
+        .thenThrow(new SQLException("test"));
+    StackGresDistributedLogsContext distributedLogsContext = getDistributedLogsContext();
+    ReconciliationResult<Boolean> result =
+        reconciliator.reconcile(null, distributedLogsContext);
+    Assertions.assertFalse(result.result().get());
+    Assertions.assertEquals(1, result.getExceptions().size());
+    verify(databaseReconciliator, times(1)).getDatabases(any());
+    verify(databaseReconciliator, times(0)).createDatabase(any(), any());
+    verify(databaseReconciliator, times(0)).updateChunkTimeInterval(any(), any(), any(), any());
     verify(databaseReconciliator, times(0)).reconcileRetention(any(), any(), any(), any());
   }
 
@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.distributedlogs.controller;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableMap;
+import io.stackgres.common.JdbcStatementTemplate;
+import io.stackgres.common.distributedlogs.PostgresConnectionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compare ingestion, index size and query time of the distributed logs hypertables with the
+ * previous one year chunk time interval against a smaller chunk time interval with native
+ * compression. It requires a distributed logs instance (Postgres with TimescaleDB and
+ * plpython3u where the distributed logs template has been applied to template1), for example
+ * by port forwarding the distributed logs pod. Run it with:
+ *
+ * <pre>
+ * PGHOST=localhost PGPORT=5432 PGUSER=postgres PGPASSWORD=... \
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=io.stackgres.distributedlogs.controller.DistributedLogsHypertablesBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistributedLogsHypertablesBenchmark {
+
+  private static final String DATABASE = "distributed_logs_benchmark";
+  private static final String TABLE = "log_postgres";
+  private static final String NONE = "none";
+
+  @Param({"1 year", "1 day"})
+  String chunkTimeInterval;
+
+  @Param({NONE, "2 days"})
+  String compressAfter;
+
+  @Param({"1000000"})
+  int entries;
+
+  @Param({"30 days"})
+  String timeSpan;
+
+  private final PostgresConnectionManager connectionManager = new PostgresConnectionManager();
+
+  private Connection connection;
+
+  @Setup(Level.Trial)
+  public void ingestEntries() throws SQLException {
+    try (Connection postgresConnection = getConnection("postgres");
+        Statement statement = postgresConnection.createStatement()) {
+      statement.execute("DROP DATABASE IF EXISTS \"" + DATABASE + "\"");
+      statement.execute("CREATE DATABASE \"" + DATABASE + "\"");
+    }
+    connection = getConnection(DATABASE);
+    JdbcStatementTemplate updateChunkTimeInterval = getTemplate("update-chunk-time-interval");
+    try (PreparedStatement statement = updateChunkTimeInterval.prepareStatement(connection)) {
+      updateChunkTimeInterval.set(statement, "TABLE", TABLE);
+      updateChunkTimeInterval.set(statement, "CHUNK_TIME_INTERVAL", chunkTimeInterval);
+      statement.execute();
+    }
+    final long ingestStart = System.nanoTime();
+    try (PreparedStatement statement = connection.prepareStatement(
+        "INSERT INTO log_postgres (log_time, pod_name, role, message)"
+            + " SELECT now() - CAST(? AS INTERVAL) * i / ?,"
+            + " 'benchmark-' || (i % 3), 'Primary',"
+            + " 'postgres,postgres,' || i || ',[local],session,1,SELECT,,3/1,0,LOG,00000,"
+            + "statement: SELECT ' || i || ',,,,,,,,,psql'"
+            + " FROM generate_series(1, ?) AS i")) {
+      statement.setString(1, timeSpan);
+      statement.setInt(2, entries);
+      statement.setInt(3, entries);
+      statement.execute();
+    }
+    final long ingestMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - ingestStart);
+    if (!NONE.equals(compressAfter)) {
+      try (PreparedStatement statement = connection.prepareStatement(
+          getTemplate("enable-compression").getStatement(ImmutableMap.of("TABLE", TABLE)))) {
+        statement.execute();
+      }
+      try (PreparedStatement statement = connection.prepareStatement(
+          "SELECT compress_chunk(chunk)"
+              + " FROM show_chunks(?, older_than => CAST(? AS INTERVAL)) AS chunk")) {
+        statement.setString(1, TABLE);
+        statement.setString(2, compressAfter);
+        statement.execute();
+      }
+    }
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("ANALYZE " + TABLE);
+    }
+    System.out.println();
+    System.out.println("Chunk time interval: " + chunkTimeInterval
+        + ", compress after: " + compressAfter);
+    System.out.println("Ingested " + entries + " entries in " + ingestMillis + " ms");
+    printSize("Database size",
+        "SELECT pg_size_pretty(pg_database_size(current_database()))");
+    printSize("Newest chunk index size",
+        "SELECT pg_size_pretty(index_bytes) FROM chunk_relation_size('" + TABLE + "')"
+            + " ORDER BY ranges DESC LIMIT 1");
+  }
+
+  @TearDown(Level.Trial)
+  public void dropDatabase() throws SQLException {
+    connection.close();
+    try (Connection postgresConnection = getConnection("postgres");
+        Statement statement = postgresConnection.createStatement()) {
+      statement.execute("DROP DATABASE IF EXISTS \"" + DATABASE + "\"");
+    }
+  }
+
+  @Benchmark
+  public void queryNewestEntries(Blackhole blackhole) throws SQLException {
+    query(blackhole, "SELECT * FROM log_postgres"
+        + " WHERE pod_name = 'benchmark-0'"
+        + " ORDER BY log_time DESC, log_time_index DESC LIMIT 50");
+  }
+
+  @Benchmark
+  public void queryOldEntries(Blackhole blackhole) throws SQLException {
+    query(blackhole, "SELECT * FROM log_postgres"
+        + " WHERE pod_name = 'benchmark-0'"
+        + " AND log_time < now() - CAST('" + timeSpan + "' AS INTERVAL) / 2"
+        + " ORDER BY log_time DESC, log_time_index DESC LIMIT 50");
+  }
+
+  @Benchmark
+  public void countEntriesOfLastDay(Blackhole blackhole) throws SQLException {
+    query(blackhole, "SELECT count(*) FROM log_postgres"
+        + " WHERE log_time > now() - INTERVAL '1 day'");
+  }
+
+  private void query(Blackhole blackhole, String query) throws SQLException {
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(query)) {
+      while (resultSet.next()) {
+        blackhole.consume(resultSet.getObject(1));
+      }
+    }
+  }
+
+  private void printSize(String description, String query) throws SQLException {
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(query)) {
+      if (resultSet.next()) {
+        System.out.println(description + ": " + resultSet.getString(1));
+      }
+    }
+  }
+
+  private Connection getConnection(String database) throws SQLException {
+    return connectionManager.getConnection(
+        getEnv("PGHOST", "localhost") + ":" + getEnv("PGPORT", "5432"),
+        getEnv("PGUSER", "postgres"),
+        getEnv("PGPASSWORD", ""),
+        database);
+  }
+
+  private static String getEnv(String name, String defaultValue) {
+    return Optional.ofNullable(System.getenv(name)).orElse(defaultValue);
+  }
+
+  private static JdbcStatementTemplate getTemplate(String name) {
+    return JdbcStatementTemplate.fromResource(
+        DistributedLogsHypertablesBenchmark.class.getResource("/" + name + ".sql"));
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(DistributedLogsHypertablesBenchmark.class.getSimpleName())
+        .build())
+        .run();
+  }
+
+}
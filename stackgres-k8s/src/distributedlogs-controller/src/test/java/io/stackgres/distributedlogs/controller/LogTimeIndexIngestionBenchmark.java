@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.distributedlogs.controller;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import io.stackgres.common.distributedlogs.PostgresConnectionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compare the insert throughput of log entries whose {@code log_time_index} is filled by a per
+ * row trigger (inserting a {@code NULL} value, as fluentd did) against inserting through a
+ * view so that it is filled by the column default, with and without the trigger restricted to
+ * {@code NULL} values. Each operation inserts a batch of entries. It only requires a local
+ * Postgres, the table is not a hypertable so that the difference is not hidden by chunk
+ * routing. Run it with:
+ *
+ * <pre>
+ * PGHOST=localhost PGPORT=5432 PGUSER=postgres PGPASSWORD=... \
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=io.stackgres.distributedlogs.controller.LogTimeIndexIngestionBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LogTimeIndexIngestionBenchmark {
+
+  private static final String DATABASE = "log_time_index_benchmark";
+
+  @Param({"trigger", "conditionalTrigger", "default"})
+  String ingestion;
+
+  @Param({"false", "true"})
+  boolean fullTextIndex;
+
+  @Param({"1000"})
+  int batchSize;
+
+  private final PostgresConnectionManager connectionManager = new PostgresConnectionManager();
+
+  private Connection connection;
+
+  private PreparedStatement insert;
+
+  @Setup(Level.Trial)
+  public void createTable() throws SQLException {
+    try (Connection postgresConnection = getConnection("postgres");
+        Statement statement = postgresConnection.createStatement()) {
+      statement.execute("DROP DATABASE IF EXISTS \"" + DATABASE + "\"");
+      statement.execute("CREATE DATABASE \"" + DATABASE + "\"");
+    }
+    connection = getConnection(DATABASE);
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("CREATE SEQUENCE log_patroni_log_time_index_seq"
+          + " INCREMENT 2 MINVALUE 1 MAXVALUE 1000001 CACHE 1000 CYCLE");
+      statement.execute("CREATE TABLE log_patroni ("
+          + " log_time timestamp(3) with time zone NOT NULL,"
+          + " log_time_index integer NOT NULL"
+          + " DEFAULT nextval('log_patroni_log_time_index_seq'),"
+          + " pod_name text NOT NULL,"
+          + " role text,"
+          + " error_severity text,"
+          + " message text,"
+          + " PRIMARY KEY (log_time, log_time_index))");
+      statement.execute("CREATE FUNCTION log_patroni_set_log_time_index() RETURNS trigger"
+          + " AS $$ BEGIN"
+          + " NEW.log_time_index := nextval('log_patroni_log_time_index_seq');"
+          + " RETURN NEW;"
+          + " END; $$ LANGUAGE plpgsql");
+      if (ingestion.equals("trigger")) {
+        statement.execute("CREATE TRIGGER log_patroni_set_log_time_index"
+            + " BEFORE INSERT ON log_patroni"
+            + " FOR EACH ROW EXECUTE FUNCTION log_patroni_set_log_time_index()");
+      } else if (ingestion.equals("conditionalTrigger")) {
+        statement.execute("CREATE TRIGGER log_patroni_set_log_time_index"
+            + " BEFORE INSERT ON log_patroni"
+            + " FOR EACH ROW WHEN (NEW.log_time_index IS NULL)"
+            + " EXECUTE FUNCTION log_patroni_set_log_time_index()");
+      }
+      statement.execute("CREATE VIEW log_patroni_ingestion AS"
+          + " SELECT log_time, pod_name, role, error_severity, message FROM log_patroni");
+      if (fullTextIndex) {
+        statement.execute("CREATE INDEX log_patroni_fts_idx ON log_patroni"
+            + " USING GIN (to_tsvector('simple', coalesce(message, '')))");
+      }
+    }
+    if (ingestion.equals("trigger")) {
+      insert = connection.prepareStatement("INSERT INTO log_patroni"
+          + " (log_time, log_time_index, pod_name, role, error_severity, message)"
+          + " SELECT clock_timestamp(), NULL, 'benchmark-0', 'Primary', 'INFO',"
+          + " 'no action. I am (benchmark-0), the leader with the lock ' || i"
+          + " FROM generate_series(1, ?) AS i");
+    } else {
+      insert = connection.prepareStatement("INSERT INTO log_patroni_ingestion"
+          + " (log_time, pod_name, role, error_severity, message)"
+          + " SELECT clock_timestamp(), 'benchmark-0', 'Primary', 'INFO',"
+          + " 'no action. I am (benchmark-0), the leader with the lock ' || i"
+          + " FROM generate_series(1, ?) AS i");
+    }
+    insert.setInt(1, batchSize);
+  }
+
+  @Setup(Level.Iteration)
+  public void truncateTable() throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("TRUNCATE log_patroni");
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void dropDatabase() throws SQLException {
+    insert.close();
+    connection.close();
+    try (Connection postgresConnection = getConnection("postgres");
+        Statement statement = postgresConnection.createStatement()) {
+      statement.execute("DROP DATABASE IF EXISTS \"" + DATABASE + "\"");
+    }
+  }
+
+  @Benchmark
+  public int insertBatch() throws SQLException {
+    return insert.executeUpdate();
+  }
+
+  private Connection getConnection(String database) throws SQLException {
+    return connectionManager.getConnection(
+        getEnv("PGHOST", "localhost") + ":" + getEnv("PGPORT", "5432"),
+        getEnv("PGUSER", "postgres"),
+        getEnv("PGPASSWORD", ""),
+        database);
+  }
+
+  private static String getEnv(String name, String defaultValue) {
+    return Optional.ofNullable(System.getenv(name)).orElse(defaultValue);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(LogTimeIndexIngestionBenchmark.class.getSimpleName())
+        .build())
+        .run();
+  }
+
+}
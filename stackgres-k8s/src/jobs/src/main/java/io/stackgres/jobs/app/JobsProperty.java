@@ -22,7 +22,8 @@ public enum JobsProperty implements StackGresPropertyReader {
   DATABASE_OPERATION_CR_NAME("stackgres.databaseOperationCrName"),
   POD_NAME("stackgres.dbops.podName"),
   DBOPS_POLL_INTERVAL("stackgres.dbops.pollInterval"),
-  DBOPS_LOCK_TIMEOUT("stackgres.dbops.lockTimeout");
+  DBOPS_LOCK_TIMEOUT("stackgres.dbops.lockTimeout"),
+  DBOPS_LOCK_TYPE("stackgres.dbops.lockType");
 
   private static final Properties APPLICATION_PROPERTIES =
       Unchecked.supplier(() -> StackGresPropertyReader
@@ -250,6 +250,10 @@ public abstract class AbstractRestartStateHandler implements ClusterRestartState
 
   protected abstract Optional<String> getRestartMethod(StackGresDbOps op);
 
+  protected abstract Optional<Long> getMaximumLagOnSwitchover(StackGresDbOps op);
+
+  protected abstract Optional<Integer> getMaxParallelReplicaRestarts(StackGresDbOps op);
+
   private Uni<Void> logEvent(String clusterName, RestartEvent event) {
     switch (event.getEventType()) {
       case POD_CREATED:
@@ -315,6 +319,8 @@ public abstract class AbstractRestartStateHandler implements ClusterRestartState
         .clusterName(cluster.getMetadata().getName())
         .restartMethod(method)
         .isOnlyPendingRestart(onlyPendingRestart)
+        .maximumLagOnSwitchover(getMaximumLagOnSwitchover(dbOps))
+        .maxParallelReplicaRestarts(getMaxParallelReplicaRestarts(dbOps))
         .primaryInstance(getPrimaryInstance(clusterPods))
         .isSwitchoverInitiated(restartStatus.getSwitchoverInitiated() != null)
         .isSwitchoverFinalized(restartStatus.getSwitchoverFinalized() != null)
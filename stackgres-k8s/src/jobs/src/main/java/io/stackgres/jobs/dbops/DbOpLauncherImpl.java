@@ -31,6 +31,7 @@ import io.stackgres.jobs.dbops.clusterrestart.ClusterRestartState;
 import io.stackgres.jobs.dbops.lock.ImmutableLockRequest;
 import io.stackgres.jobs.dbops.lock.LockAcquirer;
 import io.stackgres.jobs.dbops.lock.LockRequest;
+import io.stackgres.jobs.dbops.lock.LockTypeLiteral;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,7 +47,8 @@ public class DbOpLauncherImpl implements DbOpLauncher {
   CustomResourceScheduler<StackGresDbOps> dbOpsScheduler;
 
   @Inject
-  LockAcquirer<StackGresCluster> lockAcquirer;
+  @Any
+  Instance<LockAcquirer<StackGresCluster>> lockAcquirers;
 
   @Inject
   @Any
@@ -93,7 +95,7 @@ public class DbOpLauncherImpl implements DbOpLauncher {
 
         Infrastructure.setDroppedExceptionHandler(err -> LOGGER.error("Dropped exception ", err));
 
-        lockAcquirer
+        getLockAcquirer()
             .lockRun(lockRequest, (targetCluster) -> {
               final DatabaseOperationJob databaseOperationJob = jobImpl.get();
 
@@ -126,6 +128,16 @@ public class DbOpLauncherImpl implements DbOpLauncher {
     }
   }
 
+  private LockAcquirer<StackGresCluster> getLockAcquirer() {
+    final String lockType = JobsProperty.DBOPS_LOCK_TYPE.getString();
+    Instance<LockAcquirer<StackGresCluster>> lockAcquirer =
+        lockAcquirers.select(new LockTypeLiteral(lockType));
+    if (!lockAcquirer.isResolvable()) {
+      throw new IllegalStateException("Implementation of lock type " + lockType + " not found");
+    }
+    return lockAcquirer.get();
+  }
+
   private void updateToConditions(String dbOpName, String namespace,
       List<StackGresDbOpsCondition> conditions) {
     Uni.createFrom().item(() -> dbOpsFinder.findByNameAndNamespace(dbOpName, namespace)
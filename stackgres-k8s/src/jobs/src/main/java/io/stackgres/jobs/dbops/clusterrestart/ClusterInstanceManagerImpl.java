@@ -91,9 +91,10 @@ public class ClusterInstanceManagerImpl implements ClusterInstanceManager {
   private Uni<String> increaseConfiguredInstances(StackGresCluster cluster) {
     return Uni.createFrom().emitter(em -> {
       String newPodName = getPodNameToBeCreated(cluster);
-      int currentInstances = cluster.getSpec().getInstances();
-      cluster.getSpec().setInstances(currentInstances + 1);
-      resourceScheduler.update(cluster);
+      resourceScheduler.update(cluster, currentCluster -> {
+        int currentInstances = currentCluster.getSpec().getInstances();
+        currentCluster.getSpec().setInstances(currentInstances + 1);
+      });
       em.complete(newPodName);
     });
   }
@@ -101,9 +102,10 @@ public class ClusterInstanceManagerImpl implements ClusterInstanceManager {
   private Uni<String> decreaseConfiguredInstances(StackGresCluster cluster) {
     return Uni.createFrom().emitter(em -> {
       String podToBeDeleted = getPodToBeDeleted(cluster);
-      int currentInstances = cluster.getSpec().getInstances();
-      cluster.getSpec().setInstances(currentInstances - 1);
-      resourceScheduler.update(cluster);
+      resourceScheduler.update(cluster, currentCluster -> {
+        int currentInstances = currentCluster.getSpec().getInstances();
+        currentCluster.getSpec().setInstances(currentInstances - 1);
+      });
       em.complete(podToBeDeleted);
     });
   }
@@ -30,5 +30,5 @@ public interface ClusterMember {
 
   Optional<Integer> getTimeline();
 
-  Optional<Integer> getLag();
+  Optional<Long> getLag();
 }
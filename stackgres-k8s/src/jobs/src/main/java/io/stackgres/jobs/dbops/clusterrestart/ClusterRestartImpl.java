@@ -11,9 +11,11 @@ import java.util.stream.Collectors;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
+import com.google.common.collect.Lists;
 import io.fabric8.kubernetes.api.model.Pod;
 import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.MultiEmitter;
 import io.stackgres.common.ClusterPendingRestartUtil.RestartReason;
 import io.stackgres.common.ClusterPendingRestartUtil.RestartReasons;
 import io.stackgres.common.crd.sgcluster.StackGresCluster;
@@ -103,20 +105,14 @@ public class ClusterRestartImpl implements ClusterRestart {
           .filter(pod -> clusterRestartState.hasToBeRestarted(pod))
           .collect(Collectors.toUnmodifiableList());
 
-      for (Pod replica : replicas) {
+      for (List<Pod> replicasBatch : Lists.partition(replicas,
+          getParallelReplicaRestarts(clusterRestartState))) {
         restartChain = restartChain
-            .onItem()
-            .invoke(() -> logPodRestartReason(replica, clusterRestartState))
-            .invoke(() -> LOGGER.info("Restarting pod {}", replica.getMetadata().getName()))
-            .chain(() -> podRestart.restartPod(replica))
-            .onItem()
-            .invoke(() -> {
-              LOGGER.info("Pod {} restarted", replica.getMetadata().getName());
-              em.emit(ImmutableRestartEvent.builder()
-                  .pod(replica)
-                  .eventType(RestartEventType.POD_RESTART)
-                  .build());
-            });
+            .chain(() -> Uni.combine().all().unis(replicasBatch.stream()
+                .map(replica -> restartReplica(replica, clusterRestartState, em))
+                .collect(Collectors.toUnmodifiableList()))
+                .collectFailures()
+                .combinedWith(restartedReplicas -> restartedReplicas));
 
         restartChain = waitForClusterToBeHealthy(clusterRestartState, restartChain);
       }
@@ -134,7 +130,8 @@ public class ClusterRestartImpl implements ClusterRestart {
             .chain(() ->
                 switchoverHandler.performSwitchover(
                     clusterRestartState.getPrimaryInstance().getMetadata().getName(),
-                    clusterName, clusterRestartState.getNamespace())
+                    clusterName, clusterRestartState.getNamespace(),
+                    clusterRestartState.getMaximumLagOnSwitchover())
             )
             .onItem()
             .invoke(() -> em.emit(ImmutableRestartEvent.builder()
@@ -172,10 +169,40 @@ public class ClusterRestartImpl implements ClusterRestart {
             .invoke(() -> LOGGER.info("Instances of cluster {} decreased", clusterName));
       }
 
-      restartChain.subscribe().with((x) -> em.complete());
+      restartChain.subscribe().with((x) -> em.complete(), em::fail);
     });
   }
 
+  private Uni<Pod> restartReplica(Pod replica, ClusterRestartState clusterRestartState,
+      MultiEmitter<? super RestartEvent> em) {
+    return Uni.createFrom().item(replica)
+        .onItem()
+        .invoke(() -> logPodRestartReason(replica, clusterRestartState))
+        .invoke(() -> LOGGER.info("Restarting pod {}", replica.getMetadata().getName()))
+        .chain(() -> podRestart.restartPod(replica))
+        .onItem()
+        .invoke(() -> {
+          LOGGER.info("Pod {} restarted", replica.getMetadata().getName());
+          em.emit(ImmutableRestartEvent.builder()
+              .pod(replica)
+              .eventType(RestartEventType.POD_RESTART)
+              .build());
+        });
+  }
+
+  /**
+   * Replicas are restarted in batches of up to the configured maximum (one by default) but at
+   * least one replica is always left running so that the primary keeps a replica to replicate to
+   * and to switchover to. Instances are counted as they were when the job started, so replicas
+   * added later are not taken into account. A batch only fails once all its restarts finished.
+   */
+  private int getParallelReplicaRestarts(ClusterRestartState clusterRestartState) {
+    final int replicas = clusterRestartState.getTotalInstances().size() - 1;
+    return Math.max(1, Math.min(
+        clusterRestartState.getMaxParallelReplicaRestarts().orElse(1),
+        replicas - 1));
+  }
+
   private void logPodRestartReason(Pod pod, ClusterRestartState clusterRestartState) {
     if (LOGGER.isInfoEnabled()) {
       RestartReasons reasons = getRestartReasons(clusterRestartState, pod);
@@ -7,6 +7,7 @@ package io.stackgres.jobs.dbops.clusterrestart;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import com.google.common.base.Preconditions;
 import io.fabric8.kubernetes.api.model.Pod;
@@ -28,6 +29,10 @@ public interface ClusterRestartState {
 
   boolean isOnlyPendingRestart();
 
+  Optional<Long> getMaximumLagOnSwitchover();
+
+  Optional<Integer> getMaxParallelReplicaRestarts();
+
   Pod getPrimaryInstance();
 
   boolean isSwitchoverInitiated();
@@ -101,5 +101,18 @@ public class ClusterRestartStateHandlerImpl extends AbstractRestartStateHandler
         .map(StackGresDbOpsRestart::getMethod);
   }
 
-}
+  @Override
+  protected Optional<Long> getMaximumLagOnSwitchover(StackGresDbOps op) {
+    return Optional.ofNullable(op.getSpec())
+        .map(StackGresDbOpsSpec::getRestart)
+        .map(StackGresDbOpsRestart::getMaximumLagOnSwitchover);
+  }
 
+  @Override
+  protected Optional<Integer> getMaxParallelReplicaRestarts(StackGresDbOps op) {
+    return Optional.ofNullable(op.getSpec())
+        .map(StackGresDbOpsSpec::getRestart)
+        .map(StackGresDbOpsRestart::getMaxParallelReplicaRestarts);
+  }
+
+}
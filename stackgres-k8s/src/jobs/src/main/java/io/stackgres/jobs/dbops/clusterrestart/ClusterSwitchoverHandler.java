@@ -5,10 +5,17 @@
 
 package io.stackgres.jobs.dbops.clusterrestart;
 
+import java.util.Optional;
+
 import io.smallrye.mutiny.Uni;
 
 public interface ClusterSwitchoverHandler {
 
-  Uni<Void> performSwitchover(String leader, String clusterName, String clusterNamespace);
+  /**
+   * Switchover the leader to the running replica with the smallest lag. If a maximum lag (in
+   * bytes) is given the switchover is delayed until the lag of that replica is not greater.
+   */
+  Uni<Void> performSwitchover(String leader, String clusterName, String clusterNamespace,
+      Optional<Long> maximumLag);
 
 }
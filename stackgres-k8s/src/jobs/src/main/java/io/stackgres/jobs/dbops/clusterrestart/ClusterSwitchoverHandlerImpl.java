@@ -21,22 +21,45 @@ import org.slf4j.LoggerFactory;
 public class ClusterSwitchoverHandlerImpl implements ClusterSwitchoverHandler {
   private static final Logger LOGGER = LoggerFactory.getLogger(ClusterSwitchoverHandlerImpl.class);
 
+  private static final Duration LAG_CHECK_INITIAL_BACK_OFF = Duration.ofSeconds(1);
+  private static final Duration LAG_CHECK_MAX_BACK_OFF = Duration.ofSeconds(10);
+  private static final Duration LAG_CHECK_TIMEOUT = Duration.ofMinutes(10);
+
   private final PatroniApiHandler patroniApi;
 
+  Duration lagCheckInitialBackOff = LAG_CHECK_INITIAL_BACK_OFF;
+  Duration lagCheckMaxBackOff = LAG_CHECK_MAX_BACK_OFF;
+  Duration lagCheckTimeout = LAG_CHECK_TIMEOUT;
+
   @Inject
   public ClusterSwitchoverHandlerImpl(PatroniApiHandler patroniApi) {
     this.patroniApi = patroniApi;
   }
 
   @Override
-  public Uni<Void> performSwitchover(String leader, String clusterName, String clusterNamespace) {
+  public Uni<Void> performSwitchover(String leader, String clusterName, String clusterNamespace,
+      Optional<Long> maximumLag) {
 
     return patroniApi.getClusterMembers(clusterName, clusterNamespace)
-        .chain(members -> doSwitchOver(members, leader));
+        .chain(members -> doSwitchOver(members, leader, maximumLag))
+        .onFailure(SwitchoverCandidateLagException.class)
+        .invoke(ex -> LOGGER.info("{}. Delaying switchover of cluster {}",
+            ex.getMessage(), clusterName))
+        .onFailure(SwitchoverCandidateLagException.class)
+        .retry()
+        .withBackOff(lagCheckInitialBackOff, lagCheckMaxBackOff)
+        .expireIn(lagCheckTimeout.toMillis())
+        // Once expired the last failure is wrapped in an IllegalStateException
+        .onFailure(ex -> ex.getCause() instanceof SwitchoverCandidateLagException)
+        .transform(ex -> new FailoverException("Switchover of cluster " + clusterNamespace
+            + "/" + clusterName + " aborted after waiting " + lagCheckTimeout.getSeconds()
+            + " seconds for a candidate with lag under the maximum. "
+            + ex.getCause().getMessage()));
 
   }
 
-  private Uni<Void> doSwitchOver(List<ClusterMember> members, String givenLeader) {
+  private Uni<Void> doSwitchOver(List<ClusterMember> members, String givenLeader,
+      Optional<Long> maximumLag) {
     if (members.size() == 1) {
       return Uni.createFrom().voidItem();
     } else {
@@ -62,6 +85,12 @@ public class ClusterSwitchoverHandlerImpl implements ClusterSwitchoverHandler {
       if (leader.isPresent() && candidate.isPresent()) {
         ClusterMember actualLeader = leader.get();
         if (Objects.equals(actualLeader.getName(), givenLeader)) {
+          if (maximumLag.isPresent() && !isLagUnder(candidate.get(), maximumLag.get())) {
+            return Uni.createFrom().failure(() -> new SwitchoverCandidateLagException(
+                "Lag of switchover candidate " + candidate.get().getName() + " is "
+                    + candidate.get().getLag().map(lag -> lag + " bytes").orElse("unknown")
+                    + " but must not be greater than " + maximumLag.get() + " bytes"));
+          }
           return Uni.createFrom().emitter(em -> patroniApi
               .performSwitchover(leader.get(), candidate.get())
               .onFailure()
@@ -80,4 +109,10 @@ public class ClusterSwitchoverHandlerImpl implements ClusterSwitchoverHandler {
     }
   }
 
+  private boolean isLagUnder(ClusterMember candidate, long maximumLag) {
+    return candidate.getLag()
+        .map(lag -> lag <= maximumLag)
+        .orElse(false);
+  }
+
 }
@@ -7,14 +7,25 @@ package io.stackgres.jobs.dbops.clusterrestart;
 
 import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
 import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
 import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.WatcherException;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.BackPressureStrategy;
+import io.smallrye.mutiny.subscription.MultiEmitter;
+import io.stackgres.common.KubernetesClientFactory;
 import io.stackgres.common.LabelFactory;
 import io.stackgres.common.crd.sgcluster.StackGresCluster;
 import io.stackgres.common.resource.CustomResourceFinder;
@@ -26,6 +37,8 @@ import org.slf4j.LoggerFactory;
 public class ClusterWatcher implements Watcher<StackGresCluster> {
   private static final Logger LOGGER = LoggerFactory.getLogger(ClusterWatcher.class);
 
+  private static final Duration PATRONI_STATE_INTERVAL = Duration.ofSeconds(1);
+
   private final PatroniApiHandler patroniApiHandler;
 
   private final LabelFactory<StackGresCluster> labelFactory;
@@ -34,15 +47,19 @@ public class ClusterWatcher implements Watcher<StackGresCluster> {
 
   private final CustomResourceFinder<StackGresCluster> clusterFinder;
 
+  private final KubernetesClientFactory clientFactory;
+
   @Inject
   public ClusterWatcher(PatroniApiHandler patroniApiHandler,
                         LabelFactory<StackGresCluster> labelFactory,
                         ResourceScanner<Pod> podScanner,
-                        CustomResourceFinder<StackGresCluster> clusterFinder) {
+                        CustomResourceFinder<StackGresCluster> clusterFinder,
+                        KubernetesClientFactory clientFactory) {
     this.patroniApiHandler = patroniApiHandler;
     this.labelFactory = labelFactory;
     this.podScanner = podScanner;
     this.clusterFinder = clusterFinder;
+    this.clientFactory = clientFactory;
   }
 
   private static boolean isAllMembersReady(List<ClusterMember> members) {
@@ -74,48 +91,79 @@ public class ClusterWatcher implements Watcher<StackGresCluster> {
     }
   }
 
+  /**
+   * Wait until all the pods of the cluster exist and all the Patroni members are ready. The
+   * check is triggered by a combined stream of the cluster pods (received with a watch on the
+   * pods labels) and a tick every {@code PATRONI_STATE_INTERVAL} to follow Patroni members
+   * state (that can not be watched), the latter only reaching Patroni when all the pods exist.
+   */
   @Override
   public Uni<StackGresCluster> waitUntilIsReady(String name, String namespace) {
-    return Uni.createFrom().emitter(em -> {
+    return Uni.createFrom().item(() -> {
       LOGGER.debug("Looking for SGCluster {} in namespace {}", name, namespace);
-      StackGresCluster cluster = clusterFinder.findByNameAndNamespace(name, namespace)
+      return clusterFinder.findByNameAndNamespace(name, namespace)
           .orElseThrow(() -> {
             LOGGER.debug("SGCluster {} in namespace {} not found", name, namespace);
             return new IllegalStateException("cluster not found");
           });
+    })
+        .chain(cluster -> Multi.createBy().combining()
+            .streams(watchClusterPods(cluster), patroniStateTicks())
+            .latestItems()
+            .using((pods, tick) -> pods)
+            .onOverflow().drop()
+            .onItem().transformToUniAndConcatenate(pods -> isClusterReady(cluster, pods))
+            .select().where(Boolean::booleanValue)
+            .toUni()
+            .replaceWith(cluster));
+  }
 
-      scanClusterPods(cluster)
-          .chain(() -> getClusterMembers(cluster))
-          .onFailure()
-          .retry()
-          .withBackOff(Duration.ofMillis(10), Duration.ofSeconds(5))
-          .indefinitely()
-          .subscribe().with(members -> em.complete(cluster));
-    });
+  private static Multi<Long> patroniStateTicks() {
+    // The first tick is emitted right away so that the first pods snapshot is checked
+    return Multi.createBy().concatenating().streams(
+        Multi.createFrom().item(0L),
+        Multi.createFrom().ticks().every(PATRONI_STATE_INTERVAL));
   }
 
-  private Uni<List<Pod>> scanClusterPods(StackGresCluster cluster) {
-    return Uni.createFrom().emitter(em -> {
-      var podsLabels = labelFactory.patroniClusterLabels(cluster);
-      final String labelsAsString = Joiner.on(",").withKeyValueSeparator(":").join(podsLabels);
-      LOGGER.debug("Scanning for pods of cluster {} with labels {}",
-          cluster.getMetadata().getName(), labelsAsString);
-
-      var pods = podScanner
-          .findByLabelsAndNamespace(cluster.getMetadata().getNamespace(), podsLabels);
-
-      int expectedInstances = cluster.getSpec().getInstances();
-
-      if (expectedInstances == pods.size()) {
-        em.complete(pods);
-      } else {
-        LOGGER.debug("Not all expected pods found with labels {}, expected {}, actual {}",
-            labelsAsString,
-            expectedInstances,
-            pods.size());
-        em.fail(new InvalidCluster("No all pods found"));
+  private Multi<List<Pod>> watchClusterPods(StackGresCluster cluster) {
+    final String namespace = cluster.getMetadata().getNamespace();
+    final Map<String, String> podsLabels = labelFactory.patroniClusterLabels(cluster);
+    return Multi.createFrom().<List<Pod>>emitter(em -> {
+      LOGGER.debug("Watching pods of cluster {} with labels {}",
+          cluster.getMetadata().getName(),
+          Joiner.on(",").withKeyValueSeparator(":").join(podsLabels));
+      KubernetesClient client = clientFactory.create();
+      try {
+        ClusterPodsWatcher watcher = new ClusterPodsWatcher(em);
+        Watch watch = client.pods().inNamespace(namespace).withLabels(podsLabels)
+            .watch(watcher);
+        em.onTermination(() -> {
+          watch.close();
+          client.close();
+        });
+        watcher.init(podScanner.findByLabelsAndNamespace(namespace, podsLabels));
+      } catch (RuntimeException ex) {
+        client.close();
+        em.fail(ex);
       }
-    });
+    }, BackPressureStrategy.LATEST)
+        .onFailure().retry()
+        .withBackOff(Duration.ofMillis(10), Duration.ofSeconds(1))
+        .indefinitely();
+  }
+
+  private Uni<Boolean> isClusterReady(StackGresCluster cluster, List<Pod> pods) {
+    int expectedInstances = cluster.getSpec().getInstances();
+    if (expectedInstances != pods.size()) {
+      LOGGER.debug("Not all expected pods found for cluster {}, expected {}, actual {}",
+          cluster.getMetadata().getName(),
+          expectedInstances,
+          pods.size());
+      return Uni.createFrom().item(false);
+    }
+    return getClusterMembers(cluster)
+        .onItem().transform(members -> true)
+        .onFailure().recoverWithItem(false);
   }
 
   private Uni<List<ClusterMember>> getClusterMembers(StackGresCluster cluster) {
@@ -145,4 +193,53 @@ public class ClusterWatcher implements Watcher<StackGresCluster> {
   public Uni<Void> waitUntilIsRemoved(String name, String namespace) {
     throw new UnsupportedOperationException();
   }
+
+  /**
+   * Keeps the pods of the cluster received by the watch and emits a snapshot of them on each
+   * change.
+   */
+  private static class ClusterPodsWatcher implements io.fabric8.kubernetes.client.Watcher<Pod> {
+
+    private final MultiEmitter<? super List<Pod>> emitter;
+    private final Map<String, Pod> pods = new ConcurrentHashMap<>();
+
+    ClusterPodsWatcher(MultiEmitter<? super List<Pod>> emitter) {
+      this.emitter = emitter;
+    }
+
+    void init(List<Pod> currentPods) {
+      currentPods.forEach(pod -> pods.putIfAbsent(pod.getMetadata().getName(), pod));
+      emitSnapshot();
+    }
+
+    private void emitSnapshot() {
+      emitter.emit(ImmutableList.copyOf(pods.values()));
+    }
+
+    @Override
+    public void eventReceived(Action action, Pod pod) {
+      switch (action) {
+        case ADDED:
+        case MODIFIED:
+          pods.put(pod.getMetadata().getName(), pod);
+          emitSnapshot();
+          break;
+        case DELETED:
+          pods.remove(pod.getMetadata().getName());
+          emitSnapshot();
+          break;
+        default:
+          LOGGER.debug("Received {} event while watching cluster pods", action);
+          break;
+      }
+    }
+
+    @Override
+    public void onClose(WatcherException cause) {
+      emitter.fail(Optional.<Exception>ofNullable(cause)
+          .orElseGet(() -> new RuntimeException("Cluster pods watch closed")));
+    }
+
+  }
+
 }
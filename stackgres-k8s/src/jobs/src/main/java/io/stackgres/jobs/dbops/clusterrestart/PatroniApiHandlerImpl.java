@@ -7,6 +7,7 @@ package io.stackgres.jobs.dbops.clusterrestart;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -17,7 +18,6 @@ import javax.annotation.PostConstruct;
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
-import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
@@ -33,15 +33,28 @@ public class PatroniApiHandlerImpl implements PatroniApiHandler {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(PatroniApiHandlerImpl.class);
 
+  /**
+   * Timeout of the requests that query the state of Patroni members so that an unreachable
+   * member does not stall the caller. Switchover and restart requests may take longer and are
+   * not limited.
+   */
+  static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
   @Inject
   PatroniApiMetadataFinder apiFinder;
   @Inject
   Vertx vertx;
   private WebClient client;
+  private final Duration requestTimeout;
 
   @Inject
   public PatroniApiHandlerImpl(Vertx vertx) {
+    this(vertx, REQUEST_TIMEOUT);
+  }
+
+  PatroniApiHandlerImpl(Vertx vertx, Duration requestTimeout) {
     this.vertx = vertx;
+    this.requestTimeout = requestTimeout;
   }
 
   private static @NotNull MemberRole toMemberRole(@NotNull String role) {
@@ -72,6 +85,17 @@ public class PatroniApiHandlerImpl implements PatroniApiHandler {
     }
   }
 
+  /**
+   * Patroni reports the lag of a replica as {@code unknown} when it could not be determined.
+   */
+  private static Optional<Long> parseLag(JsonObject memberJson) {
+    try {
+      return Optional.ofNullable(memberJson.getLong("lag"));
+    } catch (Exception e) {
+      return Optional.empty();
+    }
+  }
+
   @PostConstruct
   void init() {
     this.client = WebClient.create(vertx);
@@ -83,6 +107,7 @@ public class PatroniApiHandlerImpl implements PatroniApiHandler {
     PatroniApiMetadata patroniApi = apiFinder.findPatroniRestApi(name, namespace);
 
     return client.get(patroniApi.getPort(), patroniApi.getHost(), "/cluster")
+        .timeout(requestTimeout.toMillis())
         .as(BodyCodec.jsonObject())
         .basicAuthentication(patroniApi.getUsername(), patroniApi.getPassword())
         .send()
@@ -102,7 +127,7 @@ public class PatroniApiHandlerImpl implements PatroniApiHandler {
                   .host(Optional.ofNullable(member.getString("host")))
                   .port(parsePort(member))
                   .timeline(Optional.ofNullable(member.getInteger("timeline")))
-                  .lag(Optional.ofNullable(member.getInteger("lag")))
+                  .lag(parseLag(member))
                   .build())
               .collect(Collectors.toUnmodifiableList());
         });
@@ -116,11 +141,32 @@ public class PatroniApiHandlerImpl implements PatroniApiHandler {
 
   }
 
+  /**
+   * Query all the members concurrently so that the total latency is the one of the slowest
+   * member (bounded by the request timeout) and not the sum of all of them. A member that fails
+   * or does not answer in time is left out of the result instead of failing the whole query. The
+   * returned list keeps the order of the members.
+   */
   private Uni<List<PatroniInformation>> getPatroniInformation(List<ClusterMember> members) {
-
-    return Multi.createFrom().iterable(members)
-        .onItem().transformToUniAndConcatenate(this::getPatroniInformation)
-        .collect().asList();
+    if (members.isEmpty()) {
+      return Uni.createFrom().item(List.of());
+    }
+    return Uni.combine().all()
+        .unis(members.stream()
+            .map(member -> getPatroniInformation(member)
+                .map(Optional::of)
+                .onFailure()
+                .recoverWithItem(failure -> {
+                  LOGGER.warn("Can not retrieve Patroni information of member {}",
+                      member.getName(), failure);
+                  return Optional.empty();
+                }))
+            .collect(Collectors.toUnmodifiableList()))
+        .combinedWith(results -> results.stream()
+            .map(result -> (Optional<?>) result)
+            .flatMap(Optional::stream)
+            .map(PatroniInformation.class::cast)
+            .collect(Collectors.toUnmodifiableList()));
   }
 
   private Uni<PatroniInformation> getPatroniInformation(ClusterMember member) {
@@ -135,6 +181,7 @@ public class PatroniApiHandlerImpl implements PatroniApiHandler {
         .orElseThrow();
 
     return client.get(apiUrl.getPort(), apiUrl.getHost(), apiUrl.getPath())
+        .timeout(requestTimeout.toMillis())
         .as(BodyCodec.jsonObject())
         .send()
         .onItem()
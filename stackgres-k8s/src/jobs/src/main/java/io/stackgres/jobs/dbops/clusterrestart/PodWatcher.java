@@ -6,23 +6,41 @@
 package io.stackgres.jobs.dbops.clusterrestart;
 
 import java.time.Duration;
+import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.TimeUnit;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
 import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodCondition;
+import io.fabric8.kubernetes.api.model.PodStatus;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.WatcherException;
 import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.UniEmitter;
 import io.stackgres.common.KubernetesClientFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Waits for pod transitions using a watch on the pod (that is filtered with a field selector on
+ * its name) so that each transition is detected as soon as it is received instead of polling the
+ * pod.
+ */
 @ApplicationScoped
 public class PodWatcher implements Watcher<Pod> {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(PodWatcher.class);
+
+  private static final Duration CREATION_TIMEOUT = Duration.ofSeconds(30);
+  private static final Duration RETRY_INITIAL_BACK_OFF = Duration.ofMillis(100);
+  private static final Duration RETRY_MAX_BACK_OFF = Duration.ofSeconds(1);
+
   private final KubernetesClientFactory clientFactory;
 
   @Inject
@@ -39,52 +57,22 @@ public class PodWatcher implements Watcher<Pod> {
   }
 
   private Uni<Pod> waitUntilReady(Pod pod) {
-
     String podName = pod.getMetadata().getName();
     String namespace = pod.getMetadata().getNamespace();
 
-    final Uni<Pod> podReadyPoll = Uni.createFrom().emitter(em -> {
-      LOGGER.debug("Waiting for pod {} to be ready", podName);
-      try (KubernetesClient client = clientFactory.create()) {
-        var readyPod = client.pods().inNamespace(namespace).withName(podName)
-            .waitUntilReady(30, TimeUnit.MINUTES);
-        em.complete(readyPod);
-      } catch (InterruptedException e) {
-        em.fail(e);
-      }
-    });
-    return podReadyPoll.onFailure().retry().indefinitely();
+    return waitUntil(podName, namespace, "to be ready", PodWatcher::isReady);
   }
 
   protected Uni<Pod> waitUntilIsCreated(String name, String namespace) {
-    LOGGER.debug("Waiting for pod {} to be created", name);
-
-    return getPod(name, namespace)
-        .onItem()
-        .transform(pod -> {
-          if (pod != null) {
-            return pod;
-          } else {
-            throw new RuntimeException("Pod " + name + " not found");
-          }
-        })
-        .onFailure().retry().withBackOff(Duration.ofSeconds(1), Duration.ofSeconds(2))
-        .expireIn(30 * 1000);
+    return waitUntil(name, namespace, "to be created", Objects::nonNull)
+        .ifNoItem().after(CREATION_TIMEOUT)
+        .failWith(() -> new RuntimeException("Pod " + name + " not found"));
   }
 
   @Override
   public Uni<Void> waitUntilIsRemoved(String name, String namespace) {
-
-    return getPod(name, namespace)
-        .onItem().transformToUni(pod -> {
-          if (pod != null) {
-            return Uni.createFrom().failure(new RuntimeException("Pod " + name + " not removed"));
-          } else {
-            return Uni.createFrom().voidItem();
-          }
-        }).onFailure().retry().withBackOff(Duration.ofSeconds(1), Duration.ofSeconds(5))
-        .indefinitely();
-
+    return waitUntil(name, namespace, "to be removed", Objects::isNull)
+        .onItem().ignore().andContinueWithNull();
   }
 
   @Override
@@ -92,39 +80,93 @@ public class PodWatcher implements Watcher<Pod> {
     String oldCreationTimestamp = oldPod.getMetadata().getCreationTimestamp();
     String podName = oldPod.getMetadata().getName();
     String podNamespace = oldPod.getMetadata().getNamespace();
-    return getPod(podName, podNamespace)
-        .onItem().transform(pod -> {
-          if (pod != null) {
-            return pod;
-          } else {
-            throw new RuntimeException("Pod " + podName + " not found");
-          }
-        })
-        .onItem().transform(newPod -> {
-          String newCreationTimestamp = newPod.getMetadata().getCreationTimestamp();
-          if (Objects.equals(oldCreationTimestamp, newCreationTimestamp)) {
-            throw new RuntimeException("Pod " + podName + " not replaced");
-          } else {
-            return newPod;
-          }
-        }).onFailure()
-        .retry()
-        .withBackOff(Duration.ofSeconds(1), Duration.ofSeconds(5))
+    return waitUntil(podName, podNamespace, "to be replaced", pod -> pod != null
+        && !Objects.equals(oldCreationTimestamp, pod.getMetadata().getCreationTimestamp()));
+  }
+
+  static boolean isReady(Pod pod) {
+    return Optional.ofNullable(pod)
+        .map(Pod::getStatus)
+        .map(PodStatus::getConditions)
+        .stream()
+        .flatMap(List::stream)
+        .filter(condition -> Objects.equals(condition.getType(), "Ready"))
+        .map(PodCondition::getStatus)
+        .anyMatch(status -> Objects.equals(status, "True"));
+  }
+
+  /**
+   * Emit the pod as soon as it satisfies the condition (that receives {@code null} if the pod
+   * does not exist). The watch is opened before reading the pod so that no transition can be
+   * missed between the read and the watch. If the watch is closed before the condition is
+   * satisfied the wait is restarted.
+   */
+  private Uni<Pod> waitUntil(String name, String namespace, String description,
+      Predicate<Pod> condition) {
+    return Uni.createFrom().<Pod>emitter(em -> {
+      LOGGER.debug("Waiting for pod {} {}", name, description);
+      KubernetesClient client = clientFactory.create();
+      try {
+        PodEventsWatcher watcher = new PodEventsWatcher(em, condition);
+        Watch watch = client.pods().inNamespace(namespace).withName(name).watch(watcher);
+        em.onTermination(() -> {
+          watch.close();
+          client.close();
+        });
+        watcher.check(client.pods().inNamespace(namespace).withName(name).get());
+      } catch (RuntimeException ex) {
+        client.close();
+        em.fail(ex);
+      }
+    })
+        .onFailure().invoke(ex -> LOGGER.debug("Error while waiting for pod {} {}, retrying",
+            name, description, ex))
+        .onFailure().retry().withBackOff(RETRY_INITIAL_BACK_OFF, RETRY_MAX_BACK_OFF)
         .indefinitely();
   }
 
-  private Uni<Pod> getPod(String name, String namespace) {
+  private static class PodEventsWatcher implements io.fabric8.kubernetes.client.Watcher<Pod> {
+
+    private final UniEmitter<? super Pod> emitter;
+    private final Predicate<Pod> condition;
+    private final AtomicBoolean done = new AtomicBoolean();
+
+    PodEventsWatcher(UniEmitter<? super Pod> emitter, Predicate<Pod> condition) {
+      this.emitter = emitter;
+      this.condition = condition;
+    }
 
-    return Uni.createFrom().emitter(em -> {
-      var pod = clientFactory.withNewClient(
-          client -> client.pods().inNamespace(namespace).withName(name).get());
-      if (pod == null) {
-        LOGGER.debug("Pod {} not found in namespace {}", name, namespace);
-      } else {
-        LOGGER.debug("Pod {} found in namespace {}", name, namespace);
+    void check(Pod pod) {
+      if (condition.test(pod) && done.compareAndSet(false, true)) {
+        emitter.complete(pod);
       }
-      em.complete(pod);
-    });
+    }
+
+    @Override
+    public void eventReceived(Action action, Pod pod) {
+      switch (action) {
+        case ADDED:
+        case MODIFIED:
+          check(pod);
+          break;
+        case DELETED:
+          check(null);
+          break;
+        default:
+          LOGGER.debug("Received {} event for pod {}", action,
+              pod != null ? pod.getMetadata().getName() : null);
+          break;
+      }
+    }
+
+    @Override
+    public void onClose(WatcherException cause) {
+      if (done.compareAndSet(false, true)) {
+        emitter.fail(Optional.<Exception>ofNullable(cause)
+            .orElseGet(() -> new RuntimeException("Pod watch closed")));
+      }
+    }
+
   }
 
 }
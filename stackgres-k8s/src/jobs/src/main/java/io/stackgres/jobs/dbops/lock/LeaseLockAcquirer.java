@@ -0,0 +1,327 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.jobs.dbops.lock;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.fabric8.kubernetes.api.model.ListOptionsBuilder;
+import io.fabric8.kubernetes.api.model.coordination.v1.Lease;
+import io.fabric8.kubernetes.api.model.coordination.v1.LeaseBuilder;
+import io.fabric8.kubernetes.api.model.coordination.v1.LeaseSpec;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.WatcherException;
+import io.fabric8.kubernetes.client.dsl.Resource;
+import io.fabric8.kubernetes.client.dsl.base.PatchContext;
+import io.fabric8.kubernetes.client.dsl.base.PatchType;
+import io.smallrye.mutiny.Uni;
+import io.stackgres.common.KubernetesClientFactory;
+import io.stackgres.common.crd.sgcluster.StackGresCluster;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Lock implemented with a {@code coordination.k8s.io/v1} Lease named after the locked cluster.
+ * The lease is acquired by setting the holder identity with a precondition on its
+ * {@code resourceVersion}, it is renewed with a JSON patch of its renew time (that fails if
+ * the holder changed) and released by clearing the holder identity with a precondition on its
+ * {@code resourceVersion}. A job that finds the lease held by another job watches it and tries
+ * to acquire it as soon as it is released or expires. If the lease is taken over or can not be
+ * renewed before it expires the locked task is interrupted and fails.
+ *
+ * <p>While the lease is held the task is run with the {@code ANNOTATION} lock so that the backup
+ * and dbops shell scripts, that only honor the annotation lock, are still excluded.
+ */
+@ApplicationScoped
+@LockType(LockType.LEASE)
+public class LeaseLockAcquirer implements LockAcquirer<StackGresCluster> {
+
+  static final String LEASE_NAME_SUFFIX = "-dbops-lock";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(LeaseLockAcquirer.class);
+  private static final ScheduledThreadPoolExecutor EXECUTOR = new ScheduledThreadPoolExecutor(
+      1,
+      new ThreadFactoryBuilder()
+          .setNameFormat("LeaseLockAcquirerThread-%d")
+          .setDaemon(true)
+          .build());
+  private static final DateTimeFormatter MICRO_TIME_FORMATTER = DateTimeFormatter
+      .ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSSSSXXX")
+      .withZone(ZoneOffset.UTC);
+  private static final int NOT_FOUND = 404;
+  private static final int CONFLICT = 409;
+  private static final int UNPROCESSABLE_ENTITY = 422;
+
+  @Inject
+  KubernetesClientFactory clientFactory;
+
+  @Inject
+  @LockType(LockType.ANNOTATION)
+  LockAcquirer<StackGresCluster> annotationLockAcquirer;
+
+  @Override
+  public void lockRun(LockRequest target, Consumer<StackGresCluster> task) {
+    final String leaseId = target.getNamespace() + "/" + getLeaseName(target);
+    try (KubernetesClient client = clientFactory.create()) {
+      LOGGER.info("Acquiring lease {}", leaseId);
+      acquire(client, target);
+      LOGGER.info("Lease {} acquired", leaseId);
+
+      final Thread taskThread = Thread.currentThread();
+      final AtomicReference<RuntimeException> renewFailure = new AtomicReference<>();
+      final AtomicLong lastRenewMillis = new AtomicLong(System.currentTimeMillis());
+      var renewFuture = EXECUTOR.scheduleAtFixedRate(
+          () -> {
+            try {
+              renew(client, target, lastRenewMillis);
+            } catch (RuntimeException ex) {
+              renewFailure.set(new IllegalStateException("Lease " + leaseId
+                  + " could not be renewed, the locked task has been interrupted", ex));
+              taskThread.interrupt();
+              // Stop further renewals
+              throw ex;
+            }
+          },
+          target.getPollInterval(),
+          target.getPollInterval(),
+          TimeUnit.SECONDS);
+
+      try {
+        annotationLockAcquirer.lockRun(target, task);
+      } catch (Exception e) {
+        LOGGER.error("Locked task failed", e);
+        Optional.ofNullable(renewFailure.get())
+            .ifPresent(failure -> {
+              failure.addSuppressed(e);
+              throw failure;
+            });
+        throw e;
+      } finally {
+        renewFuture.cancel(true);
+        if (renewFailure.get() != null) {
+          // Clear the interrupt so that the release is not interrupted
+          Thread.interrupted();
+        }
+        Uni.createFrom().item(() -> release(client, target))
+            .onFailure()
+            .retry()
+            .withBackOff(Duration.ofMillis(5), Duration.ofSeconds(5))
+            .indefinitely()
+            .await().indefinitely();
+        LOGGER.info("Lease {} released", leaseId);
+      }
+      Optional.ofNullable(renewFailure.get())
+          .ifPresent(failure -> {
+            throw failure;
+          });
+    }
+  }
+
+  static String getLeaseName(LockRequest target) {
+    return target.getLockResourceName() + LEASE_NAME_SUFFIX;
+  }
+
+  private Resource<Lease> getLease(KubernetesClient client, LockRequest target) {
+    return client.leases()
+        .inNamespace(target.getNamespace())
+        .withName(getLeaseName(target));
+  }
+
+  private void acquire(KubernetesClient client, LockRequest target) {
+    while (true) {
+      Lease lease = getLease(client, target).get();
+      try {
+        if (lease == null) {
+          client.leases()
+              .inNamespace(target.getNamespace())
+              .create(new LeaseBuilder()
+                  .withNewMetadata()
+                  .withNamespace(target.getNamespace())
+                  .withName(getLeaseName(target))
+                  .endMetadata()
+                  .withSpec(acquiredSpec(new LeaseSpec(), target))
+                  .build());
+          return;
+        }
+        if (isAcquirable(lease, target)) {
+          getLease(client, target)
+              .lockResourceVersion(lease.getMetadata().getResourceVersion())
+              .replace(new LeaseBuilder(lease)
+                  .withSpec(acquiredSpec(lease.getSpec(), target))
+                  .build());
+          return;
+        }
+      } catch (KubernetesClientException ex) {
+        if (ex.getCode() != CONFLICT) {
+          throw ex;
+        }
+        LOGGER.debug("Conflict while acquiring lease {}, retrying", getLeaseName(target));
+        continue;
+      }
+      LOGGER.info("Lease {} held by {}, waiting for release",
+          getLeaseName(target), lease.getSpec().getHolderIdentity());
+      awaitAcquirable(client, target, lease);
+    }
+  }
+
+  /**
+   * Watch the lease until it may be acquired: it is deleted, released, or the current holder
+   * does not renew it before it expires.
+   */
+  private void awaitAcquirable(KubernetesClient client, LockRequest target, Lease lease) {
+    final AtomicReference<Lease> lastLease = new AtomicReference<>(lease);
+    final CountDownLatch acquirable = new CountDownLatch(1);
+    final Watch watch = getLease(client, target).watch(new ListOptionsBuilder()
+        .withResourceVersion(lease.getMetadata().getResourceVersion())
+        .build(), new Watcher<Lease>() {
+          @Override
+          public void eventReceived(Action action, Lease resource) {
+            if (action == Action.DELETED || action == Action.ERROR) {
+              acquirable.countDown();
+              return;
+            }
+            lastLease.set(resource);
+            if (isAcquirable(resource, target)) {
+              acquirable.countDown();
+            }
+          }
+
+          @Override
+          public void onClose(WatcherException cause) {
+            acquirable.countDown();
+          }
+        });
+    try {
+      while (!acquirable.await(getMillisToExpire(lastLease.get(), target),
+          TimeUnit.MILLISECONDS)) {
+        if (isAcquirable(lastLease.get(), target)) {
+          break;
+        }
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Interrupted while waiting for lease "
+          + getLeaseName(target), ex);
+    } finally {
+      watch.close();
+    }
+  }
+
+  /**
+   * Renew the lease. A failure is retried on the next renewal unless the lease has been taken
+   * over by another job, has been deleted or has expired since the last renewal.
+   */
+  private void renew(KubernetesClient client, LockRequest target, AtomicLong lastRenewMillis) {
+    try {
+      PatchContext patchContext = new PatchContext();
+      patchContext.setPatchType(PatchType.JSON);
+      getLease(client, target).patch(patchContext, "["
+          + "{\"op\":\"test\",\"path\":\"/spec/holderIdentity\","
+          + "\"value\":\"" + target.getPodName() + "\"},"
+          + "{\"op\":\"replace\",\"path\":\"/spec/renewTime\","
+          + "\"value\":\"" + MICRO_TIME_FORMATTER.format(Instant.now()) + "\"}"
+          + "]");
+      lastRenewMillis.set(System.currentTimeMillis());
+    } catch (KubernetesClientException ex) {
+      if (ex.getCode() == UNPROCESSABLE_ENTITY || ex.getCode() == NOT_FOUND) {
+        throw new IllegalStateException("Lease " + getLeaseName(target)
+            + " is not held anymore", ex);
+      }
+      checkNotExpired(target, lastRenewMillis, ex);
+    } catch (RuntimeException ex) {
+      checkNotExpired(target, lastRenewMillis, ex);
+    }
+  }
+
+  private void checkNotExpired(LockRequest target, AtomicLong lastRenewMillis,
+      RuntimeException ex) {
+    if (System.currentTimeMillis() - lastRenewMillis.get()
+        >= TimeUnit.SECONDS.toMillis(target.getLockTimeout())) {
+      throw new IllegalStateException("Lease " + getLeaseName(target)
+          + " expired before it could be renewed", ex);
+    }
+    LOGGER.warn("Can not renew lease {}, retrying", getLeaseName(target), ex);
+  }
+
+  private Void release(KubernetesClient client, LockRequest target) {
+    Lease lease = getLease(client, target).get();
+    if (lease == null || !isHeldBy(lease, target)) {
+      LOGGER.warn("Lease {} was not held anymore when releasing it", getLeaseName(target));
+      return null;
+    }
+    lease.getSpec().setHolderIdentity(null);
+    lease.getSpec().setAcquireTime(null);
+    lease.getSpec().setRenewTime(null);
+    getLease(client, target)
+        .lockResourceVersion(lease.getMetadata().getResourceVersion())
+        .replace(lease);
+    return null;
+  }
+
+  private LeaseSpec acquiredSpec(LeaseSpec spec, LockRequest target) {
+    final ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+    final boolean transition = spec.getHolderIdentity() != null
+        && !spec.getHolderIdentity().isEmpty()
+        && !isHeldBy(spec, target);
+    if (!isHeldBy(spec, target)) {
+      spec.setAcquireTime(now);
+    }
+    spec.setLeaseTransitions(Optional.ofNullable(spec.getLeaseTransitions()).orElse(0)
+        + (transition ? 1 : 0));
+    spec.setHolderIdentity(target.getPodName());
+    spec.setLeaseDurationSeconds(target.getLockTimeout());
+    spec.setRenewTime(now);
+    return spec;
+  }
+
+  private boolean isHeldBy(Lease lease, LockRequest target) {
+    return isHeldBy(lease.getSpec(), target);
+  }
+
+  private boolean isHeldBy(LeaseSpec spec, LockRequest target) {
+    return spec != null && target.getPodName().equals(spec.getHolderIdentity());
+  }
+
+  private boolean isAcquirable(Lease lease, LockRequest target) {
+    return lease.getSpec() == null
+        || lease.getSpec().getHolderIdentity() == null
+        || lease.getSpec().getHolderIdentity().isEmpty()
+        || isHeldBy(lease, target)
+        || getMillisToExpire(lease, target) <= 0;
+  }
+
+  private long getMillisToExpire(Lease lease, LockRequest target) {
+    Optional<LeaseSpec> spec = Optional.ofNullable(lease.getSpec());
+    final Instant renewTime = spec
+        .map(LeaseSpec::getRenewTime)
+        .or(() -> spec.map(LeaseSpec::getAcquireTime))
+        .map(ZonedDateTime::toInstant)
+        .orElse(Instant.EPOCH);
+    final long leaseDurationSeconds = spec
+        .map(LeaseSpec::getLeaseDurationSeconds)
+        .orElse(target.getLockTimeout());
+    return Math.max(0, renewTime.plusSeconds(leaseDurationSeconds).toEpochMilli()
+        - System.currentTimeMillis());
+  }
+
+}
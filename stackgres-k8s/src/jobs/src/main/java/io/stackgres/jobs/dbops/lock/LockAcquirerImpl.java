@@ -25,6 +25,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @ApplicationScoped
+@LockType(LockType.ANNOTATION)
 public class LockAcquirerImpl implements LockAcquirer<StackGresCluster> {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(LockAcquirerImpl.class);
@@ -75,9 +76,10 @@ public class LockAcquirerImpl implements LockAcquirer<StackGresCluster> {
     } finally {
       lockFuture.cancel(true);
       Uni.createFrom().item(() -> getCluster(target))
-          .invoke(cluster -> cluster.getMetadata().getAnnotations().remove(LOCK_POD))
-          .invoke(cluster -> cluster.getMetadata().getAnnotations().remove(LOCK_TIMESTAMP))
-          .invoke(clusterScheduler::update)
+          .invoke(cluster -> clusterScheduler.update(cluster, currentCluster -> {
+            currentCluster.getMetadata().getAnnotations().remove(LOCK_POD);
+            currentCluster.getMetadata().getAnnotations().remove(LOCK_TIMESTAMP);
+          }))
           .onFailure()
           .retry()
           .withBackOff(Duration.ofMillis(5), Duration.ofSeconds(5))
@@ -97,12 +99,18 @@ public class LockAcquirerImpl implements LockAcquirer<StackGresCluster> {
   }
 
   private StackGresCluster lock(LockRequest target, StackGresCluster targetCluster) {
-    final Map<String, String> annotations = targetCluster.getMetadata().getAnnotations();
-
-    annotations.put(LOCK_POD, target.getPodName());
-    annotations.put(LOCK_TIMESTAMP, getLockTimestamp());
-    return clusterScheduler.update(targetCluster);
+    return clusterScheduler.update(targetCluster, currentCluster -> {
+      if (isLocked(currentCluster, target) && !isLockedByMe(currentCluster, target)) {
+        throw new IllegalStateException("Cluster "
+            + currentCluster.getMetadata().getNamespace()
+            + "/" + currentCluster.getMetadata().getName()
+            + " is locked by " + currentCluster.getMetadata().getAnnotations().get(LOCK_POD));
+      }
+      final Map<String, String> annotations = currentCluster.getMetadata().getAnnotations();
 
+      annotations.put(LOCK_POD, target.getPodName());
+      annotations.put(LOCK_TIMESTAMP, getLockTimestamp());
+    });
   }
 
   private void lock(LockRequest target) {
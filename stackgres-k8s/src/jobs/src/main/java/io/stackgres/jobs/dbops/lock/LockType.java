@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.jobs.dbops.lock;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import javax.inject.Qualifier;
+
+@Qualifier
+@Target({ElementType.TYPE, ElementType.METHOD, ElementType.PARAMETER, ElementType.FIELD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface LockType {
+
+  /**
+   * Lock stored as annotations of the locked resource.
+   */
+  String ANNOTATION = "annotation";
+
+  /**
+   * Lock stored as a {@code coordination.k8s.io/v1} Lease that jobs waiting for it watch instead
+   * of polling. The {@code ANNOTATION} lock is also taken while the lease is held.
+   */
+  String LEASE = "lease";
+
+  String value();
+}
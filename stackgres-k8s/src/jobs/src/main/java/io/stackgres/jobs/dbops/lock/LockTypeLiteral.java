@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.jobs.dbops.lock;
+
+import java.util.Objects;
+
+import javax.enterprise.util.AnnotationLiteral;
+
+public class LockTypeLiteral extends AnnotationLiteral<LockType>
+    implements LockType {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String value;
+
+  public LockTypeLiteral(String value) {
+    this.value = value;
+  }
+
+  @Override
+  public String value() {
+    return value;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    if (!super.equals(o)) {
+      return false;
+    }
+    LockTypeLiteral that = (LockTypeLiteral) o;
+    return Objects.equals(value, that.value);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(super.hashCode(), value);
+  }
+}
@@ -151,4 +151,18 @@ public class MinorVersionUpgradeRestartStateHandlerImpl extends AbstractRestartS
         .map(StackGresDbOpsMinorVersionUpgrade::getMethod);
   }
 
+  @Override
+  protected Optional<Long> getMaximumLagOnSwitchover(StackGresDbOps op) {
+    return Optional.ofNullable(op.getSpec())
+        .map(StackGresDbOpsSpec::getMinorVersionUpgrade)
+        .map(StackGresDbOpsMinorVersionUpgrade::getMaximumLagOnSwitchover);
+  }
+
+  @Override
+  protected Optional<Integer> getMaxParallelReplicaRestarts(StackGresDbOps op) {
+    return Optional.ofNullable(op.getSpec())
+        .map(StackGresDbOpsSpec::getMinorVersionUpgrade)
+        .map(StackGresDbOpsMinorVersionUpgrade::getMaxParallelReplicaRestarts);
+  }
+
 }
@@ -101,4 +101,18 @@ public class ClusterRestartStateHandlerImpl extends AbstractRestartStateHandler
         .map(StackGresDbOpsSecurityUpgrade::getMethod);
   }
 
+  @Override
+  protected Optional<Long> getMaximumLagOnSwitchover(StackGresDbOps op) {
+    return Optional.ofNullable(op.getSpec())
+        .map(StackGresDbOpsSpec::getSecurityUpgrade)
+        .map(StackGresDbOpsSecurityUpgrade::getMaximumLagOnSwitchover);
+  }
+
+  @Override
+  protected Optional<Integer> getMaxParallelReplicaRestarts(StackGresDbOps op) {
+    return Optional.ofNullable(op.getSpec())
+        .map(StackGresDbOpsSpec::getSecurityUpgrade)
+        .map(StackGresDbOpsSecurityUpgrade::getMaxParallelReplicaRestarts);
+  }
+
 }
@@ -70,8 +70,7 @@ public class SecurityUpgradeJob implements DatabaseOperationJob {
 
   private Uni<StackGresCluster> resumeReconciliation(StackGresCluster cluster) {
     return Uni.createFrom().emitter(em -> {
-      removeIgnoredMark(cluster);
-      var resumedCluster = clusterScheduler.update(cluster);
+      var resumedCluster = clusterScheduler.update(cluster, this::removeIgnoredMark);
       em.complete(resumedCluster);
     });
   }
@@ -107,10 +106,10 @@ public class SecurityUpgradeJob implements DatabaseOperationJob {
   private Uni<StackGresCluster> upgradeClusterAndPauseReconciliation(
       StackGresCluster targetCluster) {
     return Uni.createFrom().emitter(em -> {
-      upgradeOperatorVersion(targetCluster);
-      markClusterAsIgnored(targetCluster);
-
-      StackGresCluster upgradedCluster = clusterScheduler.update(targetCluster);
+      StackGresCluster upgradedCluster = clusterScheduler.update(targetCluster, cluster -> {
+        upgradeOperatorVersion(cluster);
+        markClusterAsIgnored(cluster);
+      });
       em.complete(upgradedCluster);
     });
   }
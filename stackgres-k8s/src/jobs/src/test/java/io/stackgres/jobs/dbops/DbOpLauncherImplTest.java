@@ -33,14 +33,17 @@ import io.stackgres.common.crd.sgcluster.StackGresCluster;
 import io.stackgres.common.crd.sgdbops.DbOpsStatusCondition;
 import io.stackgres.common.crd.sgdbops.StackGresDbOps;
 import io.stackgres.common.crd.sgdbops.StackGresDbOpsStatus;
+import io.stackgres.jobs.app.JobsProperty;
 import io.stackgres.jobs.dbops.clusterrestart.ClusterRestartState;
 import io.stackgres.jobs.dbops.clusterrestart.ImmutableClusterRestartState;
 import io.stackgres.jobs.dbops.lock.LockAcquirerImpl;
 import io.stackgres.jobs.dbops.lock.LockRequest;
+import io.stackgres.jobs.dbops.lock.LockType;
 import io.stackgres.jobs.dbops.lock.MockKubeDb;
 import io.stackgres.jobs.dbops.securityupgrade.SecurityUpgradeJob;
 import io.stackgres.testutil.JsonUtil;
 import io.stackgres.testutil.StringUtils;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -60,6 +63,7 @@ class DbOpLauncherImplTest {
   MockKubeDb mockKubeDb;
 
   @InjectSpy
+  @LockType(LockType.ANNOTATION)
   LockAcquirerImpl lockAcquirer;
 
   StackGresDbOps dbOps;
@@ -72,6 +76,7 @@ class DbOpLauncherImplTest {
 
   @BeforeEach
   void setUp() {
+    System.setProperty(JobsProperty.DBOPS_LOCK_TYPE.getPropertyName(), LockType.ANNOTATION);
     namespace = StringUtils.getRandomNamespace();
     randomDbOpsName = StringUtils.getRandomString();
     randomClusterName = StringUtils.getRandomClusterName();
@@ -92,6 +97,11 @@ class DbOpLauncherImplTest {
     cluster = mockKubeDb.addOrReplaceCluster(cluster);
   }
 
+  @AfterEach
+  void tearDown() {
+    System.clearProperty(JobsProperty.DBOPS_LOCK_TYPE.getPropertyName());
+  }
+
   private Uni<ClusterRestartState> getClusterRestartStateUni() {
     Pod primary = new Pod();
     return Uni.createFrom().item(
@@ -328,7 +328,7 @@ class ClusterInstanceManagerImplTest {
     assertEquals(
         initialInstances + 1, actualInstances);
 
-    verify(clusterScheduler, times(2)).update(any());
+    verify(clusterScheduler, times(2)).update(any(), any());
 
   }
 
@@ -354,7 +354,7 @@ class ClusterInstanceManagerImplTest {
     assertEquals(
         initialInstances - 1, actualInstances);
 
-    verify(clusterScheduler, times(2)).update(any());
+    verify(clusterScheduler, times(2)).update(any(), any());
 
   }
 
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.jobs.dbops.clusterrestart;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.smallrye.mutiny.Uni;
+import io.stackgres.common.ClusterPendingRestartUtil.RestartReasons;
+import io.stackgres.common.crd.sgcluster.StackGresCluster;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ClusterRestartImplParallelTest {
+
+  private static final String NAMESPACE = "test";
+  private static final String CLUSTER_NAME = "test-cluster";
+  private static final Duration POD_RESTART_DURATION = Duration.ofMillis(100);
+
+  private final AtomicInteger restartingReplicas = new AtomicInteger();
+  private final AtomicInteger maxRestartingReplicas = new AtomicInteger();
+  private final AtomicInteger finishedRestarts = new AtomicInteger();
+
+  private String failingPod;
+
+  private ClusterRestartImpl clusterRestart;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    PodRestart podRestart = mock(PodRestart.class);
+    when(podRestart.restartPod(any(Pod.class))).thenAnswer(invocation -> {
+      Pod pod = invocation.getArgument(0);
+      boolean failing = pod.getMetadata().getName().equals(failingPod);
+      return Uni.createFrom().item(pod)
+          .onItem().invoke(() -> maxRestartingReplicas.accumulateAndGet(
+              restartingReplicas.incrementAndGet(), Math::max))
+          .onItem().delayIt().by(failing ? Duration.ofMillis(1) : POD_RESTART_DURATION)
+          .onItem().invoke(restartingReplicas::decrementAndGet)
+          .onItem().invoke(finishedRestarts::incrementAndGet)
+          .onItem().transform(restartedPod -> {
+            if (failing) {
+              throw new IllegalStateException("Restart of " + failingPod + " failed");
+            }
+            return restartedPod;
+          });
+    });
+    ClusterSwitchoverHandler switchoverHandler = mock(ClusterSwitchoverHandler.class);
+    when(switchoverHandler.performSwitchover(anyString(), anyString(), anyString(), any()))
+        .thenReturn(Uni.createFrom().voidItem());
+    PostgresRestart postgresRestart = mock(PostgresRestart.class);
+    when(postgresRestart.restartPostgres(anyString(), anyString(), anyString()))
+        .thenReturn(Uni.createFrom().voidItem());
+    Watcher<StackGresCluster> clusterWatcher = mock(Watcher.class);
+    when(clusterWatcher.waitUntilIsReady(CLUSTER_NAME, NAMESPACE))
+        .thenReturn(Uni.createFrom().item(new StackGresCluster()));
+    clusterRestart = new ClusterRestartImpl(podRestart, switchoverHandler,
+        mock(ClusterInstanceManager.class), clusterWatcher, postgresRestart);
+  }
+
+  private List<Pod> buildPods(int instances) {
+    return IntStream.range(0, instances)
+        .mapToObj(index -> new PodBuilder()
+            .withNewMetadata()
+            .withName(CLUSTER_NAME + "-" + index)
+            .withNamespace(NAMESPACE)
+            .addToLabels("role", index == 0 ? "master" : "replica")
+            .endMetadata()
+            .build())
+        .collect(Collectors.toUnmodifiableList());
+  }
+
+  private ClusterRestartState buildState(List<Pod> pods, List<Pod> restartedPods,
+      Integer maxParallelReplicaRestarts) {
+    return ImmutableClusterRestartState.builder()
+        .namespace(NAMESPACE)
+        .dbOpsName("test-dbops")
+        .dbOpsOperation("restart")
+        .clusterName(CLUSTER_NAME)
+        .restartMethod("InPlace")
+        .isOnlyPendingRestart(false)
+        .maxParallelReplicaRestarts(Optional.ofNullable(maxParallelReplicaRestarts))
+        .primaryInstance(pods.get(0))
+        .initialInstances(pods)
+        .totalInstances(pods)
+        .restartedInstances(restartedPods)
+        .podRestartReasonsMap(pods.stream()
+            .collect(Collectors.toUnmodifiableMap(Function.identity(),
+                pod -> RestartReasons.of())))
+        .isSwitchoverInitiated(false)
+        .isSwitchoverFinalized(false)
+        .build();
+  }
+
+  private List<String> restartCluster(ClusterRestartState clusterState) {
+    return clusterRestart.restartCluster(clusterState)
+        .subscribe()
+        .asStream()
+        .filter(event -> event.getEventType() == RestartEventType.POD_RESTART)
+        .map(event -> event.getPod().getMetadata().getName())
+        .collect(Collectors.toUnmodifiableList());
+  }
+
+  @Test
+  void givenNoMaxParallelReplicaRestarts_itShouldRestartReplicasOneAtATime() {
+    List<Pod> pods = buildPods(5);
+
+    List<String> restartedPods = restartCluster(buildState(pods, List.of(), null));
+
+    assertEquals(1, maxRestartingReplicas.get());
+    assertEquals(5, restartedPods.size());
+    assertEquals(CLUSTER_NAME + "-0", restartedPods.get(4));
+  }
+
+  @Test
+  void givenMaxParallelReplicaRestarts_itShouldRestartReplicasConcurrentlyAndThePrimaryLast() {
+    List<Pod> pods = buildPods(5);
+
+    List<String> restartedPods = restartCluster(buildState(pods, List.of(), 2));
+
+    assertEquals(2, maxRestartingReplicas.get());
+    assertEquals(5, restartedPods.size());
+    assertEquals(CLUSTER_NAME + "-0", restartedPods.get(4));
+  }
+
+  @Test
+  void givenMaxParallelReplicaRestartsAsManyAsReplicas_itShouldKeepAReplicaRunning() {
+    List<Pod> pods = buildPods(4);
+
+    List<String> restartedPods = restartCluster(buildState(pods, List.of(), 10));
+
+    assertEquals(2, maxRestartingReplicas.get());
+    assertEquals(4, restartedPods.size());
+    assertEquals(CLUSTER_NAME + "-0", restartedPods.get(3));
+  }
+
+  @Test
+  void givenAResumedRestart_itShouldOnlyRestartThePendingPods() {
+    List<Pod> pods = buildPods(5);
+
+    List<String> restartedPods = restartCluster(
+        buildState(pods, List.of(pods.get(1), pods.get(2)), 2));
+
+    assertEquals(List.of(CLUSTER_NAME + "-3", CLUSTER_NAME + "-4"),
+        restartedPods.subList(0, 2).stream().sorted().collect(Collectors.toUnmodifiableList()));
+    assertEquals(List.of(CLUSTER_NAME + "-0"), restartedPods.subList(2, 3));
+  }
+
+  @Test
+  void givenAFailingReplicaRestart_itShouldWaitForTheWholeBatchBeforeFailing() {
+    List<Pod> pods = buildPods(5);
+    failingPod = CLUSTER_NAME + "-1";
+
+    assertThrows(IllegalStateException.class,
+        () -> restartCluster(buildState(pods, List.of(), 2)));
+
+    assertEquals(2, finishedRestarts.get());
+    assertEquals(0, restartingReplicas.get());
+  }
+
+}
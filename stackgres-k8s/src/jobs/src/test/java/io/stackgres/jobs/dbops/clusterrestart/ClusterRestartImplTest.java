@@ -14,6 +14,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -143,7 +144,8 @@ class ClusterRestartImplTest {
     when(postgresRestart.restartPostgres(primaryName, CLUSTER_NAME, NAMESPACE))
         .thenReturn(Uni.createFrom().voidItem());
 
-    when(switchoverHandler.performSwitchover(primaryName, CLUSTER_NAME, NAMESPACE))
+    when(switchoverHandler.performSwitchover(primaryName, CLUSTER_NAME, NAMESPACE,
+        Optional.empty()))
         .thenReturn(Uni.createFrom().voidItem());
 
     List<RestartEvent> events = clusterRestart.restartCluster(clusterState)
@@ -186,7 +188,8 @@ class ClusterRestartImplTest {
     order.verify(clusterWatcher).waitUntilIsReady(CLUSTER_NAME, NAMESPACE);
     order.verify(podRestart).restartPod(replica2);
     order.verify(clusterWatcher).waitUntilIsReady(CLUSTER_NAME, NAMESPACE);
-    order.verify(switchoverHandler).performSwitchover(primaryName, CLUSTER_NAME, NAMESPACE);
+    order.verify(switchoverHandler).performSwitchover(primaryName, CLUSTER_NAME, NAMESPACE,
+        Optional.empty());
     order.verify(clusterWatcher).waitUntilIsReady(CLUSTER_NAME, NAMESPACE);
     order.verify(podRestart).restartPod(primary);
     order.verify(clusterWatcher).waitUntilIsReady(CLUSTER_NAME, NAMESPACE);
@@ -195,7 +198,7 @@ class ClusterRestartImplTest {
     verify(clusterWatcher, times(6)).waitUntilIsReady(any(), any());
     verify(postgresRestart, times(1)).restartPostgres(any(), any(), any());
     verify(podRestart, times(3)).restartPod(any());
-    verify(switchoverHandler, times(1)).performSwitchover(any(), any(), any());
+    verify(switchoverHandler, times(1)).performSwitchover(any(), any(), any(), any());
 
     checkFinalSgClusterOnInPlace();
   }
@@ -227,7 +230,8 @@ class ClusterRestartImplTest {
     });
 
     final String primaryName = primary.getMetadata().getName();
-    when(switchoverHandler.performSwitchover(primaryName, CLUSTER_NAME, NAMESPACE))
+    when(switchoverHandler.performSwitchover(primaryName, CLUSTER_NAME, NAMESPACE,
+        Optional.empty()))
         .thenReturn(Uni.createFrom().voidItem());
 
     List<RestartEvent> events = clusterRestart.restartCluster(clusterState)
@@ -267,7 +271,8 @@ class ClusterRestartImplTest {
     order.verify(clusterWatcher).waitUntilIsReady(CLUSTER_NAME, NAMESPACE);
     order.verify(podRestart).restartPod(replica2);
     order.verify(clusterWatcher).waitUntilIsReady(CLUSTER_NAME, NAMESPACE);
-    order.verify(switchoverHandler).performSwitchover(primaryName, CLUSTER_NAME, NAMESPACE);
+    order.verify(switchoverHandler).performSwitchover(primaryName, CLUSTER_NAME, NAMESPACE,
+        Optional.empty());
     order.verify(clusterWatcher).waitUntilIsReady(CLUSTER_NAME, NAMESPACE);
     order.verify(podRestart).restartPod(primary);
     order.verify(clusterWatcher).waitUntilIsReady(CLUSTER_NAME, NAMESPACE);
@@ -276,7 +281,7 @@ class ClusterRestartImplTest {
     verify(clusterWatcher, times(4)).waitUntilIsReady(any(), any());
     verify(postgresRestart, times(0)).restartPostgres(any(), any(), any());
     verify(podRestart, times(2)).restartPod(any());
-    verify(switchoverHandler, times(1)).performSwitchover(any(), any(), any());
+    verify(switchoverHandler, times(1)).performSwitchover(any(), any(), any(), any());
 
     checkFinalSgClusterOnInPlace();
   }
@@ -343,7 +348,7 @@ class ClusterRestartImplTest {
     verify(clusterWatcher, times(2)).waitUntilIsReady(any(), any());
     verify(postgresRestart, times(0)).restartPostgres(any(), any(), any());
     verify(podRestart, times(1)).restartPod(any());
-    verify(switchoverHandler, times(0)).performSwitchover(any(), any(), any());
+    verify(switchoverHandler, times(0)).performSwitchover(any(), any(), any(), any());
 
     checkFinalSgClusterOnInPlace();
   }
@@ -378,7 +383,8 @@ class ClusterRestartImplTest {
     when(postgresRestart.restartPostgres(primaryName, CLUSTER_NAME, NAMESPACE))
         .thenReturn(Uni.createFrom().voidItem());
 
-    when(switchoverHandler.performSwitchover(primaryName, CLUSTER_NAME, NAMESPACE))
+    when(switchoverHandler.performSwitchover(primaryName, CLUSTER_NAME, NAMESPACE,
+        Optional.empty()))
         .thenReturn(Uni.createFrom().voidItem());
 
     List<RestartEvent> events = clusterRestart.restartCluster(clusterState)
@@ -412,7 +418,8 @@ class ClusterRestartImplTest {
     order.verify(clusterWatcher).waitUntilIsReady(CLUSTER_NAME, NAMESPACE);
     order.verify(postgresRestart).restartPostgres(primaryName, CLUSTER_NAME, NAMESPACE);
     order.verify(clusterWatcher).waitUntilIsReady(CLUSTER_NAME, NAMESPACE);
-    order.verify(switchoverHandler).performSwitchover(primaryName, CLUSTER_NAME, NAMESPACE);
+    order.verify(switchoverHandler).performSwitchover(primaryName, CLUSTER_NAME, NAMESPACE,
+        Optional.empty());
     order.verify(clusterWatcher).waitUntilIsReady(CLUSTER_NAME, NAMESPACE);
     order.verify(podRestart).restartPod(primary);
     order.verify(clusterWatcher).waitUntilIsReady(CLUSTER_NAME, NAMESPACE);
@@ -421,7 +428,7 @@ class ClusterRestartImplTest {
     verify(clusterWatcher, times(4)).waitUntilIsReady(any(), any());
     verify(postgresRestart, times(1)).restartPostgres(any(), any(), any());
     verify(podRestart, times(1)).restartPod(any());
-    verify(switchoverHandler, times(1)).performSwitchover(any(), any(), any());
+    verify(switchoverHandler, times(1)).performSwitchover(any(), any(), any(), any());
 
     checkFinalSgClusterOnInPlace();
   }
@@ -453,7 +460,8 @@ class ClusterRestartImplTest {
     });
 
     final String primaryName = primary.getMetadata().getName();
-    when(switchoverHandler.performSwitchover(primaryName, CLUSTER_NAME, NAMESPACE))
+    when(switchoverHandler.performSwitchover(primaryName, CLUSTER_NAME, NAMESPACE,
+        Optional.empty()))
         .thenReturn(Uni.createFrom().voidItem());
 
     List<RestartEvent> events = clusterRestart.restartCluster(clusterState)
@@ -491,7 +499,8 @@ class ClusterRestartImplTest {
 
     final InOrder order = inOrder(podRestart, postgresRestart, switchoverHandler, clusterWatcher);
     order.verify(clusterWatcher).waitUntilIsReady(CLUSTER_NAME, NAMESPACE);
-    order.verify(switchoverHandler).performSwitchover(primaryName, CLUSTER_NAME, NAMESPACE);
+    order.verify(switchoverHandler).performSwitchover(primaryName, CLUSTER_NAME, NAMESPACE,
+        Optional.empty());
     order.verify(clusterWatcher).waitUntilIsReady(CLUSTER_NAME, NAMESPACE);
     order.verify(podRestart).restartPod(primary);
     order.verify(clusterWatcher).waitUntilIsReady(CLUSTER_NAME, NAMESPACE);
@@ -500,7 +509,7 @@ class ClusterRestartImplTest {
     verify(clusterWatcher, times(3)).waitUntilIsReady(any(), any());
     verify(postgresRestart, times(0)).restartPostgres(any(), any(), any());
     verify(podRestart, times(1)).restartPod(any());
-    verify(switchoverHandler, times(1)).performSwitchover(any(), any(), any());
+    verify(switchoverHandler, times(1)).performSwitchover(any(), any(), any(), any());
 
     checkFinalSgClusterOnInPlace();
   }
@@ -573,7 +582,7 @@ class ClusterRestartImplTest {
     verify(clusterWatcher, times(2)).waitUntilIsReady(any(), any());
     verify(postgresRestart, times(0)).restartPostgres(any(), any(), any());
     verify(podRestart, times(1)).restartPod(any());
-    verify(switchoverHandler, times(0)).performSwitchover(any(), any(), any());
+    verify(switchoverHandler, times(0)).performSwitchover(any(), any(), any(), any());
 
     checkFinalSgClusterOnInPlace();
   }
@@ -619,7 +628,8 @@ class ClusterRestartImplTest {
     when(postgresRestart.restartPostgres(primaryName, CLUSTER_NAME, NAMESPACE))
         .thenReturn(Uni.createFrom().voidItem());
 
-    when(switchoverHandler.performSwitchover(primaryName, CLUSTER_NAME, NAMESPACE))
+    when(switchoverHandler.performSwitchover(primaryName, CLUSTER_NAME, NAMESPACE,
+        Optional.empty()))
         .thenReturn(Uni.createFrom().voidItem());
 
     List<RestartEvent> events = clusterRestart.restartCluster(clusterState)
@@ -665,7 +675,8 @@ class ClusterRestartImplTest {
     order.verify(clusterWatcher).waitUntilIsReady(CLUSTER_NAME, NAMESPACE);
     order.verify(podRestart).restartPod(replica2);
     order.verify(clusterWatcher).waitUntilIsReady(CLUSTER_NAME, NAMESPACE);
-    order.verify(switchoverHandler).performSwitchover(primaryName, CLUSTER_NAME, NAMESPACE);
+    order.verify(switchoverHandler).performSwitchover(primaryName, CLUSTER_NAME, NAMESPACE,
+        Optional.empty());
     order.verify(clusterWatcher).waitUntilIsReady(CLUSTER_NAME, NAMESPACE);
     order.verify(podRestart).restartPod(primary);
     order.verify(clusterWatcher).waitUntilIsReady(CLUSTER_NAME, NAMESPACE);
@@ -675,7 +686,7 @@ class ClusterRestartImplTest {
     verify(clusterWatcher, times(7)).waitUntilIsReady(any(), any());
     verify(postgresRestart, times(1)).restartPostgres(any(), any(), any());
     verify(podRestart, times(3)).restartPod(any());
-    verify(switchoverHandler, times(1)).performSwitchover(any(), any(), any());
+    verify(switchoverHandler, times(1)).performSwitchover(any(), any(), any(), any());
     verify(instanceManager, times(1)).increaseClusterInstances(any(), any());
     verify(instanceManager, times(1)).decreaseClusterInstances(any(), any());
   }
@@ -708,7 +719,8 @@ class ClusterRestartImplTest {
     });
 
     final String primaryName = primary.getMetadata().getName();
-    when(switchoverHandler.performSwitchover(primaryName, CLUSTER_NAME, NAMESPACE))
+    when(switchoverHandler.performSwitchover(primaryName, CLUSTER_NAME, NAMESPACE,
+        Optional.empty()))
         .thenReturn(Uni.createFrom().voidItem());
 
     when(instanceManager.decreaseClusterInstances(CLUSTER_NAME, NAMESPACE))
@@ -752,7 +764,8 @@ class ClusterRestartImplTest {
     order.verify(clusterWatcher).waitUntilIsReady(CLUSTER_NAME, NAMESPACE);
     order.verify(podRestart).restartPod(replica2);
     order.verify(clusterWatcher).waitUntilIsReady(CLUSTER_NAME, NAMESPACE);
-    order.verify(switchoverHandler).performSwitchover(primaryName, CLUSTER_NAME, NAMESPACE);
+    order.verify(switchoverHandler).performSwitchover(primaryName, CLUSTER_NAME, NAMESPACE,
+        Optional.empty());
     order.verify(clusterWatcher).waitUntilIsReady(CLUSTER_NAME, NAMESPACE);
     order.verify(podRestart).restartPod(primary);
     order.verify(clusterWatcher).waitUntilIsReady(CLUSTER_NAME, NAMESPACE);
@@ -762,7 +775,7 @@ class ClusterRestartImplTest {
     verify(clusterWatcher, times(4)).waitUntilIsReady(any(), any());
     verify(postgresRestart, times(0)).restartPostgres(any(), any(), any());
     verify(podRestart, times(2)).restartPod(any());
-    verify(switchoverHandler, times(1)).performSwitchover(any(), any(), any());
+    verify(switchoverHandler, times(1)).performSwitchover(any(), any(), any(), any());
     verify(instanceManager, times(0)).increaseClusterInstances(any(), any());
     verify(instanceManager, times(1)).decreaseClusterInstances(any(), any());
   }
@@ -840,7 +853,7 @@ class ClusterRestartImplTest {
     verify(clusterWatcher, times(2)).waitUntilIsReady(any(), any());
     verify(postgresRestart, times(0)).restartPostgres(any(), any(), any());
     verify(podRestart, times(1)).restartPod(any());
-    verify(switchoverHandler, times(0)).performSwitchover(any(), any(), any());
+    verify(switchoverHandler, times(0)).performSwitchover(any(), any(), any(), any());
     verify(instanceManager, times(0)).increaseClusterInstances(any(), any());
     verify(instanceManager, times(1)).decreaseClusterInstances(any(), any());
   }
@@ -911,7 +924,7 @@ class ClusterRestartImplTest {
     verify(clusterWatcher, times(1)).waitUntilIsReady(any(), any());
     verify(postgresRestart, times(0)).restartPostgres(any(), any(), any());
     verify(podRestart, times(0)).restartPod(any());
-    verify(switchoverHandler, times(0)).performSwitchover(any(), any(), any());
+    verify(switchoverHandler, times(0)).performSwitchover(any(), any(), any(), any());
     verify(instanceManager, times(0)).increaseClusterInstances(any(), any());
     verify(instanceManager, times(0)).decreaseClusterInstances(any(), any());
   }
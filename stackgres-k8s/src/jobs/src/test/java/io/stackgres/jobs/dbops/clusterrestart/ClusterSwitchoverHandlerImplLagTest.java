@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.jobs.dbops.clusterrestart;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.handler.BodyHandler;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Drive the switchover with canned Patroni {@code /cluster} responses served by a local HTTP
+ * stand-in that records the switchover requests.
+ */
+class ClusterSwitchoverHandlerImplLagTest {
+
+  private static final String CLUSTER_NAME = "test-cluster";
+  private static final String NAMESPACE = "test-namespace";
+  private static final String LEADER = "test-cluster-0";
+
+  private final ConcurrentLinkedQueue<String> clusterResponses = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger clusterRequests = new AtomicInteger();
+  private final List<JsonObject> switchoverRequests = new CopyOnWriteArrayList<>();
+
+  private Vertx vertx;
+  private HttpServer mockServer;
+  private ClusterSwitchoverHandlerImpl switchoverHandler;
+
+  @BeforeEach
+  void setUp() throws InterruptedException {
+    vertx = Vertx.vertx();
+    Router router = Router.router(vertx);
+    router.route(HttpMethod.GET, "/cluster")
+        .handler(ctx -> {
+          clusterRequests.incrementAndGet();
+          // The last response is kept once the others have been served
+          String response = clusterResponses.size() > 1
+              ? clusterResponses.poll() : clusterResponses.peek();
+          ctx.response().end(response);
+        });
+    router.route(HttpMethod.POST, "/switchover")
+        .handler(BodyHandler.create())
+        .handler(ctx -> {
+          switchoverRequests.add(ctx.getBodyAsJson());
+          ctx.response().end("Successfully switched over");
+        });
+
+    VertxTestContext testContext = new VertxTestContext();
+    mockServer = vertx.createHttpServer().requestHandler(router)
+        .listen(0, ar -> testContext.completeNow());
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+
+    PatroniApiHandlerImpl patroniApiHandler =
+        new PatroniApiHandlerImpl(new io.vertx.mutiny.core.Vertx(vertx));
+    patroniApiHandler.apiFinder = (name, namespace) -> ImmutablePatroniApiMetadata.builder()
+        .host("127.0.0.1")
+        .port(mockServer.actualPort())
+        .username("username")
+        .password("password")
+        .build();
+    patroniApiHandler.init();
+    switchoverHandler = new ClusterSwitchoverHandlerImpl(patroniApiHandler);
+    switchoverHandler.lagCheckInitialBackOff = Duration.ofMillis(10);
+    switchoverHandler.lagCheckMaxBackOff = Duration.ofMillis(50);
+    switchoverHandler.lagCheckTimeout = Duration.ofSeconds(2);
+  }
+
+  @AfterEach
+  void tearDown() {
+    mockServer.close();
+    vertx.close();
+  }
+
+  private void addClusterResponse(String patroniFile) throws IOException {
+    clusterResponses.add(Files.readString(Path.of(String
+        .format("src/test/resources/patroni/clusters-%s.json", patroniFile))));
+  }
+
+  @Test
+  void givenNoMaximumLag_shouldSwitchoverToTheRunningReplicaWithTheSmallestLag()
+      throws IOException {
+    addClusterResponse("lagging");
+
+    switchoverHandler.performSwitchover(LEADER, CLUSTER_NAME, NAMESPACE, Optional.empty())
+        .await().atMost(Duration.ofSeconds(5));
+
+    assertEquals(1, clusterRequests.get());
+    assertEquals(List.of(new JsonObject()
+        .put("leader", LEADER)
+        .put("candidate", "test-cluster-2")),
+        switchoverRequests);
+  }
+
+  @Test
+  void givenAMaximumLag_shouldDelayTheSwitchoverUntilTheCandidateIsUnderIt()
+      throws IOException {
+    addClusterResponse("lagging");
+    addClusterResponse("lagging");
+    addClusterResponse("caught-up");
+
+    switchoverHandler.performSwitchover(LEADER, CLUSTER_NAME, NAMESPACE, Optional.of(1024L))
+        .await().atMost(Duration.ofSeconds(5));
+
+    assertEquals(3, clusterRequests.get());
+    assertEquals(List.of(new JsonObject()
+        .put("leader", LEADER)
+        .put("candidate", "test-cluster-2")),
+        switchoverRequests);
+  }
+
+  @Test
+  void givenAMaximumLagAndACandidateWithUnknownLag_shouldFailAfterTheLagCheckTimeout()
+      throws IOException {
+    addClusterResponse("unknown-lag");
+
+    FailoverException ex = assertThrows(FailoverException.class, () -> switchoverHandler
+        .performSwitchover(LEADER, CLUSTER_NAME, NAMESPACE, Optional.of(1024L))
+        .await().atMost(Duration.ofSeconds(5)));
+
+    assertTrue(ex.getMessage().startsWith("Switchover of cluster " + NAMESPACE + "/"
+        + CLUSTER_NAME + " aborted"), ex.getMessage());
+    assertTrue(ex.getMessage().endsWith("Lag of switchover candidate test-cluster-1 is unknown"
+        + " but must not be greater than 1024 bytes"), ex.getMessage());
+    assertTrue(clusterRequests.get() > 1,
+        "The lag of the candidate should be checked again");
+    assertEquals(List.of(), switchoverRequests);
+  }
+
+  @Test
+  void givenLagsOverIntegerRange_shouldSwitchoverToTheRunningReplicaWithTheSmallestLag()
+      throws IOException {
+    addClusterResponse("large-lag");
+
+    switchoverHandler.performSwitchover(LEADER, CLUSTER_NAME, NAMESPACE, Optional.empty())
+        .await().atMost(Duration.ofSeconds(5));
+
+    assertEquals(List.of(new JsonObject()
+        .put("leader", LEADER)
+        .put("candidate", "test-cluster-2")),
+        switchoverRequests);
+  }
+
+  @Test
+  void givenAMaximumLagAndLagsOverIntegerRange_shouldNotSwitchover() throws IOException {
+    addClusterResponse("large-lag");
+
+    FailoverException ex = assertThrows(FailoverException.class, () -> switchoverHandler
+        .performSwitchover(LEADER, CLUSTER_NAME, NAMESPACE, Optional.of(1024L))
+        .await().atMost(Duration.ofSeconds(5)));
+
+    assertTrue(ex.getMessage().contains("test-cluster-2 is 3221225472 bytes"), ex.getMessage());
+    assertEquals(List.of(), switchoverRequests);
+  }
+
+  @Test
+  void givenNoMaximumLagAndACandidateWithUnknownLag_shouldSwitchover() throws IOException {
+    addClusterResponse("unknown-lag");
+
+    switchoverHandler.performSwitchover(LEADER, CLUSTER_NAME, NAMESPACE, Optional.empty())
+        .await().atMost(Duration.ofSeconds(5));
+
+    assertEquals(1, switchoverRequests.size());
+  }
+
+}
@@ -13,6 +13,7 @@ import static org.mockito.Mockito.when;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import javax.inject.Inject;
 
@@ -58,7 +59,7 @@ class ClusterSwitchoverHandlerImplTest {
         .apiUrl("http://127.0.0.2:8008/patroni")
         .port(7433)
         .timeline(1)
-        .lag(0)
+        .lag(0L)
         .build();
     when(patroniApiHandler.getClusterMembers(TEST_CLUSTER_NAME, TEST_NAMESPACE_NAME))
         .thenReturn(Uni.createFrom().item(List.of(
@@ -68,7 +69,8 @@ class ClusterSwitchoverHandlerImplTest {
     when(patroniApiHandler.performSwitchover(leader, replica))
         .thenReturn(Uni.createFrom().voidItem());
 
-    switchoverHandler.performSwitchover(leader.getName(), TEST_CLUSTER_NAME, TEST_NAMESPACE_NAME)
+    switchoverHandler.performSwitchover(leader.getName(), TEST_CLUSTER_NAME, TEST_NAMESPACE_NAME,
+        Optional.empty())
         .await().indefinitely();
 
     InOrder order = Mockito.inOrder(patroniApiHandler);
@@ -102,7 +104,7 @@ class ClusterSwitchoverHandlerImplTest {
         .apiUrl("http://127.0.0.2:8008/patroni")
         .port(7433)
         .timeline(1)
-        .lag(1)
+        .lag(1L)
         .build();
 
     final ClusterMember candidate = ImmutableClusterMember.builder()
@@ -115,7 +117,7 @@ class ClusterSwitchoverHandlerImplTest {
         .apiUrl("http://127.0.0.3:8008/patroni")
         .port(7433)
         .timeline(1)
-        .lag(0)
+        .lag(0L)
         .build();
 
     final ClusterMember stoppedReplica = ImmutableClusterMember.builder()
@@ -148,7 +150,8 @@ class ClusterSwitchoverHandlerImplTest {
     when(patroniApiHandler.performSwitchover(leader, candidate))
         .thenReturn(Uni.createFrom().voidItem());
 
-    switchoverHandler.performSwitchover(leader.getName(), TEST_CLUSTER_NAME, TEST_NAMESPACE_NAME)
+    switchoverHandler.performSwitchover(leader.getName(), TEST_CLUSTER_NAME, TEST_NAMESPACE_NAME,
+        Optional.empty())
         .await().indefinitely();
 
     verify(patroniApiHandler).getClusterMembers(any(), any());
@@ -173,7 +176,8 @@ class ClusterSwitchoverHandlerImplTest {
                 .timeline(1)
                 .build())));
 
-    switchoverHandler.performSwitchover("member-0", TEST_CLUSTER_NAME, TEST_NAMESPACE_NAME)
+    switchoverHandler.performSwitchover("member-0", TEST_CLUSTER_NAME, TEST_NAMESPACE_NAME,
+        Optional.empty())
         .await().indefinitely();
 
     verify(patroniApiHandler).getClusterMembers(any(), any());
@@ -209,7 +213,7 @@ class ClusterSwitchoverHandlerImplTest {
 
     assertThrows(FailoverException.class,
         () -> switchoverHandler
-            .performSwitchover("member-0", TEST_CLUSTER_NAME, TEST_NAMESPACE_NAME)
+            .performSwitchover("member-0", TEST_CLUSTER_NAME, TEST_NAMESPACE_NAME, Optional.empty())
             .await().indefinitely());
 
     verify(patroniApiHandler).getClusterMembers(any(), any());
@@ -240,7 +244,7 @@ class ClusterSwitchoverHandlerImplTest {
         .apiUrl("http://127.0.0.2:8008/patroni")
         .port(7433)
         .timeline(1)
-        .lag(0)
+        .lag(0L)
         .build();
     when(patroniApiHandler.getClusterMembers(TEST_CLUSTER_NAME, TEST_NAMESPACE_NAME))
         .thenReturn(Uni.createFrom().item(List.of(
@@ -250,7 +254,8 @@ class ClusterSwitchoverHandlerImplTest {
     when(patroniApiHandler.performSwitchover(leader, replica))
         .thenReturn(Uni.createFrom().voidItem());
 
-    switchoverHandler.performSwitchover(replica.getName(), TEST_CLUSTER_NAME, TEST_NAMESPACE_NAME)
+    switchoverHandler.performSwitchover(replica.getName(), TEST_CLUSTER_NAME, TEST_NAMESPACE_NAME,
+        Optional.empty())
         .await().indefinitely();
 
     verify(patroniApiHandler).getClusterMembers(TEST_CLUSTER_NAME, TEST_NAMESPACE_NAME);
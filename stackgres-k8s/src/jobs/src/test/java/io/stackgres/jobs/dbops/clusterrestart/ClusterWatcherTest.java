@@ -81,7 +81,7 @@ class ClusterWatcherTest {
                         .equals(pod.getMetadata().getLabels().get(StackGresContext.ROLE_KEY))
                             ? MemberRole.LEADER
                             : MemberRole.REPlICA)
-                    .lag(0)
+                    .lag(0L)
                     .timeline(1)
                     .build())
                 .collect(Collectors.toUnmodifiableList())));
@@ -111,7 +111,7 @@ class ClusterWatcherTest {
                         .equals(pod.getMetadata().getLabels().get(StackGresContext.ROLE_KEY))
                             ? MemberRole.LEADER
                             : MemberRole.REPlICA)
-                    .lag(0)
+                    .lag(0L)
                     .timeline(1)
                     .build())
                 .collect(Collectors.toUnmodifiableList())));
@@ -140,7 +140,7 @@ class ClusterWatcherTest {
                         .equals(pod.getMetadata().getLabels().get(StackGresContext.ROLE_KEY))
                             ? MemberRole.LEADER
                             : MemberRole.REPlICA)
-                    .lag(0)
+                    .lag(0L)
                     .timeline(1)
                     .build())
                 .collect(Collectors.toUnmodifiableList())));
@@ -170,7 +170,7 @@ class ClusterWatcherTest {
                         .equals(pod.getMetadata().getLabels().get(StackGresContext.ROLE_KEY))
                             ? MemberRole.LEADER
                             : MemberRole.REPlICA)
-                    .lag(0)
+                    .lag(0L)
                     .timeline(1)
                     .build())
                 .collect(Collectors.toUnmodifiableList())));
@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.jobs.dbops.clusterrestart;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.client.DefaultKubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesServer;
+import io.smallrye.mutiny.Uni;
+import io.stackgres.common.ClusterLabelFactory;
+import io.stackgres.common.ClusterLabelMapper;
+import io.stackgres.common.KubernetesClientFactory;
+import io.stackgres.common.LabelFactory;
+import io.stackgres.common.crd.sgcluster.StackGresCluster;
+import io.stackgres.common.resource.PodFinder;
+import io.stackgres.testutil.JsonUtil;
+import io.stackgres.testutil.StringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Script pod and Patroni member transitions and check that {@link ClusterWatcher} detects that
+ * the cluster is ready within a second.
+ */
+class ClusterWatcherTransitionsTest {
+
+  private static final long DETECTION_TIMEOUT_MILLIS = 1500;
+
+  private final AtomicReference<MemberState> memberState =
+      new AtomicReference<>(MemberState.RUNNING);
+
+  private KubernetesServer server;
+  private KubernetesClient client;
+  private LabelFactory<StackGresCluster> labelFactory;
+  private StackGresCluster cluster;
+  private ClusterWatcher clusterWatcher;
+
+  @BeforeEach
+  void setUp() {
+    server = new KubernetesServer(false, true);
+    server.before();
+    client = server.getClient();
+    final KubernetesClientFactory clientFactory =
+        () -> new DefaultKubernetesClient(client.getConfiguration());
+    labelFactory = new ClusterLabelFactory(new ClusterLabelMapper());
+    cluster = JsonUtil.readFromJson("stackgres_cluster/default.json", StackGresCluster.class);
+    cluster.getMetadata().setNamespace(StringUtils.getRandomNamespace());
+    cluster.getMetadata().setName(StringUtils.getRandomClusterName());
+    cluster.getSpec().setInstances(3);
+    PodFinder podFinder = new PodFinder();
+    podFinder.setKubClientFactory(clientFactory);
+    PatroniApiHandler patroniApiHandler = mock(PatroniApiHandler.class);
+    when(patroniApiHandler.getClusterMembers(cluster.getMetadata().getName(),
+        cluster.getMetadata().getNamespace()))
+        .thenReturn(Uni.createFrom().item(this::getClusterMembers));
+    clusterWatcher = new ClusterWatcher(patroniApiHandler, labelFactory, podFinder,
+        (name, namespace) -> Optional.of(cluster), clientFactory);
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.after();
+  }
+
+  private List<ClusterMember> getClusterMembers() {
+    return client.pods().inNamespace(cluster.getMetadata().getNamespace())
+        .withLabels(labelFactory.patroniClusterLabels(cluster))
+        .list()
+        .getItems()
+        .stream()
+        .map(pod -> ImmutableClusterMember.builder()
+            .clusterName(cluster.getMetadata().getName())
+            .namespace(cluster.getMetadata().getNamespace())
+            .apiUrl("http://" + pod.getMetadata().getName() + ":8008/patroni")
+            .name(pod.getMetadata().getName())
+            .port(5432)
+            .host(pod.getMetadata().getName())
+            .state(memberState.get())
+            .role(pod.getMetadata().getName().endsWith("-0")
+                ? MemberRole.LEADER : MemberRole.REPlICA)
+            .lag(0L)
+            .timeline(1)
+            .build())
+        .collect(Collectors.toUnmodifiableList());
+  }
+
+  private void createPod(int index) {
+    client.pods().inNamespace(cluster.getMetadata().getNamespace())
+        .create(new PodBuilder()
+            .withNewMetadata()
+            .withNamespace(cluster.getMetadata().getNamespace())
+            .withName(cluster.getMetadata().getName() + "-" + index)
+            .withLabels(labelFactory.patroniClusterLabels(cluster))
+            .endMetadata()
+            .build());
+  }
+
+  private CompletableFuture<StackGresCluster> waitUntilIsReady() throws Exception {
+    CompletableFuture<StackGresCluster> result = new CompletableFuture<>();
+    clusterWatcher.waitUntilIsReady(cluster.getMetadata().getName(),
+        cluster.getMetadata().getNamespace())
+        .subscribe().with(result::complete, result::completeExceptionally);
+    // Give time to the watch to be established
+    Thread.sleep(200);
+    return result;
+  }
+
+  @Test
+  void givenAReadyCluster_shouldPass() throws Exception {
+    createPod(0);
+    createPod(1);
+    createPod(2);
+
+    CompletableFuture<StackGresCluster> ready = waitUntilIsReady();
+
+    assertEquals(cluster, ready.get(DETECTION_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  void givenAMissingPodThatIsCreated_shouldDetectTheClusterIsReady() throws Exception {
+    createPod(0);
+    createPod(1);
+
+    CompletableFuture<StackGresCluster> ready = waitUntilIsReady();
+    Thread.sleep(1000);
+    assertFalse(ready.isDone());
+
+    createPod(2);
+
+    assertEquals(cluster, ready.get(DETECTION_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  void givenAPodThatIsRecreated_shouldDetectTheClusterIsReady() throws Exception {
+    createPod(0);
+    createPod(1);
+    createPod(2);
+    client.pods().inNamespace(cluster.getMetadata().getNamespace())
+        .withName(cluster.getMetadata().getName() + "-1")
+        .delete();
+
+    CompletableFuture<StackGresCluster> ready = waitUntilIsReady();
+    Thread.sleep(1000);
+    assertFalse(ready.isDone());
+
+    createPod(1);
+
+    assertEquals(cluster, ready.get(DETECTION_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  void givenPatroniMembersThatStartRunning_shouldDetectTheClusterIsReady() throws Exception {
+    memberState.set(MemberState.STOPPED);
+    createPod(0);
+    createPod(1);
+    createPod(2);
+
+    CompletableFuture<StackGresCluster> ready = waitUntilIsReady();
+    Thread.sleep(1000);
+    assertFalse(ready.isDone());
+
+    memberState.set(MemberState.RUNNING);
+
+    assertEquals(cluster, ready.get(DETECTION_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+  }
+
+}
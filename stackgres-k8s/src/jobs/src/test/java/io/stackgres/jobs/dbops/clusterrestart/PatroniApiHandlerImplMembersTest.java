@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.jobs.dbops.clusterrestart;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import io.stackgres.testutil.StringUtils;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.Router;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Query several Patroni members served by a local HTTP stand-in that answers each member with
+ * a different delay.
+ */
+class PatroniApiHandlerImplMembersTest {
+
+  private static final int MEMBERS = 4;
+  private static final long MEMBER_DELAY_MILLIS = 500;
+
+  private final String clusterName = StringUtils.getRandomString();
+  private final String namespace = StringUtils.getRandomString();
+
+  private Vertx vertx;
+  private HttpServer mockServer;
+  private PatroniApiHandlerImpl patroniApiHandler;
+  private long unreachableMemberDelayMillis;
+
+  @BeforeEach
+  void setUp() throws InterruptedException {
+    vertx = Vertx.vertx();
+    Router router = Router.router(vertx);
+    router.route(HttpMethod.GET, "/cluster")
+        .handler(ctx -> ctx.response().end(getClusterResponse().encode()));
+    router.route(HttpMethod.GET, "/member/:index/patroni")
+        .handler(ctx -> {
+          int index = Integer.parseInt(ctx.pathParam("index"));
+          // The first member is the slowest so that responses arrive in reverse order
+          long delay = index == MEMBERS - 1 && unreachableMemberDelayMillis > 0
+              ? unreachableMemberDelayMillis : MEMBER_DELAY_MILLIS * (MEMBERS - index) / MEMBERS;
+          vertx.setTimer(delay, timer -> ctx.response().end(getPatroniResponse(index).encode()));
+        });
+
+    VertxTestContext testContext = new VertxTestContext();
+    mockServer = vertx.createHttpServer().requestHandler(router)
+        .listen(0, ar -> testContext.completeNow());
+    assertTrue(testContext.awaitCompletion(5, TimeUnit.SECONDS));
+
+    patroniApiHandler = new PatroniApiHandlerImpl(new io.vertx.mutiny.core.Vertx(vertx),
+        Duration.ofMillis(MEMBER_DELAY_MILLIS * 2));
+    patroniApiHandler.apiFinder = (name, namespace) -> ImmutablePatroniApiMetadata.builder()
+        .host("127.0.0.1")
+        .port(mockServer.actualPort())
+        .username("username")
+        .password("password")
+        .build();
+    patroniApiHandler.init();
+    // Warm up the client so that timings only account for the members queries
+    patroniApiHandler.getClusterMembers(clusterName, namespace)
+        .await().atMost(Duration.ofSeconds(5));
+  }
+
+  @AfterEach
+  void tearDown() {
+    mockServer.close();
+    vertx.close();
+  }
+
+  private JsonObject getClusterResponse() {
+    return new JsonObject().put("members", new JsonArray(IntStream.range(0, MEMBERS)
+        .mapToObj(index -> new JsonObject()
+            .put("name", clusterName + "-" + index)
+            .put("role", index == 0 ? "leader" : "replica")
+            .put("state", "running")
+            .put("api_url", "http://127.0.0.1:" + mockServer.actualPort()
+                + "/member/" + index + "/patroni")
+            .put("host", "127.0.0.1")
+            .put("port", 5432)
+            .put("timeline", 1)
+            .put("lag", 0))
+        .collect(Collectors.toList())));
+  }
+
+  private JsonObject getPatroniResponse(int index) {
+    return new JsonObject()
+        .put("state", "running")
+        .put("role", index == 0 ? "master" : "replica")
+        .put("server_version", 130003)
+        .put("patroni", new JsonObject()
+            .put("version", "2.0." + index)
+            .put("scope", clusterName));
+  }
+
+  @Test
+  void getMembersPatroniInformation_shouldQueryMembersConcurrentlyKeepingTheirOrder() {
+    final long start = System.nanoTime();
+
+    List<PatroniInformation> membersInformation = patroniApiHandler
+        .getMembersPatroniInformation(clusterName, namespace)
+        .await().atMost(Duration.ofSeconds(5));
+
+    final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    assertTrue(elapsedMillis < MEMBER_DELAY_MILLIS * 2,
+        "Members should be queried concurrently but took " + elapsedMillis + "ms");
+    assertEquals(IntStream.range(0, MEMBERS)
+        .mapToObj(index -> "2.0." + index)
+        .collect(Collectors.toList()),
+        membersInformation.stream()
+        .map(PatroniInformation::getPatroniVersion)
+        .collect(Collectors.toList()));
+    assertEquals(MemberRole.LEADER, membersInformation.get(0).getRole());
+  }
+
+  @Test
+  void givenAnUnresponsiveMember_getMembersPatroniInformationShouldReturnTheOtherMembers() {
+    unreachableMemberDelayMillis = 60_000;
+    final long start = System.nanoTime();
+
+    List<PatroniInformation> membersInformation = patroniApiHandler
+        .getMembersPatroniInformation(clusterName, namespace)
+        .await().atMost(Duration.ofSeconds(5));
+
+    final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    assertTrue(elapsedMillis < MEMBER_DELAY_MILLIS * 4,
+        "An unresponsive member should not stall the query but took " + elapsedMillis + "ms");
+    assertEquals(IntStream.range(0, MEMBERS - 1)
+        .mapToObj(index -> "2.0." + index)
+        .collect(Collectors.toList()),
+        membersInformation.stream()
+        .map(PatroniInformation::getPatroniVersion)
+        .collect(Collectors.toList()));
+  }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.jobs.dbops.clusterrestart;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.client.DefaultKubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesServer;
+import io.smallrye.mutiny.TimeoutException;
+import io.smallrye.mutiny.Uni;
+import io.stackgres.testutil.StringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Script pod transitions through the mock server and check that {@link PodWatcher} detects each
+ * of them within a second.
+ */
+class PodWatcherTransitionsTest {
+
+  private static final Duration DETECTION_TIMEOUT = Duration.ofSeconds(1);
+
+  private KubernetesServer server;
+  private KubernetesClient client;
+  private PodWatcher podWatcher;
+  private String namespace;
+  private String podName;
+
+  @BeforeEach
+  void setUp() {
+    server = new KubernetesServer(false, true);
+    server.before();
+    client = server.getClient();
+    podWatcher = new PodWatcher(() -> new DefaultKubernetesClient(client.getConfiguration()));
+    namespace = StringUtils.getRandomNamespace();
+    podName = StringUtils.getRandomClusterName() + "-0";
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.after();
+  }
+
+  private Pod createPod() {
+    return client.pods().inNamespace(namespace).create(new PodBuilder()
+        .withNewMetadata()
+        .withNamespace(namespace)
+        .withName(podName)
+        .endMetadata()
+        .build());
+  }
+
+  private void setReady(boolean ready) {
+    Pod pod = client.pods().inNamespace(namespace).withName(podName).get();
+    client.pods().inNamespace(namespace).withName(podName)
+        .updateStatus(new PodBuilder(pod)
+            .withNewStatus()
+            .addNewCondition()
+            .withType("Ready")
+            .withStatus(ready ? "True" : "False")
+            .endCondition()
+            .endStatus()
+            .build());
+  }
+
+  private <T> CompletableFuture<T> subscribe(Uni<T> uni) throws Exception {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    uni.subscribe().with(result::complete, result::completeExceptionally);
+    // Give time to the watch to be established
+    Thread.sleep(200);
+    return result;
+  }
+
+  @Test
+  void givenAPodThatBecomesReady_waitUntilIsReadyShouldDetectIt() throws Exception {
+    createPod();
+    setReady(false);
+
+    CompletableFuture<Pod> readyPod = subscribe(podWatcher.waitUntilIsReady(podName, namespace));
+    assertFalse(readyPod.isDone());
+
+    setReady(true);
+
+    Pod pod = readyPod.get(DETECTION_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+    assertEquals(podName, pod.getMetadata().getName());
+  }
+
+  @Test
+  void givenAPodThatIsCreatedAndThenBecomesReady_waitUntilIsReadyShouldDetectIt()
+      throws Exception {
+    CompletableFuture<Pod> readyPod = subscribe(podWatcher.waitUntilIsReady(podName, namespace));
+    createPod();
+    Thread.sleep(200);
+    assertFalse(readyPod.isDone());
+
+    setReady(true);
+
+    Pod pod = readyPod.get(DETECTION_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+    assertEquals(podName, pod.getMetadata().getName());
+  }
+
+  @Test
+  void givenAPodThatIsDeleted_waitUntilIsRemovedShouldDetectIt() throws Exception {
+    createPod();
+
+    CompletableFuture<Void> removed = subscribe(podWatcher.waitUntilIsRemoved(podName, namespace));
+    assertFalse(removed.isDone());
+
+    client.pods().inNamespace(namespace).withName(podName).delete();
+
+    removed.get(DETECTION_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  @Test
+  void givenAPodThatIsRecreated_waitUntilIsReplacedShouldDetectIt() throws Exception {
+    Pod oldPod = createPod();
+
+    CompletableFuture<Pod> replacedPod = subscribe(podWatcher.waitUntilIsReplaced(oldPod));
+
+    client.pods().inNamespace(namespace).withName(podName).delete();
+    Thread.sleep(200);
+    assertFalse(replacedPod.isDone());
+    Pod newPod = createPod();
+
+    Pod pod = replacedPod.get(DETECTION_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+    assertEquals(newPod.getMetadata().getCreationTimestamp(),
+        pod.getMetadata().getCreationTimestamp());
+  }
+
+  @Test
+  void givenNoPodCreated_waitUntilIsCreatedShouldNotComplete() {
+    assertThrows(TimeoutException.class, () -> podWatcher.waitUntilIsCreated(podName, namespace)
+        .await().atMost(DETECTION_TIMEOUT));
+  }
+
+}
@@ -65,7 +65,7 @@ class PostgresRestartImplTest {
             .apiUrl("http://127.0.0.2:8008/patroni")
             .port(7433)
             .timeline(1)
-            .lag(0)
+            .lag(0L)
             .build());
 
     when(patroniApiHandler.getClusterMembers(clusterName, namespace))
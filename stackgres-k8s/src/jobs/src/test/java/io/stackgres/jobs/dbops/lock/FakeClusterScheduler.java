@@ -6,6 +6,7 @@
 package io.stackgres.jobs.dbops.lock;
 
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import javax.enterprise.context.ApplicationScoped;
@@ -38,6 +39,15 @@ public class FakeClusterScheduler implements CustomResourceScheduler<StackGresCl
     return kubeDb.addOrReplaceCluster(resource);
   }
 
+  @Override
+  public StackGresCluster update(@NotNull StackGresCluster resource,
+      @NotNull Consumer<StackGresCluster> change) {
+    final ObjectMeta metadata = resource.getMetadata();
+    var saved = kubeDb.getCluster(metadata.getName(), metadata.getNamespace());
+    change.accept(saved);
+    return kubeDb.addOrReplaceCluster(saved);
+  }
+
   @Override
   public void delete(@NotNull StackGresCluster resource) {
     kubeDb.delete(resource);
@@ -57,4 +67,13 @@ public class FakeClusterScheduler implements CustomResourceScheduler<StackGresCl
                                @NotNull BiConsumer<StackGresCluster, S> statusSetter) {
     throw new UnsupportedOperationException("not implemented");
   }
+
+  @Override
+  public StackGresCluster updateStatus(@NotNull StackGresCluster resource,
+      @NotNull Consumer<StackGresCluster> change) {
+    final ObjectMeta metadata = resource.getMetadata();
+    var saved = kubeDb.getCluster(metadata.getName(), metadata.getNamespace());
+    change.accept(saved);
+    return kubeDb.addOrReplaceCluster(saved);
+  }
 }
@@ -6,10 +6,12 @@
 package io.stackgres.jobs.dbops.lock;
 
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import javax.inject.Inject;
 
+import io.fabric8.kubernetes.api.model.ObjectMeta;
 import io.quarkus.test.Mock;
 import io.stackgres.common.crd.sgdbops.StackGresDbOps;
 import io.stackgres.common.resource.CustomResourceScheduler;
@@ -35,6 +37,15 @@ public class FakeDbOpsScheduler implements CustomResourceScheduler<StackGresDbOp
     return kubeDb.addOrReplaceDbOps(resource);
   }
 
+  @Override
+  public StackGresDbOps update(@NotNull StackGresDbOps resource,
+      @NotNull Consumer<StackGresDbOps> change) {
+    final ObjectMeta metadata = resource.getMetadata();
+    var saved = kubeDb.getDbOps(metadata.getName(), metadata.getNamespace());
+    change.accept(saved);
+    return kubeDb.addOrReplaceDbOps(saved);
+  }
+
   @Override
   public void delete(@NotNull StackGresDbOps resource) {
     kubeDb.delete(resource);
@@ -56,4 +67,13 @@ public class FakeDbOpsScheduler implements CustomResourceScheduler<StackGresDbOp
       @NotNull BiConsumer<StackGresDbOps, S> statusSetter) {
     throw new UnsupportedOperationException("not implemented");
   }
+
+  @Override
+  public StackGresDbOps updateStatus(@NotNull StackGresDbOps resource,
+      @NotNull Consumer<StackGresDbOps> change) {
+    final ObjectMeta metadata = resource.getMetadata();
+    var saved = kubeDb.getDbOps(metadata.getName(), metadata.getNamespace());
+    change.accept(saved);
+    return kubeDb.addOrReplaceDbOps(saved);
+  }
 }
@@ -0,0 +1,369 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.jobs.dbops.lock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Field;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import io.fabric8.kubernetes.api.model.coordination.v1.Lease;
+import io.fabric8.kubernetes.api.model.coordination.v1.LeaseBuilder;
+import io.fabric8.kubernetes.client.DefaultKubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.dsl.base.PatchContext;
+import io.fabric8.kubernetes.client.dsl.base.PatchType;
+import io.fabric8.kubernetes.client.server.mock.KubernetesCrudDispatcher;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import io.fabric8.mockwebserver.Context;
+import io.stackgres.common.crd.sgcluster.StackGresCluster;
+import io.stackgres.testutil.JsonUtil;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class LeaseLockAcquirerTest {
+
+  private static final int JOBS = 4;
+
+  private KubernetesMockServer server;
+  private KubernetesClient client;
+  private StackGresCluster cluster;
+  private LeaseLockAcquirer lockAcquirer;
+  private ExecutorService executorService;
+  private final AtomicInteger annotationLocks = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    server = new KubernetesMockServer(new Context(), new MockWebServer(), new HashMap<>(),
+        new ResourceVersionCrudDispatcher(), false);
+    server.init();
+    client = server.createClient();
+    cluster = JsonUtil.readFromJson("stackgres_cluster/default.json", StackGresCluster.class);
+    lockAcquirer = new LeaseLockAcquirer();
+    lockAcquirer.clientFactory = () -> new DefaultKubernetesClient(client.getConfiguration());
+    lockAcquirer.annotationLockAcquirer = (target, task) -> {
+      annotationLocks.incrementAndGet();
+      assertEquals(target.getPodName(), getLease().getSpec().getHolderIdentity());
+      task.accept(cluster);
+    };
+    executorService = Executors.newFixedThreadPool(JOBS);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executorService.shutdownNow();
+    client.close();
+    server.destroy();
+  }
+
+  private LockRequest buildLockRequest(String podName) {
+    return ImmutableLockRequest.builder()
+        .podName(podName)
+        .namespace(cluster.getMetadata().getNamespace())
+        .lockResourceName(cluster.getMetadata().getName())
+        .lockTimeout(30)
+        .pollInterval(1)
+        .build();
+  }
+
+  private Lease getLease() {
+    return client.leases()
+        .inNamespace(cluster.getMetadata().getNamespace())
+        .withName(cluster.getMetadata().getName() + LeaseLockAcquirer.LEASE_NAME_SUFFIX)
+        .get();
+  }
+
+  private PatchContext jsonPatchContext() {
+    PatchContext patchContext = new PatchContext();
+    patchContext.setPatchType(PatchType.JSON);
+    return patchContext;
+  }
+
+  private void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Test
+  void givenNoLease_itShouldHoldTheLeaseWhileRunningTheTaskAndReleaseIt() {
+    LockRequest lockRequest = buildLockRequest("job-0");
+
+    lockAcquirer.lockRun(lockRequest, lockedCluster -> {
+      Lease lease = getLease();
+      assertEquals("job-0", lease.getSpec().getHolderIdentity());
+      assertEquals(30, lease.getSpec().getLeaseDurationSeconds());
+      assertNotNull(lease.getSpec().getRenewTime());
+      assertEquals(cluster, lockedCluster);
+    });
+
+    assertNull(getLease().getSpec().getHolderIdentity());
+    assertEquals(1, annotationLocks.get());
+  }
+
+  @Test
+  void givenALongRunningTask_itShouldRenewTheLease() {
+    LockRequest lockRequest = buildLockRequest("job-0");
+
+    lockAcquirer.lockRun(lockRequest, lockedCluster -> {
+      ZonedDateTime renewTime = getLease().getSpec().getRenewTime();
+      sleep(2500);
+      Lease lease = getLease();
+      assertEquals("job-0", lease.getSpec().getHolderIdentity());
+      assertTrue(lease.getSpec().getRenewTime().isAfter(renewTime));
+    });
+  }
+
+  @Test
+  void givenALeaseTakenOverWhileRunningTheTask_itShouldInterruptAndFailTheTask() {
+    LockRequest lockRequest = buildLockRequest("job-0");
+    AtomicBoolean interrupted = new AtomicBoolean();
+    AtomicBoolean completed = new AtomicBoolean();
+
+    IllegalStateException ex = assertThrows(IllegalStateException.class,
+        () -> lockAcquirer.lockRun(lockRequest, lockedCluster -> {
+          client.leases().inNamespace(cluster.getMetadata().getNamespace())
+              .withName(cluster.getMetadata().getName() + LeaseLockAcquirer.LEASE_NAME_SUFFIX)
+              .patch(jsonPatchContext(),
+                  "[{\"op\":\"replace\",\"path\":\"/spec/holderIdentity\","
+                  + "\"value\":\"other-job\"}]");
+          try {
+            Thread.sleep(10_000);
+            completed.set(true);
+          } catch (InterruptedException iex) {
+            interrupted.set(true);
+            Thread.currentThread().interrupt();
+          }
+        }));
+
+    assertTrue(ex.getMessage().contains("could not be renewed"), ex.getMessage());
+    assertTrue(interrupted.get());
+    assertFalse(completed.get());
+    assertFalse(Thread.currentThread().isInterrupted());
+    assertEquals("other-job", getLease().getSpec().getHolderIdentity());
+  }
+
+  @Test
+  void givenAnExpiredLease_itShouldTakeOverTheLease() {
+    client.leases().inNamespace(cluster.getMetadata().getNamespace())
+        .create(new LeaseBuilder()
+            .withNewMetadata()
+            .withNamespace(cluster.getMetadata().getNamespace())
+            .withName(cluster.getMetadata().getName() + LeaseLockAcquirer.LEASE_NAME_SUFFIX)
+            .endMetadata()
+            .withNewSpec()
+            .withHolderIdentity("dead-job")
+            .withLeaseDurationSeconds(30)
+            .withRenewTime(ZonedDateTime.now(ZoneOffset.UTC).minusMinutes(1))
+            .withLeaseTransitions(0)
+            .endSpec()
+            .build());
+
+    AtomicInteger runs = new AtomicInteger();
+    lockAcquirer.lockRun(buildLockRequest("job-0"), lockedCluster -> {
+      assertEquals("job-0", getLease().getSpec().getHolderIdentity());
+      assertEquals(1, getLease().getSpec().getLeaseTransitions());
+      runs.incrementAndGet();
+    });
+
+    assertEquals(1, runs.get());
+  }
+
+  @Test
+  void givenSeveralJobs_onlyOneShouldRunTheTaskAtATime() throws Exception {
+    final AtomicInteger running = new AtomicInteger();
+    final AtomicInteger maxRunning = new AtomicInteger();
+    final AtomicInteger runs = new AtomicInteger();
+    final AtomicLong lastReleaseNanos = new AtomicLong();
+    final AtomicLong maxHandOffNanos = new AtomicLong();
+    List<Future<?>> jobs = new ArrayList<>();
+    for (int job = 0; job < JOBS; job++) {
+      LockRequest lockRequest = buildLockRequest("job-" + job);
+      jobs.add(executorService.submit(() -> lockAcquirer.lockRun(lockRequest, lockedCluster -> {
+        if (lastReleaseNanos.get() > 0) {
+          maxHandOffNanos.accumulateAndGet(System.nanoTime() - lastReleaseNanos.get(),
+              Math::max);
+        }
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        assertEquals(lockRequest.getPodName(), getLease().getSpec().getHolderIdentity());
+        sleep(300);
+        runs.incrementAndGet();
+        running.decrementAndGet();
+        lastReleaseNanos.set(System.nanoTime());
+      })));
+    }
+    for (Future<?> job : jobs) {
+      job.get(60, TimeUnit.SECONDS);
+    }
+
+    assertEquals(JOBS, runs.get());
+    assertEquals(1, maxRunning.get());
+    assertNull(getLease().getSpec().getHolderIdentity());
+    assertTrue(maxHandOffNanos.get() < TimeUnit.SECONDS.toNanos(
+        buildLockRequest("job").getLockTimeout()),
+        "Waiting jobs should not wait for the lease to expire");
+  }
+
+  /**
+   * The mock server always stores {@code resourceVersion} 1 and does not support the JSON patch
+   * {@code test} operation. This dispatcher increments the {@code resourceVersion} of the
+   * stored resource on each change, rejects replaces with a different {@code resourceVersion}
+   * than the stored one and rejects patches with a failing {@code test} operation.
+   */
+  private static class ResourceVersionCrudDispatcher extends KubernetesCrudDispatcher {
+
+    private final AtomicLong resourceVersion = new AtomicLong(1);
+
+    /**
+     * A watch closed by the client stays registered until its executor has terminated, and
+     * notifying it meanwhile fails the request being dispatched after the change was stored.
+     * Closed watches are unregistered before each request and, if one is closed while a change
+     * is dispatched, the stored resource is returned.
+     */
+    @Override
+    public synchronized MockResponse dispatch(RecordedRequest request) {
+      removeClosedWatchEventListeners();
+      return super.dispatch(request);
+    }
+
+    private MockResponse storedIfWatchClosed(String path, Supplier<MockResponse> change) {
+      try {
+        return change.get();
+      } catch (RejectedExecutionException ex) {
+        return handleGet(path);
+      }
+    }
+
+    private void removeClosedWatchEventListeners() {
+      try {
+        Field listenersField = KubernetesCrudDispatcher.class
+            .getDeclaredField("watchEventListeners");
+        listenersField.setAccessible(true);
+        Set<?> listeners = (Set<?>) listenersField.get(this);
+        for (Object listener : ImmutableList.copyOf(listeners)) {
+          Field executorField = listener.getClass().getDeclaredField("executor");
+          executorField.setAccessible(true);
+          if (((ExecutorService) executorField.get(listener)).isShutdown()) {
+            listeners.remove(listener);
+          }
+        }
+      } catch (ReflectiveOperationException ex) {
+        throw new RuntimeException(ex);
+      }
+    }
+
+    @Override
+    public MockResponse handleCreate(String path, String body) {
+      return withNextResourceVersion(super.handleCreate(path, body));
+    }
+
+    @Override
+    public MockResponse handleReplace(String path, String body) {
+      String expectedResourceVersion = readTree(body)
+          .path("metadata").path("resourceVersion").asText(null);
+      if (expectedResourceVersion != null
+          && !expectedResourceVersion.equals(getStored(path)
+              .path("metadata").path("resourceVersion").asText(null))) {
+        return failure(409, "Conflict");
+      }
+      return withNextResourceVersion(storedIfWatchClosed(path,
+          () -> super.handleReplace(path, body)));
+    }
+
+    @Override
+    public MockResponse handlePatch(String path, String body) {
+      ArrayNode operations = (ArrayNode) readTree(body);
+      JsonNode stored = getStored(path);
+      ArrayNode otherOperations = operations.arrayNode();
+      for (JsonNode operation : operations) {
+        if (!operation.path("op").asText().equals("test")) {
+          otherOperations.add(operation);
+        } else if (!stored.at(operation.path("path").asText()).equals(operation.path("value"))) {
+          return failure(422, "Invalid");
+        }
+      }
+      return withNextResourceVersion(storedIfWatchClosed(path,
+          () -> super.handlePatch(path, Serialization.asJson(otherOperations))));
+    }
+
+    private JsonNode readTree(String json) {
+      try {
+        return Serialization.jsonMapper().readTree(json);
+      } catch (JsonProcessingException ex) {
+        throw new RuntimeException(ex);
+      }
+    }
+
+    private JsonNode getStored(String path) {
+      MockResponse response = handleGet(path);
+      if (response.getStatus().contains(" 200 ")) {
+        return readTree(response.getBody().readUtf8());
+      }
+      return MissingNode.getInstance();
+    }
+
+    private MockResponse withNextResourceVersion(MockResponse response) {
+      if (!response.getStatus().contains(" 20")) {
+        return response;
+      }
+      JsonNode changed = readTree(response.getBody().readUtf8());
+      String nextResourceVersion = Long.toString(resourceVersion.incrementAndGet());
+      map.replaceAll((attributes, value) -> {
+        JsonNode resource = readTree(value);
+        if (!resource.path("kind").equals(changed.path("kind"))
+            || !resource.at("/metadata/namespace").equals(changed.at("/metadata/namespace"))
+            || !resource.at("/metadata/name").equals(changed.at("/metadata/name"))) {
+          return value;
+        }
+        ((ObjectNode) resource.path("metadata")).put("resourceVersion", nextResourceVersion);
+        return Serialization.asJson(resource);
+      });
+      ((ObjectNode) changed.path("metadata")).put("resourceVersion", nextResourceVersion);
+      return response.setBody(Serialization.asJson(changed));
+    }
+
+    private MockResponse failure(int code, String reason) {
+      return new MockResponse()
+          .setResponseCode(code)
+          .setBody("{\"apiVersion\":\"v1\",\"kind\":\"Status\",\"status\":\"Failure\","
+              + "\"reason\":\"" + reason + "\",\"code\":" + code + "}");
+    }
+
+  }
+
+}
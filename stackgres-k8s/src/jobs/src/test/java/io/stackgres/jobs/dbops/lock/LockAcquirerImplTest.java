@@ -34,6 +34,7 @@ class LockAcquirerImplTest {
 
   private final AtomicInteger clusterNr = new AtomicInteger(0);
   @Inject
+  @LockType(LockType.ANNOTATION)
   LockAcquirerImpl lockAcquirer;
   @Inject
   MockKubeDb kubeDb;
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2020 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.operator.app;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Tag;
+import org.eclipse.microprofile.metrics.annotation.RegistryType;
+
+/**
+ * Record, for each verb and resource requested to the Kubernetes API server, the number of
+ * requests by status code and the latency of the requests.
+ */
+@ApplicationScoped
+public class KubernetesClientMetrics implements Interceptor {
+
+  static final String REQUESTS = "kubernetes_client_requests";
+  static final String REQUEST_ERRORS = "kubernetes_client_request_errors";
+  static final String REQUEST_DURATION = "kubernetes_client_request_duration";
+
+  private final MetricRegistry registry;
+
+  @Inject
+  public KubernetesClientMetrics(
+      @RegistryType(type = MetricRegistry.Type.APPLICATION) MetricRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  public Response intercept(Chain chain) throws IOException {
+    final Request request = chain.request();
+    final Tag verb = new Tag("verb", getVerb(request));
+    final Tag resource = new Tag("resource", getResource(request.url()));
+    final long start = System.nanoTime();
+    try {
+      final Response response = chain.proceed(request);
+      registry.counter(REQUESTS, verb, resource,
+          new Tag("code", String.valueOf(response.code()))).inc();
+      return response;
+    } catch (IOException | RuntimeException ex) {
+      registry.counter(REQUEST_ERRORS, verb, resource).inc();
+      throw ex;
+    } finally {
+      registry.timer(REQUEST_DURATION, verb, resource)
+          .update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Return the Kubernetes verb of the request (for GET requests one of get, list or watch).
+   */
+  static String getVerb(Request request) {
+    final String method = request.method();
+    if (!"GET".equals(method)) {
+      return method.toLowerCase(Locale.US);
+    }
+    if ("true".equals(request.url().queryParameter("watch"))) {
+      return "watch";
+    }
+    return getResourceSegments(request.url()).size() == 1 ? "list" : "get";
+  }
+
+  /**
+   * Return the (group qualified) resource and subresource of the request, like
+   * {@code apps/statefulsets} or {@code pods/exec}, ignoring namespace and name.
+   */
+  static String getResource(HttpUrl url) {
+    final List<String> segments = url.pathSegments();
+    final List<String> resourceSegments = getResourceSegments(url);
+    if (resourceSegments.isEmpty()) {
+      return String.join("/", segments);
+    }
+    final String group = "apis".equals(segments.get(0)) && segments.size() > 1
+        ? segments.get(1) + "/" : "";
+    final String resource = resourceSegments.get(0);
+    if (resourceSegments.size() > 2) {
+      return group + resource + "/" + resourceSegments.get(2);
+    }
+    return group + resource;
+  }
+
+  /**
+   * Return the path segments that follow the API group, version and namespace.
+   */
+  private static List<String> getResourceSegments(HttpUrl url) {
+    final List<String> segments = url.pathSegments();
+    int start;
+    if (!segments.isEmpty() && "api".equals(segments.get(0))) {
+      start = 2;
+    } else if (!segments.isEmpty() && "apis".equals(segments.get(0))) {
+      start = 3;
+    } else {
+      return List.of();
+    }
+    if (segments.size() > start + 2 && "namespaces".equals(segments.get(start))) {
+      start += 2;
+    }
+    if (segments.size() <= start) {
+      return List.of();
+    }
+    return segments.subList(start, segments.size());
+  }
+
+}
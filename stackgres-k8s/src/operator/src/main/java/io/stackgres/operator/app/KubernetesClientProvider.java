@@ -5,17 +5,96 @@
 
 package io.stackgres.operator.app;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
 
+import io.fabric8.kubernetes.client.Config;
+import io.fabric8.kubernetes.client.utils.HttpClientUtils;
 import io.stackgres.common.StackGresKubernetesClient;
 import io.stackgres.common.StackGresKubernetesClientFactory;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 
+/**
+ * Create clients that share a single HTTP client, so that connections (multiplexed with HTTP/2
+ * when the API server supports it), TLS sessions and the dispatcher are reused across calls.
+ * The shared HTTP client is recreated periodically in order to pick up changes in the
+ * configuration and the previous one is shut down once the clients that use it are closed.
+ * Since long-lived clients are never closed the token is refreshed on every shared HTTP client
+ * by a {@link RefreshedTokenInterceptor}. Requests are recorded by
+ * {@link KubernetesClientMetrics}.
+ */
 @ApplicationScoped
 public class KubernetesClientProvider implements StackGresKubernetesClientFactory {
 
+  private static final int MAX_IDLE_CONNECTIONS = 8;
+  private static final Duration KEEP_ALIVE = Duration.ofMinutes(5);
+  private static final int MAX_REQUESTS = 128;
+  private static final int MAX_REQUESTS_PER_HOST = 64;
+  private static final Duration HTTP_CLIENT_TTL = Duration.ofMinutes(10);
+  private static final Duration TOKEN_TTL = Duration.ofMinutes(1);
+
+  private final KubernetesClientMetrics metrics;
+  private final RefreshedTokenInterceptor refreshedTokenInterceptor = new RefreshedTokenInterceptor(
+      () -> Config.autoConfigure(null).getOauthToken(), TOKEN_TTL, System::currentTimeMillis);
+
+  private Config config;
+  private SharedHttpClient httpClient;
+
+  @Inject
+  public KubernetesClientProvider(KubernetesClientMetrics metrics) {
+    this.metrics = metrics;
+  }
+
   @Override
   public StackGresKubernetesClient create() {
-    return new StackGresKubernetesClient();
+    synchronized (this) {
+      if (httpClient == null
+          || System.currentTimeMillis() - httpClient.getCreatedAt()
+          > HTTP_CLIENT_TTL.toMillis()) {
+        if (httpClient != null) {
+          httpClient.retire();
+        }
+        config = Config.autoConfigure(null);
+        httpClient = new SharedHttpClient(createHttpClient(config), System.currentTimeMillis());
+      }
+      final SharedHttpClient currentHttpClient = httpClient;
+      currentHttpClient.acquire();
+      return new StackGresKubernetesClient(currentHttpClient.getHttpClient(), config,
+          currentHttpClient::release);
+    }
+  }
+
+  private OkHttpClient createHttpClient(Config config) {
+    final Dispatcher dispatcher = new Dispatcher();
+    dispatcher.setMaxRequests(MAX_REQUESTS);
+    dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+    final OkHttpClient.Builder builder = HttpClientUtils.createHttpClient(config)
+        .newBuilder()
+        .dispatcher(dispatcher)
+        .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS,
+            KEEP_ALIVE.toMillis(), TimeUnit.MILLISECONDS))
+        .addInterceptor(refreshedTokenInterceptor)
+        .addInterceptor(metrics);
+    if (!config.isHttp2Disable()) {
+      builder.protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1));
+    }
+    return builder.build();
+  }
+
+  @PreDestroy
+  public synchronized void close() {
+    if (httpClient != null) {
+      httpClient.retire();
+      httpClient = null;
+    }
   }
 
 }
@@ -7,7 +7,9 @@ package io.stackgres.operator.app;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.function.Consumer;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -17,14 +19,19 @@ import io.fabric8.kubernetes.client.CustomResourceList;
 import io.fabric8.kubernetes.client.Watcher.Action;
 import io.quarkus.runtime.Application;
 import io.stackgres.common.KubernetesClientFactory;
+import io.stackgres.common.StackGresUtil;
 import io.stackgres.common.crd.sgbackup.StackGresBackup;
 import io.stackgres.common.crd.sgbackup.StackGresBackupList;
+import io.stackgres.common.crd.sgbackup.StackGresBackupSpec;
 import io.stackgres.common.crd.sgbackupconfig.StackGresBackupConfig;
 import io.stackgres.common.crd.sgbackupconfig.StackGresBackupConfigList;
 import io.stackgres.common.crd.sgcluster.StackGresCluster;
+import io.stackgres.common.crd.sgcluster.StackGresClusterDistributedLogs;
 import io.stackgres.common.crd.sgcluster.StackGresClusterList;
+import io.stackgres.common.crd.sgcluster.StackGresClusterSpec;
 import io.stackgres.common.crd.sgdbops.StackGresDbOps;
 import io.stackgres.common.crd.sgdbops.StackGresDbOpsList;
+import io.stackgres.common.crd.sgdbops.StackGresDbOpsSpec;
 import io.stackgres.common.crd.sgdistributedlogs.StackGresDistributedLogs;
 import io.stackgres.common.crd.sgdistributedlogs.StackGresDistributedLogsList;
 import io.stackgres.common.crd.sgpgconfig.StackGresPostgresConfig;
@@ -33,6 +40,8 @@ import io.stackgres.common.crd.sgpooling.StackGresPoolingConfig;
 import io.stackgres.common.crd.sgpooling.StackGresPoolingConfigList;
 import io.stackgres.common.crd.sgprofile.StackGresProfile;
 import io.stackgres.common.crd.sgprofile.StackGresProfileList;
+import io.stackgres.common.resource.CustomResourceCache;
+import io.stackgres.common.resource.CustomResourceScanner;
 import io.stackgres.operator.conciliation.cluster.ClusterReconciliator;
 import io.stackgres.operator.conciliation.distributedlogs.DistributedLogsReconciliator;
 import io.stackgres.operator.controller.ResourceWatcherFactory;
@@ -48,16 +57,22 @@ public class OperatorWatchersHandlerImpl implements OperatorWatcherHandler {
   private final ClusterReconciliator clusterReconciliationCycle;
   private final DistributedLogsReconciliator distributedLogsReconciliatorCycle;
   private final ResourceWatcherFactory watcherFactory;
+  private final CustomResourceScanner<StackGresCluster> clusterScanner;
+  private final CustomResourceCache resourceCache;
 
   @Inject
   public OperatorWatchersHandlerImpl(KubernetesClientFactory kubeClient,
                                      ClusterReconciliator clusterReconciliationCycle,
                                      DistributedLogsReconciliator distributedLogsReconciliatorCycle,
-                                     ResourceWatcherFactory watcherFactory) {
+                                     ResourceWatcherFactory watcherFactory,
+                                     CustomResourceScanner<StackGresCluster> clusterScanner,
+                                     CustomResourceCache resourceCache) {
     this.kubeClient = kubeClient;
     this.clusterReconciliationCycle = clusterReconciliationCycle;
     this.distributedLogsReconciliatorCycle = distributedLogsReconciliatorCycle;
     this.watcherFactory = watcherFactory;
+    this.clusterScanner = clusterScanner;
+    this.resourceCache = resourceCache;
   }
 
   @Override
@@ -65,49 +80,57 @@ public class OperatorWatchersHandlerImpl implements OperatorWatcherHandler {
     monitors.add(createWatcher(
         StackGresCluster.class,
         StackGresClusterList.class,
-        reconcileCluster()
-            .andThen(reconcileDistributedLogs())));
+        reconcileCluster().andThen(this::reconcileClusterDistributedLogs)));
 
     monitors.add(createWatcher(
         StackGresPostgresConfig.class,
         StackGresPostgresConfigList.class,
-        reconcileCluster()));
+        reconcileReferencingClusters(StackGresPostgresConfig.KIND)));
 
     monitors.add(createWatcher(
         StackGresPoolingConfig.class,
         StackGresPoolingConfigList.class,
-        reconcileCluster()));
+        reconcileReferencingClusters(StackGresPoolingConfig.KIND)));
 
     monitors.add(createWatcher(
         StackGresProfile.class,
         StackGresProfileList.class,
-        reconcileCluster()));
+        reconcileReferencingClusters(StackGresProfile.KIND)));
 
     monitors.add(createWatcher(
         StackGresBackupConfig.class,
         StackGresBackupConfigList.class,
-        reconcileCluster()));
+        reconcileReferencingClusters(StackGresBackupConfig.KIND)));
 
     monitors.add(createWatcher(
         StackGresBackup.class,
         StackGresBackupList.class,
-        reconcileCluster()));
+        (action, backup) -> Optional.ofNullable(backup.getSpec())
+            .map(StackGresBackupSpec::getSgCluster)
+            .ifPresent(clusterName -> clusterReconciliationCycle.enqueue(
+                backup.getMetadata().getNamespace(), clusterName))));
 
     monitors.add(createWatcher(
         StackGresDbOps.class,
         StackGresDbOpsList.class,
-        reconcileCluster()));
+        (action, dbOps) -> Optional.ofNullable(dbOps.getSpec())
+            .map(StackGresDbOpsSpec::getSgCluster)
+            .ifPresent(clusterName -> clusterReconciliationCycle.enqueue(
+                dbOps.getMetadata().getNamespace(), clusterName))));
 
     monitors.add(createWatcher(
         StackGresDistributedLogs.class,
         StackGresDistributedLogsList.class,
-        reconcileDistributedLogs()));
+        (action, distributedLogs) -> distributedLogsReconciliatorCycle.enqueue(
+            distributedLogs.getMetadata().getNamespace(),
+            distributedLogs.getMetadata().getName())));
 
   }
 
   private <T extends CustomResource<?, ?>,
       L extends CustomResourceList<T>> WatcherMonitor<T> createWatcher(
-      @NotNull Class<T> crClass, @NotNull Class<L> listClass, @NotNull Consumer<Action> consumer) {
+      @NotNull Class<T> crClass, @NotNull Class<L> listClass,
+      @NotNull BiConsumer<Action, T> consumer) {
 
     return new WatcherMonitor<>(watcherListener -> kubeClient.create()
         .customResources(crClass, listClass)
@@ -116,12 +139,40 @@ public class OperatorWatchersHandlerImpl implements OperatorWatcherHandler {
         () -> new Thread(() -> Application.currentApplication().stop()).start());
   }
 
-  private Consumer<Action> reconcileCluster() {
-    return action -> clusterReconciliationCycle.reconcile();
+  private BiConsumer<Action, StackGresCluster> reconcileCluster() {
+    return (action, cluster) -> clusterReconciliationCycle.enqueue(
+        cluster.getMetadata().getNamespace(), cluster.getMetadata().getName());
   }
 
-  private Consumer<Action> reconcileDistributedLogs() {
-    return action -> distributedLogsReconciliatorCycle.reconcile();
+  private void reconcileClusterDistributedLogs(Action action, StackGresCluster cluster) {
+    Optional.ofNullable(cluster.getSpec())
+        .map(StackGresClusterSpec::getDistributedLogs)
+        .map(StackGresClusterDistributedLogs::getDistributedLogs)
+        .ifPresent(distributedLogsRelativeId -> distributedLogsReconciliatorCycle.enqueue(
+            StackGresUtil.getNamespaceFromRelativeId(
+                distributedLogsRelativeId, cluster.getMetadata().getNamespace()),
+            StackGresUtil.getNameFromRelativeId(distributedLogsRelativeId)));
+  }
+
+  private <T extends CustomResource<?, ?>> BiConsumer<Action, T> reconcileReferencingClusters(
+      String kind) {
+    return (action, resource) -> {
+      final String namespace = resource.getMetadata().getNamespace();
+      final String name = resource.getMetadata().getName();
+      resourceCache.getResourcesByReference(StackGresCluster.class, kind, namespace, name)
+          .orElseGet(() -> scanReferencingClusters(kind, namespace, name))
+          .forEach(cluster -> clusterReconciliationCycle.enqueue(
+              cluster.getMetadata().getNamespace(), cluster.getMetadata().getName()));
+    };
+  }
+
+  private List<StackGresCluster> scanReferencingClusters(String kind, String namespace,
+      String name) {
+    final String referenceKey = CustomResourceCache.referenceIndexKey(kind, namespace, name);
+    return clusterScanner.getResources(namespace)
+        .stream()
+        .filter(cluster -> CustomResourceCache.referenceIndexFunc(cluster).contains(referenceKey))
+        .collect(Collectors.toList());
   }
 
   @Override
@@ -5,9 +5,12 @@
 
 package io.stackgres.operator.app;
 
+import java.util.concurrent.TimeUnit;
+
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
 
+import io.stackgres.common.OperatorProperty;
 import io.stackgres.common.app.AbstractReconciliationClock;
 import io.stackgres.operator.conciliation.cluster.ClusterReconciliator;
 import io.stackgres.operator.conciliation.distributedlogs.DistributedLogsReconciliator;
@@ -15,6 +18,8 @@ import io.stackgres.operator.conciliation.distributedlogs.DistributedLogsReconci
 @ApplicationScoped
 public class ReconciliationClockImpl extends AbstractReconciliationClock {
 
+  private static final int DEFAULT_RESYNC_PERIOD_SECONDS = 60;
+
   private final ClusterReconciliator clusterReconciliationCycle;
   private final DistributedLogsReconciliator distributedLogsReconciliator;
 
@@ -25,10 +30,40 @@ public class ReconciliationClockImpl extends AbstractReconciliationClock {
     this.distributedLogsReconciliator = distributedLogsConciliator;
   }
 
+  @Override
+  public void start() {
+    clusterReconciliationCycle.startWorkers();
+    distributedLogsReconciliator.startWorkers();
+    super.start();
+  }
+
+  @Override
+  public void stop() {
+    super.stop();
+    clusterReconciliationCycle.stopWorkers();
+    distributedLogsReconciliator.stopWorkers();
+  }
+
+  /**
+   * Periodic resync that enqueues every existing resource. Changes are normally picked up from
+   * watch events, this only covers missed events and state that is not watched.
+   */
   @Override
   protected void reconcile() {
-    clusterReconciliationCycle.reconcile();
-    distributedLogsReconciliator.reconcile();
+    clusterReconciliationCycle.enqueueAll();
+    distributedLogsReconciliator.enqueueAll();
+  }
+
+  @Override
+  protected int getPeriod() {
+    return OperatorProperty.RECONCILIATION_RESYNC_PERIOD.get()
+        .map(Integer::parseInt)
+        .orElse(DEFAULT_RESYNC_PERIOD_SECONDS);
+  }
+
+  @Override
+  protected TimeUnit getTimeUnit() {
+    return TimeUnit.SECONDS;
   }
 
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2020 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.operator.app;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Replace the bearer token of each request with the latest token, that is read again once the
+ * previous read expires. Clients that live as long as the operator (like the ones used by
+ * informers and watches) keep the HTTP client they were created with, so without this they would
+ * keep sending the token they were created with after the service account token is rotated.
+ */
+class RefreshedTokenInterceptor implements Interceptor {
+
+  private static final String AUTHORIZATION = "Authorization";
+  private static final String BEARER = "Bearer ";
+
+  private final Supplier<String> tokenSupplier;
+  private final Duration tokenTtl;
+  private final LongSupplier clock;
+
+  private String token;
+  private long tokenReadAt;
+
+  RefreshedTokenInterceptor(Supplier<String> tokenSupplier, Duration tokenTtl,
+      LongSupplier clock) {
+    this.tokenSupplier = tokenSupplier;
+    this.tokenTtl = tokenTtl;
+    this.clock = clock;
+  }
+
+  @Override
+  public Response intercept(Chain chain) throws IOException {
+    final Request request = chain.request();
+    final String authorization = request.header(AUTHORIZATION);
+    if (authorization == null || !authorization.startsWith(BEARER)) {
+      return chain.proceed(request);
+    }
+    final String currentToken = getToken();
+    if (currentToken == null) {
+      return chain.proceed(request);
+    }
+    return chain.proceed(request.newBuilder()
+        .header(AUTHORIZATION, BEARER + currentToken)
+        .build());
+  }
+
+  private synchronized String getToken() {
+    final long now = clock.getAsLong();
+    if (token == null || now - tokenReadAt > tokenTtl.toMillis()) {
+      token = tokenSupplier.get();
+      tokenReadAt = now;
+    }
+    return token;
+  }
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2020 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.operator.app;
+
+import okhttp3.OkHttpClient;
+
+/**
+ * An HTTP client shared by many Kubernetes clients that counts the clients using it. Once
+ * retired, it is shut down as soon as the last client using it is closed, so that the calls in
+ * flight finish before its dispatcher and connection pool are released.
+ */
+class SharedHttpClient {
+
+  private final OkHttpClient httpClient;
+  private final long createdAt;
+
+  private int references;
+  private boolean retired;
+  private boolean shutdown;
+
+  SharedHttpClient(OkHttpClient httpClient, long createdAt) {
+    this.httpClient = httpClient;
+    this.createdAt = createdAt;
+  }
+
+  OkHttpClient getHttpClient() {
+    return httpClient;
+  }
+
+  long getCreatedAt() {
+    return createdAt;
+  }
+
+  synchronized void acquire() {
+    references++;
+  }
+
+  synchronized void release() {
+    references--;
+    shutdownIfUnused();
+  }
+
+  /**
+   * Do not hand this HTTP client to new Kubernetes clients anymore and shut it down once the
+   * clients that use it are closed.
+   */
+  synchronized void retire() {
+    retired = true;
+    shutdownIfUnused();
+  }
+
+  synchronized boolean isShutdown() {
+    return shutdown;
+  }
+
+  private void shutdownIfUnused() {
+    if (retired && references <= 0 && !shutdown) {
+      shutdown = true;
+      // Calls already queued in the dispatcher are run before its executor terminates
+      httpClient.dispatcher().executorService().shutdown();
+      httpClient.connectionPool().evictAll();
+    }
+  }
+
+}
@@ -5,13 +5,25 @@
 
 package io.stackgres.operator.app;
 
+import java.util.List;
+
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.event.Observes;
 import javax.inject.Inject;
 
+import io.fabric8.kubernetes.client.CustomResource;
 import io.quarkus.runtime.ShutdownEvent;
 import io.quarkus.runtime.StartupEvent;
 import io.stackgres.common.app.ReconciliationClock;
+import io.stackgres.common.crd.sgbackup.StackGresBackup;
+import io.stackgres.common.crd.sgbackupconfig.StackGresBackupConfig;
+import io.stackgres.common.crd.sgcluster.StackGresCluster;
+import io.stackgres.common.crd.sgdbops.StackGresDbOps;
+import io.stackgres.common.crd.sgdistributedlogs.StackGresDistributedLogs;
+import io.stackgres.common.crd.sgpgconfig.StackGresPostgresConfig;
+import io.stackgres.common.crd.sgpooling.StackGresPoolingConfig;
+import io.stackgres.common.crd.sgprofile.StackGresProfile;
+import io.stackgres.common.resource.CustomResourceCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,12 +32,25 @@ public class StackGresOperatorApp {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(StackGresOperatorApp.class);
 
+  private static final List<Class<? extends CustomResource<?, ?>>> CACHED_RESOURCES = List.of(
+      StackGresCluster.class,
+      StackGresProfile.class,
+      StackGresPostgresConfig.class,
+      StackGresPoolingConfig.class,
+      StackGresBackupConfig.class,
+      StackGresBackup.class,
+      StackGresDistributedLogs.class,
+      StackGresDbOps.class);
+
   private OperatorWatcherHandler operatorWatchersHandler;
   private ReconciliationClock reconciliationClock;
   private OperatorBootstrap operatorBootstrap;
+  private CustomResourceCache resourceCache;
 
   void onStart(@Observes StartupEvent ev) {
     operatorBootstrap.bootstrap();
+    // Sync the cache before the watchers and workers look up any custom resource
+    resourceCache.start(CACHED_RESOURCES);
     operatorWatchersHandler.startWatchers();
     reconciliationClock.start();
   }
@@ -46,6 +71,11 @@ public class StackGresOperatorApp {
     this.reconciliationClock = reconciliationClock;
   }
 
+  @Inject
+  public void setResourceCache(CustomResourceCache resourceCache) {
+    this.resourceCache = resourceCache;
+  }
+
   @Inject
   public void setOperatorBootstrap(OperatorBootstrap operatorBootstrap) {
     this.operatorBootstrap = operatorBootstrap;
@@ -11,8 +11,6 @@ import io.fabric8.kubernetes.client.CustomResource;
 
 public interface ComparisonDelegator<T extends CustomResource<?, ?>> {
 
-  boolean isTheSameResource(HasMetadata required, HasMetadata deployed);
-
   boolean isResourceContentEqual(HasMetadata required, HasMetadata deployed);
 
   ArrayNode getJsonDiff(HasMetadata required, HasMetadata deployed);
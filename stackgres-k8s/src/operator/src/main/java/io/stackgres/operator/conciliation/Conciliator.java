@@ -5,61 +5,220 @@
 
 package io.stackgres.operator.conciliation;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import javax.inject.Inject;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
 import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
 import io.fabric8.kubernetes.client.CustomResource;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import io.stackgres.common.StackGresContext;
+import io.stackgres.operator.conciliation.comparator.DefaultComparator;
 import org.jooq.lambda.tuple.Tuple;
 import org.jooq.lambda.tuple.Tuple2;
 
 public class Conciliator<T extends CustomResource<?, ?>> {
 
+  private static final long MAX_IN_SYNC_RESOURCES = 10000L;
+
+  /**
+   * Remember, by UID, the hash of the required resource and the resourceVersion of the deployed
+   * resource the last time they were found equal, so unchanged resources are not diffed again.
+   */
+  private final Cache<String, Tuple2<String, String>> inSyncResources = CacheBuilder.newBuilder()
+      .expireAfterAccess(Duration.ofHours(1))
+      .maximumSize(MAX_IN_SYNC_RESOURCES)
+      .build();
+
+  /**
+   * Remember the hash of each required resource by the version of the inputs it was generated
+   * from, so required resources are not serialized and hashed again until their inputs change.
+   */
+  private final Cache<String, String> requiredHashes = CacheBuilder.newBuilder()
+      .expireAfterAccess(Duration.ofHours(1))
+      .maximumSize(MAX_IN_SYNC_RESOURCES)
+      .build();
+
   private RequiredResourceGenerator<T> requiredResourceGenerator;
 
   private DeployedResourcesScanner<T> deployedResourcesScanner;
 
   private ComparisonDelegator<T> resourceComparator;
 
+  /**
+   * Classify required and deployed resources in a single pass using an index of the deployed
+   * resources keyed by their identity (kind, namespace and name).
+   */
   public ReconciliationResult evalReconciliationState(T config) {
-    var requiredResources = requiredResourceGenerator.getRequiredResources(config);
+    var versionedRequiredResources = requiredResourceGenerator
+        .getVersionedRequiredResources(config);
+    var requiredResources = versionedRequiredResources.v1;
+    var inputsVersion = versionedRequiredResources.v2;
     var deployedResources = deployedResourcesScanner.getDeployedResources(config);
 
-    var creations = requiredResources.stream()
-        .filter(requiredResource -> deployedResources.stream()
-            .noneMatch(deployedResource -> isTheSameResource(requiredResource, deployedResource)));
-
-    var deletions = deployedResources.stream()
-        .filter(deployedResource -> requiredResources.stream()
-            .noneMatch(requiredResource -> isTheSameResource(deployedResource, requiredResource)))
-        .filter(ReconciliationUtil::isResourceReconciliationNotPaused);
-
-    Stream<Tuple2<HasMetadata, HasMetadata>> patches = requiredResources.stream()
-        .map(requiredResource -> {
-          Optional<HasMetadata> deployedResource = deployedResources.stream()
-              .filter(dr -> isTheSameResource(requiredResource, dr))
-              .findFirst();
-          return Tuple.tuple(requiredResource, deployedResource);
-        }).filter(resourceTuple -> resourceTuple.v2.isPresent())
-        .map(rt -> rt.map2(Optional::get))
-        .filter(tuple -> ReconciliationUtil.isResourceReconciliationNotPaused(tuple.v2))
-        .filter(resourceTuple -> !isResourceContentEqual(resourceTuple.v1, resourceTuple.v2));
-
-    return new ReconciliationResult(creations.collect(Collectors.toUnmodifiableList()),
-        patches.collect(Collectors.toUnmodifiableList()),
-        deletions.collect(Collectors.toUnmodifiableList()));
+    final Map<String, HasMetadata> deployedResourcesIndex = new HashMap<>(
+        deployedResources.size() * 2);
+    deployedResources.forEach(deployedResource -> deployedResourcesIndex
+        .putIfAbsent(getResourceKey(deployedResource), deployedResource));
+    final Set<String> requiredResourcesKeys = new HashSet<>(requiredResources.size() * 2);
+
+    final List<HasMetadata> creations = new ArrayList<>();
+    final List<Tuple2<HasMetadata, HasMetadata>> patches = new ArrayList<>();
+    for (HasMetadata requiredResource : requiredResources) {
+      final String requiredResourceKey = getResourceKey(requiredResource);
+      requiredResourcesKeys.add(requiredResourceKey);
+      final HasMetadata deployedResource = deployedResourcesIndex.get(requiredResourceKey);
+      if (deployedResource == null) {
+        creations.add(setResourceHash(requiredResource,
+            getRequiredHash(inputsVersion, requiredResourceKey, requiredResource)));
+      } else if (ReconciliationUtil.isResourceReconciliationNotPaused(deployedResource)) {
+        final String requiredHash = getRequiredHash(
+            inputsVersion, requiredResourceKey, requiredResource);
+        if (!isResourceContentEqual(requiredHash, requiredResource, deployedResource)) {
+          patches.add(Tuple.tuple(setResourceHash(requiredResource, requiredHash),
+              deployedResource));
+        }
+      }
+    }
+
+    final List<HasMetadata> deletions = deployedResources.stream()
+        .filter(deployedResource -> !requiredResourcesKeys.contains(
+            getResourceKey(deployedResource)))
+        .filter(ReconciliationUtil::isResourceReconciliationNotPaused)
+        .collect(Collectors.toUnmodifiableList());
+
+    return new ReconciliationResult(Collections.unmodifiableList(creations),
+        Collections.unmodifiableList(patches),
+        deletions);
+  }
+
+  static String getResourceKey(HasMetadata resource) {
+    return resource.getKind()
+        + "/" + resource.getMetadata().getNamespace()
+        + "/" + resource.getMetadata().getName();
+  }
+
+  private String getRequiredHash(Optional<String> inputsVersion, String requiredResourceKey,
+      HasMetadata requiredResource) {
+    if (inputsVersion.isEmpty()) {
+      return getResourceHash(requiredResource);
+    }
+    try {
+      return requiredHashes.get(inputsVersion.get() + "#" + requiredResourceKey,
+          () -> getResourceHash(requiredResource));
+    } catch (ExecutionException ex) {
+      throw new RuntimeException(ex.getCause());
+    }
+  }
+
+  /**
+   * When the required resource hash and the deployed resourceVersion did not change since the
+   * last time the resources were found equal the (expensive) comparison is skipped.
+   */
+  protected boolean isResourceContentEqual(String requiredHash, HasMetadata r1, HasMetadata r2) {
+    if (isInSync(requiredHash, r2)) {
+      return true;
+    }
+    final boolean isEqual = resourceComparator.isResourceContentEqual(r1,
+        withoutResourceHash(r2));
+    if (isEqual) {
+      setInSync(requiredHash, r2);
+    }
+    return isEqual;
+  }
+
+  private boolean isInSync(String requiredHash, HasMetadata deployed) {
+    final String deployedHash = getAnnotation(deployed, StackGresContext.RECONCILIATION_HASH_KEY);
+    if (deployedHash != null && !deployedHash.equals(requiredHash)) {
+      return false;
+    }
+    return Optional.ofNullable(deployed.getMetadata().getUid())
+        .map(inSyncResources::getIfPresent)
+        .filter(inSync -> inSync.v1.equals(requiredHash))
+        .filter(inSync -> Objects.equals(inSync.v2,
+            deployed.getMetadata().getResourceVersion()))
+        .isPresent();
+  }
+
+  private void setInSync(String requiredHash, HasMetadata deployed) {
+    final String uid = deployed.getMetadata().getUid();
+    final String resourceVersion = deployed.getMetadata().getResourceVersion();
+    if (uid != null && resourceVersion != null) {
+      inSyncResources.put(uid, Tuple.tuple(requiredHash, resourceVersion));
+    }
+  }
+
+  private HasMetadata setResourceHash(HasMetadata required, String requiredHash) {
+    final Map<String, String> annotations = new HashMap<>(Optional
+        .ofNullable(required.getMetadata().getAnnotations())
+        .orElse(Map.of()));
+    annotations.put(StackGresContext.RECONCILIATION_HASH_KEY, requiredHash);
+    required.getMetadata().setAnnotations(annotations);
+    return required;
+  }
 
+  private HasMetadata withoutResourceHash(HasMetadata deployed) {
+    if (getAnnotation(deployed, StackGresContext.RECONCILIATION_HASH_KEY) == null) {
+      return deployed;
+    }
+    final HasMetadata deployedCopy = Serialization.clone(deployed);
+    final Map<String, String> annotations = new HashMap<>(
+        deployedCopy.getMetadata().getAnnotations());
+    annotations.remove(StackGresContext.RECONCILIATION_HASH_KEY);
+    deployedCopy.getMetadata().setAnnotations(annotations.isEmpty() ? null : annotations);
+    return deployedCopy;
   }
 
-  protected boolean isResourceContentEqual(HasMetadata r1, HasMetadata r2) {
-    return resourceComparator.isResourceContentEqual(r1, r2);
+  /**
+   * Calculate the SHA-256 of the canonical (ordered by keys) JSON of a resource ignoring the
+   * reconciliation hash annotation itself.
+   */
+  static String getResourceHash(HasMetadata resource) {
+    final JsonNode resourceTree = DefaultComparator.PATCH_MAPPER.valueToTree(resource);
+    Optional.ofNullable(resourceTree.get("metadata"))
+        .filter(JsonNode::isObject)
+        .map(ObjectNode.class::cast)
+        .ifPresent(metadata -> {
+          JsonNode annotations = metadata.get("annotations");
+          if (annotations != null && annotations.isObject()) {
+            ((ObjectNode) annotations).remove(StackGresContext.RECONCILIATION_HASH_KEY);
+            if (annotations.size() == 0) {
+              metadata.remove("annotations");
+            }
+          }
+        });
+    try {
+      return Hashing.sha256()
+          .hashBytes(DefaultComparator.PATCH_MAPPER.writeValueAsBytes(resourceTree))
+          .toString();
+    } catch (JsonProcessingException ex) {
+      throw new RuntimeException(ex);
+    }
   }
 
-  protected boolean isTheSameResource(HasMetadata r1, HasMetadata r2) {
-    return resourceComparator.isTheSameResource(r1, r2);
+  private static String getAnnotation(HasMetadata resource, String key) {
+    return Optional.ofNullable(resource.getMetadata())
+        .map(ObjectMeta::getAnnotations)
+        .map(annotations -> annotations.get(key))
+        .orElse(null);
   }
 
   @Inject
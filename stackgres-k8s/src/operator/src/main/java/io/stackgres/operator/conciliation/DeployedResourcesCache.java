@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.operator.conciliation;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.dsl.base.OperationContext;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import io.stackgres.common.CdiUtil;
+import io.stackgres.common.KubernetesClientFactory;
+import io.stackgres.common.OperatorProperty;
+import io.stackgres.common.StackGresContext;
+import io.stackgres.common.resource.CustomResourceCache;
+import io.stackgres.common.resource.InformerUtil;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps an in-memory copy of the resources, of the kinds in
+ * {@code STACKGRES_CLUSTER_IN_NAMESPACE_RESOURCE_OPERATIONS}, that the cluster conciliator owns
+ * (see {@code getLabelSelector}). Resources are fed by a {@code SharedIndexInformer} for each
+ * kind and indexed by the UID of their owners so that the deployed resources of a cluster are
+ * found without listing each kind from the API server. When the cache is disabled (see
+ * {@code OperatorProperty.RESOURCE_CACHE_ENABLED}) or any informer could not be synced lookups
+ * return empty and callers must fall back to a live read.
+ */
+@ApplicationScoped
+public class DeployedResourcesCache implements ReconciliationOperations {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DeployedResourcesCache.class);
+
+  private final KubernetesClientFactory clientFactory;
+  private final boolean enabled;
+
+  private List<SharedIndexInformer<HasMetadata>> informers;
+
+  private KubernetesClient client;
+
+  @Inject
+  public DeployedResourcesCache(KubernetesClientFactory clientFactory) {
+    this(clientFactory, OperatorProperty.RESOURCE_CACHE_ENABLED.getBoolean());
+  }
+
+  DeployedResourcesCache(KubernetesClientFactory clientFactory, boolean enabled) {
+    this.clientFactory = clientFactory;
+    this.enabled = enabled;
+  }
+
+  public DeployedResourcesCache() {
+    this.clientFactory = null;
+    this.enabled = false;
+    CdiUtil.checkPublicNoArgsConstructorIsCalledToCreateProxy();
+  }
+
+  /**
+   * List the resources that have an owner reference with the given UID.
+   *
+   * @return empty if the cache is not available, otherwise the list of resources
+   */
+  public Optional<List<HasMetadata>> getResourcesByOwnerUid(@NotNull String ownerUid) {
+    return getInformers()
+        .map(syncedInformers -> syncedInformers.stream()
+            .flatMap(informer -> InformerUtil.byIndex(informer,
+                CustomResourceCache.OWNER_UID_INDEX, ownerUid)
+                .orElse(List.of())
+                .stream())
+            .map(Serialization::clone)
+            .collect(Collectors.toList()));
+  }
+
+  private Optional<List<SharedIndexInformer<HasMetadata>>> getInformers() {
+    if (!enabled) {
+      return Optional.empty();
+    }
+    final List<SharedIndexInformer<HasMetadata>> currentInformers = getOrCreateInformers();
+    if (!InformerUtil.hasSynced(currentInformers)) {
+      return Optional.empty();
+    }
+    return Optional.of(currentInformers);
+  }
+
+  @SuppressWarnings("unchecked")
+  private synchronized List<SharedIndexInformer<HasMetadata>> getOrCreateInformers() {
+    if (informers != null) {
+      return informers;
+    }
+    client = clientFactory.create();
+    informers = STACKGRES_CLUSTER_IN_NAMESPACE_RESOURCE_OPERATIONS.keySet()
+        .stream()
+        .map(resourceClass -> {
+          SharedIndexInformer<HasMetadata> informer = client.informers()
+              .sharedIndexInformerFor((Class<HasMetadata>) resourceClass,
+                  new OperationContext().withLabels(getLabelSelector(resourceClass)),
+                  InformerUtil.RESYNC_PERIOD_MILLIS);
+          informer.addIndexers(Map.of(CustomResourceCache.OWNER_UID_INDEX,
+              InformerUtil.indexFunc(CustomResourceCache::ownerUidIndexFunc)));
+          LOGGER.info("Starting cache for {}", resourceClass.getSimpleName());
+          informer.run();
+          return informer;
+        })
+        .collect(Collectors.toUnmodifiableList());
+    InformerUtil.waitForSync(informers, InformerUtil.SYNC_TIMEOUT_MILLIS, "deployed resources");
+    return informers;
+  }
+
+  /**
+   * The resources generated for a cluster are labeled with the cluster name. Pods are not
+   * generated by the conciliator but the StatefulSet ones are needed to check if the cluster is
+   * pending restart. A {@code null} value selects the resources that have the label.
+   */
+  static Map<String, String> getLabelSelector(Class<? extends HasMetadata> resourceClass) {
+    final Map<String, String> labelSelector = new HashMap<>();
+    labelSelector.put(StackGresContext.APP_KEY, StackGresContext.APP_NAME);
+    if (resourceClass == Pod.class) {
+      labelSelector.put(StackGresContext.CLUSTER_KEY, StackGresContext.RIGHT_VALUE);
+    } else {
+      labelSelector.put(StackGresContext.CLUSTER_NAME_KEY, null);
+    }
+    return labelSelector;
+  }
+
+  @PreDestroy
+  public synchronized void close() {
+    if (informers != null) {
+      informers.forEach(SharedIndexInformer::stop);
+      informers = null;
+    }
+    if (client != null) {
+      client.close();
+      client = null;
+    }
+  }
+
+}
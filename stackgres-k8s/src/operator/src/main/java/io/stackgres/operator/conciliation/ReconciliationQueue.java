@@ -0,0 +1,197 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.operator.conciliation;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A keyed work queue that deduplicates pending keys and never hands the same key to two workers
+ * at once. Keys that are added while being processed are queued again once the worker is done.
+ * Keys whose processing fails are requeued with an exponential backoff.
+ */
+public class ReconciliationQueue {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger("io.stackgres.reconciliator");
+
+  private static final long POLL_MILLIS = 1000L;
+
+  private final String name;
+  private final Predicate<String> handler;
+  private final Duration baseDelay;
+  private final Duration maxDelay;
+
+  private final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+  private final Set<String> dirty = new HashSet<>();
+  private final Set<String> processing = new HashSet<>();
+  private final Map<String, Integer> failures = new HashMap<>();
+
+  private ScheduledExecutorService delayedExecutor;
+  private ExecutorService workers;
+  private volatile boolean running;
+
+  /**
+   * Create a queue whose keys are processed by {@code handler}. The handler must return
+   * {@code false} when the key has to be retried later.
+   */
+  public ReconciliationQueue(String name, Predicate<String> handler,
+      Duration baseDelay, Duration maxDelay) {
+    this.name = name;
+    this.handler = handler;
+    this.baseDelay = baseDelay;
+    this.maxDelay = maxDelay;
+  }
+
+  public static String key(String namespace, String name) {
+    return namespace + "/" + name;
+  }
+
+  public static String namespace(String key) {
+    return key.substring(0, key.indexOf('/'));
+  }
+
+  public static String name(String key) {
+    return key.substring(key.indexOf('/') + 1);
+  }
+
+  /**
+   * Add a key to the queue unless it is already waiting to be processed.
+   */
+  public synchronized void add(String key) {
+    if (dirty.add(key) && !processing.contains(key)) {
+      queue.add(key);
+    }
+  }
+
+  /**
+   * Add a key to the queue after a delay that doubles on each consecutive failure of that key.
+   */
+  public void addRateLimited(String key) {
+    final int keyFailures;
+    synchronized (this) {
+      keyFailures = failures.merge(key, 1, Integer::sum);
+    }
+    final long delay = getDelay(keyFailures).toMillis();
+    LOGGER.debug("Requeuing {} in {} ms after {} failures", key, delay, keyFailures);
+    if (delayedExecutor != null && !delayedExecutor.isShutdown()) {
+      delayedExecutor.schedule(() -> add(key), delay, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  Duration getDelay(int keyFailures) {
+    final int exponent = Math.min(keyFailures - 1, 30);
+    final long delay = baseDelay.toMillis() * (1L << exponent);
+    return Duration.ofMillis(Math.min(delay, maxDelay.toMillis()));
+  }
+
+  /**
+   * Reset the failures counter of a key.
+   */
+  public synchronized void forget(String key) {
+    failures.remove(key);
+  }
+
+  public synchronized int size() {
+    return dirty.size();
+  }
+
+  private synchronized void startProcessing(String key) {
+    dirty.remove(key);
+    processing.add(key);
+  }
+
+  private synchronized void doneProcessing(String key) {
+    processing.remove(key);
+    if (dirty.contains(key)) {
+      queue.add(key);
+    }
+  }
+
+  /**
+   * Start the given number of workers.
+   */
+  public synchronized void start(int workersCount) {
+    if (running) {
+      return;
+    }
+    running = true;
+    final AtomicInteger workerIndex = new AtomicInteger();
+    delayedExecutor = Executors.newSingleThreadScheduledExecutor(
+        r -> new Thread(r, name + "-Requeue"));
+    workers = Executors.newFixedThreadPool(workersCount,
+        r -> new Thread(r, name + "-Worker-" + workerIndex.incrementAndGet()));
+    for (int index = 0; index < workersCount; index++) {
+      workers.execute(this::work);
+    }
+  }
+
+  private void work() {
+    while (running) {
+      final String key;
+      try {
+        key = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      if (key == null) {
+        continue;
+      }
+      startProcessing(key);
+      try {
+        if (handler.test(key)) {
+          forget(key);
+        } else {
+          addRateLimited(key);
+        }
+      } catch (Exception ex) {
+        LOGGER.error("Unexpected error while processing {}", key, ex);
+        addRateLimited(key);
+      } finally {
+        doneProcessing(key);
+      }
+    }
+  }
+
+  /**
+   * Stop the workers, waiting for those in progress to finish.
+   */
+  public void stop() {
+    final ExecutorService workersToStop;
+    synchronized (this) {
+      if (!running) {
+        return;
+      }
+      running = false;
+      workersToStop = workers;
+      delayedExecutor.shutdownNow();
+    }
+    workersToStop.shutdown();
+    try {
+      if (!workersToStop.awaitTermination(POLL_MILLIS * 2, TimeUnit.MILLISECONDS)) {
+        workersToStop.shutdownNow();
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      workersToStop.shutdownNow();
+    }
+  }
+
+}
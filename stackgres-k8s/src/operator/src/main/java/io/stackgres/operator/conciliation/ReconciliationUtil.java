@@ -5,7 +5,10 @@
 
 package io.stackgres.operator.conciliation;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.api.model.ObjectMeta;
@@ -36,4 +39,24 @@ public class ReconciliationUtil {
         .filter(pause -> pause)
         .isEmpty();
   }
+
+  /**
+   * Build the version of the inputs used to generate the required resources from the identity
+   * and resourceVersion of each input. Empty if any input has no resourceVersion.
+   */
+  public static Optional<String> getInputsVersion(Stream<? extends HasMetadata> inputs) {
+    final List<String> versions = inputs
+        .map(input -> Optional.ofNullable(input.getMetadata().getResourceVersion())
+            .map(resourceVersion -> input.getKind()
+                + "/" + input.getMetadata().getNamespace()
+                + "/" + input.getMetadata().getName()
+                + "/" + input.getMetadata().getUid()
+                + "/" + resourceVersion))
+        .map(version -> version.orElse(null))
+        .collect(Collectors.toList());
+    if (versions.contains(null)) {
+      return Optional.empty();
+    }
+    return Optional.of(String.join(",", versions));
+  }
 }
@@ -6,11 +6,23 @@
 package io.stackgres.operator.conciliation;
 
 import java.util.List;
+import java.util.Optional;
 
 import io.fabric8.kubernetes.api.model.HasMetadata;
 import io.fabric8.kubernetes.client.CustomResource;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple2;
 
 public interface RequiredResourceGenerator<T extends CustomResource<?, ?>> {
 
   List<HasMetadata> getRequiredResources(T config);
+
+  /**
+   * Generate the required resources together with the version of the inputs (the config and the
+   * resources it references) they were generated from. The same inputs version always generates
+   * the same required resources. The version is empty when it is not known.
+   */
+  default Tuple2<List<HasMetadata>, Optional<String>> getVersionedRequiredResources(T config) {
+    return Tuple.tuple(getRequiredResources(config), Optional.empty());
+  }
 }
@@ -5,15 +5,19 @@
 
 package io.stackgres.operator.conciliation;
 
+import java.time.Duration;
 import java.util.Optional;
 import java.util.stream.Stream;
 
+import javax.annotation.PostConstruct;
 import javax.inject.Inject;
 
 import io.fabric8.kubernetes.api.model.ObjectMeta;
 import io.fabric8.kubernetes.client.CustomResource;
 import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.stackgres.common.OperatorProperty;
 import io.stackgres.common.StackGresContext;
+import io.stackgres.common.resource.CustomResourceFinder;
 import io.stackgres.common.resource.CustomResourceScanner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,82 +29,143 @@ public abstract class StackGresReconciliator<T extends CustomResource<?, ?>> {
   private static final String STACKGRES_IO_RECONCILIATION = StackGresContext
       .RECONCILIATION_PAUSE_KEY;
 
+  private static final int DEFAULT_WORKERS = 4;
+
+  private ReconciliationQueue queue;
+
   private CustomResourceScanner<T> clusterScanner;
 
+  private CustomResourceFinder<T> clusterFinder;
+
   private Conciliator<T> clusterConciliator;
 
   private HandlerDelegator<T> handlerDelegator;
 
-  public synchronized void reconcile() {
-    getExistentSources().forEach(cluster -> {
-      final ObjectMeta metadata = cluster.getMetadata();
-      final String clusterId = metadata.getNamespace() + "/" + metadata.getName();
+  /**
+   * The queue is created here and not when constructed since the CDI client proxies, that
+   * extend this class, are constructed too.
+   */
+  @PostConstruct
+  protected void init() {
+    queue = new ReconciliationQueue(getClass().getSimpleName(), this::reconcileKey,
+        Duration.ofSeconds(1), Duration.ofMinutes(5));
+  }
 
-      try {
-        onPreReconciliation(cluster);
-        LOGGER.info("Checking reconciliation status of cluster {}", clusterId);
-        ReconciliationResult result = clusterConciliator.evalReconciliationState(cluster);
-        if (!result.isUpToDate()) {
-          LOGGER.info("Cluster {} it's not up to date. Reconciling", clusterId);
-
-          result.getCreations()
-              .forEach(resource -> {
-                LOGGER.info("Creating resource {} of kind: {}",
-                    resource.getMetadata().getName(), resource.getKind());
-                try {
-                  handlerDelegator.create(resource);
-                } catch (KubernetesClientException ex) {
-                  if (ex.getCode() == 409) {
-                    handlerDelegator.replace(resource);
-                  } else {
-                    throw ex;
-                  }
+  /**
+   * Start the workers that reconcile the resources enqueued with {@code enqueue}. The number of
+   * workers is read from {@code OperatorProperty.RECONCILIATION_WORKERS}.
+   */
+  public void startWorkers() {
+    queue.start(OperatorProperty.RECONCILIATION_WORKERS.get()
+        .map(Integer::parseInt)
+        .orElse(DEFAULT_WORKERS));
+  }
+
+  public void stopWorkers() {
+    queue.stop();
+  }
+
+  /**
+   * Enqueue the resource with the given namespace and name to be reconciled by a worker.
+   */
+  public void enqueue(String namespace, String name) {
+    queue.add(ReconciliationQueue.key(namespace, name));
+  }
+
+  /**
+   * Enqueue all the existing resources to be reconciled by a worker.
+   */
+  public void enqueueAll() {
+    getExistentSources().forEach(cluster -> enqueue(
+        cluster.getMetadata().getNamespace(), cluster.getMetadata().getName()));
+  }
+
+  private boolean reconcile(T cluster) {
+    final ObjectMeta metadata = cluster.getMetadata();
+    final String clusterId = metadata.getNamespace() + "/" + metadata.getName();
+
+    try {
+      onPreReconciliation(cluster);
+      LOGGER.info("Checking reconciliation status of cluster {}", clusterId);
+      ReconciliationResult result = clusterConciliator.evalReconciliationState(cluster);
+      if (!result.isUpToDate()) {
+        LOGGER.info("Cluster {} it's not up to date. Reconciling", clusterId);
+
+        result.getCreations()
+            .forEach(resource -> {
+              LOGGER.info("Creating resource {} of kind: {}",
+                  resource.getMetadata().getName(), resource.getKind());
+              try {
+                handlerDelegator.create(resource);
+              } catch (KubernetesClientException ex) {
+                if (ex.getCode() == 409) {
+                  handlerDelegator.replace(resource);
+                } else {
+                  throw ex;
                 }
-              });
-
-          result.getPatches()
-              .forEach(resource -> {
-                LOGGER.info("Patching resource {} of kind: {}", resource.v2.getMetadata().getName(),
-                    resource.v2.getKind());
-                handlerDelegator.patch(resource.v1, resource.v2);
-              });
-
-          result.getDeletions()
-              .forEach(resource -> {
-                LOGGER.info("Deleting resource {} of kind: {}", resource.getMetadata().getName(),
-                    resource.getKind());
-                handlerDelegator.delete(resource);
-              });
-          if (result.getDeletions().size() == 0 && result.getPatches().size() == 0) {
-            onConfigCreated(cluster, result);
-          } else {
-            onConfigUpdated(cluster, result);
-          }
+              }
+            });
+
+        result.getPatches()
+            .forEach(resource -> {
+              LOGGER.info("Patching resource {} of kind: {}", resource.v2.getMetadata().getName(),
+                  resource.v2.getKind());
+              handlerDelegator.patch(resource.v1, resource.v2);
+            });
+
+        result.getDeletions()
+            .forEach(resource -> {
+              LOGGER.info("Deleting resource {} of kind: {}", resource.getMetadata().getName(),
+                  resource.getKind());
+              handlerDelegator.delete(resource);
+            });
+        if (result.getDeletions().size() == 0 && result.getPatches().size() == 0) {
+          onConfigCreated(cluster, result);
         } else {
-          LOGGER.info("Cluster " + clusterId + " it's up to date");
+          onConfigUpdated(cluster, result);
         }
+      } else {
+        LOGGER.info("Cluster " + clusterId + " it's up to date");
+      }
 
-        onPostReconciliation(cluster);
-
-      } catch (Exception e) {
-        LOGGER.error("Reconciliation of cluster {} failed", clusterId, e);
-        try {
-          onError(e, cluster);
-        } catch (Exception onErrorEx) {
-          LOGGER.error("Failed of executing on error event of cluster {}", clusterId, onErrorEx);
-        }
+      onPostReconciliation(cluster);
+      return true;
+    } catch (Exception e) {
+      LOGGER.error("Reconciliation of cluster {} failed", clusterId, e);
+      try {
+        onError(e, cluster);
+      } catch (Exception onErrorEx) {
+        LOGGER.error("Failed of executing on error event of cluster {}", clusterId, onErrorEx);
       }
-    });
+      return false;
+    }
+  }
 
+  private boolean reconcileKey(String key) {
+    final String namespace = ReconciliationQueue.namespace(key);
+    final String name = ReconciliationQueue.name(key);
+    final Optional<T> cluster = clusterFinder.findByNameAndNamespace(name, namespace);
+    if (cluster.isEmpty()) {
+      onDeletion(namespace, name);
+      return true;
+    }
+    return cluster
+        .filter(this::isReconciliationNotPaused)
+        .map(this::reconcile)
+        .orElse(true);
   }
 
   private Stream<T> getExistentSources() {
     return clusterScanner.getResources().stream()
-        .filter(r -> Optional.ofNullable(r.getMetadata().getAnnotations())
-            .map(annotations -> annotations.get(STACKGRES_IO_RECONCILIATION))
-            .map(Boolean::parseBoolean)
-            .map(b -> !b)
-            .orElse(true));
+        .filter(this::isReconciliationNotPaused);
+  }
+
+  private boolean isReconciliationNotPaused(T cluster) {
+    return Optional.ofNullable(cluster.getMetadata().getAnnotations())
+        .map(annotations -> annotations.get(STACKGRES_IO_RECONCILIATION))
+        .map(Boolean::parseBoolean)
+        .map(b -> !b)
+        .orElse(true);
   }
 
   public abstract void onPreReconciliation(T config);
@@ -113,11 +178,23 @@ public abstract class StackGresReconciliator<T extends CustomResource<?, ?>> {
 
   public abstract void onError(Exception e, T context);
 
+  /**
+   * Called when the resource with the given namespace and name, that was enqueued, no longer
+   * exists.
+   */
+  public void onDeletion(String namespace, String name) {
+  }
+
   @Inject
   public synchronized void setClusterScanner(CustomResourceScanner<T> clusterScanner) {
     this.clusterScanner = clusterScanner;
   }
 
+  @Inject
+  public void setClusterFinder(CustomResourceFinder<T> clusterFinder) {
+    this.clusterFinder = clusterFinder;
+  }
+
   @Inject
   public void setClusterConciliator(Conciliator<T> clusterConciliator) {
     this.clusterConciliator = clusterConciliator;
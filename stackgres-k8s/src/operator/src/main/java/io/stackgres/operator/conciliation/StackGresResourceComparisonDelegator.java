@@ -15,14 +15,6 @@ public abstract class StackGresResourceComparisonDelegator<T extends CustomResou
 
   protected abstract ResourceComparator getComparator(HasMetadata r1);
 
-  @Override
-  public boolean isTheSameResource(HasMetadata required, HasMetadata deployed) {
-    ResourceComparator comparator = getComparator(required);
-
-    return comparator
-        .isTheSameResource(required, deployed);
-  }
-
   @Override
   public boolean isResourceContentEqual(HasMetadata required, HasMetadata deployed) {
     ResourceComparator comparator = getComparator(required);
@@ -12,6 +12,7 @@ public enum VolumeMountProviderName {
   CONTAINER_USER_OVERRIDE,
   MAJOR_VERSION_UPGRADE,
   POSTGRES_EXTENSIONS,
+  EXTENSIONS_CACHE,
   CONTAINER_LOCAL_OVERRIDE,
   SCRIPT_TEMPLATES,
   LOCAL_BIN,
@@ -20,9 +20,13 @@ public class ClusterConciliator extends Conciliator<StackGresCluster> {
 
   private final ClusterStatusManager statusManager;
 
+  private final ClusterReconciliationSnapshots snapshots;
+
   @Inject
-  public ClusterConciliator(ClusterStatusManager statusManager) {
+  public ClusterConciliator(ClusterStatusManager statusManager,
+      ClusterReconciliationSnapshots snapshots) {
     this.statusManager = statusManager;
+    this.snapshots = snapshots;
   }
 
   @Override
@@ -39,6 +43,10 @@ public class ClusterConciliator extends Conciliator<StackGresCluster> {
               .isResourceReconciliationNotPausedUntilRestart(tuple.v2))
           .collect(Collectors.toUnmodifiableList()));
     }
+
+    if (!reconciliationResult.isUpToDate()) {
+      snapshots.remove(config);
+    }
     return reconciliationResult;
   }
 }
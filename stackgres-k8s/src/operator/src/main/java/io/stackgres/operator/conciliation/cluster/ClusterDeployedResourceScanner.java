@@ -7,6 +7,8 @@ package io.stackgres.operator.conciliation.cluster;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -16,11 +18,14 @@ import javax.enterprise.inject.Instance;
 import javax.inject.Inject;
 
 import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.apps.StatefulSet;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.stackgres.common.KubernetesClientFactory;
 import io.stackgres.common.LabelFactory;
 import io.stackgres.common.crd.sgcluster.StackGresCluster;
 import io.stackgres.operator.conciliation.DeployedResourceDecorator;
+import io.stackgres.operator.conciliation.DeployedResourcesCache;
 import io.stackgres.operator.conciliation.DeployedResourcesScanner;
 import io.stackgres.operator.conciliation.ReconciliationOperations;
 import io.stackgres.operator.conciliation.ReconciliationScopeLiteral;
@@ -32,15 +37,21 @@ public class ClusterDeployedResourceScanner implements DeployedResourcesScanner<
   private final KubernetesClientFactory clientFactory;
   private final LabelFactory<StackGresCluster> labelFactory;
   private final Instance<DeployedResourceDecorator> decorators;
+  private final DeployedResourcesCache deployedResourcesCache;
+  private final ClusterReconciliationSnapshots snapshots;
 
   @Inject
   public ClusterDeployedResourceScanner(
       KubernetesClientFactory clientFactory,
       LabelFactory<StackGresCluster> labelFactory,
-      @Any Instance<DeployedResourceDecorator> decorators) {
+      @Any Instance<DeployedResourceDecorator> decorators,
+      DeployedResourcesCache deployedResourcesCache,
+      ClusterReconciliationSnapshots snapshots) {
     this.clientFactory = clientFactory;
     this.labelFactory = labelFactory;
     this.decorators = decorators;
+    this.deployedResourcesCache = deployedResourcesCache;
+    this.snapshots = snapshots;
   }
 
   @Override
@@ -50,15 +61,19 @@ public class ClusterDeployedResourceScanner implements DeployedResourcesScanner<
 
       final Map<String, String> genericClusterLabels = labelFactory.genericClusterLabels(config);
 
-      Stream<HasMetadata> inNamespace = STACKGRES_CLUSTER_IN_NAMESPACE_RESOURCE_OPERATIONS
-          .values()
-          .stream()
-          .flatMap(resourceOperationGetter -> resourceOperationGetter.apply(client)
-              .inNamespace(config.getMetadata().getNamespace())
-              .withLabels(genericClusterLabels)
-              .list()
-              .getItems()
-              .stream());
+      final Optional<List<HasMetadata>> cachedInNamespace = deployedResourcesCache
+          .getResourcesByOwnerUid(config.getMetadata().getUid());
+      final List<HasMetadata> inNamespace = cachedInNamespace
+          .orElseGet(() -> STACKGRES_CLUSTER_IN_NAMESPACE_RESOURCE_OPERATIONS
+              .values()
+              .stream()
+              .flatMap(resourceOperationGetter -> resourceOperationGetter.apply(client)
+                  .inNamespace(config.getMetadata().getNamespace())
+                  .withLabels(genericClusterLabels)
+                  .list()
+                  .getItems()
+                  .stream())
+              .collect(Collectors.toUnmodifiableList()));
 
       Stream<HasMetadata> anyNamespace = STACKGRES_CLUSTER_ANY_NAMESPACE_RESOURCE_OPERATIONS
           .values()
@@ -67,14 +82,16 @@ public class ClusterDeployedResourceScanner implements DeployedResourcesScanner<
               .apply(client, genericClusterLabels)
               .stream());
 
-      List<HasMetadata> deployedResources = Stream.concat(inNamespace, anyNamespace)
-          .filter(resource1 -> resource1.getMetadata().getOwnerReferences()
-              .stream().anyMatch(ownerReference -> ownerReference.getKind()
-                  .equals(StackGresCluster.KIND)
-                  && ownerReference.getName().equals(config.getMetadata().getName())
-                  && ownerReference.getUid().equals(config.getMetadata().getUid())))
+      List<HasMetadata> deployedResources = Stream.concat(inNamespace.stream(), anyNamespace)
+          .filter(resource -> isOwnedBy(resource, StackGresCluster.KIND,
+              config.getMetadata().getName(), config.getMetadata().getUid()))
           .collect(Collectors.toUnmodifiableList());
 
+      takeSnapshot(config, deployedResources, cachedInNamespace.isPresent()
+          ? sts -> deployedResourcesCache.getResourcesByOwnerUid(sts.getMetadata().getUid())
+              .orElse(List.of())
+          : sts -> inNamespace);
+
       deployedResources.forEach(resource -> {
         Instance<DeployedResourceDecorator> decorator = decorators
             .select(new ReconciliationScopeLiteral(StackGresCluster.class, resource.getKind()));
@@ -87,4 +104,33 @@ public class ClusterDeployedResourceScanner implements DeployedResourcesScanner<
     }
 
   }
+
+  /**
+   * Store the StatefulSet and its Pods so that checking if the cluster is pending restart
+   * does not require to retrieve them again. The Pods are owned by the StatefulSet and so
+   * are found among the resources that the StatefulSet (and not the cluster) owns.
+   */
+  private void takeSnapshot(StackGresCluster config, List<HasMetadata> deployedResources,
+      Function<StatefulSet, List<HasMetadata>> stsOwnedResources) {
+    final Optional<StatefulSet> statefulSet = deployedResources.stream()
+        .filter(StatefulSet.class::isInstance)
+        .map(StatefulSet.class::cast)
+        .findFirst();
+    final List<Pod> pods = statefulSet
+        .map(sts -> stsOwnedResources.apply(sts).stream()
+            .filter(Pod.class::isInstance)
+            .map(Pod.class::cast)
+            .filter(pod -> isOwnedBy(pod, "StatefulSet",
+                sts.getMetadata().getName(), sts.getMetadata().getUid()))
+            .collect(Collectors.toUnmodifiableList()))
+        .orElse(List.of());
+    snapshots.put(config, statefulSet, pods);
+  }
+
+  private boolean isOwnedBy(HasMetadata resource, String kind, String name, String uid) {
+    return resource.getMetadata().getOwnerReferences()
+        .stream().anyMatch(ownerReference -> ownerReference.getKind().equals(kind)
+            && ownerReference.getName().equals(name)
+            && ownerReference.getUid().equals(uid));
+  }
 }
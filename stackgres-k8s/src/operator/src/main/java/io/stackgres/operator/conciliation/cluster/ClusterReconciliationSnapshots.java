@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.operator.conciliation.cluster;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import io.fabric8.kubernetes.api.model.Pod;
+import io.fabric8.kubernetes.api.model.apps.StatefulSet;
+import io.stackgres.common.crd.sgcluster.StackGresCluster;
+
+/**
+ * Holds, for the reconciliation cycle in progress of each cluster, the StatefulSet and Pods
+ * found while scanning the deployed resources so that they are not retrieved again to check
+ * if the cluster is pending restart. A snapshot must be removed as soon as the cycle applies
+ * changes, since it no longer reflects the deployed resources, and when the cycle fails or the
+ * cluster is deleted, so that no snapshot is kept for a cluster that is not being reconciled.
+ */
+@ApplicationScoped
+public class ClusterReconciliationSnapshots {
+
+  private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+  private static String getClusterId(StackGresCluster cluster) {
+    return getClusterId(cluster.getMetadata().getNamespace(), cluster.getMetadata().getName());
+  }
+
+  private static String getClusterId(String namespace, String name) {
+    return namespace + "/" + name;
+  }
+
+  public void put(StackGresCluster cluster, Optional<StatefulSet> statefulSet, List<Pod> pods) {
+    snapshots.put(getClusterId(cluster), new Snapshot(statefulSet, pods));
+  }
+
+  public Optional<Snapshot> get(StackGresCluster cluster) {
+    return Optional.ofNullable(snapshots.get(getClusterId(cluster)));
+  }
+
+  public Optional<Snapshot> remove(StackGresCluster cluster) {
+    return Optional.ofNullable(snapshots.remove(getClusterId(cluster)));
+  }
+
+  public void remove(String namespace, String name) {
+    snapshots.remove(getClusterId(namespace, name));
+  }
+
+  public static class Snapshot {
+    private final Optional<StatefulSet> statefulSet;
+    private final List<Pod> pods;
+
+    Snapshot(Optional<StatefulSet> statefulSet, List<Pod> pods) {
+      this.statefulSet = statefulSet;
+      this.pods = pods;
+    }
+
+    public Optional<StatefulSet> getStatefulSet() {
+      return statefulSet;
+    }
+
+    public List<Pod> getPods() {
+      return pods;
+    }
+  }
+
+}
@@ -6,7 +6,9 @@
 package io.stackgres.operator.conciliation.cluster;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
@@ -15,6 +17,7 @@ import io.stackgres.common.crd.sgbackup.BackupEventReason;
 import io.stackgres.common.crd.sgbackup.BackupPhase;
 import io.stackgres.common.crd.sgbackup.StackGresBackup;
 import io.stackgres.common.crd.sgbackup.StackGresBackupProcess;
+import io.stackgres.common.crd.sgbackup.StackGresBackupSpec;
 import io.stackgres.common.crd.sgbackup.StackGresBackupStatus;
 import io.stackgres.common.crd.sgbackupconfig.StackGresBackupConfig;
 import io.stackgres.common.crd.sgcluster.ClusterEventReason;
@@ -55,15 +58,22 @@ public class ClusterReconciliator
 
   private PatchResumer patchResumer;
 
+  private ClusterReconciliationSnapshots snapshots;
+
   @Override
   public void onPreReconciliation(StackGresCluster config) {
     String namespace = config.getMetadata().getNamespace();
 
-    List<StackGresBackup> backups = backupScanner.getResources(namespace);
+    // Only the backups of this cluster are handled so that workers reconciling other clusters
+    // of the same namespace never update the same SGBackup
+    List<StackGresBackup> backups = backupScanner.getResources(namespace).stream()
+        .filter(backup -> Objects.equals(config.getMetadata().getName(),
+            Optional.ofNullable(backup.getSpec())
+            .map(StackGresBackupSpec::getSgCluster)
+            .orElse(null)))
+        .collect(Collectors.toUnmodifiableList());
 
-    backups.stream().filter(backup -> Optional.ofNullable(backup.getStatus())
-            .map(StackGresBackupStatus::getProcess)
-            .map(StackGresBackupProcess::getStatus).isEmpty())
+    backups.stream().filter(this::isBackupNotInitialized)
         .forEach(this::initBackup);
 
     if (!backups.isEmpty() && getBackupConfig(config).isEmpty()) {
@@ -77,11 +87,20 @@ public class ClusterReconciliator
 
   }
 
+  private boolean isBackupNotInitialized(StackGresBackup backup) {
+    return Optional.ofNullable(backup.getStatus())
+        .map(StackGresBackupStatus::getProcess)
+        .map(StackGresBackupProcess::getStatus).isEmpty();
+  }
+
   private void initBackup(StackGresBackup backup) {
-    backup.setStatus(new StackGresBackupStatus());
-    backup.getStatus().setProcess(new StackGresBackupProcess());
-    backup.getStatus().getProcess().setStatus(BackupPhase.PENDING.label());
-    backupScheduler.update(backup);
+    backupScheduler.update(backup, currentBackup -> {
+      if (isBackupNotInitialized(currentBackup)) {
+        currentBackup.setStatus(new StackGresBackupStatus());
+        currentBackup.getStatus().setProcess(new StackGresBackupProcess());
+        currentBackup.getStatus().getProcess().setStatus(BackupPhase.PENDING.label());
+      }
+    });
   }
 
   private Optional<StackGresBackupConfig> getBackupConfig(StackGresCluster cluster) {
@@ -94,8 +113,8 @@ public class ClusterReconciliator
 
   @Override
   public void onPostReconciliation(StackGresCluster config) {
-    statusManager.refreshCondition(config);
-    clusterScheduler.updateStatus(config);
+    // The status is refreshed on a live read since the given cluster may be stale
+    clusterScheduler.updateStatus(config, statusManager::refreshCondition);
   }
 
   @Override
@@ -120,6 +139,7 @@ public class ClusterReconciliator
 
   @Override
   public void onError(Exception ex, StackGresCluster cluster) {
+    snapshots.remove(cluster);
     String message = MessageFormatter.arrayFormat(
         "Cluster reconciliation cycle failed",
         new String[]{
@@ -128,6 +148,11 @@ public class ClusterReconciliator
         message + ": " + ex.getMessage(), cluster);
   }
 
+  @Override
+  public void onDeletion(String namespace, String name) {
+    snapshots.remove(namespace, name);
+  }
+
   @Inject
   public void setStatusManager(
       StatusManager<StackGresCluster, StackGresClusterCondition> statusManager) {
@@ -173,4 +198,9 @@ public class ClusterReconciliator
   public void setResourceComparator(ComparisonDelegator<StackGresCluster> resourceComparator) {
     this.patchResumer = new PatchResumer(resourceComparator);
   }
+
+  @Inject
+  public void setSnapshots(ClusterReconciliationSnapshots snapshots) {
+    this.snapshots = snapshots;
+  }
 }
@@ -38,6 +38,7 @@ import io.stackgres.common.resource.CustomResourceFinder;
 import io.stackgres.common.resource.CustomResourceScanner;
 import io.stackgres.common.resource.ResourceFinder;
 import io.stackgres.operator.common.Prometheus;
+import io.stackgres.operator.conciliation.ReconciliationUtil;
 import io.stackgres.operator.conciliation.RequiredResourceGenerator;
 import io.stackgres.operator.conciliation.ResourceGenerationDiscoverer;
 import io.stackgres.operator.conciliation.ResourceGenerator;
@@ -47,7 +48,10 @@ import io.stackgres.operator.configuration.OperatorPropertyContext;
 import io.stackgres.operator.customresource.prometheus.PrometheusConfig;
 import io.stackgres.operator.customresource.prometheus.PrometheusConfigSpec;
 import io.stackgres.operator.customresource.prometheus.PrometheusInstallation;
+import org.jooq.lambda.Seq;
 import org.jooq.lambda.Unchecked;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple2;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -121,6 +125,12 @@ public class ClusterRequiredResourcesGenerator
 
   @Override
   public List<HasMetadata> getRequiredResources(StackGresCluster config) {
+    return getVersionedRequiredResources(config).v1;
+  }
+
+  @Override
+  public Tuple2<List<HasMetadata>, Optional<String>> getVersionedRequiredResources(
+      StackGresCluster config) {
 
     final ObjectMeta metadata = config.getMetadata();
     final String clusterName = metadata.getName();
@@ -203,7 +213,27 @@ public class ClusterRequiredResourcesGenerator
 
     decorators.forEach(decorator -> decorator.decorate(config, resources));
 
-    return resources;
+    return Tuple.tuple(resources, getInputsVersion(context));
+  }
+
+  private Optional<String> getInputsVersion(StackGresClusterContext context) {
+    return ReconciliationUtil.getInputsVersion(Seq.<HasMetadata>of(
+        context.getSource(), context.getPostgresConfig(), context.getStackGresProfile())
+        .append(Seq.seq(context.getBackupConfig()))
+        .append(Seq.seq(context.getPoolingConfig()))
+        .append(Seq.seq(context.getRestoreBackup()))
+        .append(context.getBackups())
+        .append(context.getDbOps())
+        .append(Seq.seq(context.getDatabaseCredentials())))
+        .map(version -> version + context.getPrometheus()
+            .map(prometheus -> "," + prometheus.getCreateServiceMonitor()
+                + Optional.ofNullable(prometheus.getPrometheusInstallations())
+                .map(Seq::seq)
+                .orElse(Seq.empty())
+                .map(installation -> installation.getNamespace()
+                    + "/" + installation.getMatchLabels())
+                .toString(","))
+            .orElse(""));
   }
 
   private List<StackGresDbOps> getDbOps(StackGresCluster cluster) {
@@ -44,20 +44,28 @@ public class ClusterStatusManager
 
   private final KubernetesClientFactory clientFactory;
 
+  private final ClusterReconciliationSnapshots snapshots;
+
   @Inject
   public ClusterStatusManager(LabelFactory<StackGresCluster> labelFactory,
-                              KubernetesClientFactory clientFactory) {
+                              KubernetesClientFactory clientFactory,
+                              ClusterReconciliationSnapshots snapshots) {
     this.labelFactory = labelFactory;
     this.clientFactory = clientFactory;
+    this.snapshots = snapshots;
   }
 
   private static String getClusterId(StackGresCluster cluster) {
     return cluster.getMetadata().getNamespace() + "/" + cluster.getMetadata().getName();
   }
 
+  /**
+   * Refresh the pending restart condition. This is the last use of the snapshot of the
+   * reconciliation cycle so it is removed.
+   */
   @Override
   public StackGresCluster refreshCondition(StackGresCluster source) {
-    if (isPendingRestart(source)) {
+    if (isPendingRestart(source, snapshots.remove(source))) {
       updateCondition(getPodRequiresRestart(), source);
     } else {
       updateCondition(getFalsePendingRestart(), source);
@@ -66,15 +74,25 @@ public class ClusterStatusManager
   }
 
   /**
-   * Check pending restart status condition.
+   * Check pending restart status condition. The StatefulSet and Pods of the snapshot of the
+   * reconciliation cycle are used when available, otherwise they are retrieved.
    */
   public boolean isPendingRestart(StackGresCluster cluster) {
+    return isPendingRestart(cluster, snapshots.get(cluster));
+  }
+
+  private boolean isPendingRestart(StackGresCluster cluster,
+      Optional<ClusterReconciliationSnapshots.Snapshot> snapshot) {
     List<StackGresClusterPodStatus> clusterPodStatuses = Optional.ofNullable(cluster.getStatus())
         .map(StackGresClusterStatus::getPodStatuses)
         .orElse(ImmutableList.of());
-    Optional<StatefulSet> clusterStatefulSet = getClusterStatefulSet(cluster);
-    List<Pod> clusterPods = clusterStatefulSet.map(sts -> getStsPods(sts, cluster))
-        .orElse(ImmutableList.of());
+    Optional<StatefulSet> clusterStatefulSet = snapshot
+        .map(ClusterReconciliationSnapshots.Snapshot::getStatefulSet)
+        .orElseGet(() -> getClusterStatefulSet(cluster));
+    List<Pod> clusterPods = snapshot
+        .map(ClusterReconciliationSnapshots.Snapshot::getPods)
+        .orElseGet(() -> clusterStatefulSet.map(sts -> getStsPods(sts, cluster))
+            .orElse(ImmutableList.of()));
     RestartReasons reasons = ClusterPendingRestartUtil.getRestartReasons(
         clusterPodStatuses, clusterStatefulSet, clusterPods);
     for (RestartReason reason : reasons.getReasons()) {
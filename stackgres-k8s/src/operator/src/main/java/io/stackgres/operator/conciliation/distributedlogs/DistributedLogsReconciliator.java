@@ -44,10 +44,11 @@ public class DistributedLogsReconciliator extends StackGresReconciliator<StackGr
 
   @Override
   public void onPostReconciliation(StackGresDistributedLogs config) {
-    refreshConnectedClusters(config);
-
-    statusManager.refreshCondition(config);
-    distributedLogsScheduler.updateStatus(config);
+    // The status is refreshed on a live read since the given resource may be stale
+    distributedLogsScheduler.updateStatus(config, distributedLogs -> {
+      refreshConnectedClusters(distributedLogs);
+      statusManager.refreshCondition(distributedLogs);
+    });
 
   }
 
@@ -6,6 +6,7 @@
 package io.stackgres.operator.conciliation.distributedlogs;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import javax.enterprise.context.ApplicationScoped;
@@ -17,9 +18,13 @@ import io.stackgres.common.crd.sgcluster.StackGresCluster;
 import io.stackgres.common.crd.sgdistributedlogs.StackGresDistributedLogs;
 import io.stackgres.common.resource.ResourceFinder;
 import io.stackgres.common.resource.ResourceUtil;
+import io.stackgres.operator.conciliation.ReconciliationUtil;
 import io.stackgres.operator.conciliation.RequiredResourceGenerator;
 import io.stackgres.operator.conciliation.ResourceGenerationDiscoverer;
 import io.stackgres.operator.conciliation.factory.DecoratorDiscoverer;
+import org.jooq.lambda.Seq;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple2;
 
 @ApplicationScoped
 public class DistributedLogsRequiredResourcesGenerator
@@ -47,6 +52,12 @@ public class DistributedLogsRequiredResourcesGenerator
 
   @Override
   public List<HasMetadata> getRequiredResources(StackGresDistributedLogs config) {
+    return getVersionedRequiredResources(config).v1;
+  }
+
+  @Override
+  public Tuple2<List<HasMetadata>, Optional<String>> getVersionedRequiredResources(
+      StackGresDistributedLogs config) {
 
     final String distributedLogsName = config.getMetadata().getName();
     final String namespace = config.getMetadata().getNamespace();
@@ -65,7 +76,10 @@ public class DistributedLogsRequiredResourcesGenerator
 
     decorators.forEach(decorator -> decorator.decorate(config, requiredResources));
 
-    return requiredResources;
+    return Tuple.tuple(requiredResources, ReconciliationUtil.getInputsVersion(
+        Seq.<HasMetadata>of(context.getSource())
+        .append(context.getConnectedClusters())
+        .append(Seq.seq(context.getDatabaseCredentials()))));
   }
 
   private List<StackGresCluster> getConnectedClusters(
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.operator.conciliation.factory;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import io.fabric8.kubernetes.api.model.EnvVar;
+import io.fabric8.kubernetes.api.model.EnvVarBuilder;
+import io.fabric8.kubernetes.api.model.VolumeMount;
+import io.fabric8.kubernetes.api.model.VolumeMountBuilder;
+import io.stackgres.common.OperatorProperty;
+import io.stackgres.common.StackGresPropertyReader;
+import io.stackgres.operator.conciliation.VolumeMountProviderName;
+
+/**
+ * Mount the extension packages cache, shared by the pods of the same node, when the operator
+ * is configured with a host path for it.
+ */
+@ApplicationScoped
+@ProviderName(VolumeMountProviderName.EXTENSIONS_CACHE)
+public class ExtensionsCacheMounts implements VolumeMountsProvider<ContainerContext> {
+
+  public static final String EXTENSIONS_CACHE_PATH = "/var/cache/stackgres/extensions";
+
+  @Override
+  public List<VolumeMount> getVolumeMounts(ContainerContext context) {
+    return OperatorProperty.EXTENSIONS_CACHE_HOST_PATH.get()
+        .filter(hostPath -> !hostPath.isEmpty())
+        .map(hostPath -> List.of(new VolumeMountBuilder()
+            .withName(PatroniStaticVolume.EXTENSIONS_CACHE.getVolumeName())
+            .withMountPath(EXTENSIONS_CACHE_PATH)
+            .build()))
+        .orElse(List.of());
+  }
+
+  @Override
+  public List<EnvVar> getDerivedEnvVars(ContainerContext context) {
+    return List.of();
+  }
+
+  /**
+   * Return the environment variable of the given controller property pointing to the cache,
+   * only when the cache is mounted.
+   */
+  public List<EnvVar> getCachePathEnvVars(ContainerContext context,
+      StackGresPropertyReader cachePathProperty) {
+    return getVolumeMounts(context).stream()
+        .map(volumeMount -> new EnvVarBuilder()
+            .withName(cachePathProperty.getEnvironmentVariableName())
+            .withValue(volumeMount.getMountPath())
+            .build())
+        .collect(Collectors.toUnmodifiableList());
+  }
+}
@@ -14,7 +14,8 @@ public enum PatroniStaticVolume {
   USER("user"),
   LOCAL_BIN("local-bin"),
   LOG("log"),
-  PATRONI_CONFIG("patroni-config");
+  PATRONI_CONFIG("patroni-config"),
+  EXTENSIONS_CACHE("extensions-cache");
 
   private final String volumeName;
 
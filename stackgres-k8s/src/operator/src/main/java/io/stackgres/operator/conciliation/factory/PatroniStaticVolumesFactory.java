@@ -7,21 +7,27 @@ package io.stackgres.operator.conciliation.factory;
 
 import java.util.stream.Stream;
 
+import io.stackgres.common.OperatorProperty;
 import org.jetbrains.annotations.NotNull;
 
 public abstract class PatroniStaticVolumesFactory<T> implements StaticVolumeFactory<T> {
 
   @Override
   public @NotNull Stream<VolumePair> buildVolumes(T context) {
-    return Stream.of(
-        inMemoryDir(PatroniStaticVolume.POSTGRES_SOCKET.getVolumeName()),
-        inMemoryDir(PatroniStaticVolume.DSHM.getVolumeName()),
-        emptyDir(PatroniStaticVolume.SHARED.getVolumeName()),
-        emptyDir(PatroniStaticVolume.EMPTY_BASE.getVolumeName()),
-        emptyDir(PatroniStaticVolume.USER.getVolumeName()),
-        emptyDir(PatroniStaticVolume.LOCAL_BIN.getVolumeName()),
-        emptyDir(PatroniStaticVolume.LOG.getVolumeName()),
-        emptyDir(PatroniStaticVolume.PATRONI_CONFIG.getVolumeName())
-    );
+    return Stream.concat(
+        Stream.of(
+            inMemoryDir(PatroniStaticVolume.POSTGRES_SOCKET.getVolumeName()),
+            inMemoryDir(PatroniStaticVolume.DSHM.getVolumeName()),
+            emptyDir(PatroniStaticVolume.SHARED.getVolumeName()),
+            emptyDir(PatroniStaticVolume.EMPTY_BASE.getVolumeName()),
+            emptyDir(PatroniStaticVolume.USER.getVolumeName()),
+            emptyDir(PatroniStaticVolume.LOCAL_BIN.getVolumeName()),
+            emptyDir(PatroniStaticVolume.LOG.getVolumeName()),
+            emptyDir(PatroniStaticVolume.PATRONI_CONFIG.getVolumeName())),
+        OperatorProperty.EXTENSIONS_CACHE_HOST_PATH.get()
+            .filter(hostPath -> !hostPath.isEmpty())
+            .map(hostPath -> hostPathDir(
+                PatroniStaticVolume.EXTENSIONS_CACHE.getVolumeName(), hostPath))
+            .stream());
   }
 }
@@ -20,6 +20,18 @@ public interface StaticVolumeFactory<T> extends VolumeFactory<T> {
         .build();
   }
 
+  default VolumePair hostPathDir(String name, String path) {
+    return ImmutableVolumePair.builder()
+        .volume(new VolumeBuilder()
+            .withName(name)
+            .withNewHostPath()
+            .withPath(path)
+            .withType("DirectoryOrCreate")
+            .endHostPath()
+            .build())
+        .build();
+  }
+
   default VolumePair emptyDir(String name) {
     return ImmutableVolumePair.builder()
         .volume(new VolumeBuilder()
@@ -127,6 +127,11 @@ public class DbOpsRole implements ResourceGenerator<StackGresClusterContext> {
             .withResources("events")
             .withVerbs("get", "list", "create", "patch", "update")
             .build())
+        .addToRules(new PolicyRuleBuilder()
+            .withApiGroups("coordination.k8s.io")
+            .withResources("leases")
+            .withVerbs("get", "list", "watch", "create", "patch", "update")
+            .build())
 
         .addToRules(new PolicyRuleBuilder()
             .withApiGroups(CommonDefinition.GROUP)
@@ -6,6 +6,7 @@
 package io.stackgres.operator.conciliation.factory.cluster.sidecars.controller;
 
 import static io.stackgres.operator.conciliation.VolumeMountProviderName.CONTAINER_USER_OVERRIDE;
+import static io.stackgres.operator.conciliation.VolumeMountProviderName.EXTENSIONS_CACHE;
 import static io.stackgres.operator.conciliation.VolumeMountProviderName.POSTGRES_DATA;
 
 import java.util.Map;
@@ -29,6 +30,7 @@ import io.stackgres.operator.conciliation.OperatorVersionBinder;
 import io.stackgres.operator.conciliation.cluster.StackGresVersion;
 import io.stackgres.operator.conciliation.factory.ContainerContext;
 import io.stackgres.operator.conciliation.factory.ContainerFactory;
+import io.stackgres.operator.conciliation.factory.ExtensionsCacheMounts;
 import io.stackgres.operator.conciliation.factory.ProviderName;
 import io.stackgres.operator.conciliation.factory.RunningContainer;
 import io.stackgres.operator.conciliation.factory.VolumeMountsProvider;
@@ -44,15 +46,19 @@ public class ClusterController implements ContainerFactory<StackGresClusterConta
 
   private final VolumeMountsProvider<ContainerContext> postgresDataMounts;
   private final VolumeMountsProvider<ContainerContext> userContainerMounts;
+  private final ExtensionsCacheMounts extensionsCacheMounts;
 
   @Inject
   public ClusterController(
       @ProviderName(POSTGRES_DATA)
           VolumeMountsProvider<ContainerContext> postgresDataMounts,
       @ProviderName(CONTAINER_USER_OVERRIDE)
-      VolumeMountsProvider<ContainerContext> userContainerMounts) {
+      VolumeMountsProvider<ContainerContext> userContainerMounts,
+      @ProviderName(EXTENSIONS_CACHE)
+      ExtensionsCacheMounts extensionsCacheMounts) {
     this.postgresDataMounts = postgresDataMounts;
     this.userContainerMounts = userContainerMounts;
+    this.extensionsCacheMounts = extensionsCacheMounts;
   }
 
   @Override
@@ -116,8 +122,11 @@ public class ClusterController implements ContainerFactory<StackGresClusterConta
                 .withName("DEBUG_CLUSTER_CONTROLLER_SUSPEND")
                 .withValue(System.getenv("DEBUG_OPERATOR_SUSPEND"))
                 .build())
+        .addAllToEnv(extensionsCacheMounts.getCachePathEnvVars(context,
+            ClusterControllerProperty.CLUSTER_CONTROLLER_EXTENSIONS_CACHE_PATH))
         .withVolumeMounts(userContainerMounts.getVolumeMounts(context))
         .addAllToVolumeMounts(postgresDataMounts.getVolumeMounts(context))
+        .addAllToVolumeMounts(extensionsCacheMounts.getVolumeMounts(context))
         .build();
   }
 
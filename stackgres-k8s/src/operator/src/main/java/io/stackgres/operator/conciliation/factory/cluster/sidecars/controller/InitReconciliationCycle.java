@@ -5,6 +5,9 @@
 
 package io.stackgres.operator.conciliation.factory.cluster.sidecars.controller;
 
+import static io.stackgres.operator.conciliation.VolumeMountProviderName.EXTENSIONS_CACHE;
+
+import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import io.fabric8.kubernetes.api.model.Container;
@@ -20,7 +23,9 @@ import io.stackgres.common.StackGresController;
 import io.stackgres.operator.conciliation.OperatorVersionBinder;
 import io.stackgres.operator.conciliation.cluster.StackGresVersion;
 import io.stackgres.operator.conciliation.factory.ContainerFactory;
+import io.stackgres.operator.conciliation.factory.ExtensionsCacheMounts;
 import io.stackgres.operator.conciliation.factory.InitContainer;
+import io.stackgres.operator.conciliation.factory.ProviderName;
 import io.stackgres.operator.conciliation.factory.cluster.StackGresClusterContainerContext;
 
 @Singleton
@@ -28,6 +33,15 @@ import io.stackgres.operator.conciliation.factory.cluster.StackGresClusterContai
 @InitContainer(order = 5)
 public class InitReconciliationCycle implements ContainerFactory<StackGresClusterContainerContext> {
 
+  private final ExtensionsCacheMounts extensionsCacheMounts;
+
+  @Inject
+  public InitReconciliationCycle(
+      @ProviderName(EXTENSIONS_CACHE)
+      ExtensionsCacheMounts extensionsCacheMounts) {
+    this.extensionsCacheMounts = extensionsCacheMounts;
+  }
+
   @Override
   public Container getContainer(StackGresClusterContainerContext context) {
     return new ContainerBuilder()
@@ -89,10 +103,13 @@ public class InitReconciliationCycle implements ContainerFactory<StackGresCluste
                 .withName("DEBUG_CLUSTER_CONTROLLER_SUSPEND")
                 .withValue(System.getenv("DEBUG_OPERATOR_SUSPEND"))
                 .build())
+        .addAllToEnv(extensionsCacheMounts.getCachePathEnvVars(context,
+            ClusterControllerProperty.CLUSTER_CONTROLLER_EXTENSIONS_CACHE_PATH))
         .addToVolumeMounts(new VolumeMountBuilder()
             .withName(context.getDataVolumeName())
             .withMountPath(ClusterStatefulSetPath.PG_BASE_PATH.path())
             .build())
+        .addAllToVolumeMounts(extensionsCacheMounts.getVolumeMounts(context))
         .build();
   }
 
@@ -6,6 +6,7 @@
 package io.stackgres.operator.conciliation.factory.distributedlogs.controller;
 
 import static io.stackgres.operator.conciliation.VolumeMountProviderName.CONTAINER_USER_OVERRIDE;
+import static io.stackgres.operator.conciliation.VolumeMountProviderName.EXTENSIONS_CACHE;
 import static io.stackgres.operator.conciliation.VolumeMountProviderName.POSTGRES_DATA;
 import static io.stackgres.operator.conciliation.VolumeMountProviderName.POSTGRES_SOCKET;
 
@@ -33,6 +34,7 @@ import io.stackgres.operator.conciliation.OperatorVersionBinder;
 import io.stackgres.operator.conciliation.cluster.StackGresVersion;
 import io.stackgres.operator.conciliation.factory.ContainerContext;
 import io.stackgres.operator.conciliation.factory.ContainerFactory;
+import io.stackgres.operator.conciliation.factory.ExtensionsCacheMounts;
 import io.stackgres.operator.conciliation.factory.ProviderName;
 import io.stackgres.operator.conciliation.factory.RunningContainer;
 import io.stackgres.operator.conciliation.factory.VolumeMountsProvider;
@@ -52,6 +54,8 @@ public class DistributedLogsController
 
   private final VolumeMountsProvider<ContainerContext> postgresDataMounts;
 
+  private final ExtensionsCacheMounts extensionsCacheMounts;
+
   @Inject
   public DistributedLogsController(
       @ProviderName(POSTGRES_DATA)
@@ -59,10 +63,13 @@ public class DistributedLogsController
       @ProviderName(CONTAINER_USER_OVERRIDE)
           VolumeMountsProvider<ContainerContext> containerUserOverrideMounts,
       @ProviderName(POSTGRES_SOCKET)
-          VolumeMountsProvider<ContainerContext> postgresSocket) {
+          VolumeMountsProvider<ContainerContext> postgresSocket,
+      @ProviderName(EXTENSIONS_CACHE)
+          ExtensionsCacheMounts extensionsCacheMounts) {
     this.containerUserOverrideMounts = containerUserOverrideMounts;
     this.postgresSocket = postgresSocket;
     this.postgresDataMounts = postgresDataMounts;
+    this.extensionsCacheMounts = extensionsCacheMounts;
   }
 
   @Override
@@ -149,6 +156,8 @@ public class DistributedLogsController
                 .withName("DEBUG_DISTRIBUTEDLOGS_CONTROLLER_SUSPEND")
                 .withValue(System.getenv("DEBUG_OPERATOR_SUSPEND"))
                 .build())
+        .addAllToEnv(extensionsCacheMounts.getCachePathEnvVars(context,
+            DistributedLogsControllerProperty.DISTRIBUTEDLOGS_CONTROLLER_EXTENSIONS_CACHE_PATH))
         .addAllToVolumeMounts(postgresSocket.getVolumeMounts(context))
         .addAllToVolumeMounts(postgresDataMounts.getVolumeMounts(context))
         .addToVolumeMounts(
@@ -164,6 +173,7 @@ public class DistributedLogsController
                 .build()
         )
         .addAllToVolumeMounts(containerUserOverrideMounts.getVolumeMounts(context))
+        .addAllToVolumeMounts(extensionsCacheMounts.getVolumeMounts(context))
         .build();
   }
 
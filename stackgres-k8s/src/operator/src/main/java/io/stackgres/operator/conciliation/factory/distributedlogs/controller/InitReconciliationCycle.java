@@ -6,6 +6,7 @@
 package io.stackgres.operator.conciliation.factory.distributedlogs.controller;
 
 import static io.stackgres.operator.conciliation.VolumeMountProviderName.CONTAINER_USER_OVERRIDE;
+import static io.stackgres.operator.conciliation.VolumeMountProviderName.EXTENSIONS_CACHE;
 import static io.stackgres.operator.conciliation.VolumeMountProviderName.POSTGRES_DATA;
 import static io.stackgres.operator.conciliation.VolumeMountProviderName.POSTGRES_SOCKET;
 
@@ -28,6 +29,7 @@ import io.stackgres.operator.conciliation.OperatorVersionBinder;
 import io.stackgres.operator.conciliation.cluster.StackGresVersion;
 import io.stackgres.operator.conciliation.factory.ContainerContext;
 import io.stackgres.operator.conciliation.factory.ContainerFactory;
+import io.stackgres.operator.conciliation.factory.ExtensionsCacheMounts;
 import io.stackgres.operator.conciliation.factory.InitContainer;
 import io.stackgres.operator.conciliation.factory.ProviderName;
 import io.stackgres.operator.conciliation.factory.VolumeMountsProvider;
@@ -46,6 +48,8 @@ public class InitReconciliationCycle implements ContainerFactory<DistributedLogs
 
   private final VolumeMountsProvider<ContainerContext> postgresDataMounts;
 
+  private final ExtensionsCacheMounts extensionsCacheMounts;
+
   @Inject
   public InitReconciliationCycle(
       @ProviderName(CONTAINER_USER_OVERRIDE)
@@ -53,10 +57,13 @@ public class InitReconciliationCycle implements ContainerFactory<DistributedLogs
       @ProviderName(POSTGRES_SOCKET)
           VolumeMountsProvider<ContainerContext> postgresSocket,
       @ProviderName(POSTGRES_DATA)
-          VolumeMountsProvider<ContainerContext> postgresDataMounts) {
+          VolumeMountsProvider<ContainerContext> postgresDataMounts,
+      @ProviderName(EXTENSIONS_CACHE)
+          ExtensionsCacheMounts extensionsCacheMounts) {
     this.containerUserOverrideMounts = containerUserOverrideMounts;
     this.postgresSocket = postgresSocket;
     this.postgresDataMounts = postgresDataMounts;
+    this.extensionsCacheMounts = extensionsCacheMounts;
   }
 
   @Override
@@ -124,6 +131,8 @@ public class InitReconciliationCycle implements ContainerFactory<DistributedLogs
                 .withValue(System.getenv("DEBUG_OPERATOR_SUSPEND"))
                 .build()
         )
+        .addAllToEnv(extensionsCacheMounts.getCachePathEnvVars(context,
+            DistributedLogsControllerProperty.DISTRIBUTEDLOGS_CONTROLLER_EXTENSIONS_CACHE_PATH))
         .addAllToVolumeMounts(postgresSocket.getVolumeMounts(context))
         .addAllToVolumeMounts(postgresDataMounts.getVolumeMounts(context))
         .addToVolumeMounts(
@@ -139,6 +148,7 @@ public class InitReconciliationCycle implements ContainerFactory<DistributedLogs
                 .build()
         )
         .addAllToVolumeMounts(containerUserOverrideMounts.getVolumeMounts(context))
+        .addAllToVolumeMounts(extensionsCacheMounts.getVolumeMounts(context))
         .build();
   }
 
@@ -72,9 +72,11 @@ public class Fluentd implements ContainerFactory<DistributedLogsContainerContext
     VolumeFactory<DistributedLogsContext> {
 
   static final String PATRONI_TABLE_FIELDS = Stream.of(PatroniTableFields.values())
+      .filter(field -> field != PatroniTableFields.LOG_TIME_INDEX)
       .map(PatroniTableFields::getFieldName)
       .collect(Collectors.joining(","));
   static final String POSTGRES_TABLE_FIELDS = Stream.of(PostgresTableFields.values())
+      .filter(field -> field != PostgresTableFields.LOG_TIME_INDEX)
       .map(PostgresTableFields::getFieldName)
       .collect(Collectors.joining(","));
   private static final Logger FLEUNTD_LOGGER = LoggerFactory.getLogger("io.stackgres.fleuntd");
@@ -100,6 +102,8 @@ public class Fluentd implements ContainerFactory<DistributedLogsContainerContext
         .withArgs(""
             + "echo 'Wait for postgres to be up, running and initialized'\n"
             + "until curl -s localhost:8008/read-only --fail > /dev/null; do sleep 1; done\n"
+            + "echo 'Wait for the ingestion views to be created'\n"
+            + "until [ -f " + FluentdUtil.INGESTION_READY_PATH + " ]; do sleep 1; done\n"
             + "exec /usr/local/bin/fluentd -c /etc/fluentd/fluentd.conf\n")
         .withPorts(
             new ContainerPortBuilder()
@@ -131,6 +135,11 @@ public class Fluentd implements ContainerFactory<DistributedLogsContainerContext
             new VolumeMountBuilder()
                 .withName(FluentdStaticVolume.FLUENTD_BUFFER.getVolumeName())
                 .withMountPath("/var/log/fluentd")
+                .build(),
+            new VolumeMountBuilder()
+                .withName(FluentdStaticVolume.FLUENTD.getVolumeName())
+                .withMountPath("/fluentd")
+                .withReadOnly(Boolean.TRUE)
                 .build())
         .addAllToVolumeMounts(containerUserOverrideMounts.getVolumeMounts(context))
         .build();
@@ -285,7 +294,7 @@ public class Fluentd implements ContainerFactory<DistributedLogsContainerContext
             + "      adapter postgresql\n"
             + "      username postgres\n"
             + "      <table>\n"
-            + "        table log_postgres\n"
+            + "        table log_postgres_ingestion\n"
             + "        column_mapping '" + POSTGRES_TABLE_FIELDS + "'\n"
             + "      </table>\n"
             + "    </store>\n"
@@ -305,7 +314,7 @@ public class Fluentd implements ContainerFactory<DistributedLogsContainerContext
             + "      adapter postgresql\n"
             + "      username postgres\n"
             + "      <table>\n"
-            + "        table log_patroni\n"
+            + "        table log_patroni_ingestion\n"
             + "        column_mapping '" + PATRONI_TABLE_FIELDS + "'\n"
             + "      </table>\n"
             + "    </store>\n"
@@ -6,11 +6,14 @@
 package io.stackgres.operator.mutation;
 
 import java.net.URI;
+import java.nio.file.Paths;
 
 import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
 import javax.inject.Inject;
 
 import com.google.common.collect.ImmutableList;
+import io.quarkus.runtime.StartupEvent;
 import io.stackgres.common.CdiUtil;
 import io.stackgres.common.OperatorProperty;
 import io.stackgres.common.WebClientFactory;
@@ -28,7 +31,11 @@ public class ClusterExtensionMetadataManager extends ExtensionMetadataManager {
         Seq.of(propertyContext.getStringArray(
             OperatorProperty.EXTENSIONS_REPOSITORY_URLS))
             .map(URI::create)
-            .collect(ImmutableList.toImmutableList()));
+            .collect(ImmutableList.toImmutableList()),
+        propertyContext.get(OperatorProperty.EXTENSIONS_METADATA_SNAPSHOT_PATH)
+            .map(Paths::get)
+            .orElseGet(() -> Paths.get(System.getProperty("java.io.tmpdir"),
+                "stackgres-extensions-metadata.json")));
   }
 
   public ClusterExtensionMetadataManager() {
@@ -36,4 +43,8 @@ public class ClusterExtensionMetadataManager extends ExtensionMetadataManager {
     CdiUtil.checkPublicNoArgsConstructorIsCalledToCreateProxy();
   }
 
+  void onStart(@Observes StartupEvent ev) {
+    refreshInBackground();
+  }
+
 }
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2020 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.operator.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import org.junit.jupiter.api.Test;
+
+class KubernetesClientMetricsTest {
+
+  private static final String API_SERVER = "https://kubernetes.default.svc";
+
+  @Test
+  void coreResources_shouldBeIdentifiedWithoutNamespaceAndName() {
+    assertEquals("pods", KubernetesClientMetrics.getResource(
+        HttpUrl.get(API_SERVER + "/api/v1/namespaces/test/pods/test-0")));
+    assertEquals("pods/exec", KubernetesClientMetrics.getResource(
+        HttpUrl.get(API_SERVER + "/api/v1/namespaces/test/pods/test-0/exec")));
+    assertEquals("namespaces", KubernetesClientMetrics.getResource(
+        HttpUrl.get(API_SERVER + "/api/v1/namespaces/test")));
+  }
+
+  @Test
+  void groupResources_shouldBeQualifiedWithTheGroup() {
+    assertEquals("apps/statefulsets", KubernetesClientMetrics.getResource(
+        HttpUrl.get(API_SERVER + "/apis/apps/v1/namespaces/test/statefulsets")));
+    assertEquals("stackgres.io/sgclusters/status", KubernetesClientMetrics.getResource(
+        HttpUrl.get(API_SERVER + "/apis/stackgres.io/v1/namespaces/test/sgclusters/c/status")));
+    assertEquals("stackgres.io/sgclusters", KubernetesClientMetrics.getResource(
+        HttpUrl.get(API_SERVER + "/apis/stackgres.io/v1/sgclusters")));
+  }
+
+  @Test
+  void getRequests_shouldBeClassifiedAsGetListOrWatch() {
+    assertEquals("get", KubernetesClientMetrics.getVerb(request(
+        "/api/v1/namespaces/test/secrets/test")));
+    assertEquals("list", KubernetesClientMetrics.getVerb(request(
+        "/api/v1/namespaces/test/secrets")));
+    assertEquals("watch", KubernetesClientMetrics.getVerb(request(
+        "/api/v1/namespaces/test/secrets?watch=true")));
+  }
+
+  @Test
+  void otherRequests_shouldBeClassifiedByMethod() {
+    assertEquals("patch", KubernetesClientMetrics.getVerb(new Request.Builder()
+        .url(API_SERVER + "/api/v1/namespaces/test/secrets/test")
+        .patch(RequestBody.create(null, "{}"))
+        .build()));
+  }
+
+  private Request request(String path) {
+    return new Request.Builder()
+        .url(API_SERVER + path)
+        .build();
+  }
+
+}
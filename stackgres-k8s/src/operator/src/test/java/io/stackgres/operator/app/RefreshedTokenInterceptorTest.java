@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2020 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.operator.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RefreshedTokenInterceptorTest {
+
+  private final AtomicReference<String> token = new AtomicReference<>("first");
+  private final AtomicLong now = new AtomicLong();
+
+  private MockWebServer server;
+  private OkHttpClient httpClient;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    server = new MockWebServer();
+    server.start();
+    httpClient = new OkHttpClient.Builder()
+        .addInterceptor(new RefreshedTokenInterceptor(token::get, Duration.ofMinutes(1),
+            now::get))
+        .build();
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    server.shutdown();
+  }
+
+  private String sendAndGetAuthorization(String authorization) throws Exception {
+    server.enqueue(new MockResponse());
+    Request.Builder request = new Request.Builder().url(server.url("/"));
+    if (authorization != null) {
+      request.header("Authorization", authorization);
+    }
+    try (Response response = httpClient.newCall(request.build()).execute()) {
+      return server.takeRequest().getHeader("Authorization");
+    }
+  }
+
+  @Test
+  void givenABearerToken_shouldBeReplacedWithTheLatestToken() throws Exception {
+    assertEquals("Bearer first", sendAndGetAuthorization("Bearer stale"));
+
+    token.set("second");
+    assertEquals("Bearer first", sendAndGetAuthorization("Bearer stale"));
+
+    now.addAndGet(Duration.ofMinutes(2).toMillis());
+    assertEquals("Bearer second", sendAndGetAuthorization("Bearer stale"));
+  }
+
+  @Test
+  void givenOtherAuthorization_shouldNotBeChanged() throws Exception {
+    assertEquals("Basic dXNlcjpwYXNz", sendAndGetAuthorization("Basic dXNlcjpwYXNz"));
+    assertNull(sendAndGetAuthorization(null));
+  }
+
+  @Test
+  void givenNoToken_shouldKeepTheRequestToken() throws Exception {
+    token.set(null);
+
+    assertEquals("Bearer stale", sendAndGetAuthorization("Bearer stale"));
+  }
+
+}
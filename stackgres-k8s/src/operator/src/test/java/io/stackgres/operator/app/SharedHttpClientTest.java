@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2020 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.operator.app;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SharedHttpClientTest {
+
+  private SharedHttpClient sharedHttpClient;
+
+  @BeforeEach
+  void setUp() {
+    sharedHttpClient = new SharedHttpClient(new OkHttpClient(), System.currentTimeMillis());
+  }
+
+  private boolean isExecutorShutdown() {
+    return sharedHttpClient.getHttpClient().dispatcher().executorService().isShutdown();
+  }
+
+  @Test
+  void givenAClientInUse_shouldNotBeShutdownUntilReleased() {
+    sharedHttpClient.acquire();
+    sharedHttpClient.acquire();
+
+    sharedHttpClient.retire();
+    assertFalse(sharedHttpClient.isShutdown());
+
+    sharedHttpClient.release();
+    assertFalse(sharedHttpClient.isShutdown());
+    assertFalse(isExecutorShutdown());
+
+    sharedHttpClient.release();
+    assertTrue(sharedHttpClient.isShutdown());
+    assertTrue(isExecutorShutdown());
+  }
+
+  @Test
+  void givenANotRetiredClient_shouldNotBeShutdownWhenReleased() {
+    sharedHttpClient.acquire();
+    sharedHttpClient.release();
+
+    assertFalse(sharedHttpClient.isShutdown());
+  }
+
+  @Test
+  void givenAnUnusedClient_shouldBeShutdownWhenRetired() {
+    sharedHttpClient.retire();
+
+    assertTrue(sharedHttpClient.isShutdown());
+    assertTrue(isExecutorShutdown());
+  }
+
+}
@@ -14,6 +14,7 @@ import static org.mockito.Mockito.when;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Random;
 
 import io.fabric8.kubernetes.api.model.HasMetadata;
@@ -21,6 +22,7 @@ import io.stackgres.common.StackGresContext;
 import io.stackgres.common.crd.sgcluster.StackGresCluster;
 import io.stackgres.operator.cluster.factory.KubernetessMockResourceGenerationUtil;
 import io.stackgres.operator.conciliation.cluster.ClusterConciliator;
+import io.stackgres.operator.conciliation.cluster.ClusterReconciliationSnapshots;
 import io.stackgres.operator.conciliation.cluster.ClusterStatusManager;
 import io.stackgres.testutil.JsonUtil;
 import org.junit.jupiter.api.BeforeEach;
@@ -36,15 +38,14 @@ class ClusterConciliatorTest extends ConciliatorTest<StackGresCluster> {
   private static final StackGresCluster cluster = JsonUtil
       .readFromJson("stackgres_cluster/default.json", StackGresCluster.class);
 
-  @Mock
-  private RequiredResourceGenerator<StackGresCluster> requiredResourceGenerator;
-
   @Mock
   private DeployedResourcesScanner<StackGresCluster> deployedResourcesScanner;
 
   @Mock
   private ClusterStatusManager statusManager;
 
+  private final ClusterReconciliationSnapshots snapshots = new ClusterReconciliationSnapshots();
+
   @BeforeEach
   void setUp() {
     when(statusManager.isPendingRestart(getConciliationResource())).thenReturn(false);
@@ -54,13 +55,12 @@ class ClusterConciliatorTest extends ConciliatorTest<StackGresCluster> {
   protected Conciliator<StackGresCluster> buildConciliator(List<HasMetadata> required,
                                                            List<HasMetadata> deployed) {
 
-    when(requiredResourceGenerator.getRequiredResources(cluster))
-        .thenReturn(required);
     when(deployedResourcesScanner.getDeployedResources(cluster))
         .thenReturn(deployed);
 
-    final ClusterConciliator clusterConciliator = new ClusterConciliator(statusManager);
-    clusterConciliator.setRequiredResourceGenerator(requiredResourceGenerator);
+    final ClusterConciliator clusterConciliator = new ClusterConciliator(statusManager,
+        snapshots);
+    clusterConciliator.setRequiredResourceGenerator(config -> required);
     clusterConciliator.setDeployedResourcesScanner(deployedResourcesScanner);
     clusterConciliator.setResourceComparator(resourceComparator);
     return clusterConciliator;
@@ -182,4 +182,22 @@ class ClusterConciliatorTest extends ConciliatorTest<StackGresCluster> {
 
     assertFalse(result.isUpToDate());
   }
+
+  @Test
+  @DisplayName("Conciliation Should Keep The Snapshot Of The Cycle Only If Nothing Changes")
+  void snapshot_shouldBeKeptOnlyIfThereAreNoChanges() {
+    final List<HasMetadata> requiredResources = KubernetessMockResourceGenerationUtil
+        .buildResources("test", "test");
+
+    snapshots.put(cluster, Optional.empty(), List.of());
+    ReconciliationResult result = buildConciliator(requiredResources,
+        deepCopy(requiredResources)).evalReconciliationState(cluster);
+    assertTrue(result.isUpToDate());
+    assertTrue(snapshots.get(cluster).isPresent());
+
+    result = buildConciliator(requiredResources, List.of())
+        .evalReconciliationState(cluster);
+    assertFalse(result.isUpToDate());
+    assertTrue(snapshots.get(cluster).isEmpty());
+  }
 }
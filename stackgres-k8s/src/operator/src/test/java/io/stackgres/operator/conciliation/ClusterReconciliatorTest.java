@@ -5,20 +5,24 @@
 
 package io.stackgres.operator.conciliation;
 
-import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.doAnswer;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.lenient;
-import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 import java.util.Random;
-import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import io.fabric8.kubernetes.api.model.HasMetadata;
@@ -31,27 +35,30 @@ import io.stackgres.common.resource.CustomResourceFinder;
 import io.stackgres.common.resource.CustomResourceScanner;
 import io.stackgres.common.resource.CustomResourceScheduler;
 import io.stackgres.operator.cluster.factory.KubernetessMockResourceGenerationUtil;
+import io.stackgres.operator.conciliation.cluster.ClusterReconciliationSnapshots;
 import io.stackgres.operator.conciliation.cluster.ClusterReconciliator;
 import io.stackgres.testutil.JsonUtil;
-import org.hamcrest.MatcherAssert;
 import org.jooq.lambda.tuple.Tuple;
 import org.jooq.lambda.tuple.Tuple2;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
-import org.mockito.internal.stubbing.answers.AnswersWithDelay;
-import org.mockito.internal.stubbing.answers.Returns;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
 class ClusterReconciliatorTest {
 
+  private static final long TIMEOUT = 5000L;
+
   private final StackGresCluster cluster = JsonUtil
       .readFromJson("stackgres_cluster/default.json", StackGresCluster.class);
   @Mock
   CustomResourceScanner<StackGresCluster> clusterScanner;
   @Mock
+  CustomResourceFinder<StackGresCluster> clusterFinder;
+  @Mock
   Conciliator<StackGresCluster> clusterConciliator;
   @Mock
   HandlerDelegator<StackGresCluster> handlerDelegator;
@@ -70,12 +77,16 @@ class ClusterReconciliatorTest {
   @Mock
   EventEmitter<StackGresBackup> backupEventEmitter;
 
+  private final ClusterReconciliationSnapshots snapshots = new ClusterReconciliationSnapshots();
+
   private ClusterReconciliator reconciliator;
 
   @BeforeEach
   void setUp() {
     reconciliator = new ClusterReconciliator();
+    reconciliator.init();
     reconciliator.setClusterScanner(clusterScanner);
+    reconciliator.setClusterFinder(clusterFinder);
     reconciliator.setClusterConciliator(clusterConciliator);
     reconciliator.setHandlerDelegator(handlerDelegator);
     reconciliator.setEventController(eventController);
@@ -85,13 +96,25 @@ class ClusterReconciliatorTest {
     reconciliator.setBackupScanner(backupScanner);
     reconciliator.setBackupScheduler(backupScheduler);
     reconciliator.setBackupEventEmitter(backupEventEmitter);
+    reconciliator.setSnapshots(snapshots);
     lenient().when(backupScanner.getResources(anyString())).thenReturn(List.of());
+    lenient().when(clusterFinder.findByNameAndNamespace(
+        cluster.getMetadata().getName(), cluster.getMetadata().getNamespace()))
+        .thenReturn(Optional.of(cluster));
+    reconciliator.startWorkers();
+  }
+
+  @AfterEach
+  void tearDown() {
+    reconciliator.stopWorkers();
+  }
+
+  private void enqueueCluster() {
+    reconciliator.enqueue(cluster.getMetadata().getNamespace(), cluster.getMetadata().getName());
   }
 
   @Test
   void allCreations_shouldBePerformed() {
-    when(clusterScanner.getResources()).thenReturn(Collections.singletonList(cluster));
-
     final List<HasMetadata> creations = KubernetessMockResourceGenerationUtil
         .buildResources("test", "test");
 
@@ -103,17 +126,14 @@ class ClusterReconciliatorTest {
             Collections.emptyList(),
             Collections.emptyList()));
 
-    reconciliator.reconcile();
+    enqueueCluster();
 
-    verify(clusterScanner).getResources();
-    verify(clusterConciliator).evalReconciliationState(cluster);
-    creations.forEach(resource -> verify(handlerDelegator).create(resource));
+    verify(clusterConciliator, timeout(TIMEOUT)).evalReconciliationState(cluster);
+    creations.forEach(resource -> verify(handlerDelegator, timeout(TIMEOUT)).create(resource));
   }
 
   @Test
   void allPatches_shouldBePerformed() {
-    when(clusterScanner.getResources()).thenReturn(Collections.singletonList(cluster));
-
     final List<Tuple2<HasMetadata, HasMetadata>> patches = KubernetessMockResourceGenerationUtil
         .buildResources("test", "test")
         .stream().map(r -> Tuple.tuple(r, r))
@@ -128,17 +148,15 @@ class ClusterReconciliatorTest {
             patches,
             Collections.emptyList()));
 
-    reconciliator.reconcile();
+    enqueueCluster();
 
-    verify(clusterScanner).getResources();
-    verify(clusterConciliator).evalReconciliationState(cluster);
-    patches.forEach(resource -> verify(handlerDelegator).patch(resource.v1, resource.v2));
+    verify(clusterConciliator, timeout(TIMEOUT)).evalReconciliationState(cluster);
+    patches.forEach(resource -> verify(handlerDelegator, timeout(TIMEOUT))
+        .patch(resource.v1, resource.v2));
   }
 
   @Test
   void allDeletions_shouldBePerformed() {
-    when(clusterScanner.getResources()).thenReturn(Collections.singletonList(cluster));
-
     final List<HasMetadata> deletions = KubernetessMockResourceGenerationUtil
         .buildResources("test", "test");
 
@@ -150,44 +168,94 @@ class ClusterReconciliatorTest {
             Collections.emptyList(),
             deletions));
 
-    reconciliator.reconcile();
+    enqueueCluster();
 
-    verify(clusterScanner).getResources();
-    verify(clusterConciliator).evalReconciliationState(cluster);
-    deletions.forEach(resource -> verify(handlerDelegator).delete(resource));
+    verify(clusterConciliator, timeout(TIMEOUT)).evalReconciliationState(cluster);
+    deletions.forEach(resource -> verify(handlerDelegator, timeout(TIMEOUT)).delete(resource));
   }
 
   @Test
-  void reconciliator_shouldPreventTheConcurrentExecution() throws InterruptedException {
-
+  void reconciliator_shouldPreventTheConcurrentExecutionOfTheSameCluster() {
     long delay = 100;
-    int concurrentExecutions = new Random().nextInt(2) + 2;
+    int enqueues = new Random().nextInt(2) + 2;
+    AtomicInteger runningReconciliations = new AtomicInteger();
+    AtomicInteger maxRunningReconciliations = new AtomicInteger();
+
+    when(clusterConciliator.evalReconciliationState(cluster)).thenAnswer(invocation -> {
+      maxRunningReconciliations.accumulateAndGet(
+          runningReconciliations.incrementAndGet(), Math::max);
+      Thread.sleep(delay);
+      runningReconciliations.decrementAndGet();
+      return new ReconciliationResult(
+          Collections.emptyList(),
+          Collections.emptyList(),
+          Collections.emptyList());
+    });
+
+    enqueueCluster();
+    verify(clusterConciliator, timeout(TIMEOUT)).evalReconciliationState(cluster);
+    for (int i = 0; i < enqueues; i++) {
+      enqueueCluster();
+    }
 
-    doAnswer(new AnswersWithDelay(delay, new Returns(Collections.singletonList(cluster))))
-        .when(clusterScanner).getResources();
+    verify(clusterConciliator, timeout(TIMEOUT).atLeast(2)).evalReconciliationState(cluster);
+    verify(clusterConciliator, after(delay * 3).atMost(enqueues + 1))
+        .evalReconciliationState(cluster);
+    assertEquals(1, maxRunningReconciliations.get(), "Is being executed concurrently");
+  }
 
+  @Test
+  void reconciliator_shouldOnlyInitializeTheBackupsOfTheReconciledCluster() {
+    StackGresBackup backup = JsonUtil
+        .readFromJson("stackgres_backup/default.json", StackGresBackup.class);
+    backup.setStatus(null);
+    backup.getMetadata().setNamespace(cluster.getMetadata().getNamespace());
+    backup.getSpec().setSgCluster(cluster.getMetadata().getName());
+    StackGresBackup otherClusterBackup = JsonUtil
+        .readFromJson("stackgres_backup/default.json", StackGresBackup.class);
+    otherClusterBackup.setStatus(null);
+    otherClusterBackup.getMetadata().setNamespace(cluster.getMetadata().getNamespace());
+    otherClusterBackup.getMetadata().setName(backup.getMetadata().getName() + "-other");
+    otherClusterBackup.getSpec().setSgCluster(cluster.getMetadata().getName() + "-other");
+    when(backupScanner.getResources(cluster.getMetadata().getNamespace()))
+        .thenReturn(List.of(backup, otherClusterBackup));
     when(clusterConciliator.evalReconciliationState(cluster))
         .thenReturn(new ReconciliationResult(
             Collections.emptyList(),
             Collections.emptyList(),
             Collections.emptyList()));
 
-    var pool = ForkJoinPool.commonPool();
-    long start = System.currentTimeMillis();
-    for (int i = 0; i < concurrentExecutions; i++) {
-      pool.execute(() -> reconciliator.reconcile());
-    }
+    enqueueCluster();
+
+    verify(clusterConciliator, timeout(TIMEOUT)).evalReconciliationState(cluster);
+    verify(backupScheduler).update(eq(backup), any());
+    verify(backupScheduler, never()).update(eq(otherClusterBackup), any());
+  }
 
-    pool.awaitTermination(delay * concurrentExecutions, TimeUnit.SECONDS);
-    long end = System.currentTimeMillis();
+  @Test
+  void givenADeletedCluster_itsSnapshotShouldBeRemoved() {
+    snapshots.put(cluster, Optional.empty(), List.of());
+    when(clusterFinder.findByNameAndNamespace(
+        cluster.getMetadata().getName(), cluster.getMetadata().getNamespace()))
+        .thenReturn(Optional.empty());
+
+    enqueueCluster();
+
+    verify(clusterFinder, timeout(TIMEOUT)).findByNameAndNamespace(
+        cluster.getMetadata().getName(), cluster.getMetadata().getNamespace());
+    verify(clusterConciliator, after(100).never()).evalReconciliationState(any());
+    assertTrue(snapshots.get(cluster).isEmpty());
+  }
 
-    MatcherAssert
-        .assertThat("Is being executed concurrently",
-            end - start,
-            greaterThanOrEqualTo(delay * concurrentExecutions));
+  @Test
+  void givenAFailedReconciliation_theClusterSnapshotShouldBeRemoved() {
+    snapshots.put(cluster, Optional.empty(), List.of());
+    when(clusterConciliator.evalReconciliationState(cluster))
+        .thenThrow(new RuntimeException("test"));
 
-    verify(clusterScanner, times(concurrentExecutions)).getResources();
-    verify(clusterConciliator, times(concurrentExecutions)).evalReconciliationState(cluster);
+    enqueueCluster();
 
+    verify(eventController, timeout(TIMEOUT)).sendEvent(any(), any(), eq(cluster));
+    assertTrue(snapshots.get(cluster).isEmpty());
   }
 }
@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.operator.conciliation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.google.common.collect.ImmutableMap;
+import io.fabric8.kubernetes.api.model.EndpointsBuilder;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.SecretBuilder;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.api.model.batch.v1.JobBuilder;
+import io.fabric8.kubernetes.api.model.batch.v1beta1.CronJobBuilder;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import io.stackgres.common.crd.sgcluster.StackGresCluster;
+import io.stackgres.operator.conciliation.comparator.DefaultComparator;
+import io.stackgres.testutil.JsonUtil;
+import org.jooq.lambda.tuple.Tuple;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compare the indexed matching of {@link Conciliator} against the previous nested matching of
+ * required and deployed resources. Run it with:
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=io.stackgres.operator.conciliation.ConciliatorBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConciliatorBenchmark {
+
+  @Param({"10", "100", "500"})
+  int resourcesPerKind;
+
+  private final StackGresCluster cluster = JsonUtil
+      .readFromJson("stackgres_cluster/default.json", StackGresCluster.class);
+
+  private final DefaultComparator defaultComparator = new DefaultComparator();
+
+  private final ComparisonDelegator<StackGresCluster> comparator = new ComparisonDelegator<>() {
+    @Override
+    public boolean isResourceContentEqual(HasMetadata required, HasMetadata deployed) {
+      return true;
+    }
+
+    @Override
+    public ArrayNode getJsonDiff(HasMetadata required, HasMetadata deployed) {
+      return defaultComparator.getJsonDiff(required, deployed);
+    }
+  };
+
+  private List<HasMetadata> requiredResources;
+  private List<HasMetadata> deployedResources;
+  private Conciliator<StackGresCluster> conciliator;
+
+  @Setup
+  public void setup() {
+    requiredResources = IntStream.range(0, resourcesPerKind)
+        .boxed()
+        .flatMap(index -> buildResources("resource-" + index, "benchmark").stream())
+        .collect(Collectors.toUnmodifiableList());
+    List<HasMetadata> deployed = requiredResources.stream()
+        .map(Serialization::clone)
+        .collect(Collectors.toCollection(ArrayList::new));
+    Collections.shuffle(deployed, new Random(0));
+    deployed.remove(0);
+    deployed.add(buildResources("extra", "benchmark").get(0));
+    deployedResources = Collections.unmodifiableList(deployed);
+
+    conciliator = new Conciliator<>();
+    conciliator.setRequiredResourceGenerator(config -> requiredResources);
+    conciliator.setDeployedResourcesScanner(config -> deployedResources);
+    conciliator.setResourceComparator(comparator);
+  }
+
+  @Benchmark
+  public ReconciliationResult indexedMatching() {
+    return conciliator.evalReconciliationState(cluster);
+  }
+
+  @Benchmark
+  public ReconciliationResult nestedMatching() {
+    var creations = requiredResources.stream()
+        .filter(requiredResource -> deployedResources.stream()
+            .noneMatch(deployedResource -> defaultComparator
+                .isTheSameResource(requiredResource, deployedResource)));
+
+    var deletions = deployedResources.stream()
+        .filter(deployedResource -> requiredResources.stream()
+            .noneMatch(requiredResource -> defaultComparator
+                .isTheSameResource(deployedResource, requiredResource)))
+        .filter(ReconciliationUtil::isResourceReconciliationNotPaused);
+
+    var patches = requiredResources.stream()
+        .map(requiredResource -> {
+          Optional<HasMetadata> deployedResource = deployedResources.stream()
+              .filter(dr -> defaultComparator.isTheSameResource(requiredResource, dr))
+              .findFirst();
+          return Tuple.tuple(requiredResource, deployedResource);
+        }).filter(resourceTuple -> resourceTuple.v2.isPresent())
+        .map(rt -> rt.map2(Optional::get))
+        .filter(tuple -> ReconciliationUtil.isResourceReconciliationNotPaused(tuple.v2))
+        .filter(resourceTuple -> !comparator
+            .isResourceContentEqual(resourceTuple.v1, resourceTuple.v2));
+
+    return new ReconciliationResult(creations.collect(Collectors.toUnmodifiableList()),
+        patches.collect(Collectors.toUnmodifiableList()),
+        deletions.collect(Collectors.toUnmodifiableList()));
+  }
+
+  private static List<HasMetadata> buildResources(String name, String namespace) {
+    return List.of(
+        new ServiceBuilder()
+            .withNewMetadata()
+            .withName(name)
+            .withNamespace(namespace)
+            .endMetadata()
+            .build(),
+        new SecretBuilder()
+            .withData(ImmutableMap.of("key", name))
+            .withNewMetadata()
+            .withName(name)
+            .withNamespace(namespace)
+            .endMetadata()
+            .build(),
+        new CronJobBuilder()
+            .withNewMetadata()
+            .withName(name)
+            .withNamespace(namespace)
+            .endMetadata()
+            .withNewSpec()
+            .withSchedule("*/5 * * * *")
+            .endSpec()
+            .build(),
+        new JobBuilder()
+            .withNewMetadata()
+            .withName(name)
+            .withNamespace(namespace)
+            .endMetadata()
+            .build(),
+        new EndpointsBuilder()
+            .withNewMetadata()
+            .withName(name)
+            .withNamespace(namespace)
+            .endMetadata()
+            .build());
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder()
+        .include(ConciliatorBenchmark.class.getSimpleName())
+        .build())
+        .run();
+  }
+
+}
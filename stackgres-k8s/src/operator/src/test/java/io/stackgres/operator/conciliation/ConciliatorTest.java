@@ -12,8 +12,11 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -27,12 +30,16 @@ import io.stackgres.common.StackGresContext;
 import io.stackgres.common.StringUtil;
 import io.stackgres.operator.cluster.factory.KubernetessMockResourceGenerationUtil;
 import io.stackgres.operator.conciliation.comparator.StackGresAbstractComparator;
+import org.jooq.lambda.tuple.Tuple;
+import org.jooq.lambda.tuple.Tuple2;
 import org.junit.jupiter.api.Test;
 
 public abstract class ConciliatorTest<T extends CustomResource<?, ?>> {
 
   private static final ObjectMapper MAPPER = new ObjectMapper();
 
+  protected final AtomicInteger contentComparisons = new AtomicInteger();
+
   protected ComparisonDelegator<T> resourceComparator = new ComparisonDelegator<>() {
     private final StackGresAbstractComparator comparator = new StackGresAbstractComparator() {
       @Override
@@ -41,14 +48,9 @@ public abstract class ConciliatorTest<T extends CustomResource<?, ?>> {
       }
     };
 
-    @Override
-    public boolean isTheSameResource(HasMetadata required, HasMetadata deployed) {
-
-      return comparator.isTheSameResource(required, deployed);
-    }
-
     @Override
     public boolean isResourceContentEqual(HasMetadata required, HasMetadata deployed) {
+      contentComparisons.incrementAndGet();
       return comparator.isResourceContentEqual(required, deployed);
     }
 
@@ -230,6 +232,110 @@ public abstract class ConciliatorTest<T extends CustomResource<?, ?>> {
 
   }
 
+  @Test
+  void createdAndPatchedResources_shouldBeStampedWithTheirHash() {
+    final List<HasMetadata> requiredResources = KubernetessMockResourceGenerationUtil
+        .buildResources("test", "test");
+    final List<HasMetadata> deployedResources = new ArrayList<>(deepCopy(requiredResources));
+    deployedResources.remove(0);
+    HasMetadata updatedResource = requiredResources.get(1);
+    updatedResource.getMetadata()
+        .setLabels(ImmutableMap.of(StringUtil.generateRandom(), StringUtil.generateRandom()));
+    final String expectedHash = Conciliator.getResourceHash(updatedResource);
+
+    Conciliator<T> conciliator = buildConciliator(requiredResources, deployedResources);
+
+    ReconciliationResult result = conciliator.evalReconciliationState(getConciliationResource());
+    assertEquals(1, result.getCreations().size());
+    assertEquals(1, result.getPatches().size());
+    assertTrue(result.getCreations().get(0).getMetadata().getAnnotations()
+        .containsKey(StackGresContext.RECONCILIATION_HASH_KEY));
+    assertEquals(expectedHash, result.getPatches().get(0).v1.getMetadata().getAnnotations()
+        .get(StackGresContext.RECONCILIATION_HASH_KEY));
+    assertEquals(expectedHash, Conciliator.getResourceHash(updatedResource));
+  }
+
+  @Test
+  void deployedResourcesWithTheRequiredHash_shouldNotBeDetectedAsChanged() {
+    final List<HasMetadata> requiredResources = KubernetessMockResourceGenerationUtil
+        .buildResources("test", "test");
+    final List<HasMetadata> deployedResources = deepCopy(requiredResources);
+    for (int index = 0; index < deployedResources.size(); index++) {
+      deployedResources.get(index).getMetadata().setAnnotations(Map.of(
+          StackGresContext.RECONCILIATION_HASH_KEY,
+          Conciliator.getResourceHash(requiredResources.get(index))));
+    }
+
+    Conciliator<T> conciliator = buildConciliator(requiredResources, deployedResources);
+
+    ReconciliationResult result = conciliator.evalReconciliationState(getConciliationResource());
+    assertEquals(0, result.getPatches().size());
+    assertTrue(result.isUpToDate());
+  }
+
+  @Test
+  void resourcesInSync_shouldNotBeComparedAgainUntilTheyChange() {
+    final List<HasMetadata> requiredResources = KubernetessMockResourceGenerationUtil
+        .buildResources("test", "test");
+    final List<HasMetadata> deployedResources = deepCopy(requiredResources);
+    deployedResources.forEach(deployedResource -> {
+      deployedResource.getMetadata().setUid(UUID.randomUUID().toString());
+      deployedResource.getMetadata().setResourceVersion(StringUtil.generateRandom());
+    });
+
+    Conciliator<T> conciliator = buildConciliator(requiredResources, deployedResources);
+
+    assertTrue(conciliator.evalReconciliationState(getConciliationResource()).isUpToDate());
+    final int comparisons = contentComparisons.get();
+    assertEquals(requiredResources.size(), comparisons);
+
+    assertTrue(conciliator.evalReconciliationState(getConciliationResource()).isUpToDate());
+    assertEquals(comparisons, contentComparisons.get());
+
+    deployedResources.get(0).getMetadata().setResourceVersion(StringUtil.generateRandom());
+    assertTrue(conciliator.evalReconciliationState(getConciliationResource()).isUpToDate());
+    assertEquals(comparisons + 1, contentComparisons.get());
+  }
+
+  @Test
+  void requiredResourcesWithTheSameInputsVersion_shouldNotBeHashedAgain() {
+    final List<HasMetadata> requiredResources = KubernetessMockResourceGenerationUtil
+        .buildResources("test", "test");
+    final List<HasMetadata> deployedResources = deepCopy(requiredResources);
+    deployedResources.forEach(deployedResource -> {
+      deployedResource.getMetadata().setUid(UUID.randomUUID().toString());
+      deployedResource.getMetadata().setResourceVersion(StringUtil.generateRandom());
+    });
+    final AtomicReference<String> inputsVersion = new AtomicReference<>("1");
+
+    Conciliator<T> conciliator = buildConciliator(requiredResources, deployedResources);
+    conciliator.setRequiredResourceGenerator(new RequiredResourceGenerator<T>() {
+      @Override
+      public List<HasMetadata> getRequiredResources(T config) {
+        return requiredResources;
+      }
+
+      @Override
+      public Tuple2<List<HasMetadata>, Optional<String>> getVersionedRequiredResources(
+          T config) {
+        return Tuple.tuple(requiredResources, Optional.of(inputsVersion.get()));
+      }
+    });
+
+    assertTrue(conciliator.evalReconciliationState(getConciliationResource()).isUpToDate());
+    final int comparisons = contentComparisons.get();
+
+    requiredResources.get(0).getMetadata()
+        .setLabels(ImmutableMap.of(StringUtil.generateRandom(), StringUtil.generateRandom()));
+    assertTrue(conciliator.evalReconciliationState(getConciliationResource()).isUpToDate());
+    assertEquals(comparisons, contentComparisons.get());
+
+    inputsVersion.set("2");
+    ReconciliationResult result = conciliator.evalReconciliationState(getConciliationResource());
+    assertEquals(1, result.getPatches().size());
+    assertEquals(requiredResources.get(0), result.getPatches().get(0).v1);
+  }
+
   protected abstract Conciliator<T> buildConciliator(
       List<HasMetadata> required, List<HasMetadata> deployed);
 
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.operator.conciliation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.OwnerReference;
+import io.fabric8.kubernetes.api.model.OwnerReferenceBuilder;
+import io.fabric8.kubernetes.api.model.PodBuilder;
+import io.fabric8.kubernetes.api.model.SecretBuilder;
+import io.fabric8.kubernetes.api.model.ServiceBuilder;
+import io.fabric8.kubernetes.client.server.mock.KubernetesServer;
+import io.stackgres.common.StackGresContext;
+import io.stackgres.common.crd.sgcluster.StackGresCluster;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DeployedResourcesCacheTest {
+
+  private static final String NAMESPACE = "test";
+
+  private static final Map<String, String> CLUSTER_LABELS = Map.of(
+      StackGresContext.APP_KEY, StackGresContext.APP_NAME,
+      StackGresContext.CLUSTER_NAME_KEY, "cluster");
+
+  private final KubernetesServer server = new KubernetesServer(true, true);
+
+  private DeployedResourcesCache cache;
+
+  @BeforeEach
+  void setUp() {
+    server.before();
+    cache = new DeployedResourcesCache(server::getClient, true);
+  }
+
+  @AfterEach
+  void tearDown() {
+    cache.close();
+    server.after();
+  }
+
+  @Test
+  void givenADisabledCache_shouldNotServeLookups() {
+    DeployedResourcesCache disabledCache = new DeployedResourcesCache(server::getClient, false);
+
+    assertTrue(disabledCache.getResourcesByOwnerUid("uid").isEmpty());
+  }
+
+  @Test
+  void ownedResources_shouldBeFoundByOwnerUid() {
+    createSecret("owned-secret", "owner-uid", true);
+    createSecret("other-secret", "other-uid", true);
+    server.getClient().services().inNamespace(NAMESPACE).create(new ServiceBuilder()
+        .withNewMetadata()
+        .withName("owned-service")
+        .withLabels(CLUSTER_LABELS)
+        .withOwnerReferences(ownerReference("owner-uid"))
+        .endMetadata()
+        .build());
+
+    List<HasMetadata> resources = cache.getResourcesByOwnerUid("owner-uid").orElseThrow();
+
+    assertEquals(2, resources.size());
+    assertTrue(resources.stream()
+        .anyMatch(resource -> resource.getMetadata().getName().equals("owned-secret")));
+    assertTrue(resources.stream()
+        .anyMatch(resource -> resource.getMetadata().getName().equals("owned-service")));
+  }
+
+  @Test
+  void resourcesWithoutTheStackGresLabel_shouldBeIgnored() {
+    createSecret("unlabeled-secret", "owner-uid", false);
+
+    assertEquals(0, cache.getResourcesByOwnerUid("owner-uid").orElseThrow().size());
+  }
+
+  @Test
+  void onlyStatefulSetPods_shouldBeCached() {
+    createPod("cluster-0", Map.of(
+        StackGresContext.APP_KEY, StackGresContext.APP_NAME,
+        StackGresContext.CLUSTER_KEY, StackGresContext.RIGHT_VALUE));
+    createPod("backup-job-pod", CLUSTER_LABELS);
+
+    List<HasMetadata> resources = cache.getResourcesByOwnerUid("sts-uid").orElseThrow();
+
+    assertEquals(1, resources.size());
+    assertEquals("cluster-0", resources.get(0).getMetadata().getName());
+  }
+
+  @Test
+  void resourcesCreatedLater_shouldBeFoundOnceWatched() throws Exception {
+    assertEquals(0, cache.getResourcesByOwnerUid("owner-uid").orElseThrow().size());
+
+    createSecret("owned-secret", "owner-uid", true);
+
+    final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+    while (cache.getResourcesByOwnerUid("owner-uid").orElseThrow().isEmpty()
+        && System.currentTimeMillis() < deadline) {
+      Thread.sleep(50);
+    }
+    assertEquals(1, cache.getResourcesByOwnerUid("owner-uid").orElseThrow().size());
+  }
+
+  private void createSecret(String name, String ownerUid, boolean labeled) {
+    server.getClient().secrets().inNamespace(NAMESPACE).create(new SecretBuilder()
+        .withNewMetadata()
+        .withName(name)
+        .withLabels(labeled
+            ? CLUSTER_LABELS
+            : Map.of())
+        .withOwnerReferences(ownerReference(ownerUid))
+        .endMetadata()
+        .build());
+  }
+
+  private void createPod(String name, Map<String, String> labels) {
+    server.getClient().pods().inNamespace(NAMESPACE).create(new PodBuilder()
+        .withNewMetadata()
+        .withName(name)
+        .withLabels(labels)
+        .withOwnerReferences(ownerReference("sts-uid"))
+        .endMetadata()
+        .build());
+  }
+
+  private static OwnerReference ownerReference(String uid) {
+    return new OwnerReferenceBuilder()
+        .withKind(StackGresCluster.KIND)
+        .withName("cluster")
+        .withUid(uid)
+        .build();
+  }
+
+}
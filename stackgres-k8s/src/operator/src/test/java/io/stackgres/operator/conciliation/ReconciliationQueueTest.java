@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2019 OnGres, Inc.
+ * SPDX-License-Identifier: AGPL-3.0-or-later
+ */
+
+package io.stackgres.operator.conciliation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ReconciliationQueueTest {
+
+  private ReconciliationQueue queue;
+
+  @AfterEach
+  void tearDown() {
+    if (queue != null) {
+      queue.stop();
+    }
+  }
+
+  @Test
+  void keys_shouldBeSplitInNamespaceAndName() {
+    String key = ReconciliationQueue.key("namespace", "name");
+
+    assertEquals("namespace", ReconciliationQueue.namespace(key));
+    assertEquals("name", ReconciliationQueue.name(key));
+  }
+
+  @Test
+  void pendingKeys_shouldBeDeduplicated() throws Exception {
+    List<String> processed = new CopyOnWriteArrayList<>();
+    CountDownLatch processedLatch = new CountDownLatch(2);
+    queue = createQueue(key -> {
+      processed.add(key);
+      processedLatch.countDown();
+      return true;
+    });
+
+    queue.add("ns/a");
+    queue.add("ns/a");
+    queue.add("ns/b");
+    queue.add("ns/a");
+    assertEquals(2, queue.size());
+
+    queue.start(1);
+    assertTrue(processedLatch.await(5, TimeUnit.SECONDS));
+    Thread.sleep(200);
+
+    assertEquals(List.of("ns/a", "ns/b"), processed);
+  }
+
+  @Test
+  void differentKeys_shouldBeProcessedInParallel() throws Exception {
+    CountDownLatch bothRunning = new CountDownLatch(2);
+    CountDownLatch release = new CountDownLatch(1);
+    queue = createQueue(key -> {
+      bothRunning.countDown();
+      await(release);
+      return true;
+    });
+    queue.start(2);
+
+    queue.add("ns/slow");
+    queue.add("ns/other");
+
+    assertTrue(bothRunning.await(5, TimeUnit.SECONDS));
+    release.countDown();
+  }
+
+  @Test
+  void sameKey_shouldNeverBeProcessedConcurrently() throws Exception {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    CountDownLatch firstStarted = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch processedTwice = new CountDownLatch(2);
+    queue = createQueue(key -> {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      firstStarted.countDown();
+      await(release);
+      running.decrementAndGet();
+      processedTwice.countDown();
+      return true;
+    });
+    queue.start(4);
+
+    queue.add("ns/a");
+    assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+    queue.add("ns/a");
+    Thread.sleep(200);
+    release.countDown();
+
+    assertTrue(processedTwice.await(5, TimeUnit.SECONDS));
+    assertEquals(1, maxRunning.get());
+  }
+
+  @Test
+  void failedKeys_shouldBeRequeuedWithBackoff() throws Exception {
+    AtomicInteger attempts = new AtomicInteger();
+    CountDownLatch succeeded = new CountDownLatch(1);
+    queue = createQueue(key -> {
+      if (attempts.incrementAndGet() < 3) {
+        return false;
+      }
+      succeeded.countDown();
+      return true;
+    });
+    queue.start(1);
+
+    queue.add("ns/a");
+
+    assertTrue(succeeded.await(5, TimeUnit.SECONDS));
+    assertEquals(3, attempts.get());
+  }
+
+  @Test
+  void backoffDelay_shouldGrowExponentiallyUpToTheMaximum() {
+    queue = new ReconciliationQueue("test", key -> true,
+        Duration.ofSeconds(1), Duration.ofSeconds(10));
+
+    assertEquals(Duration.ofSeconds(1), queue.getDelay(1));
+    assertEquals(Duration.ofSeconds(2), queue.getDelay(2));
+    assertEquals(Duration.ofSeconds(8), queue.getDelay(4));
+    assertEquals(Duration.ofSeconds(10), queue.getDelay(5));
+    assertEquals(Duration.ofSeconds(10), queue.getDelay(100));
+  }
+
+  private ReconciliationQueue createQueue(Predicate<String> handler) {
+    return new ReconciliationQueue("test", handler,
+        Duration.ofMillis(10), Duration.ofMillis(100));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
@@ -24,7 +24,6 @@ import io.stackgres.operator.conciliation.Conciliator;
 import io.stackgres.operator.conciliation.ConciliatorTest;
 import io.stackgres.operator.conciliation.DeployedResourcesScanner;
 import io.stackgres.operator.conciliation.ReconciliationResult;
-import io.stackgres.operator.conciliation.RequiredResourceGenerator;
 import io.stackgres.testutil.JsonUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -39,9 +38,6 @@ class DistributedLogsConciliatorTest extends ConciliatorTest<StackGresDistribute
   private static final StackGresDistributedLogs distributedLogs = JsonUtil
       .readFromJson("distributedlogs/default.json", StackGresDistributedLogs.class);
 
-  @Mock
-  private RequiredResourceGenerator<StackGresDistributedLogs> requiredResourceGenerator;
-
   @Mock
   private DeployedResourcesScanner<StackGresDistributedLogs> deployedResourcesScanner;
 
@@ -56,14 +52,12 @@ class DistributedLogsConciliatorTest extends ConciliatorTest<StackGresDistribute
   @Override
   protected Conciliator<StackGresDistributedLogs> buildConciliator(List<HasMetadata> required,
                                                                    List<HasMetadata> deployed) {
-    when(requiredResourceGenerator.getRequiredResources(distributedLogs))
-        .thenReturn(required);
     when(deployedResourcesScanner.getDeployedResources(distributedLogs))
         .thenReturn(deployed);
 
     final DistributedLogsConciliator clusterConciliator =
         new DistributedLogsConciliator(statusManager);
-    clusterConciliator.setRequiredResourceGenerator(requiredResourceGenerator);
+    clusterConciliator.setRequiredResourceGenerator(config -> required);
     clusterConciliator.setDeployedResourcesScanner(deployedResourcesScanner);
     clusterConciliator.setResourceComparator(resourceComparator);
     return clusterConciliator;